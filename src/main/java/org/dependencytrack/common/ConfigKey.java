@@ -19,6 +19,21 @@ public enum ConfigKey implements Config.Key {
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_LOCK_BUCKETS("repo.meta.analyzer.cacheStampedeBlocker.lock.buckets", 1000),
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_MAX_ATTEMPTS("repo.meta.analyzer.cacheStampedeBlocker.max.attempts", 10),
     SYSTEM_REQUIREMENT_CHECK_ENABLED("system.requirement.check.enabled", true),
+    BOM_UPLOAD_PROCESSING_STREAMING_ENABLED("bom.upload.processing.streaming.enabled", false),
+    BOM_UPLOAD_QUEUE_MAX_SIZE("bom.upload.queue.max.size", 100),
+    BOM_UPLOAD_QUEUE_RETRY_AFTER_SECONDS("bom.upload.queue.retry.after.seconds", 30),
+    VULN_SCAN_RESULT_PROCESSING_BATCH_SIZE("vuln.scan.result.processing.batch.size", 100),
+    VULN_SCAN_RESULT_PROCESSING_BATCH_LINGER_MS("vuln.scan.result.processing.batch.linger.ms", 500),
+    VULN_SCAN_COMPLETION_FLUSH_INTERVAL_MS("vuln.scan.completion.flush.interval.ms", 1000),
+    VULNERABILITY_LOOKUP_CACHE_MAX_SIZE("vulnerability.lookup.cache.max.size", 10000),
+    METRICS_DELTA_UPDATE_INTERVAL_MS("metrics.delta.update.interval.ms", 10000),
+    METRICS_PORTFOLIO_UPDATE_CONCURRENCY("metrics.portfolio.update.concurrency", 0),
+    VULNERABILITY_ALIAS_INDEX_MAX_SIZE("vulnerability.alias.index.max.size", 10000),
+    METRICS_RETENTION_RAW_DAYS("metrics.retention.raw.days", 30),
+    METRICS_RETENTION_DAILY_DAYS("metrics.retention.daily.days", 365),
+    METRICS_CURRENT_CACHE_MAX_SIZE("metrics.current.cache.max.size", 10000),
+    POLICY_EVALUATION_CONCURRENCY("policy.evaluation.concurrency", 0),
+    POLICY_EVALUATION_QUEUE_MAX_SIZE("policy.evaluation.queue.max.size", 100),
     APPLICATION_ID("application.id", "dependencytrack-apiserver"),
     KAFKA_BOOTSTRAP_SERVERS("kafka.bootstrap.servers", null),
     KAFKA_AUTO_OFFSET_RESET("kafka.auto.offset.reset", "earliest"),
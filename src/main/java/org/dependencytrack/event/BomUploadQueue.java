@@ -0,0 +1,200 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.event;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.event.framework.Event;
+import org.apache.commons.io.IOUtils;
+import org.dependencytrack.common.ConfigKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A durable queue for uploaded BOMs.
+ * <p>
+ * Instead of keeping entire BOMs in memory until they are processed, uploads are written
+ * to the data directory in compressed form, and {@link BomUploadEvent}s only reference the respective file.
+ * Uploads that have not been processed before the application was stopped are re-queued
+ * via {@link #recover()} upon startup.
+ * <p>
+ * The number of uploads that may be pending at the same time is limited via
+ * {@link ConfigKey#BOM_UPLOAD_QUEUE_MAX_SIZE}.
+ *
+ * @since 4.8.0
+ */
+public final class BomUploadQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(BomUploadQueue.class);
+    private static final String FILE_EXTENSION = ".bom.gz";
+    private static final String TEMP_FILE_EXTENSION = ".tmp";
+    private static final BomUploadQueue INSTANCE = new BomUploadQueue(
+            new File(Config.getInstance().getDataDirectorty(), "bom-uploads").toPath(),
+            Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_QUEUE_MAX_SIZE));
+
+    private final Path directory;
+    private final int maxSize;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    BomUploadQueue(final Path directory, final int maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public static BomUploadQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Store a BOM and create a {@link BomUploadEvent} for it, if the queue has capacity left.
+     * <p>
+     * The returned event is <em>not</em> dispatched yet.
+     *
+     * @param projectUuid The {@link UUID} of the project the BOM was uploaded for
+     * @param bomStream   {@link InputStream} to read the BOM from
+     * @return A {@link BomUploadEvent} referencing the stored BOM,
+     * or {@link Optional#empty()} when the maximum number of pending uploads has been reached
+     * @throws IOException When storing the BOM failed
+     */
+    public Optional<BomUploadEvent> offer(final UUID projectUuid, final InputStream bomStream) throws IOException {
+        if (pending.incrementAndGet() > maxSize) {
+            pending.decrementAndGet();
+            return Optional.empty();
+        }
+
+        try {
+            Files.createDirectories(directory);
+            final UUID token = UUID.randomUUID();
+            final Path tempFile = directory.resolve(fileName(token, projectUuid) + TEMP_FILE_EXTENSION);
+            try (final OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                IOUtils.copy(bomStream, outputStream);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            // Only expose completely written files to recover().
+            final Path file = Files.move(tempFile, directory.resolve(fileName(token, projectUuid)), StandardCopyOption.ATOMIC_MOVE);
+
+            final var event = new BomUploadEvent(projectUuid, file.toFile());
+            event.setChainIdentifier(token);
+            return Optional.of(event);
+        } catch (IOException | RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the BOM referenced by a given {@link BomUploadEvent}.
+     *
+     * @param event The {@link BomUploadEvent} to read the BOM for
+     * @return The BOM
+     * @throws IOException When reading the BOM failed
+     */
+    public byte[] read(final BomUploadEvent event) throws IOException {
+        try (final InputStream inputStream = new GZIPInputStream(Files.newInputStream(event.getFile().toPath()))) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+
+    /**
+     * Remove the BOM referenced by a given {@link BomUploadEvent} from the queue,
+     * freeing up capacity for new uploads.
+     *
+     * @param event The {@link BomUploadEvent} whose processing has completed
+     */
+    public void complete(final BomUploadEvent event) {
+        try {
+            if (Files.deleteIfExists(event.getFile().toPath())) {
+                pending.decrementAndGet();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete processed BOM upload " + event.getFile(), e);
+        }
+    }
+
+    /**
+     * Re-queue all uploads that have been stored, but not processed before.
+     * <p>
+     * Recovered uploads retain their original token, and count towards the maximum queue size.
+     */
+    public void recover() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        final List<BomUploadEvent> events = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMP_FILE_EXTENSION)) {
+                    // Left behind by an upload that was interrupted while being stored.
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!fileName.endsWith(FILE_EXTENSION)) {
+                    continue;
+                }
+
+                final String[] nameParts = fileName.substring(0, fileName.length() - FILE_EXTENSION.length()).split("_");
+                try {
+                    final var event = new BomUploadEvent(UUID.fromString(nameParts[1]), file.toFile());
+                    event.setChainIdentifier(UUID.fromString(nameParts[0]));
+                    events.add(event);
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    LOGGER.warn("Ignoring unrecognized file " + file + " in BOM upload directory");
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to recover pending BOM uploads from " + directory, e);
+            return;
+        }
+
+        if (!events.isEmpty()) {
+            LOGGER.info("Re-queueing " + events.size() + " BOM upload(s) that have not been processed yet");
+        }
+        for (final BomUploadEvent event : events) {
+            pending.incrementAndGet();
+            Event.dispatch(event);
+        }
+    }
+
+    int getPendingCount() {
+        return pending.get();
+    }
+
+    private static String fileName(final UUID token, final UUID projectUuid) {
+        return token + "_" + projectUuid + FILE_EXTENSION;
+    }
+
+}
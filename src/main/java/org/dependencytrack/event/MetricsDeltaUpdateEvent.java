@@ -0,0 +1,41 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.event;
+
+import alpine.event.framework.Event;
+import alpine.event.framework.SingletonCapableEvent;
+
+import java.util.UUID;
+
+/**
+ * Defines an {@link Event} used to trigger incremental metrics updates for components
+ * recorded in the {@link org.dependencytrack.metrics.MetricsDeltaQueue}.
+ *
+ * @since 4.8.0
+ */
+public class MetricsDeltaUpdateEvent extends SingletonCapableEvent {
+
+    public static final UUID CHAIN_IDENTIFIER = UUID.fromString("a9c5e1b7-3a52-4f0e-9d84-7c1f2b6e0d43");
+
+    public MetricsDeltaUpdateEvent() {
+        this.setChainIdentifier(CHAIN_IDENTIFIER);
+        this.setSingleton(true);
+    }
+
+}
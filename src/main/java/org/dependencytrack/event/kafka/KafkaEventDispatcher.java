@@ -1,13 +1,15 @@
 package org.dependencytrack.event.kafka;
 
+import alpine.common.metrics.Metrics;
 import alpine.event.framework.Event;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.errors.SerializationException;
-import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
 import org.dependencytrack.event.ComponentRepositoryMetaAnalysisEvent;
 import org.dependencytrack.event.ComponentVulnerabilityAnalysisEvent;
 import org.dependencytrack.event.GitHubAdvisoryMirrorEvent;
@@ -16,17 +18,26 @@ import org.dependencytrack.event.OsvMirrorEvent;
 import org.dependencytrack.model.Vulnerability;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An {@link Event} dispatcher that wraps a Kafka {@link Producer}.
  */
 public class KafkaEventDispatcher {
 
+    private static final Timer BATCH_TIMER = Timer.builder("kafka_event_dispatch_batch")
+            .description("Time taken for all records of a batch dispatch to be acknowledged")
+            .register(Metrics.getRegistry());
+
     private final Producer<byte[], byte[]> producer;
 
     public KafkaEventDispatcher() {
@@ -57,19 +68,7 @@ public class KafkaEventDispatcher {
      * @see org.apache.kafka.clients.producer.KafkaProducer#send(ProducerRecord, Callback)
      */
     public Future<RecordMetadata> dispatchAsync(final Event event, final Callback callback) {
-        if (event instanceof final ComponentVulnerabilityAnalysisEvent e) {
-            return dispatchAsyncInternal(KafkaEventConverter.convert(e), callback);
-        } else if (event instanceof final ComponentRepositoryMetaAnalysisEvent e) {
-            return dispatchAsyncInternal(KafkaEventConverter.convert(e), callback);
-        } else if (event instanceof final OsvMirrorEvent e) {
-            return dispatchAsyncInternal(new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.OSV.name(), e.ecosystem(), null), callback);
-        } else if (event instanceof NistMirrorEvent) {
-            return dispatchAsyncInternal(new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.NVD.name(), "", null), callback);
-        } else if (event instanceof GitHubAdvisoryMirrorEvent) {
-            return dispatchAsyncInternal(new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.GITHUB.name(), "", null), callback);
-        }
-
-        throw new IllegalArgumentException("Cannot publish event of type " + event.getClass().getName() + " to Kafka");
+        return dispatchAsyncInternal(convert(event), callback);
     }
 
     /**
@@ -84,6 +83,53 @@ public class KafkaEventDispatcher {
         return dispatchAsync(event, null);
     }
 
+    /**
+     * Asynchronously dispatch multiple {@link Event}s to Kafka.
+     * <p>
+     * Records are sent in iteration order of {@code events}. Topic names and {@link Serializer}s are only
+     * resolved once per topic for the entire batch, rather than once per record.
+     * The time it takes until all records of the batch have been acknowledged is recorded
+     * in the {@code kafka_event_dispatch_batch} timer.
+     *
+     * @param events The {@link Event}s to dispatch
+     * @return A {@link List} of {@link Future}s holding a {@link RecordMetadata} instance for each dispatched event,
+     * in the same order as {@code events}. A {@link Future} holds {@code null} when the respective event was not dispatched.
+     * @throws IllegalArgumentException When dispatching any of the given {@link Event}s to Kafka is not supported
+     */
+    public List<Future<RecordMetadata>> dispatchAllAsync(final Collection<? extends Event> events) {
+        final var kafkaEvents = new ArrayList<KafkaEvent<?, ?>>(events.size());
+        for (final Event event : events) {
+            kafkaEvents.add(convert(event));
+        }
+
+        final var futures = new ArrayList<Future<RecordMetadata>>(kafkaEvents.size());
+        if (kafkaEvents.isEmpty()) {
+            // No callback would ever be invoked to stop the timer.
+            return futures;
+        }
+
+        final var serializers = new HashMap<KafkaTopics.Topic<?, ?>, TopicSerializer<?, ?>>();
+        final Timer.Sample timerSample = Timer.start();
+        final var pending = new AtomicInteger(kafkaEvents.size());
+        final Callback callback = (metadata, exception) -> {
+            if (pending.decrementAndGet() == 0) {
+                timerSample.stop(BATCH_TIMER);
+            }
+        };
+
+        for (final KafkaEvent<?, ?> kafkaEvent : kafkaEvents) {
+            if (kafkaEvent == null) {
+                callback.onCompletion(null, null);
+                futures.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+
+            futures.add(producer.send(toProducerRecord(kafkaEvent, serializers), callback));
+        }
+
+        return futures;
+    }
+
     /**
      * Dispatch a given {@link Event} to Kafka, and wait for the broker to acknowledge it.
      * <p>
@@ -124,28 +170,69 @@ public class KafkaEventDispatcher {
             return CompletableFuture.completedFuture(null);
         }
 
+        return producer.send(toProducerRecord(event, TopicSerializer.of(event.topic())), callback);
+    }
+
+    private static KafkaEvent<?, ?> convert(final Event event) {
+        if (event instanceof final ComponentVulnerabilityAnalysisEvent e) {
+            return KafkaEventConverter.convert(e);
+        } else if (event instanceof final ComponentRepositoryMetaAnalysisEvent e) {
+            return KafkaEventConverter.convert(e);
+        } else if (event instanceof final OsvMirrorEvent e) {
+            return new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.OSV.name(), e.ecosystem(), null);
+        } else if (event instanceof NistMirrorEvent) {
+            return new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.NVD.name(), "", null);
+        } else if (event instanceof GitHubAdvisoryMirrorEvent) {
+            return new KafkaEvent<>(KafkaTopics.VULNERABILITY_MIRROR_COMMAND, Vulnerability.Source.GITHUB.name(), "", null);
+        }
+
+        throw new IllegalArgumentException("Cannot publish event of type " + event.getClass().getName() + " to Kafka");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> ProducerRecord<byte[], byte[]> toProducerRecord(final KafkaEvent<K, V> event,
+                                                                          final Map<KafkaTopics.Topic<?, ?>, TopicSerializer<?, ?>> serializers) {
+        final var serializer = (TopicSerializer<K, V>) serializers.computeIfAbsent(event.topic(), topic -> TopicSerializer.of(event.topic()));
+        return toProducerRecord(event, serializer);
+    }
+
+    private static <K, V> ProducerRecord<byte[], byte[]> toProducerRecord(final KafkaEvent<K, V> event, final TopicSerializer<K, V> serializer) {
         final byte[] keyBytes;
-        try (final Serde<K> keySerde = event.topic().keySerde()) {
-            keyBytes = keySerde.serializer().serialize(event.topic().name(), event.key());
+        try {
+            keyBytes = serializer.keySerializer().serialize(serializer.topicName(), event.key());
         } catch (SerializationException e) {
             throw new KafkaException("Failed to serialize key", e);
         }
 
         final byte[] valueBytes;
-        try (final Serde<V> valueSerde = event.topic().valueSerde()) {
-            valueBytes = valueSerde.serializer().serialize(event.topic().name(), event.value());
+        try {
+            valueBytes = serializer.valueSerializer().serialize(serializer.topicName(), event.value());
         } catch (SerializationException e) {
             throw new KafkaException("Failed to serialize value", e);
         }
 
-        final var record = new ProducerRecord<>(event.topic().name(), keyBytes, valueBytes);
+        final var record = new ProducerRecord<>(serializer.topicName(), keyBytes, valueBytes);
         if (event.headers() != null) {
             for (final Map.Entry<String, String> header : event.headers().entrySet()) {
                 record.headers().add(header.getKey(), header.getValue().getBytes(StandardCharsets.UTF_8));
             }
         }
 
-        return producer.send(record, callback);
+        return record;
+    }
+
+    /**
+     * Resolved name and {@link Serializer}s of a {@link KafkaTopics.Topic}.
+     * <p>
+     * Resolving the topic name involves a configuration lookup, which is worth avoiding
+     * when many records are sent to the same topic.
+     */
+    private record TopicSerializer<K, V>(String topicName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+
+        private static <K, V> TopicSerializer<K, V> of(final KafkaTopics.Topic<K, V> topic) {
+            return new TopicSerializer<>(topic.name(), topic.keySerde().serializer(), topic.valueSerde().serializer());
+        }
+
     }
 
 }
@@ -13,12 +13,16 @@ import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
 import org.dependencytrack.RequirementsVerifier;
 import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.VulnerabilityScan;
+import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.policy.PolicyEvaluationExecutor;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Properties;
 
 public class KafkaStreamsInitializer implements ServletContextListener {
@@ -44,6 +48,7 @@ public class KafkaStreamsInitializer implements ServletContextListener {
             STREAMS_METRICS.bindTo(Metrics.getRegistry());
         }
 
+        resumePendingPolicyEvaluations();
         STREAMS.start();
     }
 
@@ -59,6 +64,23 @@ public class KafkaStreamsInitializer implements ServletContextListener {
             // Close streams, but wait up to 5 seconds for it to process
             // any queued events. Not sure what an appropriate timeout is.
             STREAMS.close(Duration.of(5, ChronoUnit.SECONDS));
+
+            // Policy evaluations are no longer submitted once streams are closed.
+            PolicyEvaluationExecutor.getInstance().shutdown(Duration.of(5, ChronoUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Submit policy evaluations of completed {@link VulnerabilityScan}s that did not complete before the last shutdown.
+     */
+    private static void resumePendingPolicyEvaluations() {
+        final List<VulnerabilityScan> pendingScans;
+        try (final var qm = new QueryManager()) {
+            pendingScans = qm.getVulnerabilityScansPendingPolicyEvaluation();
+        }
+        if (!pendingScans.isEmpty()) {
+            LOGGER.info("Resuming policy evaluation of %d completed vulnerability scans".formatted(pendingScans.size()));
+            pendingScans.forEach(KafkaStreamsTopologyFactory::evaluatePoliciesAndUpdateMetrics);
         }
     }
 
@@ -1,5 +1,6 @@
 package org.dependencytrack.event.kafka;
 
+import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
@@ -9,23 +10,28 @@ import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Repartitioned;
-import org.datanucleus.PropertyNames;
 import org.dependencytrack.event.ComponentMetricsUpdateEvent;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.event.kafka.processor.MirrorVulnerabilityProcessor;
 import org.dependencytrack.event.kafka.processor.RepositoryMetaResultProcessor;
-import org.dependencytrack.event.kafka.processor.VulnerabilityScanResultProcessor;
+import org.dependencytrack.event.kafka.processor.VulnerabilityScanCompletionProcessorSupplier;
+import org.dependencytrack.event.kafka.processor.VulnerabilityScanResultProcessorSupplier;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.VulnerabilityScan;
 import org.dependencytrack.persistence.QueryManager;
-import org.dependencytrack.policy.PolicyEngine;
+import org.dependencytrack.policy.PolicyEvaluationExecutor;
 import org.hyades.proto.vulnanalysis.v1.ScanKey;
 import org.hyades.proto.vulnanalysis.v1.ScanResult;
 
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 class KafkaStreamsTopologyFactory {
 
+    private static final Logger LOGGER = Logger.getLogger(KafkaStreamsTopologyFactory.class);
+
     Topology createTopology() {
         final var streamsBuilder = new StreamsBuilder();
 
@@ -41,59 +47,34 @@ class KafkaStreamsTopologyFactory {
         // Re-key the result stream to component UUIDs to ensure that results
         // for the same component are processed in a serial fashion.
         //
-        // Results with status COMPLETE are re-keyed back to scan keys
-        // and forwarded, all other results are dropped after successful processing.
+        // Results are buffered and processed in batches, see VulnerabilityScanResultProcessor for details.
+        // Once its batch has completed, every buffered result is forwarded, regardless of its status
+        // and including results that failed to process, so that the arrival of each is recorded below.
         final KStream<UUID, ScanResult> processedVulnScanResultStream = vulnScanResultStream
                 .selectKey((scanKey, scanResult) -> UUID.fromString(scanKey.getComponentUuid()),
                         Named.as("re-key_vuln_scan_result_to_component_uuid"))
                 .repartition(Repartitioned
                         .with(Serdes.UUID(), KafkaTopics.VULN_ANALYSIS_RESULT.valueSerde())
                         .withName("vuln-scan-result-by-component-uuid"))
-                .processValues(VulnerabilityScanResultProcessor::new, Named.as("process_vuln_scan_result"));
+                .process(new VulnerabilityScanResultProcessorSupplier(), Named.as("process_vuln_scan_result"));
 
         // Re-key processed results to their respective scan token, and record their arrival.
+        // Arrivals are counted in a state store, and only flushed to the database periodically.
+        // Only scans that completed as a result of a flush are forwarded.
         final KStream<String, VulnerabilityScan> completedVulnScanStream = processedVulnScanResultStream
                 .selectKey((componentUuid, scanResult) -> scanResult.getKey().getScanToken())
                 .repartition(Repartitioned
                         .with(Serdes.String(), KafkaTopics.VULN_ANALYSIS_RESULT.valueSerde())
                         .withName("processed-vuln-scan-result-by-scan-token"))
-                .mapValues((scanToken, scanResult) -> {
-                    try (final var qm = new QueryManager()) {
-                        qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_CACHE_L2_TYPE, "none");
-                        // Detach VulnerabilityScan objects when committing changes. Without this,
-                        // all fields except the ID field will be unloaded on commit (the object will become HOLLOW),
-                        // causing the call to getStatus() to trigger a database query behind the scenes.
-                        qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_DETACH_ALL_ON_COMMIT, "true");
-
-                        final VulnerabilityScan vulnScan = qm.recordVulnerabilityScanResult(scanToken);
-                        if (vulnScan == null || vulnScan.getStatus() != VulnerabilityScan.Status.COMPLETED) {
-                            // When the vulnerability scan is not completed, we don't care about it.
-                            // We'll filter out nulls in the next filter step.
-                            return null;
-                        }
-
-                        return vulnScan;
-                    }
-                }, Named.as("record_processed_vuln_scan_result"))
-                .filter((scanToken, vulnScan) -> vulnScan != null,
-                        Named.as("filter_completed_vuln_scans"));
+                .process(new VulnerabilityScanCompletionProcessorSupplier(), Named.as("record_processed_vuln_scan_result"));
 
+        // Policy evaluation may take a long time for large projects, and is thus executed asynchronously,
+        // in order to not block the stream thread. VulnerabilityScanResultProcessor marked components whose
+        // findings changed, such that project metrics only need to re-calculate metrics of those components.
+        // Because metrics include policy violations, they are only updated once policy evaluation completed.
         completedVulnScanStream
-                .peek((scanToken, vulnScan) -> {
-                    final var policyEngine = new PolicyEngine();
-                    switch (vulnScan.getTargetType()) {
-                        case COMPONENT -> policyEngine.evaluate(vulnScan.getTargetIdentifier());
-                        case PROJECT -> policyEngine.evaluateProject(vulnScan.getTargetIdentifier());
-                    }
-                }, Named.as("execute_policy_evaluation"))
-                .foreach((scanToken, vulnScan) -> {
-                    final Event metricsUpdateEvent = switch (vulnScan.getTargetType()) {
-                        case COMPONENT -> new ComponentMetricsUpdateEvent(vulnScan.getTargetIdentifier());
-                        case PROJECT -> new ProjectMetricsUpdateEvent(vulnScan.getTargetIdentifier());
-                    };
-
-                    Event.dispatch(metricsUpdateEvent);
-                }, Named.as("trigger_metrics_update"));
+                .foreach((scanToken, vulnScan) -> evaluatePoliciesAndUpdateMetrics(vulnScan),
+                        Named.as("execute_policy_evaluation_and_trigger_metrics_update"));
 
         streamsBuilder
                 .stream(KafkaTopics.REPO_META_ANALYSIS_RESULT.name(),
@@ -110,4 +91,45 @@ class KafkaStreamsTopologyFactory {
         return streamsBuilder.build(streamsProperties);
     }
 
+    /**
+     * Asynchronously evaluate policies for the target of a completed {@link VulnerabilityScan},
+     * and trigger a metrics update for it once the evaluation completed.
+     * <p>
+     * Offsets of completed scans are committed before their evaluation completes. Scans are thus marked as
+     * pending policy evaluation when they complete, and the mark is only cleared once the metrics update has
+     * been triggered. Evaluations that are aborted on shutdown are submitted again on the next startup.
+     *
+     * @param vulnScan The completed {@link VulnerabilityScan}
+     */
+    static void evaluatePoliciesAndUpdateMetrics(final VulnerabilityScan vulnScan) {
+        final PolicyEvaluationExecutor executor = PolicyEvaluationExecutor.getInstance();
+        final CompletableFuture<List<PolicyViolation>> policyEvaluation = switch (vulnScan.getTargetType()) {
+            case COMPONENT -> executor.evaluateComponent(vulnScan.getTargetIdentifier());
+            case PROJECT -> executor.evaluateProject(vulnScan.getTargetIdentifier());
+        };
+        final Event metricsUpdateEvent = switch (vulnScan.getTargetType()) {
+            case COMPONENT -> new ComponentMetricsUpdateEvent(vulnScan.getTargetIdentifier());
+            case PROJECT -> new ProjectMetricsUpdateEvent(vulnScan.getTargetIdentifier());
+        };
+
+        policyEvaluation.whenComplete((violations, throwable) -> {
+            if (throwable != null && executor.isAborted()) {
+                LOGGER.warn("Policy evaluation for %s %s was aborted; It will be retried on the next startup"
+                        .formatted(vulnScan.getTargetType(), vulnScan.getTargetIdentifier()));
+                return;
+            } else if (throwable != null) {
+                LOGGER.error("Failed to evaluate policies for %s %s"
+                        .formatted(vulnScan.getTargetType(), vulnScan.getTargetIdentifier()), throwable);
+            }
+            Event.dispatch(metricsUpdateEvent);
+
+            try (final var qm = new QueryManager()) {
+                qm.recordVulnerabilityScanPolicyEvaluation(vulnScan.getToken());
+            } catch (Exception e) {
+                LOGGER.warn("Failed to record policy evaluation of vulnerability scan %s; It will be repeated on the next startup"
+                        .formatted(vulnScan.getToken()), e);
+            }
+        });
+    }
+
 }
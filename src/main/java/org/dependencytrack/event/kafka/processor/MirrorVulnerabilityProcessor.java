@@ -19,6 +19,7 @@ import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 
 import java.math.BigDecimal;
 import java.sql.Date;
@@ -94,6 +95,10 @@ public class MirrorVulnerabilityProcessor implements Processor<String, Bom, Void
                 synchronizedVulnerability.setVulnerableSoftware(reconciledVsList);
             }
             qm.persist(synchronizedVulnerability);
+
+            // The vulnerability has also been modified outside of synchronizeVulnerability, e.g. its vulnerable software.
+            // Only invalidate once all changes are committed.
+            VulnerabilityLookupCache.getInstance().invalidate(synchronizedVulnerability.getSource(), synchronizedVulnerability.getVulnId());
         } finally {
             timerSample.stop(TIMER);
         }
@@ -0,0 +1,107 @@
+package org.dependencytrack.event.kafka.processor;
+
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.ContextualProcessor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.datanucleus.PropertyNames;
+import org.dependencytrack.model.VulnerabilityScan;
+import org.dependencytrack.persistence.QueryManager;
+import org.hyades.proto.vulnanalysis.v1.ScanResult;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ContextualProcessor} that tracks the completion of {@link VulnerabilityScan}s.
+ * <p>
+ * Instead of updating the respective {@link VulnerabilityScan} for every processed {@link ScanResult},
+ * received results are counted per scan token in the {@value #STORE_NAME} state store.
+ * Counts are flushed to the database periodically, using a single transaction for all scans
+ * that received results since the last flush. {@link VulnerabilityScan}s that completed
+ * as a result of a flush are forwarded, keyed by their token.
+ * <p>
+ * Expects records to be keyed by scan token. Use {@link VulnerabilityScanCompletionProcessorSupplier}
+ * to add this processor to a topology.
+ */
+public class VulnerabilityScanCompletionProcessor extends ContextualProcessor<String, ScanResult, String, VulnerabilityScan> {
+
+    static final String STORE_NAME = "vuln-scan-received-results";
+
+    private static final Logger LOGGER = Logger.getLogger(VulnerabilityScanCompletionProcessor.class);
+    private static final Timer TIMER = Timer.builder("vuln_scan_completion_flush")
+            .description("Time taken to flush received vulnerability scan results to the database")
+            .register(Metrics.getRegistry());
+
+    private final Duration flushInterval;
+    private KeyValueStore<String, Integer> store;
+
+    VulnerabilityScanCompletionProcessor(final Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public void init(final ProcessorContext<String, VulnerabilityScan> context) {
+        super.init(context);
+        store = context.getStateStore(STORE_NAME);
+
+        // Also takes care of counts that have been restored from the changelog.
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, this::flush);
+    }
+
+    @Override
+    public void process(final Record<String, ScanResult> record) {
+        final Integer receivedResults = store.get(record.key());
+        store.put(record.key(), receivedResults == null ? 1 : receivedResults + 1);
+    }
+
+    private void flush(final long timestamp) {
+        final var receivedResultsByToken = new HashMap<String, Integer>();
+        try (final KeyValueIterator<String, Integer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                final KeyValue<String, Integer> entry = iterator.next();
+                receivedResultsByToken.put(entry.key, entry.value);
+            }
+        }
+        if (receivedResultsByToken.isEmpty()) {
+            return;
+        }
+
+        final Timer.Sample timerSample = Timer.start();
+        final List<VulnerabilityScan> updatedScans;
+        try (final var qm = new QueryManager()) {
+            qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_CACHE_L2_TYPE, "none");
+            updatedScans = qm.recordVulnerabilityScanResults(receivedResultsByToken);
+        } catch (RuntimeException e) {
+            // Counts remain in the store, and will be flushed again with the next punctuation.
+            LOGGER.error("Failed to record received results for %d vulnerability scans"
+                    .formatted(receivedResultsByToken.size()), e);
+            return;
+        } finally {
+            timerSample.stop(TIMER);
+        }
+
+        for (final Map.Entry<String, Integer> entry : receivedResultsByToken.entrySet()) {
+            store.delete(entry.getKey());
+        }
+        if (updatedScans.size() < receivedResultsByToken.size()) {
+            LOGGER.warn("Received results for %d vulnerability scans that do not exist"
+                    .formatted(receivedResultsByToken.size() - updatedScans.size()));
+        }
+
+        for (final VulnerabilityScan scan : updatedScans) {
+            if (scan.getStatus() == VulnerabilityScan.Status.COMPLETED) {
+                context().forward(new Record<>(scan.getToken(), scan, timestamp));
+            }
+        }
+    }
+
+}
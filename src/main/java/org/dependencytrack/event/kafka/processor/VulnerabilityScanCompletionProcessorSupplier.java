@@ -0,0 +1,51 @@
+package org.dependencytrack.event.kafka.processor;
+
+import alpine.Config;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.VulnerabilityScan;
+import org.hyades.proto.vulnanalysis.v1.ScanResult;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * A {@link ProcessorSupplier} for {@link VulnerabilityScanCompletionProcessor}s.
+ * <p>
+ * Takes care of registering the state store that {@link VulnerabilityScanCompletionProcessor}s
+ * use to count received {@link ScanResult}s.
+ */
+public class VulnerabilityScanCompletionProcessorSupplier implements ProcessorSupplier<String, ScanResult, String, VulnerabilityScan> {
+
+    private final Duration flushInterval;
+
+    public VulnerabilityScanCompletionProcessorSupplier() {
+        this(Duration.ofMillis(Config.getInstance().getPropertyAsInt(ConfigKey.VULN_SCAN_COMPLETION_FLUSH_INTERVAL_MS)));
+    }
+
+    /**
+     * @param flushInterval Interval in which received result counts are flushed to the database
+     */
+    public VulnerabilityScanCompletionProcessorSupplier(final Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public Processor<String, ScanResult, String, VulnerabilityScan> get() {
+        return new VulnerabilityScanCompletionProcessor(flushInterval);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        final StoreBuilder<KeyValueStore<String, Integer>> storeBuilder = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(VulnerabilityScanCompletionProcessor.STORE_NAME),
+                Serdes.String(), Serdes.Integer());
+        return Set.of(storeBuilder);
+    }
+
+}
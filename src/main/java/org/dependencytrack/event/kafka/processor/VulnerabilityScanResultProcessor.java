@@ -4,15 +4,21 @@ import alpine.common.logging.Logger;
 import alpine.common.metrics.Metrics;
 import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
-import org.apache.kafka.streams.processor.api.ContextualFixedKeyProcessor;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
 import org.apache.kafka.streams.processor.api.ContextualProcessor;
-import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
 import org.datanucleus.PropertyNames;
+import org.datanucleus.api.jdo.JDOQuery;
 import org.dependencytrack.event.kafka.KafkaEventDispatcher;
 import org.dependencytrack.event.kafka.KafkaEventHeaders;
 import org.dependencytrack.event.kafka.KafkaUtil;
-import org.dependencytrack.model.AnalyzerIdentity;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.FindingAttribution;
 import org.dependencytrack.model.Severity;
@@ -24,20 +30,31 @@ import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.notification.vo.NewVulnerabilityIdentified;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.PersistenceUtil;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 import org.hyades.proto.vulnanalysis.v1.ScanKey;
 import org.hyades.proto.vulnanalysis.v1.ScanResult;
 import org.hyades.proto.vulnanalysis.v1.ScanStatus;
 import org.hyades.proto.vulnanalysis.v1.Scanner;
 import org.hyades.proto.vulnanalysis.v1.ScannerResult;
 
+import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.dependencytrack.parser.hyades.ModelConverter.convert;
 import static org.dependencytrack.util.NotificationUtil.generateNotificationContent;
@@ -45,6 +62,7 @@ import static org.dependencytrack.util.NotificationUtil.generateNotificationTitl
 import static org.dependencytrack.util.PersistenceUtil.applyIfChanged;
 import static org.dependencytrack.util.PersistenceUtil.applyIfNonNullAndChanged;
 import static org.dependencytrack.util.VulnerabilityUtil.canBeMirrored;
+import static org.dependencytrack.util.VulnerabilityUtil.computeContentHash;
 import static org.dependencytrack.util.VulnerabilityUtil.isAuthoritativeSource;
 import static org.dependencytrack.util.VulnerabilityUtil.isMirroringEnabled;
 import static org.hyades.proto.vulnanalysis.v1.ScanStatus.SCAN_STATUS_FAILED;
@@ -52,49 +70,175 @@ import static org.hyades.proto.vulnanalysis.v1.Scanner.SCANNER_INTERNAL;
 
 /**
  * A {@link ContextualProcessor} responsible for processing {@link ScanResult}s.
+ * <p>
+ * Results are buffered in the {@value #BUFFER_STORE_NAME} state store, and processed in batches.
+ * A batch is processed once it reaches {@code maxBatchSize} results, or after {@code maxBatchLinger}
+ * has passed, whatever happens first. All vulnerabilities referenced by a batch are resolved with a single query,
+ * and all changes made by a batch are committed in a single transaction. Processed results are forwarded
+ * after their batch has completed.
+ * <p>
+ * Because the buffer is backed by a changelog topic, buffered results survive restarts and rebalances.
+ * <p>
+ * Vulnerabilities that have previously been synchronized with the exact same content are resolved
+ * via {@link VulnerabilityLookupCache}, and are neither queried nor compared field-by-field again.
+ * <p>
+ * Metrics are not calculated on the stream thread. Components whose findings changed are marked as changed
+ * along with their findings, and are queued for an incremental metrics update once the batch has been committed.
+ * <p>
+ * Use {@link VulnerabilityScanResultProcessorSupplier} to add this processor to a topology.
  */
-public class VulnerabilityScanResultProcessor extends ContextualFixedKeyProcessor<UUID, ScanResult, ScanResult> {
+public class VulnerabilityScanResultProcessor extends ContextualProcessor<UUID, ScanResult, UUID, ScanResult> {
+
+    static final String BUFFER_STORE_NAME = "vuln-scan-result-buffer";
 
     private static final Logger LOGGER = Logger.getLogger(VulnerabilityScanResultProcessor.class);
-    private static final Timer TIMER = Timer.builder("vuln_scan_result_processing")
-            .description("Time taken to process vulnerability scan results")
+    private static final Timer TIMER = Timer.builder("vuln_scan_result_batch_processing")
+            .description("Time taken to process a batch of vulnerability scan results")
+            .register(Metrics.getRegistry());
+    private static final DistributionSummary BATCH_SIZE = DistributionSummary.builder("vuln_scan_result_batch_size")
+            .description("Number of vulnerability scan results per processed batch")
             .register(Metrics.getRegistry());
 
     private final KafkaEventDispatcher eventDispatcher = new KafkaEventDispatcher();
+    private final VulnerabilityLookupCache vulnLookupCache = VulnerabilityLookupCache.getInstance();
+    private final int maxBatchSize;
+    private final Duration maxBatchLinger;
+    private KeyValueStore<String, ScanResult> buffer;
+
+    VulnerabilityScanResultProcessor(final int maxBatchSize, final Duration maxBatchLinger) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLinger = maxBatchLinger;
+    }
 
     @Override
-    public void process(final FixedKeyRecord<UUID, ScanResult> record) {
-        final UUID componentUuid = record.key();
-        final ScanResult result = record.value();
-        final ScanKey scanKey = result.getKey();
-        final VulnerabilityAnalysisLevel analysisLevel = determineAnalysisLevel(record);
+    public void init(final ProcessorContext<UUID, ScanResult> context) {
+        super.init(context);
+        buffer = context.getStateStore(BUFFER_STORE_NAME);
+
+        // Also takes care of results that have been restored from the changelog.
+        context.schedule(maxBatchLinger, PunctuationType.WALL_CLOCK_TIME, this::flush);
+    }
+
+    @Override
+    public void process(final Record<UUID, ScanResult> record) {
+        final var bufferedResult = new BufferedResult(record.key(), determineAnalysisLevel(record), record.value());
+        buffer.put(bufferedResult.bufferKey(), bufferedResult.result());
+
+        if (buffer.approximateNumEntries() >= maxBatchSize) {
+            flush(record.timestamp());
+        }
+    }
+
+    /**
+     * Process all buffered {@link ScanResult}s, forward them, and remove them from the buffer.
+     *
+     * @param timestamp Timestamp to use for forwarded records
+     */
+    private void flush(final long timestamp) {
+        final var bufferedResults = new ArrayList<BufferedResult>();
+        try (final KeyValueIterator<String, ScanResult> iterator = buffer.all()) {
+            while (iterator.hasNext()) {
+                final KeyValue<String, ScanResult> entry = iterator.next();
+                bufferedResults.add(BufferedResult.of(entry.key, entry.value));
+            }
+        }
+        if (bufferedResults.isEmpty()) {
+            return;
+        }
 
         final Timer.Sample timerSample = Timer.start();
+        try {
+            processBatch(bufferedResults);
+        } catch (RuntimeException e) {
+            // Failures may be caused by stale cache entries, e.g. for vulnerabilities
+            // that have been deleted by another instance. Failures are rare enough to
+            // not bother with figuring out which entries are affected.
+            vulnLookupCache.invalidateAll();
+            if (bufferedResults.size() == 1) {
+                logProcessingFailure(bufferedResults.get(0), e);
+            } else {
+                // Isolate the result(s) that caused the failure, so that the remaining ones can still be processed.
+                LOGGER.warn("Failed to process batch of %d scan results; Processing them individually"
+                        .formatted(bufferedResults.size()), e);
+                for (final BufferedResult bufferedResult : bufferedResults) {
+                    try {
+                        processBatch(List.of(bufferedResult));
+                    } catch (RuntimeException ex) {
+                        logProcessingFailure(bufferedResult, ex);
+                    }
+                }
+            }
+        } finally {
+            timerSample.stop(TIMER);
+            BATCH_SIZE.record(bufferedResults.size());
+        }
+
+        for (final BufferedResult bufferedResult : bufferedResults) {
+            final var headers = new RecordHeaders();
+            headers.add(KafkaEventHeaders.VULN_ANALYSIS_LEVEL, bufferedResult.analysisLevel().name().getBytes(StandardCharsets.UTF_8));
+            context().forward(new Record<>(bufferedResult.componentUuid(), bufferedResult.result(), timestamp, headers));
+            buffer.delete(bufferedResult.bufferKey());
+        }
+    }
+
+    private void processBatch(final List<BufferedResult> bufferedResults) {
         try (final var qm = new QueryManager()) {
             qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_CACHE_L2_TYPE, "none");
 
-            final Component component = qm.getObjectByUuid(Component.class, componentUuid, List.of(Component.FetchGroup.IDENTITY.name()));
-            if (component == null) {
-                LOGGER.warn("Received result for component %s, but it does not exist (scanKey: %s)"
-                        .formatted(componentUuid, prettyPrint(scanKey)));
+            final Map<UUID, Component> componentsByUuid = getComponents(qm.getPersistenceManager(),
+                    bufferedResults.stream().map(BufferedResult::componentUuid).collect(Collectors.toSet()));
+
+            final var reportedResults = new ArrayList<ReportedResult>();
+            for (final BufferedResult bufferedResult : bufferedResults) {
+                final ScanKey scanKey = bufferedResult.result().getKey();
+                final Component component = componentsByUuid.get(bufferedResult.componentUuid());
+                if (component == null) {
+                    LOGGER.warn("Received result for component %s, but it does not exist (scanKey: %s)"
+                            .formatted(bufferedResult.componentUuid(), prettyPrint(scanKey)));
+                    continue;
+                }
+
+                for (final ScannerResult scannerResult : bufferedResult.result().getScannerResultsList()) {
+                    if (isProcessable(component, scanKey, scannerResult)) {
+                        reportedResults.add(new ReportedResult(component, scanKey, scannerResult, bufferedResult.analysisLevel()));
+                    }
+                }
+            }
+            if (reportedResults.isEmpty()) {
                 return;
             }
 
-            for (final ScannerResult scannerResult : result.getScannerResultsList()) {
-                processScannerResult(qm, component, scanKey, scannerResult, analysisLevel);
+            // It is possible that the same vulnerability is reported for multiple components in parallel,
+            // causing unique constraint violations when attempting to INSERT into the VULNERABILITY table.
+            // In such cases, we can get away with simply retrying to SELECT or INSERT again.
+            final var cacheableVulns = new ArrayList<CacheableVulnerability>();
+            final var severityChangedVulnIds = new HashSet<Long>();
+            final List<NewFinding> newFindings = qm.runInRetryableTransaction(() -> {
+                cacheableVulns.clear();
+                severityChangedVulnIds.clear();
+                final List<SyncedResult> syncedResults = syncVulnerabilities(qm, reportedResults, cacheableVulns, severityChangedVulnIds);
+                final List<NewFinding> batchNewFindings = addVulnerabilities(qm, syncedResults);
+
+                // Components must be marked as changed along with their findings. Should marking them fail after
+                // the findings have been committed, re-processing the results would not identify them as new again.
+                qm.recordComponentMetricsChange(batchNewFindings.stream().map(newFinding -> newFinding.component().getId()).collect(Collectors.toSet()));
+                qm.recordVulnerabilityMetricsChange(severityChangedVulnIds);
+                return batchNewFindings;
+            }, PersistenceUtil::isUniqueConstraintViolation);
+
+            // Only populate the cache once the transaction has been committed.
+            for (final CacheableVulnerability cacheableVuln : cacheableVulns) {
+                final Vulnerability vuln = cacheableVuln.vulnerability();
+                vulnLookupCache.put(vuln.getSource(), vuln.getVulnId(), vuln.getId(), cacheableVuln.contentHash());
             }
-        } catch (Exception e) {
-            LOGGER.error("Failed to process scan result for component %s (scanKey: %s)"
-                    .formatted(componentUuid, prettyPrint(scanKey)), e);
-        } finally {
-            timerSample.stop(TIMER);
-            context().forward(record);
+            LOGGER.debug("Identified %d new findings in a batch of %d scan results"
+                    .formatted(newFindings.size(), bufferedResults.size()));
+
+            dispatchNewVulnerabilityNotifications(qm, newFindings);
         }
     }
 
-    private void processScannerResult(final QueryManager qm, final Component component,
-                                      final ScanKey scanKey, final ScannerResult scannerResult,
-                                      final VulnerabilityAnalysisLevel analysisLevel) {
+    private boolean isProcessable(final Component component, final ScanKey scanKey, final ScannerResult scannerResult) {
         if (scannerResult.getStatus() == SCAN_STATUS_FAILED) {
             final var message = "Scan of component %s with %s failed (scanKey: %s): %s"
                     .formatted(component.getUuid(), scannerResult.getScanner(), prettyPrint(scanKey), scannerResult.getFailureReason());
@@ -105,188 +249,339 @@ public class VulnerabilityScanResultProcessor extends ContextualFixedKeyProcesso
                     .title(NotificationConstants.Title.ANALYZER_ERROR)
                     .content(message));
             LOGGER.warn(message);
-            return;
+            return false;
         } else if (scannerResult.getStatus() != ScanStatus.SCAN_STATUS_SUCCESSFUL) {
             LOGGER.warn("Unable to process results from %s with status %s; Dropping record (scanKey: %s)"
                     .formatted(scannerResult.getScanner(), scannerResult.getStatus(), prettyPrint(scanKey)));
-            return;
+            return false;
         }
 
-        final Set<Vulnerability> syncedVulns = syncVulnerabilities(qm, scanKey, scannerResult);
-        LOGGER.debug("Synchronized %d vulnerabilities reported by %s for %s (scanKey: %s)"
-                .formatted(syncedVulns.size(), scannerResult.getScanner(), scanKey.getComponentUuid(), prettyPrint(scanKey)));
-
-        final Set<Vulnerability> newVulns = addVulnerabilities(qm, component, syncedVulns, scannerResult.getScanner());
-        LOGGER.debug("Identified %d new vulnerabilities for %s with %s (scanKey: %s)"
-                .formatted(newVulns.size(), scanKey.getComponentUuid(), scannerResult.getScanner(), prettyPrint(scanKey)));
-
-        if (!newVulns.isEmpty()) {
-            final Component detachedComponent = qm.getPersistenceManager().detachCopy(component);
-            final Collection<Vulnerability> detachedVulns = qm.getPersistenceManager().detachCopyAll(newVulns);
-            for (final Vulnerability detachedVuln : detachedVulns) {
-                eventDispatcher.dispatchAsync(new Notification()
-                        .scope(NotificationScope.PORTFOLIO)
-                        .group(NotificationGroup.NEW_VULNERABILITY)
-                        .level(NotificationLevel.INFORMATIONAL)
-                        .title(generateNotificationTitle(NotificationConstants.Title.NEW_VULNERABILITY, detachedComponent.getProject()))
-                        .content(generateNotificationContent(detachedVuln))
-                        .subject(new NewVulnerabilityIdentified(detachedVuln, detachedComponent, analysisLevel)));
-            }
-        }
+        return true;
     }
 
     /**
-     * Synchronize vulnerabilities reported in a given {@link ScannerResult} with the datastore.
+     * Synchronize vulnerabilities reported in a given {@link List} of {@link ReportedResult}s with the datastore.
+     * <p>
+     * Existing vulnerabilities are only loaded and compared field-by-field when the reporting scanner is allowed
+     * to update them, and they were last synchronized from different content, as indicated by their content hash.
+     * To determine this, all reported vulnerabilities that cannot be resolved from {@link VulnerabilityLookupCache}
+     * are looked up with a single query that only fetches their ID and content hash. Vulnerabilities that do not
+     * exist yet are created, and setters of existing vulnerabilities are only called when the respective value
+     * actually changed, saving network round-trips.
+     * <p>
+     * This method expects an active {@link javax.jdo.Transaction}.
      *
-     * @param qm            The {@link QueryManager} to use
-     * @param scanKey       The {@link ScanKey} associated with the {@link ScannerResult}
-     * @param scannerResult The {@link ScannerResult} to synchronize vulnerabilities from
-     * @return A {@link Set} of synchronized {@link Vulnerability}s
+     * @param qm              The {@link QueryManager} to use
+     * @param reportedResults The {@link ReportedResult}s to synchronize vulnerabilities from
+     * @param cacheableVulns  A {@link List} to collect {@link CacheableVulnerability}s in, that shall be
+     *                        added to the {@link VulnerabilityLookupCache} once the transaction is committed
+     * @param severityChangedVulnIds A {@link Set} to collect IDs of existing vulnerabilities in, whose severity changed
+     * @return A {@link SyncedResult} for each {@link ReportedResult}, in the same order
      */
-    private Set<Vulnerability> syncVulnerabilities(final QueryManager qm, final ScanKey scanKey, final ScannerResult scannerResult) {
-        final var syncedVulns = new HashSet<Vulnerability>();
-
-        for (final org.hyades.proto.vuln.v1.Vulnerability reportedVuln : scannerResult.getVulnerabilitiesList()) {
-            final Vulnerability vuln;
-            try {
-                vuln = convert(reportedVuln);
-            } catch (RuntimeException e) {
-                LOGGER.error("Failed to convert vulnerability %s/%s (reported by %s for component %s) to internal model (scanKey: %s)"
-                        .formatted(reportedVuln.getSource(), reportedVuln.getId(), scannerResult.getScanner(), scanKey.getComponentUuid(), prettyPrint(scanKey)), e);
-                continue;
+    private List<SyncedResult> syncVulnerabilities(final QueryManager qm, final List<ReportedResult> reportedResults,
+                                                   final List<CacheableVulnerability> cacheableVulns,
+                                                   final Set<Long> severityChangedVulnIds) {
+        final PersistenceManager pm = qm.getPersistenceManager();
+
+        // Whether a scanner can update a vulnerability only depends on the vulnerability's source,
+        // but determining it may require a database lookup. Evaluate it only once per batch.
+        final var canUpdateBySourceAndScanner = new HashMap<String, Boolean>();
+
+        final var reportedVulns = new ArrayList<List<ReportedVulnerability>>(reportedResults.size());
+        final var uncachedVulnIds = new HashSet<String>();
+        for (final ReportedResult reportedResult : reportedResults) {
+            final Scanner scanner = reportedResult.scannerResult().getScanner();
+            final var vulns = new ArrayList<ReportedVulnerability>();
+            for (final org.hyades.proto.vuln.v1.Vulnerability reportedVuln : reportedResult.scannerResult().getVulnerabilitiesList()) {
+                try {
+                    final Vulnerability vuln = convert(reportedVuln);
+                    final boolean canUpdate = canUpdateBySourceAndScanner.computeIfAbsent(
+                            "%s/%s".formatted(vuln.getSource(), scanner), ignored -> canUpdateVulnerability(vuln, scanner));
+                    final String contentHash = computeContentHash(vuln);
+                    final Long cachedId = getCachedVulnerabilityId(vuln, contentHash, canUpdate);
+                    if (cachedId == null) {
+                        uncachedVulnIds.add(vuln.getVulnId());
+                    }
+                    vulns.add(new ReportedVulnerability(vuln, contentHash, canUpdate, cachedId));
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to convert vulnerability %s/%s (reported by %s for component %s) to internal model (scanKey: %s)"
+                            .formatted(reportedVuln.getSource(), reportedVuln.getId(), scanner,
+                                    reportedResult.scanKey().getComponentUuid(), prettyPrint(reportedResult.scanKey())), e);
+                }
             }
+            reportedVulns.add(vulns);
+        }
 
-            try {
-                syncedVulns.add(syncVulnerability(qm, vuln, scannerResult.getScanner()));
-            } catch (RuntimeException e) {
-                // Use a broad catch here, so we can still try to process other
-                // vulnerabilities, even though processing one of them failed.
+        final Map<VulnerabilityKey, ExistingVulnerability> existingVulns = getExistingVulnerabilities(pm, uncachedVulnIds);
+
+        // Vulnerabilities resolved so far, and the content hash they are (or will be) synchronized with.
+        final var vulnsByKey = new HashMap<VulnerabilityKey, Vulnerability>();
+        final var contentHashesByKey = new HashMap<VulnerabilityKey, String>();
+        existingVulns.forEach((vulnKey, existingVuln) -> contentHashesByKey.put(vulnKey, existingVuln.contentHash()));
+
+        // Only load vulnerabilities entirely when they are going to be updated.
+        final Set<Long> vulnIdsToLoad = reportedVulns.stream()
+                .flatMap(Collection::stream)
+                .filter(ReportedVulnerability::canUpdate)
+                .map(reportedVuln -> {
+                    final ExistingVulnerability existingVuln = existingVulns.get(VulnerabilityKey.of(reportedVuln.vulnerability()));
+                    return existingVuln != null && !reportedVuln.contentHash().equals(existingVuln.contentHash())
+                            ? existingVuln.id() : null;
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        vulnsByKey.putAll(getVulnerabilities(pm, vulnIdsToLoad));
+
+        final var syncedResults = new ArrayList<SyncedResult>(reportedResults.size());
+        for (int i = 0; i < reportedResults.size(); i++) {
+            final ReportedResult reportedResult = reportedResults.get(i);
+            final Scanner scanner = reportedResult.scannerResult().getScanner();
+            final var synced = new LinkedHashSet<Vulnerability>();
+            for (final ReportedVulnerability reportedVuln : reportedVulns.get(i)) {
+                final Vulnerability vuln = reportedVuln.vulnerability();
+                if (reportedVuln.cachedId() != null) {
+                    synced.add(getHollowVulnerability(pm, reportedVuln.cachedId()));
+                    continue;
+                }
 
-                LOGGER.warn("Failed to synchronize vulnerability %s/%s (reported by %s for component %s; scanKey: %s)"
-                        .formatted(vuln.getSource(), vuln.getVulnId(), scannerResult.getScanner(), scanKey.getComponentUuid(), prettyPrint(scanKey)), e);
+                final VulnerabilityKey vulnKey = VulnerabilityKey.of(vuln);
+                final Vulnerability persistentVuln;
+                if (!contentHashesByKey.containsKey(vulnKey)) {
+                    if (Vulnerability.Source.INTERNAL.name().equals(vuln.getSource())) {
+                        LOGGER.warn("Failed to synchronize vulnerability %s/%s (reported by %s for component %s; scanKey: %s): An internal vulnerability with ID %s does not exist"
+                                .formatted(vuln.getSource(), vuln.getVulnId(), scanner, reportedResult.scanKey().getComponentUuid(),
+                                        prettyPrint(reportedResult.scanKey()), vuln.getVulnId()));
+                        continue;
+                    }
+
+                    vuln.setContentHash(reportedVuln.contentHash());
+                    persistentVuln = pm.makePersistent(vuln);
+                    vulnsByKey.put(vulnKey, persistentVuln);
+                    contentHashesByKey.put(vulnKey, reportedVuln.contentHash());
+                } else if (reportedVuln.canUpdate() && !reportedVuln.contentHash().equals(contentHashesByKey.get(vulnKey))) {
+                    persistentVuln = vulnsByKey.get(vulnKey);
+                    final Severity previousSeverity = persistentVuln.getSeverity();
+                    updateVulnerability(persistentVuln, vuln, scanner);
+                    if (persistentVuln.getSeverity() != previousSeverity) {
+                        severityChangedVulnIds.add(persistentVuln.getId());
+                    }
+                    // Not all reported fields may have been applied, so hash the vulnerability as it is persisted.
+                    // Synchronizing the same reported content again would not modify it though, which is why
+                    // the reported hash is tracked for the remainder of the batch, and cached.
+                    persistentVuln.setContentHash(computeContentHash(persistentVuln));
+                    contentHashesByKey.put(vulnKey, reportedVuln.contentHash());
+                } else {
+                    // The vulnerability is neither going to be modified, nor is any of its fields accessed.
+                    // A hollow instance is sufficient to associate it with components.
+                    persistentVuln = vulnsByKey.computeIfAbsent(vulnKey,
+                            ignored -> getHollowVulnerability(pm, existingVulns.get(vulnKey).id()));
+                }
+
+                cacheableVulns.add(new CacheableVulnerability(persistentVuln, contentHashesByKey.get(vulnKey)));
+                synced.add(persistentVuln);
             }
+
+            LOGGER.debug("Synchronized %d vulnerabilities reported by %s for %s (scanKey: %s)"
+                    .formatted(synced.size(), scanner, reportedResult.scanKey().getComponentUuid(), prettyPrint(reportedResult.scanKey())));
+            syncedResults.add(new SyncedResult(reportedResult, synced));
         }
 
-        return syncedVulns;
+        return syncedResults;
     }
 
     /**
-     * Synchronize a given {@link Vulnerability} as reported by a given {@link Scanner} with the datastore.
+     * Resolve the ID of a reported {@link Vulnerability} from the {@link VulnerabilityLookupCache}.
      * <p>
-     * This method differs from {@link QueryManager#synchronizeVulnerability(Vulnerability, boolean)} in that it expects
-     * an active {@link javax.jdo.Transaction}, and only calls setters of existing vulnerabilities when the respective
-     * value actually changed, saving network round-trips.
-     *
-     * @param qm      The {@link QueryManager} to use
-     * @param vuln    The {@link Vulnerability} to synchronize
-     * @param scanner The {@link AnalyzerIdentity} that reported the vulnerability
-     * @return The synchronized {@link Vulnerability}
-     * @throws IllegalStateException  When no {@link javax.jdo.Transaction} is active
-     * @throws NoSuchElementException When the reported vulnerability is internal, but does not exist in the datastore
+     * Cached IDs are only returned when synchronizing the vulnerability would not modify it, i.e. when it
+     * was last synchronized from the same content, or when the reporting scanner is not allowed to update it.
+     * <p>
+     * The cache must only be consulted once per reported vulnerability, because entries may be evicted
+     * or invalidated at any time. See {@link ReportedVulnerability#cachedId()}.
      */
-    private Vulnerability syncVulnerability(final QueryManager qm, final Vulnerability vuln, final Scanner scanner) {
-        // It is possible that the same vulnerability is reported for multiple components in parallel,
-        // causing unique constraint violations when attempting to INSERT into the VULNERABILITY table.
-        // In such cases, we can get away with simply retrying to SELECT or INSERT again.
-        return qm.runInRetryableTransaction(() -> {
-            final Vulnerability existingVuln;
-            final Query<Vulnerability> query = qm.getPersistenceManager().newQuery(Vulnerability.class);
-            try {
-                query.setFilter("vulnId == :vulnId && source == :source");
-                query.setParameters(vuln.getVulnId(), vuln.getSource());
-                existingVuln = query.executeUnique();
-            } finally {
-                query.closeAll();
-            }
-
-            if (existingVuln == null) {
-                if (Vulnerability.Source.INTERNAL.name().equals(vuln.getSource())) {
-                    throw new NoSuchElementException("An internal vulnerability with ID %s does not exist".formatted(vuln.getVulnId()));
-                }
+    private Long getCachedVulnerabilityId(final Vulnerability vuln, final String contentHash, final boolean canUpdate) {
+        final VulnerabilityLookupCache.Entry cacheEntry = vulnLookupCache.get(vuln.getSource(), vuln.getVulnId());
+        if (cacheEntry == null) {
+            return null;
+        }
+        if (canUpdate && !contentHash.equals(cacheEntry.contentHash())) {
+            return null;
+        }
 
-                return qm.getPersistenceManager().makePersistent(vuln);
-            }
-            
-            if (canUpdateVulnerability(existingVuln, scanner)) {
-                var updated = false;
-
-                // TODO: Consider using something like javers to get a rich diff of WHAT changed; https://github.com/javers/javers
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getTitle, existingVuln::setTitle);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getSubTitle, existingVuln::setSubTitle);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getDescription, existingVuln::setDescription);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getDetail, existingVuln::setDetail);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getRecommendation, existingVuln::setRecommendation);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getReferences, existingVuln::setReferences);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCredits, existingVuln::setCredits);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCreated, existingVuln::setCreated);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getPublished, existingVuln::setPublished);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getUpdated, existingVuln::setUpdated);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCwes, existingVuln::setCwes);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2BaseScore, existingVuln::setCvssV2BaseScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2ImpactSubScore, existingVuln::setCvssV2ImpactSubScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2ExploitabilitySubScore, existingVuln::setCvssV2ExploitabilitySubScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2Vector, existingVuln::setCvssV2Vector);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3BaseScore, existingVuln::setCvssV3BaseScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3ImpactSubScore, existingVuln::setCvssV3ImpactSubScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3ExploitabilitySubScore, existingVuln::setCvssV2ExploitabilitySubScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3Vector, existingVuln::setCvssV3Vector);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRLikelihoodScore, existingVuln::setOwaspRRLikelihoodScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRTechnicalImpactScore, existingVuln::setOwaspRRTechnicalImpactScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRBusinessImpactScore, existingVuln::setOwaspRRBusinessImpactScore);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRVector, existingVuln::setOwaspRRVector);
-                // Calling setSeverity nulls all CVSS and OWASP RR fields. getSeverity calculates the severity on-the-fly,
-                // and will return UNASSIGNED even when no severity is set explicitly.
-                if (existingVuln.getSeverity() == Severity.UNASSIGNED && vuln.getSeverity() != Severity.UNASSIGNED) {
-                    existingVuln.setSeverity(vuln.getSeverity());
-                    updated = true;
-                }
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getVulnerableVersions, existingVuln::setVulnerableVersions);
-                updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getPatchedVersions, existingVuln::setPatchedVersions);
-                // EPSS is an additional enrichment that no scanner currently provides.
-                // We don't want EPSS scores of CVEs to be purged just because the CVE information came from e.g. OSS Index.
-                updated |= applyIfNonNullAndChanged(existingVuln, vuln, Vulnerability::getEpssScore, existingVuln::setEpssScore);
-                updated |= applyIfNonNullAndChanged(existingVuln, vuln, Vulnerability::getEpssPercentile, existingVuln::setEpssPercentile);
-
-                if (updated) {
-                    // TODO: Send a notification?
-                    //   (But notifications should only be sent if the transaction was committed)
-                    // TODO: Reduce to DEBUG; It's set to WARN for testing
-                    LOGGER.warn("Vulnerability %s/%s was updated by %s".formatted(vuln.getSource(), vuln.getVulnId(), scanner));
-                }
-            }
+        return cacheEntry.id();
+    }
 
-            return existingVuln;
-        }, PersistenceUtil::isUniqueConstraintViolation);
+    private void updateVulnerability(final Vulnerability existingVuln, final Vulnerability vuln, final Scanner scanner) {
+        var updated = false;
+
+        // TODO: Consider using something like javers to get a rich diff of WHAT changed; https://github.com/javers/javers
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getTitle, existingVuln::setTitle);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getSubTitle, existingVuln::setSubTitle);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getDescription, existingVuln::setDescription);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getDetail, existingVuln::setDetail);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getRecommendation, existingVuln::setRecommendation);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getReferences, existingVuln::setReferences);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCredits, existingVuln::setCredits);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCreated, existingVuln::setCreated);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getPublished, existingVuln::setPublished);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getUpdated, existingVuln::setUpdated);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCwes, existingVuln::setCwes);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2BaseScore, existingVuln::setCvssV2BaseScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2ImpactSubScore, existingVuln::setCvssV2ImpactSubScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2ExploitabilitySubScore, existingVuln::setCvssV2ExploitabilitySubScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV2Vector, existingVuln::setCvssV2Vector);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3BaseScore, existingVuln::setCvssV3BaseScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3ImpactSubScore, existingVuln::setCvssV3ImpactSubScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3ExploitabilitySubScore, existingVuln::setCvssV3ExploitabilitySubScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getCvssV3Vector, existingVuln::setCvssV3Vector);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRLikelihoodScore, existingVuln::setOwaspRRLikelihoodScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRTechnicalImpactScore, existingVuln::setOwaspRRTechnicalImpactScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRBusinessImpactScore, existingVuln::setOwaspRRBusinessImpactScore);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getOwaspRRVector, existingVuln::setOwaspRRVector);
+        // Calling setSeverity nulls all CVSS and OWASP RR fields. getSeverity calculates the severity on-the-fly,
+        // and will return UNASSIGNED even when no severity is set explicitly.
+        if (existingVuln.getSeverity() == Severity.UNASSIGNED && vuln.getSeverity() != Severity.UNASSIGNED) {
+            existingVuln.setSeverity(vuln.getSeverity());
+            updated = true;
+        }
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getVulnerableVersions, existingVuln::setVulnerableVersions);
+        updated |= applyIfChanged(existingVuln, vuln, Vulnerability::getPatchedVersions, existingVuln::setPatchedVersions);
+        // EPSS is an additional enrichment that no scanner currently provides.
+        // We don't want EPSS scores of CVEs to be purged just because the CVE information came from e.g. OSS Index.
+        updated |= applyIfNonNullAndChanged(existingVuln, vuln, Vulnerability::getEpssScore, existingVuln::setEpssScore);
+        updated |= applyIfNonNullAndChanged(existingVuln, vuln, Vulnerability::getEpssPercentile, existingVuln::setEpssPercentile);
+
+        if (updated) {
+            // TODO: Send a notification?
+            //   (But notifications should only be sent if the transaction was committed)
+            LOGGER.debug("Vulnerability %s/%s was updated by %s".formatted(vuln.getSource(), vuln.getVulnId(), scanner));
+        }
     }
 
     /**
-     * Associate a given {@link Set} of {@link Vulnerability}s with a given {@link Component}.
+     * Associate synchronized {@link Vulnerability}s with the {@link Component}s they have been reported for.
      * <p>
+     * Existing associations of all affected {@link Component}s are resolved with a single query.
      * If a {@link Vulnerability} was not previously associated with the {@link Component},
-     * a {@link FindingAttribution} will be created for the {@link Scanner}.
+     * a {@link FindingAttribution} will be created for the {@link Scanner} that reported it.
+     * <p>
+     * This method expects an active {@link javax.jdo.Transaction}.
      *
-     * @param qm        The {@link QueryManager} to use
-     * @param component The {@link Component} to associate with
-     * @param vulns     The {@link Vulnerability}s to associate with
-     * @param scanner   The {@link Scanner} that identified the association
-     * @return A {@link Set} of {@link Vulnerability}s that were not previously associated with the {@link Component}
+     * @param qm            The {@link QueryManager} to use
+     * @param syncedResults The {@link SyncedResult}s to associate vulnerabilities of
+     * @return A {@link List} of {@link NewFinding}s for associations that did not previously exist
      */
-    private Set<Vulnerability> addVulnerabilities(final QueryManager qm, final Component component,
-                                                  final Set<Vulnerability> vulns, final Scanner scanner) {
-        return qm.runInTransaction(() -> {
-            final var newVulns = new HashSet<Vulnerability>();
-
-            for (final Vulnerability vuln : vulns) {
-                if (!qm.contains(vuln, component)) {
+    private List<NewFinding> addVulnerabilities(final QueryManager qm, final List<SyncedResult> syncedResults) {
+        final Map<Long, Set<Long>> vulnIdsByComponentId = getVulnerabilityIdsByComponentId(qm.getPersistenceManager(),
+                syncedResults.stream().map(syncedResult -> syncedResult.reportedResult().component().getId()).collect(Collectors.toSet()));
+
+        final var newFindings = new ArrayList<NewFinding>();
+        final var attributions = new ArrayList<FindingAttribution>();
+        for (final SyncedResult syncedResult : syncedResults) {
+            final ReportedResult reportedResult = syncedResult.reportedResult();
+            final Component component = reportedResult.component();
+            final Set<Long> existingVulnIds = vulnIdsByComponentId.computeIfAbsent(component.getId(), ignored -> new HashSet<>());
+
+            for (final Vulnerability vuln : syncedResult.vulnerabilities()) {
+                if (existingVulnIds.add(vuln.getId())) {
                     component.addVulnerability(vuln);
-                    qm.getPersistenceManager().makePersistent(new FindingAttribution(
-                            component, vuln, convert(scanner), null, null));
-                    newVulns.add(vuln);
+                    attributions.add(new FindingAttribution(component, vuln,
+                            convert(reportedResult.scannerResult().getScanner()), null, null));
+                    newFindings.add(new NewFinding(component, vuln, reportedResult.analysisLevel()));
                 }
             }
+        }
+
+        qm.getPersistenceManager().makePersistentAll(attributions);
+        return newFindings;
+    }
+
+    private void dispatchNewVulnerabilityNotifications(final QueryManager qm, final List<NewFinding> newFindings) {
+        final var detachedComponents = new IdentityHashMap<Component, Component>();
+        final var detachedVulns = new IdentityHashMap<Vulnerability, Vulnerability>();
+        for (final NewFinding newFinding : newFindings) {
+            final Component detachedComponent = detachedComponents.computeIfAbsent(newFinding.component(), qm.getPersistenceManager()::detachCopy);
+            final Vulnerability detachedVuln = detachedVulns.computeIfAbsent(newFinding.vulnerability(), qm.getPersistenceManager()::detachCopy);
+            eventDispatcher.dispatchAsync(new Notification()
+                    .scope(NotificationScope.PORTFOLIO)
+                    .group(NotificationGroup.NEW_VULNERABILITY)
+                    .level(NotificationLevel.INFORMATIONAL)
+                    .title(generateNotificationTitle(NotificationConstants.Title.NEW_VULNERABILITY, detachedComponent.getProject()))
+                    .content(generateNotificationContent(detachedVuln))
+                    .subject(new NewVulnerabilityIdentified(detachedVuln, detachedComponent, newFinding.analysisLevel())));
+        }
+    }
 
-            return newVulns;
-        });
+    private static Map<UUID, Component> getComponents(final PersistenceManager pm, final Set<UUID> uuids) {
+        final Query<Component> query = pm.newQuery(Component.class);
+        try {
+            query.getFetchPlan().setGroup(Component.FetchGroup.IDENTITY.name());
+            query.setFilter(":uuids.contains(uuid)");
+            query.setParameters(uuids);
+            return query.executeList().stream()
+                    .collect(Collectors.toMap(Component::getUuid, Function.identity()));
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private static Map<VulnerabilityKey, ExistingVulnerability> getExistingVulnerabilities(final PersistenceManager pm, final Set<String> vulnIds) {
+        if (vulnIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+        try {
+            query.setFilter(":vulnIds.contains(vulnId)");
+            query.setParameters(vulnIds);
+            query.setResult("id, source, vulnId, contentHash");
+            final var vulnsByKey = new HashMap<VulnerabilityKey, ExistingVulnerability>();
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                vulnsByKey.put(new VulnerabilityKey((String) row[1], (String) row[2]),
+                        new ExistingVulnerability((Long) row[0], (String) row[3]));
+            }
+            return vulnsByKey;
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private static Map<VulnerabilityKey, Vulnerability> getVulnerabilities(final PersistenceManager pm, final Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+        try {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(ids);
+            return query.executeList().stream()
+                    .collect(Collectors.toMap(VulnerabilityKey::of, Function.identity()));
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private static Vulnerability getHollowVulnerability(final PersistenceManager pm, final long id) {
+        return (Vulnerability) pm.getObjectById(pm.newObjectIdInstance(Vulnerability.class, id), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Set<Long>> getVulnerabilityIdsByComponentId(final PersistenceManager pm, final Set<Long> componentIds) {
+        final String placeholders = String.join(", ", Collections.nCopies(componentIds.size(), "?"));
+        final Query<?> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, """
+                SELECT "COMPONENT_ID", "VULNERABILITY_ID" FROM "COMPONENTS_VULNERABILITIES" WHERE "COMPONENT_ID" IN (%s)
+                """.formatted(placeholders));
+        try {
+            final var vulnIdsByComponentId = new HashMap<Long, Set<Long>>();
+            for (final Object[] row : (List<Object[]>) query.executeWithArray(componentIds.toArray())) {
+                vulnIdsByComponentId
+                        .computeIfAbsent(((Number) row[0]).longValue(), ignored -> new HashSet<>())
+                        .add(((Number) row[1]).longValue());
+            }
+            return vulnIdsByComponentId;
+        } finally {
+            query.closeAll();
+        }
     }
 
     private boolean canUpdateVulnerability(final Vulnerability vuln, final Scanner scanner) {
@@ -313,7 +608,7 @@ public class VulnerabilityScanResultProcessor extends ContextualFixedKeyProcesso
         return canUpdate;
     }
 
-    private static VulnerabilityAnalysisLevel determineAnalysisLevel(final FixedKeyRecord<?, ?> record) {
+    private static VulnerabilityAnalysisLevel determineAnalysisLevel(final Record<?, ?> record) {
         return KafkaUtil.getEventHeader(record.headers(), KafkaEventHeaders.VULN_ANALYSIS_LEVEL)
                 .map(value -> {
                     try {
@@ -331,4 +626,71 @@ public class VulnerabilityScanResultProcessor extends ContextualFixedKeyProcesso
         return "%s/%s".formatted(scanKey.getScanToken(), scanKey.getComponentUuid());
     }
 
+    private static void logProcessingFailure(final BufferedResult bufferedResult, final Throwable throwable) {
+        LOGGER.error("Failed to process scan result for component %s (scanKey: %s)"
+                .formatted(bufferedResult.componentUuid(), prettyPrint(bufferedResult.result().getKey())), throwable);
+    }
+
+    /**
+     * A {@link ScanResult} in the buffer.
+     * <p>
+     * Buffer keys encode component UUID, scan token, and analysis level, so that duplicate deliveries
+     * of the same result are only processed once.
+     */
+    private record BufferedResult(UUID componentUuid, VulnerabilityAnalysisLevel analysisLevel, ScanResult result) {
+
+        private static BufferedResult of(final String bufferKey, final ScanResult result) {
+            final String[] keyParts = bufferKey.split("/");
+            return new BufferedResult(UUID.fromString(keyParts[0]), VulnerabilityAnalysisLevel.valueOf(keyParts[2]), result);
+        }
+
+        private String bufferKey() {
+            return "%s/%s/%s".formatted(componentUuid, result.getKey().getScanToken(), analysisLevel.name());
+        }
+
+    }
+
+    /**
+     * A successful {@link ScannerResult}, along with the {@link Component} it was reported for.
+     */
+    private record ReportedResult(Component component, ScanKey scanKey, ScannerResult scannerResult,
+                                  VulnerabilityAnalysisLevel analysisLevel) {
+    }
+
+    private record SyncedResult(ReportedResult reportedResult, Set<Vulnerability> vulnerabilities) {
+    }
+
+    private record VulnerabilityKey(String source, String vulnId) {
+
+        private static VulnerabilityKey of(final Vulnerability vuln) {
+            return new VulnerabilityKey(vuln.getSource(), vuln.getVulnId());
+        }
+
+    }
+
+    /**
+     * A reported {@link Vulnerability}, along with the hash of its content,
+     * and whether the reporting scanner is allowed to update it.
+     *
+     * @param cachedId ID of the {@link Vulnerability} as resolved from {@link VulnerabilityLookupCache},
+     *                 or {@code null} when it has to be looked up in the database
+     */
+    private record ReportedVulnerability(Vulnerability vulnerability, String contentHash, boolean canUpdate, Long cachedId) {
+    }
+
+    /**
+     * ID and content hash of a {@link Vulnerability} that exists in the database.
+     */
+    private record ExistingVulnerability(long id, String contentHash) {
+    }
+
+    /**
+     * A persistent {@link Vulnerability}, along with the hash of the content it is synchronized with.
+     */
+    private record CacheableVulnerability(Vulnerability vulnerability, String contentHash) {
+    }
+
+    private record NewFinding(Component component, Vulnerability vulnerability, VulnerabilityAnalysisLevel analysisLevel) {
+    }
+
 }
@@ -0,0 +1,56 @@
+package org.dependencytrack.event.kafka.processor;
+
+import alpine.Config;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.event.kafka.serialization.KafkaProtobufSerde;
+import org.hyades.proto.vulnanalysis.v1.ScanResult;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A {@link ProcessorSupplier} for {@link VulnerabilityScanResultProcessor}s.
+ * <p>
+ * Takes care of registering the state store that {@link VulnerabilityScanResultProcessor}s
+ * use to buffer {@link ScanResult}s until they are processed.
+ */
+public class VulnerabilityScanResultProcessorSupplier implements ProcessorSupplier<UUID, ScanResult, UUID, ScanResult> {
+
+    private final int maxBatchSize;
+    private final Duration maxBatchLinger;
+
+    public VulnerabilityScanResultProcessorSupplier() {
+        this(Config.getInstance().getPropertyAsInt(ConfigKey.VULN_SCAN_RESULT_PROCESSING_BATCH_SIZE),
+                Duration.ofMillis(Config.getInstance().getPropertyAsInt(ConfigKey.VULN_SCAN_RESULT_PROCESSING_BATCH_LINGER_MS)));
+    }
+
+    /**
+     * @param maxBatchSize   Number of buffered {@link ScanResult}s at which processing is triggered
+     * @param maxBatchLinger Maximum duration to wait for a batch to fill up before it is processed anyway
+     */
+    public VulnerabilityScanResultProcessorSupplier(final int maxBatchSize, final Duration maxBatchLinger) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLinger = maxBatchLinger;
+    }
+
+    @Override
+    public Processor<UUID, ScanResult, UUID, ScanResult> get() {
+        return new VulnerabilityScanResultProcessor(maxBatchSize, maxBatchLinger);
+    }
+
+    @Override
+    public Set<StoreBuilder<?>> stores() {
+        final StoreBuilder<KeyValueStore<String, ScanResult>> bufferStoreBuilder = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(VulnerabilityScanResultProcessor.BUFFER_STORE_NAME),
+                Serdes.String(), new KafkaProtobufSerde<>(ScanResult.parser()));
+        return Set.of(bufferStoreBuilder);
+    }
+
+}
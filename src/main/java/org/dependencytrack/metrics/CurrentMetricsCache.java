@@ -0,0 +1,114 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import alpine.Config;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.CacheUtil;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * An in-process read-through cache of the most recent {@link PortfolioMetrics} and {@link ProjectMetrics}.
+ * <p>
+ * Current metrics are polled frequently by dashboards, but only change when a metrics update task
+ * records new metrics, or updates the last occurrence of existing ones. Metrics update tasks invalidate
+ * the affected entries after every write. Metrics recorded by other instances are served once the
+ * affected entries expire, so dashboards may lag behind them by up to {@value #EXPIRE_AFTER_WRITE_MINUTES} minutes.
+ * <p>
+ * Cached metrics are detached and shared, and thus must not be modified.
+ * The maximum number of cached {@link Project}s is controlled via {@link ConfigKey#METRICS_CURRENT_CACHE_MAX_SIZE}.
+ *
+ * @since 4.8.0
+ */
+public final class CurrentMetricsCache {
+
+    private static final long EXPIRE_AFTER_WRITE_MINUTES = 5;
+    private static final String PORTFOLIO_KEY = "portfolio";
+    private static final CurrentMetricsCache INSTANCE = new CurrentMetricsCache(
+            Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_CURRENT_CACHE_MAX_SIZE),
+            Duration.ofMinutes(EXPIRE_AFTER_WRITE_MINUTES));
+
+    static {
+        CacheUtil.monitor(INSTANCE.portfolioCache, "metrics_current_portfolio_cache");
+        CacheUtil.monitor(INSTANCE.projectCache, "metrics_current_project_cache");
+    }
+
+    private final Cache<String, PortfolioMetrics> portfolioCache;
+    private final Cache<UUID, ProjectMetrics> projectCache;
+
+    CurrentMetricsCache(final long maxSize, final Duration expireAfterWrite) {
+        this.portfolioCache = CacheUtil.newCache(1, expireAfterWrite);
+        this.projectCache = CacheUtil.newCache(maxSize, expireAfterWrite);
+    }
+
+    public static CurrentMetricsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the most recent {@link PortfolioMetrics}.
+     *
+     * @param qm The {@link QueryManager} to use when the {@link PortfolioMetrics} are not yet cached
+     * @return The most recent {@link PortfolioMetrics}, or {@code null} when no metrics have been recorded yet
+     */
+    public PortfolioMetrics getPortfolioMetrics(final QueryManager qm) {
+        return portfolioCache.get(PORTFOLIO_KEY, ignored -> {
+            final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
+            return metrics != null ? qm.getPersistenceManager().detachCopy(metrics) : null;
+        });
+    }
+
+    /**
+     * Get the most recent {@link ProjectMetrics} of a given {@link Project}.
+     *
+     * @param qm      The {@link QueryManager} to use when the {@link ProjectMetrics} are not yet cached
+     * @param project The {@link Project} to get metrics for
+     * @return The most recent {@link ProjectMetrics}, or {@code null} when no metrics have been recorded yet
+     */
+    public ProjectMetrics getProjectMetrics(final QueryManager qm, final Project project) {
+        return projectCache.get(project.getUuid(), ignored -> {
+            final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+            return metrics != null ? qm.getPersistenceManager().detachCopy(metrics) : null;
+        });
+    }
+
+    public void invalidatePortfolio() {
+        portfolioCache.invalidateAll();
+    }
+
+    /**
+     * @param projectUuid {@link UUID} of the {@link Project} whose metrics changed
+     */
+    public void invalidateProject(final UUID projectUuid) {
+        projectCache.invalidate(projectUuid);
+    }
+
+    public void invalidateAll() {
+        portfolioCache.invalidateAll();
+        projectCache.invalidateAll();
+    }
+
+}
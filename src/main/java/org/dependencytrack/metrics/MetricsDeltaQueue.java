@@ -0,0 +1,86 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import org.dependencytrack.model.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-process queue of {@link Component}s whose metrics changed.
+ * <p>
+ * Code paths that modify findings, analyses, or policy violations of a {@link Component} record its ID here.
+ * The queue is drained periodically, and the metrics of the affected {@link Component}s, their projects,
+ * and the portfolio are updated incrementally. Recording the same {@link Component} multiple times
+ * before the queue is drained only causes a single update.
+ *
+ * @since 4.8.0
+ */
+public final class MetricsDeltaQueue {
+
+    private static final MetricsDeltaQueue INSTANCE = new MetricsDeltaQueue();
+
+    private final Set<Long> componentIds = ConcurrentHashMap.newKeySet();
+
+    MetricsDeltaQueue() {
+    }
+
+    public static MetricsDeltaQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param componentId ID of the {@link Component} whose metrics changed
+     */
+    public void add(final long componentId) {
+        componentIds.add(componentId);
+    }
+
+    /**
+     * @param componentIds IDs of the {@link Component}s whose metrics changed
+     */
+    public void addAll(final Collection<Long> componentIds) {
+        this.componentIds.addAll(componentIds);
+    }
+
+    /**
+     * Remove and return all queued {@link Component} IDs.
+     * <p>
+     * IDs that are added concurrently are either included in the result, or remain in the queue.
+     *
+     * @return The queued {@link Component} IDs
+     */
+    public Set<Long> drain() {
+        final var drained = new HashSet<Long>();
+        for (final Long componentId : componentIds) {
+            if (componentIds.remove(componentId)) {
+                drained.add(componentId);
+            }
+        }
+        return drained;
+    }
+
+    public int size() {
+        return componentIds.size();
+    }
+
+}
@@ -52,6 +52,7 @@ import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -353,6 +354,17 @@ public class Component implements Serializable {
     @Column(name = "LAST_RISKSCORE", allowsNull = "true") // New column, must allow nulls on existing databases))
     private Double lastInheritedRiskScore;
 
+    /**
+     * Number of changes to findings, analyses, or policy violations of this component since its metrics
+     * were last calculated. {@code 0} when its most recent {@link DependencyMetrics} are up-to-date,
+     * {@code null} when this is not known. Used to skip metrics updates of components that did not change.
+     * Only ever written to in bulk, see {@link org.dependencytrack.persistence.QueryManager#recordComponentMetricsChange(Collection)}.
+     */
+    @Persistent
+    @Column(name = "METRICS_CHANGE_SEQUENCE", allowsNull = "true")
+    @JsonIgnore
+    private Long metricsChangeSequence;
+
     /**
      * Sticky notes
      */
@@ -768,6 +780,14 @@ public class Component implements Serializable {
         this.lastInheritedRiskScore = lastInheritedRiskScore;
     }
 
+    public Long getMetricsChangeSequence() {
+        return metricsChangeSequence;
+    }
+
+    public void setMetricsChangeSequence(Long metricsChangeSequence) {
+        this.metricsChangeSequence = metricsChangeSequence;
+    }
+
     public String getBomRef() {
         return bomRef;
     }
@@ -0,0 +1,34 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.model;
+
+/**
+ * Uniquely identifies a {@link Vulnerability} by its ID and source.
+ *
+ * @param vulnId The ID of the {@link Vulnerability}
+ * @param source The source of the {@link Vulnerability}
+ * @since 4.8.0
+ */
+public record VulnIdAndSource(String vulnId, String source) {
+
+    public VulnIdAndSource(final Vulnerability vulnerability) {
+        this(vulnerability.getVulnId(), vulnerability.getSource());
+    }
+
+}
@@ -295,6 +295,12 @@ public class Vulnerability implements Serializable {
     @Column(name = "EPSSPERCENTILE", scale = 5)
     private BigDecimal epssPercentile;
 
+    @Persistent
+    @Column(name = "CONTENTHASH", length = 64)
+    @Index(name = "VULNERABILITY_CONTENTHASH_IDX")
+    @JsonIgnore
+    private String contentHash;
+
     @Persistent(mappedBy = "vulnerabilities")
     @Order(extensions = @Extension(vendorName = "datanucleus", key = "list-ordering", value = "id ASC"))
     private List<Component> components;
@@ -633,6 +639,18 @@ public class Vulnerability implements Serializable {
         this.epssPercentile = epssPercentile;
     }
 
+    /**
+     * @return Hash of the content of this vulnerability, as of the last time it was synchronized
+     * @see org.dependencytrack.util.VulnerabilityUtil#computeContentHash(Vulnerability)
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public List<VulnerableSoftware> getVulnerableSoftware() {
         return vulnerableSoftware;
     }
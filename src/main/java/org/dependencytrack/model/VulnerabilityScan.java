@@ -89,6 +89,13 @@ public class VulnerabilityScan {
     @Column(name = "UPDATED_AT", allowsNull = "false")
     private Date updatedAt;
 
+    /**
+     * Whether the policy evaluation triggered by the completion of this scan is still pending.
+     */
+    @Persistent
+    @Column(name = "POLICY_EVALUATION_PENDING", allowsNull = "true")
+    private Boolean policyEvaluationPending;
+
     public long getId() {
         return id;
     }
@@ -161,4 +168,12 @@ public class VulnerabilityScan {
         this.updatedAt = updatedAt;
     }
 
+    public Boolean getPolicyEvaluationPending() {
+        return policyEvaluationPending;
+    }
+
+    public void setPolicyEvaluationPending(final Boolean policyEvaluationPending) {
+        this.policyEvaluationPending = policyEvaluationPending;
+    }
+
 }
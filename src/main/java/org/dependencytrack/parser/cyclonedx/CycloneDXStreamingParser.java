@@ -0,0 +1,105 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.cyclonedx;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.cyclonedx.BomParserFactory;
+import org.cyclonedx.exception.ParseException;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.Service;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A parser for CycloneDX JSON documents that does not materialize the entire {@link Bom} at once.
+ * <p>
+ * Top-level components and services are deserialized one at a time, and handed over to a {@link Consumer}
+ * as soon as they have been read. All other document fields (metadata, dependencies, ...) are deserialized
+ * the same way {@link org.cyclonedx.parsers.JsonParser} would.
+ *
+ * @since 4.8.0
+ */
+public class CycloneDXStreamingParser {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Determine whether a given BOM can be parsed in a streaming fashion.
+     *
+     * @param bomBytes The BOM to check
+     * @return {@code true} when the BOM is a CycloneDX JSON document, otherwise {@code false}
+     */
+    public static boolean isSupported(final byte[] bomBytes) {
+        try {
+            return BomParserFactory.looksLikeCycloneDX(bomBytes)
+                    && BomParserFactory.createParser(bomBytes) instanceof org.cyclonedx.parsers.JsonParser;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a CycloneDX JSON document.
+     *
+     * @param bomBytes          The CycloneDX JSON document to parse
+     * @param componentConsumer {@link Consumer} to hand over top-level {@link Component}s to
+     * @param serviceConsumer   {@link Consumer} to hand over top-level {@link Service}s to
+     * @return The parsed {@link Bom}, <em>without</em> its top-level {@link Component}s and {@link Service}s
+     * @throws ParseException When the document could not be parsed
+     */
+    public Bom parse(final byte[] bomBytes, final Consumer<Component> componentConsumer,
+                     final Consumer<Service> serviceConsumer) throws ParseException {
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser(bomBytes)) {
+            if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ParseException("Expected the document to be a JSON object, but it is not");
+            }
+
+            final ObjectNode bomNode = objectMapper.createObjectNode();
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = jsonParser.getCurrentName();
+                final JsonToken valueToken = jsonParser.nextToken();
+                if ("components".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        componentConsumer.accept(objectMapper.readValue(jsonParser, Component.class));
+                    }
+                } else if ("services".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        serviceConsumer.accept(objectMapper.readValue(jsonParser, Service.class));
+                    }
+                } else {
+                    bomNode.set(fieldName, objectMapper.readTree(jsonParser));
+                }
+            }
+
+            if (jsonParser.currentToken() != JsonToken.END_OBJECT) {
+                throw new ParseException("Unexpected end of document");
+            }
+
+            return objectMapper.treeToValue(bomNode, Bom.class);
+        } catch (IOException e) {
+            throw new ParseException("Unable to parse BOM from byte array", e);
+        }
+    }
+
+}
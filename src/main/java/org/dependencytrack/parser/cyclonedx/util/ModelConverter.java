@@ -63,7 +63,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
 
 public class ModelConverter {
 
@@ -80,21 +84,55 @@ public class ModelConverter {
      * @return a List of Component object
      */
     public static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project) {
+        return convertComponents(qm, bom, project, cid -> qm.matchSingleIdentity(project, cid));
+    }
+
+    /**
+     * Convert all top-level {@link org.cyclonedx.model.Component}s of a {@link Bom}.
+     *
+     * @param qm              The {@link QueryManager} to use
+     * @param bom             The {@link Bom} to convert the components of
+     * @param project         The {@link Project} the components belong to
+     * @param identityMatcher {@link Function} to resolve existing {@link Component}s with
+     * @return The converted {@link Component}s
+     * @since 4.8.0
+     */
+    public static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project,
+                                                    final Function<ComponentIdentity, Component> identityMatcher) {
         final List<Component> components = new ArrayList<>();
         if (bom.getComponents() != null) {
             for (int i = 0; i < bom.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxComponent = bom.getComponents().get(i);
                 if (cycloneDxComponent != null) {
-                    components.add(convert(qm, cycloneDxComponent, project));
+                    components.add(convert(qm, cycloneDxComponent, project, identityMatcher));
                 }
             }
         }
         return components;
     }
 
-    @SuppressWarnings("deprecation")
     public static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent, final Project project) {
-        Component component = qm.matchSingleIdentity(project, new ComponentIdentity(cycloneDxComponent));
+        return convert(qm, cycloneDxComponent, project, cid -> qm.matchSingleIdentity(project, cid));
+    }
+
+    /**
+     * Convert a {@link org.cyclonedx.model.Component}, including its children.
+     * <p>
+     * Existing {@link Component}s are resolved using {@code identityMatcher}, allowing callers
+     * to avoid a database round-trip per component, e.g. by using a
+     * {@link org.dependencytrack.util.ComponentIdentityIndex}.
+     *
+     * @param qm                 The {@link QueryManager} to use
+     * @param cycloneDxComponent The {@link org.cyclonedx.model.Component} to convert
+     * @param project            The {@link Project} the component belongs to
+     * @param identityMatcher    {@link Function} to resolve existing {@link Component}s with
+     * @return The converted {@link Component}
+     * @since 4.8.0
+     */
+    @SuppressWarnings("deprecation")
+    public static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent, final Project project,
+                                    final Function<ComponentIdentity, Component> identityMatcher) {
+        Component component = identityMatcher.apply(new ComponentIdentity(cycloneDxComponent));
         if (component == null) {
             component = new Component();
             component.setProject(project);
@@ -186,7 +224,7 @@ public class ModelConverter {
             for (int i = 0; i < cycloneDxComponent.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxChildComponent = cycloneDxComponent.getComponents().get(i);
                 if (cycloneDxChildComponent != null) {
-                    components.add(convert(qm, cycloneDxChildComponent, project));
+                    components.add(convert(qm, cycloneDxChildComponent, project, identityMatcher));
                 }
             }
             if (CollectionUtils.isNotEmpty(components)) {
@@ -669,54 +707,103 @@ public class ModelConverter {
 
     /**
      * Converts a parsed Bom to a native list of Dependency-Track component object
+     * <p>
+     * {@link Component}s and {@link org.cyclonedx.model.Dependency}s are indexed by their BOM ref once,
+     * so that resolving the dependency graph scales linearly with the number of edges.
      *
      * @param bom        the Bom to convert
      * @param project    The project based on the BOM
      * @param components All known {@link Component}s from the BOM
      */
     public static void generateDependencies(final Bom bom, final Project project, final List<Component> components) {
+        final Map<String, Component> componentsByBomRef = new HashMap<>();
+        if (components != null) {
+            for (final Component component : components) {
+                if (component.getBomRef() != null) {
+                    componentsByBomRef.putIfAbsent(component.getBomRef(), component);
+                }
+            }
+        }
+        final Map<String, org.cyclonedx.model.Dependency> dependenciesByBomRef = getDependenciesByBomRef(bom);
+        // Serialized identities of components, keyed by BOM ref. A component that is depended
+        // on by many others only needs to be serialized once.
+        final Map<String, String> identityJsonByBomRef = new HashMap<>();
+        final Function<String, String> identityJsonResolver = bomRef -> {
+            final Component component = componentsByBomRef.get(bomRef);
+            return component != null
+                    ? identityJsonByBomRef.computeIfAbsent(bomRef, ignored -> new ComponentIdentity(component).toJSON().toString())
+                    : null;
+        };
+
         // Get direct dependencies first
         if (bom.getMetadata() != null && bom.getMetadata().getComponent() != null && bom.getMetadata().getComponent().getBomRef() != null) {
             final String targetBomRef = bom.getMetadata().getComponent().getBomRef();
-            final org.cyclonedx.model.Dependency targetDep = getDependencyFromBomRef(targetBomRef, bom.getDependencies());
-            final JSONArray jsonArray = new JSONArray();
-            if (targetDep != null && targetDep.getDependencies() != null) {
-                for (final org.cyclonedx.model.Dependency directDep : targetDep.getDependencies()) {
-                    final Component c = getComponentFromBomRef(directDep.getRef(), components);
-                    if (c != null) {
-                        final ComponentIdentity ci = new ComponentIdentity(c);
-                        jsonArray.put(ci.toJSON());
-                    }
-                }
-            }
-            if (jsonArray.isEmpty()) {
-                project.setDirectDependencies(null);
-            } else {
-                project.setDirectDependencies(jsonArray.toString());
-            }
+            project.setDirectDependencies(serializeDirectDependencies(dependenciesByBomRef.get(targetBomRef), identityJsonResolver));
         }
         // Get transitive last. It is possible that some CycloneDX implementations may not properly specify direct
         // dependencies. As a result, it is not possible to distinguish between direct and transitive.
-        for (final Component c1: components) {
-            if (c1.getBomRef() != null) {
-                final JSONArray jsonArray = new JSONArray();
-                final org.cyclonedx.model.Dependency d1 = getDependencyFromBomRef(c1.getBomRef(), bom.getDependencies());
-                if (d1 != null && d1.getDependencies() != null) {
-                    for (final org.cyclonedx.model.Dependency d2: d1.getDependencies()) {
-                        final Component c2 = getComponentFromBomRef(d2.getRef(), components);
-                        if (c2 != null) {
-                            final ComponentIdentity ci = new ComponentIdentity(c2);
-                            jsonArray.put(ci.toJSON());
-                        }
-                    }
+        if (components != null) {
+            for (final Component c1 : components) {
+                if (c1.getBomRef() != null) {
+                    c1.setDirectDependencies(serializeDirectDependencies(dependenciesByBomRef.get(c1.getBomRef()), identityJsonResolver));
                 }
-                if (jsonArray.isEmpty()) {
-                    c1.setDirectDependencies(null);
-                } else {
-                    c1.setDirectDependencies(jsonArray.toString());
+            }
+        }
+    }
+
+    /**
+     * Index the {@link org.cyclonedx.model.Dependency}s of a {@link Bom} by their BOM ref.
+     *
+     * @param bom The {@link Bom} to index the dependencies of
+     * @return The {@link org.cyclonedx.model.Dependency}s, keyed by BOM ref
+     * @since 4.8.0
+     */
+    public static Map<String, org.cyclonedx.model.Dependency> getDependenciesByBomRef(final Bom bom) {
+        final Map<String, org.cyclonedx.model.Dependency> dependenciesByBomRef = new HashMap<>();
+        if (bom.getDependencies() != null) {
+            for (final org.cyclonedx.model.Dependency dependency : bom.getDependencies()) {
+                if (dependency.getRef() != null) {
+                    dependenciesByBomRef.putIfAbsent(dependency.getRef(), dependency);
                 }
             }
         }
+        return dependenciesByBomRef;
+    }
+
+    /**
+     * Serialize the {@link ComponentIdentity}s of all {@link Component}s a given
+     * {@link org.cyclonedx.model.Dependency} depends on to a JSON array.
+     * <p>
+     * The result is equivalent to populating a {@link JSONArray} with {@link ComponentIdentity#toJSON()}s,
+     * but allows for identities to be serialized only once.
+     *
+     * @param dependency           The {@link org.cyclonedx.model.Dependency} to serialize the direct dependencies of
+     * @param identityJsonResolver {@link Function} to resolve the serialized {@link ComponentIdentity} of a BOM ref with,
+     *                             returning {@code null} for BOM refs that do not refer to a known {@link Component}
+     * @return The serialized JSON array, or {@code null} when there are no resolvable direct dependencies
+     * @since 4.8.0
+     */
+    public static String serializeDirectDependencies(final org.cyclonedx.model.Dependency dependency,
+                                                     final Function<String, String> identityJsonResolver) {
+        if (dependency == null || dependency.getDependencies() == null) {
+            return null;
+        }
+
+        final var jsonJoiner = new StringJoiner(",", "[", "]");
+        jsonJoiner.setEmptyValue("");
+        for (final org.cyclonedx.model.Dependency directDependency : dependency.getDependencies()) {
+            final String bomRef = directDependency.getRef();
+            if (bomRef == null) {
+                continue;
+            }
+            final String identityJson = identityJsonResolver.apply(bomRef);
+            if (identityJson != null) {
+                jsonJoiner.add(identityJson);
+            }
+        }
+
+        final String json = jsonJoiner.toString();
+        return json.isEmpty() ? null : json;
     }
 
     /**
@@ -787,28 +874,6 @@ public class ModelConverter {
         }
     }
 
-    private static Component getComponentFromBomRef(final String bomRef, final List<Component> components) {
-        if (components != null) {
-            for (Component c : components) {
-                if (bomRef != null && bomRef.equals(c.getBomRef())) {
-                    return c;
-                }
-            }
-        }
-        return null;
-    }
-
-    private static org.cyclonedx.model.Dependency getDependencyFromBomRef(final String bomRef, final List<org.cyclonedx.model.Dependency> dependencies) {
-        if (dependencies != null) {
-            for (Dependency o : dependencies) {
-                if (bomRef != null && bomRef.equals(o.getRef())) {
-                    return o;
-                }
-            }
-        }
-        return null;
-    }
-
     private static org.cyclonedx.model.vulnerability.Vulnerability.Rating.Severity convertDtSeverityToCdxSeverity(final Severity severity) {
         switch (severity) {
             case CRITICAL:
@@ -27,6 +27,7 @@ import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
 import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import org.datanucleus.api.jdo.JDOQuery;
 import org.dependencytrack.event.IndexEvent;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ComponentIdentity;
@@ -38,13 +39,16 @@ import org.dependencytrack.model.RepositoryType;
 import javax.jdo.FetchPlan;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.Transaction;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.UUID;
 import javax.json.Json;
 import javax.json.JsonValue;
 import javax.json.JsonArray;
@@ -53,6 +57,12 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
 
     private static final Logger LOGGER = Logger.getLogger(ComponentQueryManager.class);
 
+    /**
+     * Maximum number of component IDs to include in a single bulk statement.
+     * Keeps the number of bind parameters well below the limits of all supported databases.
+     */
+    private static final int BULK_DELETE_CHUNK_SIZE = 1000;
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -130,6 +140,75 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         return (List<Component>)query.execute(project);
     }
 
+    /**
+     * Returns lightweight, non-persistent {@link Component}s for all Components of the specified Project.
+     * <p>
+     * Only the fields required to dispatch analysis commands are populated:
+     * {@code uuid}, {@code cpe}, {@code purl}, {@code swidTagId}, and {@code internal}.
+     * This avoids loading and detaching entire object graphs for large projects.
+     * @param project the Project to retrieve Components of
+     * @return a List of non-persistent Component objects
+     * @since 4.8.0
+     */
+    public List<Component> getComponentsForAnalysis(final Project project) {
+        final Query<Component> query = pm.newQuery(Component.class, "project == :project");
+        query.setParameters(project);
+        query.setResult("uuid, cpe, purl, swidTagId, internal");
+        query.setOrdering("id asc");
+        try {
+            final List<Object[]> rows = query.executeResultList(Object[].class);
+            final var components = new ArrayList<Component>(rows.size());
+            for (final Object[] row : rows) {
+                final var component = new Component();
+                component.setUuid((UUID) row[0]);
+                component.setCpe((String) row[1]);
+                component.setPurl((String) row[2]);
+                component.setSwidTagId((String) row[3]);
+                component.setInternal(Boolean.TRUE.equals(row[4]));
+                components.add(component);
+            }
+            return components;
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    /**
+     * Returns lightweight, non-persistent {@link Component}s for all Components of the specified Project.
+     * <p>
+     * Only the ID and the fields required to match {@link org.dependencytrack.model.ComponentIdentity}s
+     * against the Components are populated: {@code id}, {@code group}, {@code name}, {@code version},
+     * {@code purl}, {@code purlCoordinates}, {@code swidTagId}, and {@code cpe}.
+     * @param project the Project to retrieve Components of
+     * @return a List of non-persistent Component objects
+     * @since 4.8.0
+     */
+    public List<Component> getComponentIdentities(final Project project) {
+        final Query<Component> query = pm.newQuery(Component.class, "project == :project");
+        query.setParameters(project);
+        query.setResult("id, this.group, name, version, purl, purlCoordinates, swidTagId, cpe");
+        query.setOrdering("id asc");
+        try {
+            final List<Object[]> rows = query.executeResultList(Object[].class);
+            final var components = new ArrayList<Component>(rows.size());
+            for (final Object[] row : rows) {
+                final var component = new Component();
+                component.setId((Long) row[0]);
+                component.setGroup((String) row[1]);
+                component.setName((String) row[2]);
+                component.setVersion((String) row[3]);
+                component.setPurl((String) row[4]);
+                component.setPurlCoordinates((String) row[5]);
+                component.setSwidTagId((String) row[6]);
+                component.setCpe((String) row[7]);
+                components.add(component);
+            }
+            return components;
+        } finally {
+            query.closeAll();
+        }
+    }
+
     /**
      * Returns a List of Dependency for the specified Project.
      * @param project the Project to retrieve dependencies of
@@ -309,6 +388,37 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         return result;
     }
 
+    /**
+     * Creates or updates a batch of Components within a single transaction.
+     * <p>
+     * As opposed to {@link #createComponent(Component, boolean)}, Components are not refreshed
+     * after the transaction has been committed. Their values are retained instead.
+     * @param components the Components to persist
+     * @param commitIndex specifies if the search index should be committed (an expensive operation)
+     * @return the persisted Components
+     * @since 4.8.0
+     */
+    public List<Component> createComponents(final List<Component> components, final boolean commitIndex) {
+        // Components that have not been persisted before do not have an ID assigned yet.
+        final List<Boolean> isNew = components.stream().map(component -> component.getId() == 0).toList();
+        final Transaction trx = pm.currentTransaction();
+        final boolean retainValues = trx.getRetainValues();
+        final List<Component> result;
+        try {
+            trx.setRetainValues(true);
+            result = new ArrayList<>(runInTransaction(() -> pm.makePersistentAll(components)));
+        } finally {
+            trx.setRetainValues(retainValues);
+        }
+        final List<Component> detachedResult = List.copyOf(pm.detachCopyAll(result));
+        for (int i = 0; i < detachedResult.size(); i++) {
+            final IndexEvent.Action action = isNew.get(i) ? IndexEvent.Action.CREATE : IndexEvent.Action.UPDATE;
+            Event.dispatch(new IndexEvent(action, detachedResult.get(i)));
+        }
+        commitSearchIndex(commitIndex, Component.class);
+        return result;
+    }
+
     public Component cloneComponent(Component sourceComponent, Project destinationProject, boolean commitIndex) {
         final Component component = new Component();
         component.setGroup(sourceComponent.getGroup());
@@ -479,34 +589,105 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
     }
 
     /**
-     * Intelligently adds dependencies for components that are not already a dependency
-     * of the specified project and removes the dependency relationship for components
-     * that are not in the list of specified components.
-     * @param project the project to bind components to
-     * @param existingProjectComponents the complete list of existing dependent components
-     * @param components the complete list of components that should be dependencies of the project
+     * Removes all components of the specified project that are not in the specified set of component IDs.
+     * <p>
+     * Only IDs of existing components are loaded up front. Components to remove are loaded
+     * and deleted in chunks of {@value #BULK_DELETE_CHUNK_SIZE}.
+     * @param project the project to reconcile components of
+     * @param componentIds IDs of all components that should be dependencies of the project
+     * @since 4.8.0
      */
-    public void reconcileComponents(Project project, List<Component> existingProjectComponents, List<Component> components) {
-        // Removes components as dependencies to the project for all
-        // components not included in the list provided
-        List<Component> markedForDeletion = new ArrayList<>();
-        for (final Component existingComponent: existingProjectComponents) {
-            boolean keep = false;
-            for (final Component component: components) {
-                if (component.getId() == existingComponent.getId()) {
-                    keep = true;
-                    break;
-                }
-            }
-            if (!keep) {
-                markedForDeletion.add(existingComponent);
+    public void reconcileComponents(final Project project, final Set<Long> componentIds) {
+        final List<Long> markedForDeletion;
+        final Query<Component> idQuery = pm.newQuery(Component.class, "project == :project");
+        idQuery.setResult("id");
+        try {
+            markedForDeletion = ((List<Long>) idQuery.execute(project)).stream()
+                    .filter(id -> !componentIds.contains(id))
+                    .toList();
+        } finally {
+            idQuery.closeAll();
+        }
+
+        for (int i = 0; i < markedForDeletion.size(); i += BULK_DELETE_CHUNK_SIZE) {
+            final List<Long> chunk = markedForDeletion.subList(i, Math.min(i + BULK_DELETE_CHUNK_SIZE, markedForDeletion.size()));
+            final Query<Component> query = pm.newQuery(Component.class, ":ids.contains(id)");
+            try {
+                deleteComponents(List.copyOf((List<Component>) query.execute(chunk)), false);
+            } finally {
+                query.closeAll();
             }
         }
-        if (!markedForDeletion.isEmpty()) {
-            for (Component c: markedForDeletion) {
-                this.recursivelyDelete(c, false);
+    }
+
+    /**
+     * Deletes multiple components, including their analysis trails, metrics, finding attributions,
+     * and policy violations, using a fixed number of bulk statements per chunk of components.
+     * <p>
+     * As opposed to {@link #recursivelyDelete(Component, boolean)}, children of the given components
+     * are not deleted, unless they are part of {@code components} themselves.
+     * @param components the Components to delete
+     * @param commitIndex specifies if the search index should be committed (an expensive operation)
+     * @since 4.8.0
+     */
+    public void deleteComponents(final List<Component> components, final boolean commitIndex) {
+        for (final Component component : pm.detachCopyAll(components)) {
+            Event.dispatch(new IndexEvent(IndexEvent.Action.DELETE, component));
+        }
+        final List<Long> componentIds = components.stream().map(Component::getId).toList();
+        final List<Object> objectIds = components.stream().map(pm::getObjectId).toList();
+        pm.evictAll(components);
+
+        pm.setProperty("datanucleus.query.sql.allowAll", true);
+        runInTransaction(() -> {
+            for (int i = 0; i < componentIds.size(); i += BULK_DELETE_CHUNK_SIZE) {
+                final List<Long> chunk = componentIds.subList(i, Math.min(i + BULK_DELETE_CHUNK_SIZE, componentIds.size()));
+                final String idPlaceholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                final Object[] idParams = chunk.toArray();
+                executeBulkStatement("""
+                        DELETE FROM "ANALYSISCOMMENT" WHERE "ANALYSISCOMMENT"."ANALYSIS_ID" IN
+                            (SELECT "ANALYSIS"."ID" FROM "ANALYSIS" WHERE "ANALYSIS"."COMPONENT_ID" IN (%s))
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "ANALYSIS" WHERE "ANALYSIS"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "VIOLATIONANALYSISCOMMENT" WHERE "VIOLATIONANALYSISCOMMENT"."VIOLATIONANALYSIS_ID" IN
+                            (SELECT "VIOLATIONANALYSIS"."ID" FROM "VIOLATIONANALYSIS" WHERE "VIOLATIONANALYSIS"."COMPONENT_ID" IN (%s))
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "VIOLATIONANALYSIS" WHERE "VIOLATIONANALYSIS"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "POLICYVIOLATION" WHERE "POLICYVIOLATION"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "DEPENDENCYMETRICS" WHERE "DEPENDENCYMETRICS"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "FINDINGATTRIBUTION" WHERE "FINDINGATTRIBUTION"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "COMPONENTS_VULNERABILITIES" WHERE "COMPONENTS_VULNERABILITIES"."COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        UPDATE "COMPONENT" SET "PARENT_COMPONENT_ID" = NULL WHERE "COMPONENT"."PARENT_COMPONENT_ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
+                executeBulkStatement("""
+                        DELETE FROM "COMPONENT" WHERE "COMPONENT"."ID" IN (%s)
+                        """.formatted(idPlaceholders), idParams);
             }
-            //this.delete(markedForDeletion);
+        });
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(objectIds);
+        commitSearchIndex(commitIndex, Component.class);
+    }
+
+    private void executeBulkStatement(final String statement, final Object[] params) {
+        final Query<?> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, statement);
+        try {
+            query.executeWithArray(params);
+        } finally {
+            query.closeAll();
         }
     }
 
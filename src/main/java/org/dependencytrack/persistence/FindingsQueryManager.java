@@ -29,16 +29,21 @@ import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Finding;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.VulnIdAndSource;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.RepositoryType;
 import org.dependencytrack.model.RepositoryMetaComponent;
+import org.dependencytrack.util.VulnerabilityAliasIndex;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class FindingsQueryManager extends QueryManager implements IQueryManager {
 
@@ -207,6 +212,7 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         }
 
         analysis = persist(analysis);
+        recordComponentMetricsChange(List.of(analysis.getComponent().getId()));
         return getAnalysis(analysis.getComponent(), analysis.getVulnerability());
     }
 
@@ -268,14 +274,28 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         final Query<Object[]> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, Finding.QUERY);
         query.setParameters(project.getId());
         final List<Object[]> list = query.executeList();
-        final List<Finding> findings = new ArrayList<>();
+        final List<Finding> rawFindings = new ArrayList<>();
+        final Set<VulnIdAndSource> vulnIdAndSources = new HashSet<>();
         for (final Object[] o: list) {
             final Finding finding = new Finding(project.getUuid(), o);
+            rawFindings.add(finding);
+            vulnIdAndSources.add(getVulnIdAndSource(finding));
+        }
+        // Resolve aliases of all vulnerabilities at once, rather than querying them for every single finding
+        final Map<VulnIdAndSource, List<VulnerabilityAlias>> aliasesByVulnIdAndSource =
+                VulnerabilityAliasIndex.getInstance().getAliases(this, vulnIdAndSources);
+        final List<Finding> findings = new ArrayList<>();
+        for (final Finding finding: rawFindings) {
             final Component component = getObjectByUuid(Component.class, (String)finding.getComponent().get("uuid"));
             final Vulnerability vulnerability = getObjectByUuid(Vulnerability.class, (String)finding.getVulnerability().get("uuid"));
             final Analysis analysis = getAnalysis(component, vulnerability);
-            final List<VulnerabilityAlias> aliases = detach(getVulnerabilityAliases(vulnerability));
-            aliases.forEach(alias -> alias.setUuid(null));
+            final List<VulnerabilityAlias> aliases = new ArrayList<>();
+            for (final VulnerabilityAlias indexedAlias : aliasesByVulnIdAndSource.get(getVulnIdAndSource(finding))) {
+                // Indexed aliases are shared; Hand out copies without UUID instead
+                final var alias = new VulnerabilityAlias();
+                alias.copyFieldsFrom(indexedAlias);
+                aliases.add(alias);
+            }
             finding.getVulnerability().put("aliases", aliases);
             if (includeSuppressed || analysis == null || !analysis.isSuppressed()) { // do not add globally suppressed findings
                 // These are CLOB fields. Handle these here so that database-specific deserialization doesn't need to be performed (in Finding)
@@ -296,4 +316,8 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         }
         return findings;
     }
+
+    private static VulnIdAndSource getVulnIdAndSource(final Finding finding) {
+        return new VulnIdAndSource((String) finding.getVulnerability().get("vulnId"), (String) finding.getVulnerability().get("source"));
+    }
 }
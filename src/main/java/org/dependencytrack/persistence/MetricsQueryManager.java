@@ -21,20 +21,40 @@ package org.dependencytrack.persistence;
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
 import org.apache.commons.collections4.CollectionUtils;
+import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityMetrics;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.Transaction;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class MetricsQueryManager extends QueryManager implements IQueryManager {
 
+    private static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+
+    // Key of the PersistenceManager user object that holds IDs of components
+    // to queue for an incremental metrics update once the current transaction committed.
+    private static final String PENDING_DELTA_COMPONENT_IDS_KEY = "pendingDeltaComponentIds";
+
     /**
      * Constructs a new QueryManager.
      *
@@ -201,6 +221,195 @@ public class MetricsQueryManager extends QueryManager implements IQueryManager {
         }
     }
 
+    /**
+     * Synchronizes multiple VulnerabilityMetrics at once.
+     * <p>
+     * Existing metrics are fetched with a single query, and all changes are applied in a single transaction.
+     *
+     * @param metrics the VulnerabilityMetrics to synchronize
+     * @since 4.8.0
+     */
+    public void synchronizeVulnerabilityMetrics(final Collection<VulnerabilityMetrics> metrics) {
+        final Map<YearMonthKey, List<VulnerabilityMetrics>> existingMetrics = getVulnerabilityMetrics().stream()
+                .collect(Collectors.groupingBy(metric -> new YearMonthKey(metric.getYear(), metric.getMonth())));
+
+        runInTransaction(() -> {
+            for (final VulnerabilityMetrics metric : metrics) {
+                final List<VulnerabilityMetrics> existing = existingMetrics.getOrDefault(
+                        new YearMonthKey(metric.getYear(), metric.getMonth()), Collections.emptyList());
+                if (existing.size() == 1) {
+                    final VulnerabilityMetrics m = existing.get(0);
+                    m.setCount(metric.getCount());
+                    m.setMeasuredAt(metric.getMeasuredAt());
+                } else {
+                    pm.deletePersistentAll(existing);
+                    pm.makePersistent(metric);
+                }
+            }
+        });
+    }
+
+    /**
+     * Record that findings, analyses, or policy violations of the given {@link Component}s changed.
+     * <p>
+     * Increments the {@link Component#getMetricsChangeSequence()} of all given {@link Component}s, which allows
+     * metrics updates to skip {@link Component}s that did not change since their metrics were last calculated.
+     * The sequence is updated using bulk statements, which participate in the current transaction if one is active.
+     * <p>
+     * The {@link Component}s are also queued for an incremental metrics update via {@link MetricsDeltaQueue}.
+     * When a transaction is active, they are only queued once it committed. Otherwise, the update could
+     * run before the change is visible to it, and consume the queue entry without picking up the change.
+     *
+     * @param componentIds IDs of the {@link Component}s that changed
+     * @since 4.8.0
+     */
+    public void recordComponentMetricsChange(final Collection<Long> componentIds) {
+        if (componentIds.isEmpty()) {
+            return;
+        }
+
+        executeBulkSequenceUpdate("""
+                UPDATE "COMPONENT" SET "METRICS_CHANGE_SEQUENCE" = COALESCE("COMPONENT"."METRICS_CHANGE_SEQUENCE", 0) + 1
+                WHERE "COMPONENT"."ID" IN (%s)
+                """, null, componentIds);
+
+        final Transaction trx = pm.currentTransaction();
+        if (!trx.isActive()) {
+            MetricsDeltaQueue.getInstance().addAll(componentIds);
+            return;
+        }
+        // Held by the PersistenceManager, because other query managers may share its transaction.
+        @SuppressWarnings("unchecked")
+        Set<Long> pendingComponentIds = (Set<Long>) pm.getUserObject(PENDING_DELTA_COMPONENT_IDS_KEY);
+        if (pendingComponentIds == null) {
+            pendingComponentIds = new HashSet<>();
+            pm.putUserObject(PENDING_DELTA_COMPONENT_IDS_KEY, pendingComponentIds);
+            final Set<Long> componentIdsToQueue = pendingComponentIds;
+            trx.setSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    pm.removeUserObject(PENDING_DELTA_COMPONENT_IDS_KEY);
+                    if (status == Status.STATUS_COMMITTED) {
+                        MetricsDeltaQueue.getInstance().addAll(componentIdsToQueue);
+                    }
+                }
+            });
+        }
+        pendingComponentIds.addAll(componentIds);
+    }
+
+    /**
+     * Record that the given {@link Vulnerability}s changed in a way that may affect metrics,
+     * for all {@link Component}s affected by them.
+     *
+     * @param vulnerabilityIds IDs of the {@link Vulnerability}s that changed
+     * @see #recordComponentMetricsChange(Collection)
+     * @since 4.8.0
+     */
+    public void recordVulnerabilityMetricsChange(final Collection<Long> vulnerabilityIds) {
+        if (vulnerabilityIds.isEmpty()) {
+            return;
+        }
+
+        final List<Long> componentIds;
+        final Query<Component> query = pm.newQuery(Component.class);
+        try {
+            query.setFilter("vulnerabilities.contains(vuln) && :vulnIds.contains(vuln.id)");
+            query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+            query.setParameters(vulnerabilityIds);
+            query.setResult("distinct id");
+            componentIds = List.copyOf(query.executeResultList(Long.class));
+        } finally {
+            query.closeAll();
+        }
+
+        recordComponentMetricsChange(componentIds);
+    }
+
+    /**
+     * Fetch the {@link Component#getMetricsChangeSequence()}s of the given {@link Component}s.
+     * <p>
+     * Sequences are always read from the datastore, because they are updated in bulk.
+     *
+     * @param componentIds IDs of the {@link Component}s to fetch sequences for
+     * @return The sequences of all {@link Component}s, keyed by {@link Component} ID.
+     * Values are {@code null} for {@link Component}s whose sequence is not known.
+     * @since 4.8.0
+     */
+    public Map<Long, Long> getComponentMetricsChangeSequences(final Collection<Long> componentIds) {
+        final var sequenceByComponentId = new HashMap<Long, Long>();
+        final Query<Component> query = pm.newQuery(Component.class);
+        try {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(componentIds);
+            query.setResult("id, metricsChangeSequence");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                sequenceByComponentId.put((Long) row[0], (Long) row[1]);
+            }
+        } finally {
+            query.closeAll();
+        }
+        return sequenceByComponentId;
+    }
+
+    /**
+     * Reset the {@link Component#getMetricsChangeSequence()}s of the given {@link Component}s to {@code 0},
+     * unless they changed since they have been read via {@link #getComponentMetricsChangeSequences(Collection)}.
+     * <p>
+     * Must only be called once metrics calculated after reading the sequences have been committed.
+     * Changes recorded in the meantime, including those of transactions that were still in progress
+     * while the sequences were read, thus cause the {@link Component}s to be updated again.
+     *
+     * @param sequenceByComponentId The sequences as read before calculating metrics, keyed by {@link Component} ID
+     * @since 4.8.0
+     */
+    public void resetComponentMetricsChangeSequences(final Map<Long, Long> sequenceByComponentId) {
+        final Map<Long, List<Long>> componentIdsBySequence = new HashMap<>();
+        final var componentIdsWithoutSequence = new ArrayList<Long>();
+        for (final Map.Entry<Long, Long> entry : sequenceByComponentId.entrySet()) {
+            if (entry.getValue() == null) {
+                componentIdsWithoutSequence.add(entry.getKey());
+            } else if (entry.getValue() != 0) {
+                componentIdsBySequence.computeIfAbsent(entry.getValue(), ignored -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        executeBulkSequenceUpdate("""
+                UPDATE "COMPONENT" SET "METRICS_CHANGE_SEQUENCE" = 0
+                WHERE "COMPONENT"."ID" IN (%s) AND "COMPONENT"."METRICS_CHANGE_SEQUENCE" IS NULL
+                """, null, componentIdsWithoutSequence);
+        for (final Map.Entry<Long, List<Long>> entry : componentIdsBySequence.entrySet()) {
+            executeBulkSequenceUpdate("""
+                    UPDATE "COMPONENT" SET "METRICS_CHANGE_SEQUENCE" = 0
+                    WHERE "COMPONENT"."ID" IN (%s) AND "COMPONENT"."METRICS_CHANGE_SEQUENCE" = ?
+                    """, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void executeBulkSequenceUpdate(final String statementTemplate, final Long expectedSequence, final Collection<Long> componentIds) {
+        final List<Long> ids = List.copyOf(componentIds);
+        pm.setProperty("datanucleus.query.sql.allowAll", true);
+        for (int i = 0; i < ids.size(); i += BULK_UPDATE_CHUNK_SIZE) {
+            final List<Long> chunk = ids.subList(i, Math.min(i + BULK_UPDATE_CHUNK_SIZE, ids.size()));
+            final var params = new ArrayList<Object>(chunk);
+            if (expectedSequence != null) {
+                params.add(expectedSequence);
+            }
+
+            final Query<?> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE,
+                    statementTemplate.formatted(String.join(",", Collections.nCopies(chunk.size(), "?"))));
+            try {
+                query.executeWithArray(params.toArray());
+            } finally {
+                query.closeAll();
+            }
+        }
+    }
+
     /**
      * Deleted all metrics associated for the specified Project.
      *
@@ -223,4 +432,8 @@ public class MetricsQueryManager extends QueryManager implements IQueryManager {
         final Query<DependencyMetrics> query = pm.newQuery(DependencyMetrics.class, "component == :component");
         query.deletePersistentAll(component);
     }
+
+    private record YearMonthKey(int year, Integer month) {
+    }
+
 }
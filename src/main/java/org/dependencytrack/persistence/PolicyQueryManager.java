@@ -20,6 +20,7 @@ package org.dependencytrack.persistence;
 
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
+import com.google.common.util.concurrent.Striped;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -30,15 +31,30 @@ import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ViolationAnalysis;
 import org.dependencytrack.model.ViolationAnalysisComment;
 import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.policy.PolicyEvaluationPlan;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 
 final class PolicyQueryManager extends QueryManager implements IQueryManager {
 
+    /**
+     * Serializes the lookup and creation of {@link PolicyViolation}s per {@link Component},
+     * such that concurrent evaluations of the same {@link Component} do not create duplicate violations.
+     */
+    private static final Striped<Lock> COMPONENT_VIOLATION_LOCKS = Striped.lock(64);
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -109,7 +125,9 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         policy.setName(name);
         policy.setOperator(operator);
         policy.setViolationState(violationState);
-        return persist(policy);
+        final Policy result = persist(policy);
+        PolicyEvaluationPlan.invalidate();
+        return result;
     }
 
     /**
@@ -123,7 +141,9 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         pc.setSubject(subject);
         pc.setOperator(operator);
         pc.setValue(value);
-        return persist(pc);
+        final PolicyCondition result = persist(pc);
+        PolicyEvaluationPlan.invalidate();
+        return result;
     }
 
     /**
@@ -135,52 +155,135 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         pc.setSubject(policyCondition.getSubject());
         pc.setOperator(policyCondition.getOperator());
         pc.setValue(policyCondition.getValue());
-        return persist(pc);
-    }
-
-    /**
-     * Intelligently adds dependencies for components that are not already a dependency
-     * of the specified project and removes the dependency relationship for components
-     * that are not in the list of specified components.
-     * @param component the project to bind components to
-     * @param policyViolations the complete list of existing dependent components
-     */
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
-        // Removes violations as dependencies to the project for all
-        // components not included in the list provided
-        List<PolicyViolation> markedForDeletion = new ArrayList<>();
-        for (final PolicyViolation existingViolation: getAllPolicyViolations(component)) {
-            boolean keep = false;
-            for (final PolicyViolation violation: policyViolations) {
-                if (violation.getType() == existingViolation.getType()
-                        && violation.getPolicyCondition().getId() == existingViolation.getPolicyCondition().getId()
-                        && violation.getComponent().getId() == existingViolation.getComponent().getId())
-                {
-                    keep = true;
-                    break;
-                }
+        final PolicyCondition result = persist(pc);
+        PolicyEvaluationPlan.invalidate();
+        return result;
+    }
+
+    /**
+     * Reconciles the {@link PolicyViolation}s of a single {@link Component}.
+     * @param component the {@link Component} to reconcile {@link PolicyViolation}s for
+     * @param policyViolations the complete list of current violations of the {@link Component}
+     * @see #reconcilePolicyViolations(Collection, Collection)
+     */
+    public void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+        reconcilePolicyViolations(List.of(component), policyViolations);
+    }
+
+    /**
+     * Reconciles the {@link PolicyViolation}s of multiple {@link Component}s in bulk.
+     * <p>
+     * Existing violations of the given {@link Component}s are loaded in a single query, and compared to
+     * the given violations by type, condition, and component. Within a single transaction, missing violations
+     * are created in a batch, and violations that are no longer present are deleted in bulk, together with
+     * their {@link ViolationAnalysis}. Reconciliations of the same {@link Component} are serialized.
+     * @param components the {@link Component}s to reconcile {@link PolicyViolation}s for
+     * @param policyViolations the complete list of current violations of the given {@link Component}s
+     * @return the persistent counterparts of the given {@link PolicyViolation}s, in the same order,
+     * and the {@link PolicyViolation}s that have been created
+     * @since 4.8.0
+     */
+    public ReconciledPolicyViolations reconcilePolicyViolations(final Collection<Component> components, final Collection<PolicyViolation> policyViolations) {
+        if (components.isEmpty()) {
+            return new ReconciledPolicyViolations(Collections.emptyList(), Collections.emptyList());
+        }
+
+        final Set<Long> componentIds = components.stream().map(Component::getId).collect(Collectors.toSet());
+        final List<Lock> locks = lockComponentViolations(componentIds);
+        try {
+            return reconcileLockedPolicyViolations(componentIds, policyViolations);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
             }
-            if (!keep) {
-                markedForDeletion.add(existingViolation);
+        }
+    }
+
+    private ReconciledPolicyViolations reconcileLockedPolicyViolations(final Set<Long> componentIds, final Collection<PolicyViolation> policyViolations) {
+        final var existingViolations = new HashMap<PolicyViolationKey, PolicyViolation>();
+        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class);
+        query.setFilter(":ids.contains(component.id)");
+        query.setParameters(componentIds);
+        try {
+            for (final PolicyViolation violation : query.executeList()) {
+                existingViolations.put(PolicyViolationKey.of(violation), violation);
+            }
+        } finally {
+            query.closeAll();
+        }
+
+        final var violationsByKey = new HashMap<PolicyViolationKey, PolicyViolation>();
+        final var violationsToCreate = new LinkedHashMap<PolicyViolationKey, PolicyViolation>();
+        for (final PolicyViolation violation : policyViolations) {
+            final PolicyViolationKey key = PolicyViolationKey.of(violation);
+            final PolicyViolation existingViolation = existingViolations.remove(key);
+            if (existingViolation != null) {
+                violationsByKey.put(key, existingViolation);
+            } else if (!violationsByKey.containsKey(key)) {
+                // Violations with the same key are created only once, and only if they do not exist yet.
+                violationsToCreate.putIfAbsent(key, violation);
             }
         }
-        if (!markedForDeletion.isEmpty()) {
-            delete(markedForDeletion);
+
+        final var createdViolations = new ArrayList<PolicyViolation>();
+        if (!violationsToCreate.isEmpty() || !existingViolations.isEmpty()) {
+            final List<Long> violationIdsToDelete = existingViolations.values().stream().map(PolicyViolation::getId).toList();
+            runInTransaction(() -> {
+                if (!violationIdsToDelete.isEmpty()) {
+                    final Query<ViolationAnalysis> analysisQuery = pm.newQuery(ViolationAnalysis.class, ":ids.contains(policyViolation.id)");
+                    analysisQuery.deletePersistentAll(violationIdsToDelete);
+                    final Query<PolicyViolation> violationQuery = pm.newQuery(PolicyViolation.class, ":ids.contains(id)");
+                    violationQuery.deletePersistentAll(violationIdsToDelete);
+                }
+                createdViolations.addAll(pm.makePersistentAll(violationsToCreate.values()));
+            });
+            createdViolations.forEach(violation -> violationsByKey.put(PolicyViolationKey.of(violation), violation));
+
+            final var changedComponentIds = new HashSet<Long>();
+            violationsToCreate.keySet().forEach(key -> changedComponentIds.add(key.componentId()));
+            existingViolations.keySet().forEach(key -> changedComponentIds.add(key.componentId()));
+            recordComponentMetricsChange(changedComponentIds);
         }
+
+        final List<PolicyViolation> violations = policyViolations.stream()
+                .map(violation -> violationsByKey.get(PolicyViolationKey.of(violation)))
+                .toList();
+        return new ReconciledPolicyViolations(violations, createdViolations);
     }
 
     /**
      * Adds a policy violation
      * @param pv the policy violation to add
      */
-    public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
-        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
-        query.setRange(0, 1);
-        PolicyViolation result = singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
-        if (result == null) {
-            result = persist(pv);
+    public PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
+        final Lock lock = COMPONENT_VIOLATION_LOCKS.get(pv.getComponent().getId());
+        lock.lock();
+        try {
+            final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
+            query.setRange(0, 1);
+            PolicyViolation result = singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
+            if (result == null) {
+                result = persist(pv);
+                recordComponentMetricsChange(List.of(result.getComponent().getId()));
+            }
+            return result;
+        } finally {
+            lock.unlock();
         }
-        return result;
+    }
+
+    /**
+     * Acquire the {@link PolicyViolation} locks of multiple {@link Component}s, in an order that is consistent across threads.
+     * @param componentIds IDs of the {@link Component}s
+     * @return the acquired {@link Lock}s, in the order of their acquisition
+     */
+    private static List<Lock> lockComponentViolations(final Collection<Long> componentIds) {
+        final var locks = new ArrayList<Lock>(componentIds.size());
+        for (final Lock lock : COMPONENT_VIOLATION_LOCKS.bulkGet(componentIds)) {
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
     }
 
     /**
@@ -368,6 +471,7 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         }
         violationAnalysis.setViolationAnalysisState(violationAnalysisState);
         violationAnalysis = persist(violationAnalysis);
+        recordComponentMetricsChange(List.of(violationAnalysis.getComponent().getId()));
         return getViolationAnalysis(violationAnalysis.getComponent(), violationAnalysis.getPolicyViolation());
     }
 
@@ -478,6 +582,7 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
             deletePolicyCondition(condition);
         }
         delete(policy);
+        PolicyEvaluationPlan.invalidate();
     }
 
     /**
@@ -504,11 +609,18 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
      */
     public void deletePolicyCondition(PolicyCondition policyCondition) {
         final List<PolicyViolation> violations = getAllPolicyViolations(policyCondition);
-        for (PolicyViolation violation: violations) {
-            deleteViolationAnalysisTrail(violation);
-        }
-        delete(violations);
-        delete(policyCondition);
+        final Set<Long> componentIds = violations.stream()
+                .map(violation -> violation.getComponent().getId())
+                .collect(Collectors.toSet());
+        runInTransaction(() -> {
+            for (PolicyViolation violation: violations) {
+                deleteViolationAnalysisTrail(violation);
+            }
+            pm.deletePersistentAll(violations);
+            pm.deletePersistent(policyCondition);
+            recordComponentMetricsChange(componentIds);
+        });
+        PolicyEvaluationPlan.invalidate();
     }
 
     /**
@@ -518,10 +630,45 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
     public void removeProjectFromPolicies(final Project project) {
         final Query<Policy> query = pm.newQuery(Policy.class, "projects.contains(:project)");
         query.setParameters(project);
+        final List<Policy> policies = query.executeList();
+
+        final var componentIds = new HashSet<Long>();
+        for (final Policy policy : policies) {
+            componentIds.addAll(getViolatingComponentIds(policy, project));
+        }
+        runInTransaction(() -> {
+            for (final Policy policy : policies) {
+                policy.getProjects().remove(project);
+            }
+            recordComponentMetricsChange(componentIds);
+        });
+        PolicyEvaluationPlan.invalidate();
+    }
 
-        for (final Policy policy: query.executeList()) {
-            policy.getProjects().remove(project);
-            persist(policy);
+    /**
+     * Returns the IDs of all {@link Component}s with {@link PolicyViolation}s of a given {@link Policy}.
+     * @param policy the {@link Policy} to query for
+     * @return the IDs of all {@link Component}s violating the {@link Policy}
+     * @since 4.8.0
+     */
+    public Set<Long> getViolatingComponentIds(final Policy policy) {
+        return getViolatingComponentIds(policy, null);
+    }
+
+    private Set<Long> getViolatingComponentIds(final Policy policy, final Project project) {
+        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class);
+        try {
+            if (project == null) {
+                query.setFilter("policyCondition.policy == :policy");
+                query.setParameters(policy);
+            } else {
+                query.setFilter("policyCondition.policy == :policy && project == :project");
+                query.setParameters(policy, project);
+            }
+            query.setResult("distinct component.id");
+            return new HashSet<>(query.executeResultList(Long.class));
+        } finally {
+            query.closeAll();
         }
     }
 
@@ -537,4 +684,13 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         return getCount(query, component, type, ViolationAnalysisState.NOT_SET);
     }
 
+    private record PolicyViolationKey(PolicyViolation.Type type, long policyConditionId, long componentId) {
+
+        private static PolicyViolationKey of(final PolicyViolation violation) {
+            return new PolicyViolationKey(violation.getType(),
+                    violation.getPolicyCondition().getId(), violation.getComponent().getId());
+        }
+
+    }
+
 }
@@ -71,6 +71,7 @@ import org.dependencytrack.model.Vex;
 import org.dependencytrack.model.ViolationAnalysis;
 import org.dependencytrack.model.ViolationAnalysisComment;
 import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.model.VulnIdAndSource;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerabilityMetrics;
@@ -85,9 +86,12 @@ import javax.jdo.Query;
 import javax.jdo.Transaction;
 import javax.json.JsonObject;
 import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -520,6 +524,10 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().createComponent(component, commitIndex);
     }
 
+    public List<Component> createComponents(final List<Component> components, final boolean commitIndex) {
+        return getComponentQueryManager().createComponents(components, commitIndex);
+    }
+
     public Component cloneComponent(Component sourceComponent, Project destinationProject, boolean commitIndex) {
         return getComponentQueryManager().cloneComponent(sourceComponent, destinationProject, commitIndex);
     }
@@ -594,10 +602,14 @@ public class QueryManager extends AlpineQueryManager {
         return getPolicyQueryManager().updatePolicyCondition(policyCondition);
     }
 
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+    public void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
         getPolicyQueryManager().reconcilePolicyViolations(component, policyViolations);
     }
 
+    public ReconciledPolicyViolations reconcilePolicyViolations(final Collection<Component> components, final Collection<PolicyViolation> policyViolations) {
+        return getPolicyQueryManager().reconcilePolicyViolations(components, policyViolations);
+    }
+
     public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
         return getPolicyQueryManager().addPolicyViolationIfNotExist(pv);
     }
@@ -691,6 +703,10 @@ public class QueryManager extends AlpineQueryManager {
         getPolicyQueryManager().deletePolicyCondition(policyCondition);
     }
 
+    public Set<Long> getViolatingComponentIds(final Policy policy) {
+        return getPolicyQueryManager().getViolatingComponentIds(policy);
+    }
+
     public Vulnerability createVulnerability(Vulnerability vulnerability, boolean commitIndex) {
         return getVulnerabilityQueryManager().createVulnerability(vulnerability, commitIndex);
     }
@@ -873,14 +889,22 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().matchIdentity(cid);
     }
 
-    public void reconcileComponents(Project project, List<Component> existingProjectComponents, List<Component> components) {
-        getComponentQueryManager().reconcileComponents(project, existingProjectComponents, components);
+    public void reconcileComponents(final Project project, final Set<Long> componentIds) {
+        getComponentQueryManager().reconcileComponents(project, componentIds);
     }
 
     public List<Component> getAllComponents(Project project) {
         return getComponentQueryManager().getAllComponents(project);
     }
 
+    public List<Component> getComponentsForAnalysis(final Project project) {
+        return getComponentQueryManager().getComponentsForAnalysis(project);
+    }
+
+    public List<Component> getComponentIdentities(final Project project) {
+        return getComponentQueryManager().getComponentIdentities(project);
+    }
+
     public PaginatedResult getComponents(final Project project, final boolean includeMetrics) {
         return getComponentQueryManager().getComponents(project, includeMetrics);
     }
@@ -889,8 +913,8 @@ public class QueryManager extends AlpineQueryManager {
         return getServiceComponentQueryManager().matchServiceIdentity(project, cid);
     }
 
-    public void reconcileServiceComponents(Project project, List<ServiceComponent> existingProjectServices, List<ServiceComponent> services) {
-        getServiceComponentQueryManager().reconcileServiceComponents(project, existingProjectServices, services);
+    public void reconcileServiceComponents(final Project project, final Set<Long> serviceIds) {
+        getServiceComponentQueryManager().reconcileServiceComponents(project, serviceIds);
     }
 
     public ServiceComponent createServiceComponent(ServiceComponent service, boolean commitIndex) {
@@ -1005,6 +1029,10 @@ public class QueryManager extends AlpineQueryManager {
         return getVulnerabilityQueryManager().getVulnerabilityAliases(vulnerability);
     }
 
+    public Map<VulnIdAndSource, List<VulnerabilityAlias>> getVulnerabilityAliases(final Collection<? extends VulnIdAndSource> vulnIdAndSources) {
+        return getVulnerabilityQueryManager().getVulnerabilityAliases(vulnIdAndSources);
+    }
+
     List<Analysis> getAnalyses(Project project) {
         return getFindingsQueryManager().getAnalyses(project);
     }
@@ -1083,6 +1111,26 @@ public class QueryManager extends AlpineQueryManager {
         getMetricsQueryManager().synchronizeVulnerabilityMetrics(metric);
     }
 
+    public void synchronizeVulnerabilityMetrics(final Collection<VulnerabilityMetrics> metrics) {
+        getMetricsQueryManager().synchronizeVulnerabilityMetrics(metrics);
+    }
+
+    public void recordComponentMetricsChange(final Collection<Long> componentIds) {
+        getMetricsQueryManager().recordComponentMetricsChange(componentIds);
+    }
+
+    public void recordVulnerabilityMetricsChange(final Collection<Long> vulnerabilityIds) {
+        getMetricsQueryManager().recordVulnerabilityMetricsChange(vulnerabilityIds);
+    }
+
+    public Map<Long, Long> getComponentMetricsChangeSequences(final Collection<Long> componentIds) {
+        return getMetricsQueryManager().getComponentMetricsChangeSequences(componentIds);
+    }
+
+    public void resetComponentMetricsChangeSequences(final Map<Long, Long> sequenceByComponentId) {
+        getMetricsQueryManager().resetComponentMetricsChangeSequences(sequenceByComponentId);
+    }
+
     void deleteMetrics(Project project) {
         getMetricsQueryManager().deleteMetrics(project);
     }
@@ -1397,35 +1445,46 @@ public class QueryManager extends AlpineQueryManager {
     }
 
     /**
-     * Record the successful receipt of a {@link ScanStatus#SCAN_STATUS_COMPLETE} event for a given {@link VulnerabilityScan}.
+     * Record the successful receipt of {@link ScanStatus#SCAN_STATUS_COMPLETE} events for multiple {@link VulnerabilityScan}s.
      * <p>
      * This method expects that access to the {@link VulnerabilityScan} table is serialized
      * through Kafka events, keyed by the scan's token. This assumption allows for optimistic
      * locking to be used.
      *
-     * @param scanToken The token that uniquely identifies the scan for clients
-     * @return The updated {@link VulnerabilityScan}, or {@code null} when no {@link VulnerabilityScan} was found
+     * {@link VulnerabilityScan}s that completed are marked as pending policy evaluation.
+     *
+     * @param receivedResultsByToken Number of newly received results, per token of the {@link VulnerabilityScan}
+     * @return The updated {@link VulnerabilityScan}s in detached state. Tokens for which no
+     * {@link VulnerabilityScan} was found are omitted.
      */
-    public VulnerabilityScan recordVulnerabilityScanResult(final String scanToken) {
+    public List<VulnerabilityScan> recordVulnerabilityScanResults(final Map<String, Integer> receivedResultsByToken) {
+        if (receivedResultsByToken.isEmpty()) {
+            return Collections.emptyList();
+        }
+
         final Transaction trx = pm.currentTransaction();
         trx.setOptimistic(true);
+        trx.setRetainValues(true);
         try {
             trx.begin();
             final Query<VulnerabilityScan> scanQuery = pm.newQuery(VulnerabilityScan.class);
-            scanQuery.setFilter("token == :token");
-            scanQuery.setParameters(scanToken);
-            final VulnerabilityScan scan = scanQuery.executeUnique();
-            if (scan == null) {
-                return null;
+            scanQuery.setFilter(":tokens.contains(token)");
+            scanQuery.setParameters(receivedResultsByToken.keySet());
+            final List<VulnerabilityScan> scans = scanQuery.executeList();
+            final var updatedAt = new Date();
+            for (final VulnerabilityScan scan : scans) {
+                final int received = scan.getReceivedResults() + receivedResultsByToken.get(scan.getToken());
+                scan.setReceivedResults(received);
+                scan.setStatus(received >= scan.getExpectedResults()
+                        ? VulnerabilityScan.Status.COMPLETED
+                        : VulnerabilityScan.Status.IN_PROGRESS);
+                if (scan.getStatus() == VulnerabilityScan.Status.COMPLETED) {
+                    scan.setPolicyEvaluationPending(true);
+                }
+                scan.setUpdatedAt(updatedAt);
             }
-            final int received = scan.getReceivedResults() + 1;
-            scan.setReceivedResults(received);
-            scan.setStatus(scan.getExpectedResults() - received == 0
-                    ? VulnerabilityScan.Status.COMPLETED
-                    : VulnerabilityScan.Status.IN_PROGRESS);
-            scan.setUpdatedAt(new Date());
             trx.commit();
-            return scan;
+            return List.copyOf(pm.detachCopyAll(scans));
         } finally {
             if (trx.isActive()) {
                 trx.rollback();
@@ -1433,4 +1492,40 @@ public class QueryManager extends AlpineQueryManager {
         }
     }
 
+
+    /**
+     * Fetch all completed {@link VulnerabilityScan}s whose policy evaluation is still pending.
+     *
+     * @return The {@link VulnerabilityScan}s in detached state
+     * @since 4.8.0
+     */
+    public List<VulnerabilityScan> getVulnerabilityScansPendingPolicyEvaluation() {
+        final Query<VulnerabilityScan> scanQuery = pm.newQuery(VulnerabilityScan.class);
+        try {
+            scanQuery.setFilter("status == :status && policyEvaluationPending == true");
+            scanQuery.setParameters(VulnerabilityScan.Status.COMPLETED);
+            return List.copyOf(pm.detachCopyAll(scanQuery.executeList()));
+        } finally {
+            scanQuery.closeAll();
+        }
+    }
+
+    /**
+     * Record that the policy evaluation triggered by the completion of a {@link VulnerabilityScan} completed.
+     *
+     * @param token The token that uniquely identifies the scan for clients
+     * @since 4.8.0
+     */
+    public void recordVulnerabilityScanPolicyEvaluation(final String token) {
+        runInTransaction(() -> {
+            final Query<VulnerabilityScan> scanQuery = pm.newQuery(VulnerabilityScan.class);
+            scanQuery.setFilter("token == :token");
+            scanQuery.setParameters(token);
+            final VulnerabilityScan scan = scanQuery.executeUnique();
+            if (scan != null) {
+                scan.setPolicyEvaluationPending(false);
+            }
+        });
+    }
+
 }
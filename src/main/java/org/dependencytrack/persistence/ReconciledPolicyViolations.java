@@ -0,0 +1,35 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.PolicyViolation;
+
+import java.util.List;
+
+/**
+ * The result of reconciling the {@link PolicyViolation}s of {@link Component}s.
+ *
+ * @param violations    The persistent counterparts of all reconciled {@link PolicyViolation}s
+ * @param newViolations The {@link PolicyViolation}s that have been created during reconciliation
+ * @see QueryManager#reconcilePolicyViolations(java.util.Collection, java.util.Collection)
+ * @since 4.8.0
+ */
+public record ReconciledPolicyViolations(List<PolicyViolation> violations, List<PolicyViolation> newViolations) {
+}
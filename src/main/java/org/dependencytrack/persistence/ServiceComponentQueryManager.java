@@ -29,8 +29,8 @@ import org.dependencytrack.model.ServiceComponent;
 import javax.jdo.FetchPlan;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 final class ServiceComponentQueryManager extends QueryManager implements IQueryManager {
 
@@ -64,34 +64,25 @@ final class ServiceComponentQueryManager extends QueryManager implements IQueryM
     }
 
     /**
-     * Intelligently adds service components that are not already a dependency
-     * of the specified project and removes the dependency relationship for service components
-     * that are not in the list of specified components.
-     * @param project the project to bind components to
-     * @param existingProjectServices the complete list of existing dependent service components
-     * @param services the complete list of service components that should be dependencies of the project
+     * Removes all service components of the specified project that are not in the specified set of service component IDs.
+     * @param project the project to reconcile service components of
+     * @param serviceIds IDs of all service components that should be dependencies of the project
+     * @since 4.8.0
      */
-    public void reconcileServiceComponents(Project project, List<ServiceComponent> existingProjectServices, List<ServiceComponent> services) {
-        // Removes components as dependencies to the project for all
-        // components not included in the list provided
-        List<ServiceComponent> markedForDeletion = new ArrayList<>();
-        for (final ServiceComponent existingService: existingProjectServices) {
-            boolean keep = false;
-            for (final ServiceComponent service: services) {
-                if (service.getId() == existingService.getId()) {
-                    keep = true;
-                    break;
-                }
-            }
-            if (!keep) {
-                markedForDeletion.add(existingService);
-            }
+    public void reconcileServiceComponents(final Project project, final Set<Long> serviceIds) {
+        final List<Long> markedForDeletion;
+        final Query<ServiceComponent> query = pm.newQuery(ServiceComponent.class, "project == :project");
+        query.setResult("id");
+        try {
+            markedForDeletion = ((List<Long>) query.execute(project)).stream()
+                    .filter(id -> !serviceIds.contains(id))
+                    .toList();
+        } finally {
+            query.closeAll();
         }
-        if (!markedForDeletion.isEmpty()) {
-            for (ServiceComponent sc: markedForDeletion) {
-                this.recursivelyDelete(sc, false);
-            }
-            //this.delete(markedForDeletion);
+
+        for (final Long id : markedForDeletion) {
+            this.recursivelyDelete(pm.getObjectById(ServiceComponent.class, id), false);
         }
     }
 
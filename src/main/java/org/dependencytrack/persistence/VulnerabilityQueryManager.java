@@ -28,10 +28,15 @@ import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.FindingAttribution;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
+import org.dependencytrack.model.VulnIdAndSource;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.model.AnalyzerIdentity;
+import org.dependencytrack.util.VulnerabilityAliasIndex;
+import org.dependencytrack.util.VulnerabilityLookupCache;
+import org.dependencytrack.util.VulnerabilityUtil;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
@@ -40,6 +45,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +78,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      * @return a new vulnerability object
      */
     public Vulnerability createVulnerability(Vulnerability vulnerability, boolean commitIndex) {
+        vulnerability.setContentHash(VulnerabilityUtil.computeContentHash(vulnerability));
         final Vulnerability result = persist(vulnerability);
         Event.dispatch(new IndexEvent(IndexEvent.Action.CREATE, pm.detachCopy(result)));
         commitSearchIndex(commitIndex, Vulnerability.class);
@@ -92,6 +99,9 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             vulnerability = getVulnerabilityByVulnId(transientVulnerability.getSource(), transientVulnerability.getVulnId());
         }
         if (vulnerability != null) {
+            final String previousSource = vulnerability.getSource();
+            final String previousVulnId = vulnerability.getVulnId();
+            final Severity previousSeverity = vulnerability.getSeverity();
             vulnerability.setCreated(transientVulnerability.getCreated());
             vulnerability.setPublished(transientVulnerability.getPublished());
             vulnerability.setUpdated(transientVulnerability.getUpdated());
@@ -123,7 +133,14 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             if (transientVulnerability.getVulnerableSoftware() != null) {
                 vulnerability.setVulnerableSoftware(transientVulnerability.getVulnerableSoftware());
             }
+            vulnerability.setContentHash(VulnerabilityUtil.computeContentHash(vulnerability));
             final Vulnerability result = persist(vulnerability);
+            // Only invalidate once committed, such that concurrent lookups can not cache the previous content again.
+            VulnerabilityLookupCache.getInstance().invalidate(previousSource, previousVulnId);
+            VulnerabilityLookupCache.getInstance().invalidate(result.getSource(), result.getVulnId());
+            if (result.getSeverity() != previousSeverity) {
+                recordVulnerabilityMetricsChange(List.of(result.getId()));
+            }
             Event.dispatch(new IndexEvent(IndexEvent.Action.UPDATE, pm.detachCopy(result)));
             commitSearchIndex(commitIndex, Vulnerability.class);
             return result;
@@ -135,11 +152,22 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      * Synchronizes a vulnerability. Method first checkes to see if the vulnerability already
      * exists and if so, updates the vulnerability. If the vulnerability does not already exist,
      * this method will create a new vulnerability.
+     * <p>
+     * If the vulnerability was previously synchronized from the exact same content, it is neither
+     * loaded nor updated. Because vulnerable software is not covered by the content hash, this
+     * does not apply when the given vulnerability has vulnerable software associated.
      * @param vulnerability the vulnerability to synchronize
      * @param commitIndex specifies if the search index should be committed (an expensive operation)
      * @return a Vulnerability object
      */
     public Vulnerability synchronizeVulnerability(Vulnerability vulnerability, boolean commitIndex) {
+        if (vulnerability.getVulnerableSoftware() == null) {
+            final Vulnerability unchangedVulnerability = getVulnerabilityByContentHash(vulnerability.getSource(),
+                    vulnerability.getVulnId(), VulnerabilityUtil.computeContentHash(vulnerability));
+            if (unchangedVulnerability != null) {
+                return unchangedVulnerability;
+            }
+        }
         Vulnerability result = updateVulnerability(vulnerability, commitIndex);
         if (result == null) {
             result = createVulnerability(vulnerability, commitIndex);
@@ -147,6 +175,33 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         return result;
     }
 
+    /**
+     * Returns a vulnerability by its name and source, but only if it was last synchronized
+     * from content with the given hash. Only the ID of the vulnerability is queried,
+     * none of its fields are loaded.
+     * @param source the source of the vulnerability
+     * @param vulnId the name of the vulnerability
+     * @param contentHash the content hash as computed by {@link VulnerabilityUtil#computeContentHash(Vulnerability)}
+     * @return a hollow Vulnerability object, or null if not found or the content hash does not match
+     */
+    private Vulnerability getVulnerabilityByContentHash(String source, String vulnId, String contentHash) {
+        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+        query.setFilter("source == :source && vulnId == :vulnId && contentHash == :contentHash");
+        query.setParameters(source, vulnId, contentHash);
+        query.setResult("id");
+        query.setRange(0, 1);
+        final Long id;
+        try {
+            id = query.executeResultUnique(Long.class);
+        } finally {
+            query.closeAll();
+        }
+        if (id == null) {
+            return null;
+        }
+        return (Vulnerability) pm.getObjectById(pm.newObjectIdInstance(Vulnerability.class, id), false);
+    }
+
     /**
      * Returns a vulnerability by it's name (i.e. CVE-2017-0001) and source.
      * @param source the source of the vulnerability
@@ -215,6 +270,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             component.addVulnerability(vulnerability);
             component = persist(component);
             persist(new FindingAttribution(component, vulnerability, analyzerIdentity, alternateIdentifier, referenceUrl));
+            recordComponentMetricsChange(List.of(component.getId()));
         }
     }
 
@@ -233,6 +289,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         if (fa != null) {
             delete(fa);
         }
+        recordComponentMetricsChange(List.of(component.getId()));
     }
 
     /**
@@ -366,6 +423,10 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
     public List<Vulnerability> getAllVulnerabilities(Component component, boolean includeSuppressed) {
         final String filter = includeSuppressed ? "components.contains(:component)" : "components.contains(:component)" + generateExcludeSuppressed(component.getProject(), component);
         final Query<Vulnerability> query = pm.newQuery(Vulnerability.class, filter);
+        // Without explicit ordering, the order of results depends on the query plan, which changes
+        // with the indexes available (e.g. on CONTENTHASH). Responses of /v1/vulnerability/project
+        // are built from these results, so keep them in a stable order.
+        query.setOrdering("id asc");
         final List<Vulnerability> vulnerabilities = (List<Vulnerability>)query.execute(component);
         for (final Vulnerability vulnerability: vulnerabilities) {
             //vulnerability.setAffectedProjectCount(this.getProjects(vulnerability).size());
@@ -430,9 +491,11 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             final Collection<Vulnerability> componentVulns = pm.detachCopyAll(
                     getAllVulnerabilities(component, includeSuppressed)
             );
+            final Map<VulnIdAndSource, List<VulnerabilityAlias>> aliases = VulnerabilityAliasIndex.getInstance().getAliases(this,
+                    componentVulns.stream().map(VulnIdAndSource::new).collect(Collectors.toSet()));
             for (final Vulnerability componentVuln: componentVulns) {
                 componentVuln.setComponents(Collections.singletonList(pm.detachCopy(component)));
-                componentVuln.setAliases(new ArrayList<>(pm.detachCopyAll(getVulnerabilityAliases(componentVuln))));
+                componentVuln.setAliases(new ArrayList<>(aliases.get(new VulnIdAndSource(componentVuln))));
             }
             vulnerabilities.addAll(componentVulns);
         }
@@ -540,11 +603,42 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
         query.setFilter(filter);
         final VulnerabilityAlias existingAlias = singleResult(query.executeWithMap(params));
+        final VulnerabilityAlias persistedAlias;
+        // Vulnerabilities the alias referred to before it was modified are affected as well.
+        final var aliasIdentifiers = new HashSet<VulnIdAndSource>();
         if (existingAlias != null) {
+            aliasIdentifiers.addAll(VulnerabilityAliasIndex.getAliasIdentifiers(List.of(existingAlias)));
             existingAlias.copyFieldsFrom(alias);
-            return persist(existingAlias);
+            persistedAlias = persist(existingAlias);
         } else {
-            return persist(alias);
+            persistedAlias = persist(alias);
+        }
+        aliasIdentifiers.addAll(VulnerabilityAliasIndex.getAliasIdentifiers(List.of(persistedAlias)));
+        VulnerabilityAliasIndex.getInstance().invalidate(aliasIdentifiers);
+        recordVulnerabilityMetricsChange(getVulnerabilityIds(aliasIdentifiers));
+        return persistedAlias;
+    }
+
+    /**
+     * Returns the IDs of all {@link Vulnerability}s identified by the given {@link VulnIdAndSource}s.
+     * @param vulnIdAndSources the identifiers of the vulnerabilities
+     * @return a Set of IDs
+     */
+    private Set<Long> getVulnerabilityIds(final Collection<VulnIdAndSource> vulnIdAndSources) {
+        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+        try {
+            query.setFilter(":vulnIds.contains(vulnId)");
+            query.setParameters(vulnIdAndSources.stream().map(VulnIdAndSource::vulnId).collect(Collectors.toSet()));
+            query.setResult("id, vulnId, source");
+            final Set<Long> ids = new HashSet<>();
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                if (vulnIdAndSources.contains(new VulnIdAndSource((String) row[1], (String) row[2]))) {
+                    ids.add((Long) row[0]);
+                }
+            }
+            return ids;
+        } finally {
+            query.closeAll();
         }
     }
 
@@ -562,13 +656,91 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         } else if (Vulnerability.Source.SNYK.name().equals(vulnerability.getSource())) {
             query = pm.newQuery(VulnerabilityAlias.class, "snykId == :snykId");
         } else if (Vulnerability.Source.VULNDB.name().equals(vulnerability.getSource())) {
-            query = pm.newQuery(VulnerabilityAlias.class, "vulnDb == :vulnDb");
+            query = pm.newQuery(VulnerabilityAlias.class, "vulnDbId == :vulnDbId");
         } else {
             query = pm.newQuery(VulnerabilityAlias.class, "internalId == :internalId");
         }
         return (List<VulnerabilityAlias>)query.execute(vulnerability.getVulnId());
     }
 
+    /**
+     * Fetch {@link VulnerabilityAlias}es of multiple {@link Vulnerability}s with a single query.
+     * <p>
+     * Aliases are matched in the same way as in {@link #getVulnerabilityAliases(Vulnerability)}.
+     *
+     * @param vulnIdAndSources The {@link VulnIdAndSource}s of the {@link Vulnerability}s to fetch aliases for
+     * @return The {@link VulnerabilityAlias}es of each {@link Vulnerability}. Contains an entry for
+     * every requested {@link VulnIdAndSource}, even if no aliases exist for it.
+     * @since 4.8.0
+     */
+    public Map<VulnIdAndSource, List<VulnerabilityAlias>> getVulnerabilityAliases(final Collection<? extends VulnIdAndSource> vulnIdAndSources) {
+        final var aliasesByVulnIdAndSource = new HashMap<VulnIdAndSource, List<VulnerabilityAlias>>();
+        final var vulnIdAndSourcesByAliasField = new HashMap<String, Map<String, List<VulnIdAndSource>>>();
+        for (final VulnIdAndSource vulnIdAndSource : vulnIdAndSources) {
+            aliasesByVulnIdAndSource.put(vulnIdAndSource, new ArrayList<>());
+            vulnIdAndSourcesByAliasField
+                    .computeIfAbsent(getAliasField(vulnIdAndSource.source()), ignored -> new HashMap<>())
+                    .computeIfAbsent(vulnIdAndSource.vulnId(), ignored -> new ArrayList<>())
+                    .add(vulnIdAndSource);
+        }
+        if (vulnIdAndSourcesByAliasField.isEmpty()) {
+            return aliasesByVulnIdAndSource;
+        }
+
+        final var filterParts = new ArrayList<String>();
+        final var params = new HashMap<String, Object>();
+        for (final Map.Entry<String, Map<String, List<VulnIdAndSource>>> entry : vulnIdAndSourcesByAliasField.entrySet()) {
+            filterParts.add(":%ss.contains(%s)".formatted(entry.getKey(), entry.getKey()));
+            params.put(entry.getKey() + "s", entry.getValue().keySet());
+        }
+
+        final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
+        try {
+            query.setFilter(String.join(" || ", filterParts));
+            query.setNamedParameters(params);
+            for (final VulnerabilityAlias alias : query.executeList()) {
+                for (final Map.Entry<String, Map<String, List<VulnIdAndSource>>> entry : vulnIdAndSourcesByAliasField.entrySet()) {
+                    final String vulnId = getAliasFieldValue(alias, entry.getKey());
+                    for (final VulnIdAndSource vulnIdAndSource : entry.getValue().getOrDefault(vulnId, Collections.emptyList())) {
+                        aliasesByVulnIdAndSource.get(vulnIdAndSource).add(alias);
+                    }
+                }
+            }
+        } finally {
+            query.closeAll();
+        }
+        return aliasesByVulnIdAndSource;
+    }
+
+    private static String getAliasField(final String source) {
+        if (Vulnerability.Source.NVD.name().equals(source)) {
+            return "cveId";
+        } else if (Vulnerability.Source.OSSINDEX.name().equals(source)) {
+            return "sonatypeId";
+        } else if (Vulnerability.Source.GITHUB.name().equals(source)) {
+            return "ghsaId";
+        } else if (Vulnerability.Source.OSV.name().equals(source)) {
+            return "osvId";
+        } else if (Vulnerability.Source.SNYK.name().equals(source)) {
+            return "snykId";
+        } else if (Vulnerability.Source.VULNDB.name().equals(source)) {
+            return "vulnDbId";
+        }
+        return "internalId";
+    }
+
+    private static String getAliasFieldValue(final VulnerabilityAlias alias, final String aliasField) {
+        return switch (aliasField) {
+            case "cveId" -> alias.getCveId();
+            case "sonatypeId" -> alias.getSonatypeId();
+            case "ghsaId" -> alias.getGhsaId();
+            case "osvId" -> alias.getOsvId();
+            case "snykId" -> alias.getSnykId();
+            case "vulnDbId" -> alias.getVulnDbId();
+            default -> alias.getInternalId();
+        };
+    }
+
     /**
      * Reconcile {@link VulnerableSoftware} for a given {@link Vulnerability}.
      * <p>
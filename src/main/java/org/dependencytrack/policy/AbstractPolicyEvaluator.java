@@ -18,12 +18,13 @@
  */
 package org.dependencytrack.policy;
 
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
-import org.dependencytrack.persistence.QueryManager;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -34,10 +35,17 @@ import java.util.stream.Collectors;
  */
 public abstract class AbstractPolicyEvaluator implements PolicyEvaluator {
 
-    protected QueryManager qm = new QueryManager();
-
-    public void setQueryManager(final QueryManager qm) {
-        this.qm = qm;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final Policy policy, final Component component) {
+        final String policyName = policy != null ? policy.getName() : null;
+        final List<CompiledPolicyCondition> conditions = extractSupportedConditions(policy).stream()
+                .map(condition -> CompiledPolicyCondition.compile(condition, policyName))
+                .filter(Objects::nonNull)
+                .toList();
+        return evaluate(context, conditions, component);
     }
 
     protected List<PolicyCondition> extractSupportedConditions(final Policy policy) {
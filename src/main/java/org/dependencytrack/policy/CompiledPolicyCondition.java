@@ -0,0 +1,264 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import alpine.common.logging.Logger;
+import org.cyclonedx.model.Hash;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.parser.common.resolver.CweResolver;
+import org.dependencytrack.util.ComponentVersion;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A {@link PolicyCondition} whose value has been parsed ahead of evaluation.
+ * <p>
+ * Parsing the value of a condition (regular expressions, versions, coordinates, hashes, periods, CWEs)
+ * is done once per {@link PolicyEvaluationPlan}, instead of once per evaluated component.
+ * A {@link CompiledPolicyCondition} is immutable and may be shared across threads.
+ *
+ * @since 4.8.0
+ */
+public final class CompiledPolicyCondition {
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledPolicyCondition.class);
+    private static final Pattern VERSION_OPERATOR_PATTERN = Pattern.compile("^(?<operator>[<>]=?|[!=]=)\\s*");
+
+    /**
+     * The parsed value of a {@link PolicyCondition.Subject#COORDINATES} condition.
+     * <p>
+     * A version with an operator prefix (e.g. {@code >= 1.0.0}) is parsed into {@code versionOperator}
+     * and {@code version}, all other versions are compiled into {@code versionPattern}.
+     */
+    record Coordinates(Pattern groupPattern, Pattern namePattern, boolean hasVersion, Pattern versionPattern,
+                       PolicyCondition.Operator versionOperator, ComponentVersion version) {
+    }
+
+    /**
+     * The parsed value of a {@link PolicyCondition.Subject#CWE} condition.
+     *
+     * @param matchesAny Whether the condition matches any CWE ({@code *})
+     * @param cweIds     The CWE IDs to match
+     */
+    record Cwes(boolean matchesAny, List<Integer> cweIds) {
+    }
+
+    private final PolicyCondition condition;
+    private final String policyName;
+    private final Pattern pattern;
+    private final ComponentVersion version;
+    private final Coordinates coordinates;
+    private final Hash hash;
+    private final Period agePeriod;
+    private final Cwes cwes;
+
+    private CompiledPolicyCondition(final PolicyCondition condition, final String policyName, final Pattern pattern,
+                                    final ComponentVersion version, final Coordinates coordinates, final Hash hash,
+                                    final Period agePeriod, final Cwes cwes) {
+        this.condition = condition;
+        this.policyName = policyName;
+        this.pattern = pattern;
+        this.version = version;
+        this.coordinates = coordinates;
+        this.hash = hash;
+        this.agePeriod = agePeriod;
+        this.cwes = cwes;
+    }
+
+    /**
+     * Compile a given {@link PolicyCondition}.
+     *
+     * @param condition  The {@link PolicyCondition} to compile
+     * @param policyName Name of the {@link org.dependencytrack.model.Policy} the condition belongs to
+     * @return The {@link CompiledPolicyCondition}, or {@code null} when the value of the condition is invalid
+     */
+    static CompiledPolicyCondition compile(final PolicyCondition condition, final String policyName) {
+        Pattern pattern = null;
+        ComponentVersion version = null;
+        Coordinates coordinates = null;
+        Hash hash = null;
+        Period agePeriod = null;
+        Cwes cwes = null;
+        try {
+            switch (condition.getSubject()) {
+                case PACKAGE_URL, CPE, SWID_TAGID -> pattern = Matcher.compile(condition.getValue());
+                case VERSION -> {
+                    version = new ComponentVersion(condition.getValue());
+                    if (version.getVersionParts().isEmpty()) {
+                        LOGGER.warn("Unable to parse version (" + condition.getValue() + " provided by condition");
+                        return null;
+                    }
+                }
+                case COORDINATES -> coordinates = parseCoordinates(condition);
+                case COMPONENT_HASH -> hash = parseHash(condition);
+                case AGE -> {
+                    if (condition.getValue() == null) {
+                        return null;
+                    }
+                    agePeriod = Period.parse(condition.getValue());
+                    if (agePeriod.isZero() || agePeriod.isNegative()) {
+                        LOGGER.warn("Age durations must not be zero or negative");
+                        return null;
+                    }
+                }
+                case CWE -> cwes = parseCwes(condition.getValue());
+                default -> {
+                    // Values of other subjects are used as-is.
+                }
+            }
+        } catch (PatternSyntaxException | JSONException e) {
+            LOGGER.warn("Unable to parse value of condition %s of policy %s; Skipping it"
+                    .formatted(condition.getUuid(), policyName), e);
+            return null;
+        } catch (DateTimeParseException e) {
+            LOGGER.error("Invalid age duration format", e);
+            return null;
+        }
+
+        return new CompiledPolicyCondition(condition, policyName, pattern, version, coordinates, hash, agePeriod, cwes);
+    }
+
+    /**
+     * Expects the format of condition.getValue() to be:
+     * <pre>
+     * {
+     *     'group': 'acme',
+     *     'name': 'test component',
+     *     'version': '1.0.0'
+     * }
+     * </pre>
+     */
+    private static Coordinates parseCoordinates(final PolicyCondition condition) {
+        if (condition.getValue() == null) {
+            return new Coordinates(null, null, false, null, null, null);
+        }
+        final JSONObject def = new JSONObject(condition.getValue());
+        final Pattern groupPattern = Matcher.compile(def.optString("group", null));
+        final Pattern namePattern = Matcher.compile(def.optString("name", null));
+        final String versionValue = def.optString("version", null);
+        if (versionValue == null) {
+            return new Coordinates(groupPattern, namePattern, false, null, null, null);
+        }
+
+        final java.util.regex.Matcher versionOperatorMatcher = VERSION_OPERATOR_PATTERN.matcher(versionValue);
+        if (!versionOperatorMatcher.find()) {
+            // No operator provided, use default matching algorithm
+            return new Coordinates(groupPattern, namePattern, true, Matcher.compile(versionValue), null, null);
+        }
+
+        final PolicyCondition.Operator versionOperator = switch (versionOperatorMatcher.group(1)) {
+            case "==" -> PolicyCondition.Operator.NUMERIC_EQUAL;
+            case "!=" -> PolicyCondition.Operator.NUMERIC_NOT_EQUAL;
+            case "<" -> PolicyCondition.Operator.NUMERIC_LESS_THAN;
+            case "<=" -> PolicyCondition.Operator.NUMERIC_LESSER_THAN_OR_EQUAL;
+            case ">" -> PolicyCondition.Operator.NUMERIC_GREATER_THAN;
+            case ">=" -> PolicyCondition.Operator.NUMERIC_GREATER_THAN_OR_EQUAL;
+            default -> null;
+        };
+        if (versionOperator == null) {
+            // Shouldn't ever happen because the regex won't match anything else
+            LOGGER.error("Failed to infer version operator from " + versionOperatorMatcher.group(1));
+        }
+
+        final String[] versionParts = VERSION_OPERATOR_PATTERN.split(versionValue);
+        final var version = new ComponentVersion(versionParts.length > 1 ? versionParts[1] : "");
+        return new Coordinates(groupPattern, namePattern, true, null, versionOperator, version);
+    }
+
+    private static Hash parseHash(final PolicyCondition condition) {
+        if (condition.getValue() == null) {
+            return null;
+        }
+        final JSONObject def = new JSONObject(condition.getValue());
+        return new Hash(
+                def.optString("algorithm", null),
+                def.optString("value", null)
+        );
+    }
+
+    static Cwes parseCwes(final String value) {
+        if (value == null) {
+            return null;
+        }
+        if ("*".equals(value.trim())) {
+            return new Cwes(true, Collections.emptyList());
+        }
+        final var cweIds = new ArrayList<Integer>();
+        for (final String cwe : value.split(",")) {
+            final Integer id = CweResolver.getInstance().parseCweString(cwe.trim());
+            if (id != null) {
+                cweIds.add(id);
+            }
+        }
+        return new Cwes(false, List.copyOf(cweIds));
+    }
+
+    public PolicyCondition getCondition() {
+        return condition;
+    }
+
+    public PolicyCondition.Subject getSubject() {
+        return condition.getSubject();
+    }
+
+    public PolicyCondition.Operator getOperator() {
+        return condition.getOperator();
+    }
+
+    public String getValue() {
+        return condition.getValue();
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    ComponentVersion getVersion() {
+        return version;
+    }
+
+    Coordinates getCoordinates() {
+        return coordinates;
+    }
+
+    Hash getHash() {
+        return hash;
+    }
+
+    Period getAgePeriod() {
+        return agePeriod;
+    }
+
+    Cwes getCwes() {
+        return cwes;
+    }
+
+}
@@ -24,12 +24,10 @@ import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
-import org.dependencytrack.persistence.QueryManager;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZoneId;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -57,7 +55,8 @@ public class ComponentAgePolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final var violations = new ArrayList<PolicyConditionViolation>();
         if (component.getPurl() == null) {
             return violations;
@@ -68,40 +67,23 @@ public class ComponentAgePolicyEvaluator extends AbstractPolicyEvaluator {
             return violations;
         }
 
-        final RepositoryMetaComponent metaComponent;
-        try (final var qm = new QueryManager()) {
-            metaComponent = qm.getRepositoryMetaComponent(repoType,
-                    component.getPurl().getNamespace(), component.getPurl().getName());
-            qm.getPersistenceManager().detachCopy(metaComponent);
-        }
+        final RepositoryMetaComponent metaComponent = context.qm().getRepositoryMetaComponent(repoType,
+                component.getPurl().getNamespace(), component.getPurl().getName());
         if (metaComponent == null || metaComponent.getPublished() == null) {
             return violations;
         }
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
+        for (final CompiledPolicyCondition condition : conditions) {
             if (evaluate(condition, metaComponent.getPublished())) {
-                violations.add(new PolicyConditionViolation(condition, component));
+                violations.add(new PolicyConditionViolation(condition.getCondition(), component));
             }
         }
 
         return violations;
     }
 
-    private boolean evaluate(final PolicyCondition condition, final Date published) {
-        final Period agePeriod;
-        try {
-            agePeriod = Period.parse(condition.getValue());
-        } catch (DateTimeParseException e) {
-            LOGGER.error("Invalid age duration format", e);
-            return false;
-        }
-
-        if (agePeriod.isZero() || agePeriod.isNegative()) {
-            LOGGER.warn("Age durations must not be zero or negative");
-            return false;
-        }
-
+    private boolean evaluate(final CompiledPolicyCondition condition, final Date published) {
         final LocalDate publishedDate = LocalDate.ofInstant(published.toInstant(), ZoneId.systemDefault());
-        final LocalDate ageDate = publishedDate.plus(agePeriod);
+        final LocalDate ageDate = publishedDate.plus(condition.getAgePeriod());
         final LocalDate today = LocalDate.now(ZoneId.systemDefault());
 
         return switch (condition.getOperator()) {
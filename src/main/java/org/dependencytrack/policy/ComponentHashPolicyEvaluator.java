@@ -22,7 +22,6 @@ import alpine.common.logging.Logger;
 import org.apache.commons.lang3.StringUtils;
 import org.cyclonedx.model.Hash;
 import org.dependencytrack.model.*;
-import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,30 +45,18 @@ public class ComponentHashPolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
-            final Hash hash = extractHashValues(condition);
-            if (matches(hash, component)) {
-                violations.add(new PolicyConditionViolation(condition, component));
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
+            if (matches(condition.getHash(), component)) {
+                violations.add(new PolicyConditionViolation(condition.getCondition(), component));
             }
         }
         return violations;
     }
 
-    private Hash extractHashValues(PolicyCondition condition) {
-
-        if (condition.getValue() == null) {
-            return null;
-        }
-        final JSONObject def = new JSONObject(condition.getValue());
-        return new Hash(
-                def.optString("algorithm", null),
-                def.optString("value", null)
-        );
-    }
-
     private boolean matches(Hash hash, Component component) {
 
         if (hash != null && hash.getAlgorithm() != null && hash.getValue() != null) {
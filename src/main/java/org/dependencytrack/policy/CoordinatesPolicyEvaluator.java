@@ -21,15 +21,11 @@ package org.dependencytrack.policy;
 import alpine.common.logging.Logger;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.model.Component;
-import org.dependencytrack.model.Coordinates;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.util.ComponentVersion;
-import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -41,7 +37,6 @@ import java.util.regex.Pattern;
 public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
 
     private static final Logger LOGGER = Logger.getLogger(CoordinatesPolicyEvaluator.class);
-    private static final Pattern VERSION_OPERATOR_PATTERN = Pattern.compile("^(?<operator>[<>]=?|[!=]=)\\s*");
 
     /**
      * {@inheritDoc}
@@ -55,95 +50,58 @@ public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
-            final Coordinates coordinates = parseCoordinatesDefinition(condition);
-            if (matches(condition.getOperator(), coordinates.getGroup(), component.getGroup())
-                    && matches(condition.getOperator(), coordinates.getName(), component.getName())
-                    && versionMatches(condition.getOperator(), coordinates.getVersion(), component.getVersion())) {
-                violations.add(new PolicyConditionViolation(condition, component));
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
+            final CompiledPolicyCondition.Coordinates coordinates = condition.getCoordinates();
+            if (matches(condition.getOperator(), coordinates.groupPattern(), component.getGroup())
+                    && matches(condition.getOperator(), coordinates.namePattern(), component.getName())
+                    && versionMatches(condition.getOperator(), coordinates, component.getVersion())) {
+                violations.add(new PolicyConditionViolation(condition.getCondition(), component));
             }
         }
         return violations;
     }
 
-    private boolean matches(final PolicyCondition.Operator operator, final String conditionValue, final String part) {
-        if (conditionValue == null && part == null) {
+    private boolean matches(final PolicyCondition.Operator operator, final Pattern conditionPattern, final String part) {
+        if (conditionPattern == null && part == null) {
             return true;
         }
         final String p = StringUtils.trimToNull(part);
         if (p != null) {
             if (operator == PolicyCondition.Operator.MATCHES) {
-                return org.dependencytrack.policy.Matcher.matches(p, conditionValue);
+                return Matcher.matchesPattern(p, conditionPattern);
             } else if (operator == PolicyCondition.Operator.NO_MATCH) {
-                return !org.dependencytrack.policy.Matcher.matches(p, conditionValue);
+                return !Matcher.matchesPattern(p, conditionPattern);
             }
         }
         return false;
     }
 
-    private boolean versionMatches(final PolicyCondition.Operator conditionOperator, final String conditionValue, final String part) {
-        if (conditionValue == null && part == null) {
+    private boolean versionMatches(final PolicyCondition.Operator conditionOperator,
+                                   final CompiledPolicyCondition.Coordinates coordinates, final String part) {
+        if (!coordinates.hasVersion() && part == null) {
             return true;
-        } else if (conditionValue == null ^ part == null) {
+        } else if (!coordinates.hasVersion() ^ part == null) {
             return false;
         }
-        final Matcher versionOperatorMatcher = VERSION_OPERATOR_PATTERN.matcher(conditionValue);
-        if (!versionOperatorMatcher.find()) {
+        if (coordinates.versionPattern() != null) {
             // No operator provided, use default matching algorithm
-            return matches(conditionOperator, conditionValue, part);
+            return matches(conditionOperator, coordinates.versionPattern(), part);
         }
-
-        final PolicyCondition.Operator versionOperator = switch (versionOperatorMatcher.group(1)) {
-            case "==" -> PolicyCondition.Operator.NUMERIC_EQUAL;
-            case "!=" -> PolicyCondition.Operator.NUMERIC_NOT_EQUAL;
-            case "<" -> PolicyCondition.Operator.NUMERIC_LESS_THAN;
-            case "<=" -> PolicyCondition.Operator.NUMERIC_LESSER_THAN_OR_EQUAL;
-            case ">" -> PolicyCondition.Operator.NUMERIC_GREATER_THAN;
-            case ">=" -> PolicyCondition.Operator.NUMERIC_GREATER_THAN_OR_EQUAL;
-            default -> null;
-        };
-        if (versionOperator == null) {
-            // Shouldn't ever happen because the regex won't match anything else
-            LOGGER.error("Failed to infer version operator from " + versionOperatorMatcher.group(1));
+        if (coordinates.versionOperator() == null) {
             return false;
         }
 
         final var componentVersion = new ComponentVersion(part);
-        final var conditionVersion = new ComponentVersion(VERSION_OPERATOR_PATTERN.split(conditionValue)[1]);
-
-        final boolean versionMatches = VersionPolicyEvaluator.matches(componentVersion, conditionVersion, versionOperator);
+        final boolean versionMatches = VersionPolicyEvaluator.matches(componentVersion, coordinates.version(), coordinates.versionOperator());
         if (PolicyCondition.Operator.NO_MATCH == conditionOperator) {
             return !versionMatches;
         }
         return versionMatches;
     }
 
-    /**
-     * Expects the format of condition.getValue() to be:
-     * <pre>
-     * {
-     *     'group': 'acme',
-     *     'name': 'test component',
-     *     'version': '1.0.0'
-     * }
-     * </pre>
-     *
-     * @param condition teh condition to evaluate
-     * @return the Coordinates
-     */
-    private Coordinates parseCoordinatesDefinition(final PolicyCondition condition) {
-        if (condition.getValue() == null) {
-            return new Coordinates(null, null, null);
-        }
-        final JSONObject def = new JSONObject(condition.getValue());
-        return new Coordinates(
-                def.optString("group", null),
-                def.optString("name", null),
-                def.optString("version", null)
-        );
-    }
 
 }
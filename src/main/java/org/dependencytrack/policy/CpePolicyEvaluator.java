@@ -20,7 +20,6 @@ package org.dependencytrack.policy;
 
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 
 import java.util.ArrayList;
@@ -48,16 +47,17 @@ public class CpePolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
             if (PolicyCondition.Operator.MATCHES == condition.getOperator()) {
-                if (Matcher.matches(component.getCpe(), condition.getValue())) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                if (Matcher.matchesPattern(component.getCpe(), condition.getPattern())) {
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
-            } else if (condition.getOperator() == PolicyCondition.Operator.NO_MATCH && !Matcher.matches(component.getCpe(), condition.getValue())) {
-                violations.add(new PolicyConditionViolation(condition, component));
+            } else if (condition.getOperator() == PolicyCondition.Operator.NO_MATCH && !Matcher.matchesPattern(component.getCpe(), condition.getPattern())) {
+                violations.add(new PolicyConditionViolation(condition.getCondition(), component));
             }
         }
 
@@ -21,13 +21,10 @@ package org.dependencytrack.policy;
  import alpine.common.logging.Logger;
  import org.apache.commons.collections4.CollectionUtils;
  import org.dependencytrack.model.Component;
- import org.dependencytrack.model.Policy;
  import org.dependencytrack.model.PolicyCondition;
  import org.dependencytrack.model.Vulnerability;
- import org.dependencytrack.parser.common.resolver.CweResolver;
 
  import java.util.ArrayList;
- import java.util.Arrays;
  import java.util.List;
 
 /**
@@ -49,14 +46,14 @@ public class CwePolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
-        final List<PolicyCondition> policyConditions = super.extractSupportedConditions(policy);
-        for (final Vulnerability vulnerability : qm.getAllVulnerabilities(component, false)) {
-            for (final PolicyCondition condition: policyConditions) {
-                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
-                if (matches(condition.getOperator(), vulnerability.getCwes(), condition.getValue())) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+        for (final Vulnerability vulnerability : context.getVulnerabilities(component)) {
+            for (final CompiledPolicyCondition condition: conditions) {
+                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
+                if (matches(condition.getOperator(), vulnerability.getCwes(), condition.getCwes())) {
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
             }
         }
@@ -64,26 +61,21 @@ public class CwePolicyEvaluator extends AbstractPolicyEvaluator {
     }
 
     public boolean matches(final PolicyCondition.Operator operator, final List<Integer> vulnerabilityCwes, final String conditionValue) {
+        return matches(operator, vulnerabilityCwes, CompiledPolicyCondition.parseCwes(conditionValue));
+    }
 
-        if (conditionValue == null || vulnerabilityCwes == null) {
+    boolean matches(final PolicyCondition.Operator operator, final List<Integer> vulnerabilityCwes, final CompiledPolicyCondition.Cwes conditionCwes) {
+        if (conditionCwes == null || vulnerabilityCwes == null) {
             return false;
         }
-        if("*".equals(conditionValue.trim())){
+        if (conditionCwes.matchesAny()) {
             return true;
         }
-        List<Integer> cweIdsToMatch = new ArrayList<>();
-        List<String> conditionCwes = Arrays.asList(conditionValue.split(","));
-        conditionCwes.replaceAll(String::trim);
-        conditionCwes.stream().forEach(cwe -> {
-            Integer id = CweResolver.getInstance().parseCweString(cwe);
-            if(id != null)
-                cweIdsToMatch.add(id);
-        });
-        if (!cweIdsToMatch.isEmpty()) {
+        if (!conditionCwes.cweIds().isEmpty()) {
             if (PolicyCondition.Operator.CONTAINS_ANY == operator) {
-                return CollectionUtils.containsAny(vulnerabilityCwes, cweIdsToMatch);
+                return CollectionUtils.containsAny(vulnerabilityCwes, conditionCwes.cweIds());
             } else if (PolicyCondition.Operator.CONTAINS_ALL == operator) {
-                return CollectionUtils.containsAll(vulnerabilityCwes, cweIdsToMatch);
+                return CollectionUtils.containsAll(vulnerabilityCwes, conditionCwes.cweIds());
             }
         }
         return false;
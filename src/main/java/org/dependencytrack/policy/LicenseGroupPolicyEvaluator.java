@@ -21,12 +21,11 @@ package org.dependencytrack.policy;
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
-import org.dependencytrack.model.LicenseGroup;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Evaluates if a components resolved license is in the license group defined by the policy.
@@ -50,27 +49,28 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
         final License license = component.getResolvedLicense();
 
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
-            final LicenseGroup lg = qm.getObjectByUuid(LicenseGroup.class, condition.getValue());
-            if (lg == null) {
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
+            final Set<Long> licenseIds = context.getLicenseGroupLicenseIds(condition.getValue());
+            if (licenseIds == null) {
                 LOGGER.warn("The license group %s does not exist; Skipping evaluation of condition %s of policy %s"
-                        .formatted(condition.getValue(), condition.getUuid(), policy.getName()));
+                        .formatted(condition.getValue(), condition.getCondition().getUuid(), condition.getPolicyName()));
                 continue;
             }
             if (license == null) {
                 if (condition.getOperator() == PolicyCondition.Operator.IS_NOT) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
             } else {
-                final boolean containsLicense = qm.doesLicenseGroupContainLicense(lg, license);
+                final boolean containsLicense = licenseIds.contains(license.getId());
                 if ((condition.getOperator() == PolicyCondition.Operator.IS && containsLicense)
                         || (condition.getOperator() == PolicyCondition.Operator.IS_NOT && !containsLicense)) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
             }
 
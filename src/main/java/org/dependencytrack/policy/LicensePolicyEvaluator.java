@@ -21,7 +21,6 @@ package org.dependencytrack.policy;
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 
 import java.util.ArrayList;
@@ -49,27 +48,28 @@ public class LicensePolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
         final License license = component.getResolvedLicense();
 
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
             if (condition.getValue().equals("unresolved")) {
                 if (license == null && PolicyCondition.Operator.IS == condition.getOperator()) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 } else if (license != null && PolicyCondition.Operator.IS_NOT == condition.getOperator()) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
             } else if (license != null) {
-                final License l = qm.getObjectByUuid(License.class, condition.getValue());
-                if (l != null && PolicyCondition.Operator.IS == condition.getOperator()) {
-                    if (component.getResolvedLicense().getId() == l.getId()) {
-                        violations.add(new PolicyConditionViolation(condition, component));
+                final Long licenseId = context.getLicenseId(condition.getValue());
+                if (licenseId != null && PolicyCondition.Operator.IS == condition.getOperator()) {
+                    if (component.getResolvedLicense().getId() == licenseId) {
+                        violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                     }
-                } else if (l != null && PolicyCondition.Operator.IS_NOT == condition.getOperator()) {
-                    if (component.getResolvedLicense().getId() != l.getId()) {
-                        violations.add(new PolicyConditionViolation(condition, component));
+                } else if (licenseId != null && PolicyCondition.Operator.IS_NOT == condition.getOperator()) {
+                    if (component.getResolvedLicense().getId() != licenseId) {
+                        violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                     }
                 }
             }
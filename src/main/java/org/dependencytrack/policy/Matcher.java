@@ -18,6 +18,8 @@
  */
 package org.dependencytrack.policy;
 
+import java.util.regex.Pattern;
+
 /**
  * Reusable methods that PolicyEvaluator implementations can extend.
  *
@@ -40,12 +42,40 @@ public final class Matcher {
      * @return <code>true</code> if the value matches the conditionString
      */
     static boolean matches(String value, String conditionString) {
-        if (value == null && conditionString == null) {
+        return matchesPattern(value, compile(conditionString));
+    }
+
+    /**
+     * Check if the given value matches with a {@link Pattern} previously compiled via {@link #compile(String)}.
+     *
+     * @param value   The value to match against
+     * @param pattern The compiled condition that should match, or <code>null</code> if the condition has no value
+     * @return <code>true</code> if the value matches the pattern
+     */
+    static boolean matchesPattern(final String value, final Pattern pattern) {
+        if (value == null && pattern == null) {
             return true;
         }
-        if (value == null ^ conditionString == null) {
+        if (value == null ^ pattern == null) {
             return false;
         }
+        return pattern.matcher(value).matches();
+    }
+
+    /**
+     * Compile the given conditionString into a {@link Pattern}, such that it can be
+     * matched against many values without being parsed again. If the conditionString
+     * is not a regular expression, turn it into one.
+     *
+     * @param conditionString The condition that should match -- may or may not be a
+     *                        regular expression
+     * @return The compiled {@link Pattern}, or <code>null</code> if the conditionString is <code>null</code>
+     * @throws java.util.regex.PatternSyntaxException When the conditionString is not a valid regular expression
+     */
+    static Pattern compile(String conditionString) {
+        if (conditionString == null) {
+            return null;
+        }
         conditionString = conditionString.replace("*", ".*").replace("..*", ".*");
         if (!conditionString.startsWith("^") && !conditionString.startsWith(".*")) {
             conditionString = ".*" + conditionString;
@@ -53,6 +83,6 @@ public final class Matcher {
         if (!conditionString.endsWith("$") && !conditionString.endsWith(".*")) {
             conditionString += ".*";
         }
-        return value.matches(conditionString);
+        return Pattern.compile(conditionString);
     }
 }
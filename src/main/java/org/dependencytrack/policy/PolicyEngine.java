@@ -24,8 +24,9 @@ import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
-import org.dependencytrack.model.Tag;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.ReconciledPolicyViolations;
+import org.dependencytrack.policy.PolicyEvaluationPlan.CompiledPolicy;
 import org.dependencytrack.util.NotificationUtil;
 
 import javax.jdo.PersistenceManager;
@@ -35,6 +36,10 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 
 /**
  * A lightweight policy engine that evaluates a list of components against
@@ -47,25 +52,59 @@ import java.util.UUID;
 public class PolicyEngine {
 
     private static final Logger LOGGER = Logger.getLogger(PolicyEngine.class);
+    private static final int PAGE_SIZE = 500;
 
-    private final List<PolicyEvaluator> evaluators = new ArrayList<>();
+    private static final PolicyEngine INSTANCE = new PolicyEngine();
 
-    public PolicyEngine() {
-        evaluators.add(new SeverityPolicyEvaluator());
-        evaluators.add(new CoordinatesPolicyEvaluator());
-        evaluators.add(new LicenseGroupPolicyEvaluator());
-        evaluators.add(new LicensePolicyEvaluator());
-        evaluators.add(new PackageURLPolicyEvaluator());
-        evaluators.add(new CpePolicyEvaluator());
-        evaluators.add(new SwidTagIdPolicyEvaluator());
-        evaluators.add(new VersionPolicyEvaluator());
-        evaluators.add(new ComponentAgePolicyEvaluator());
-        evaluators.add(new ComponentHashPolicyEvaluator());
-        evaluators.add(new CwePolicyEvaluator());
-        evaluators.add(new VulnerabilityIdPolicyEvaluator());
+    /**
+     * The {@link PolicyEvaluator}s to evaluate {@link Component}s with, in the order of evaluation.
+     * <p>
+     * {@link PolicyEvaluator}s are stateless, and are thus shared across all evaluations and threads.
+     */
+    private static final List<PolicyEvaluator> EVALUATORS = List.of(
+            new SeverityPolicyEvaluator(),
+            new CoordinatesPolicyEvaluator(),
+            new LicenseGroupPolicyEvaluator(),
+            new LicensePolicyEvaluator(),
+            new PackageURLPolicyEvaluator(),
+            new CpePolicyEvaluator(),
+            new SwidTagIdPolicyEvaluator(),
+            new VersionPolicyEvaluator(),
+            new ComponentAgePolicyEvaluator(),
+            new ComponentHashPolicyEvaluator(),
+            new CwePolicyEvaluator(),
+            new VulnerabilityIdPolicyEvaluator()
+    );
+
+    PolicyEngine() {
+    }
+
+    /**
+     * @return The {@link PolicyEngine}, which is safe to be used by multiple threads concurrently
+     * @since 4.8.0
+     */
+    public static PolicyEngine getInstance() {
+        return INSTANCE;
     }
 
     public List<PolicyViolation> evaluateProject(final UUID projectUuid) {
+        return evaluateProject(projectUuid, Runnable::run, 1);
+    }
+
+    /**
+     * Evaluates all {@link Component}s of a {@link Project} against applicable policies.
+     * <p>
+     * Pages of {@link Component}s are evaluated using a given {@link Executor}, with at most
+     * {@code concurrency} pages in progress at any given time. Every page is evaluated with
+     * its own {@link QueryManager}, and the resulting {@link PolicyViolation}s of all pages are merged.
+     *
+     * @param projectUuid The {@link UUID} of the {@link Project} to evaluate
+     * @param executor    The {@link Executor} to evaluate pages of {@link Component}s with
+     * @param concurrency Maximum number of pages to evaluate concurrently
+     * @return The {@link PolicyViolation}s of all {@link Component}s of the {@link Project}
+     * @since 4.8.0
+     */
+    public List<PolicyViolation> evaluateProject(final UUID projectUuid, final Executor executor, final int concurrency) {
         final var violations = new ArrayList<PolicyViolation>();
         try (final var qm = new QueryManager()) {
             final Project project = qm.getObjectByUuid(Project.class, projectUuid);
@@ -75,19 +114,34 @@ public class PolicyEngine {
                 return violations;
             }
 
-            final List<Policy> policies = qm.getAllPolicies();
+            final PolicyEvaluationPlan plan = PolicyEvaluationPlan.get(qm);
+            final PolicyEvaluationPrefetch prefetch = PolicyEvaluationPrefetch.create(qm.getPersistenceManager(), plan);
+            final var completionService = new ExecutorCompletionService<List<PolicyViolation>>(executor);
+            int inFlight = 0;
 
             LOGGER.debug("Fetching first components page for project " + projectUuid);
-            List<Component> components = fetchNextComponentsPage(qm.getPersistenceManager(), project, null);
-            while (!components.isEmpty()) {
-                for (final Component component : components) {
-                    violations.addAll(evaluate(qm, policies, component));
+            List<Long> componentIds = fetchNextComponentIdsPage(qm.getPersistenceManager(), project, null);
+            while (!componentIds.isEmpty()) {
+                if (inFlight == concurrency) {
+                    addPageViolations(violations, completionService.take(), projectUuid);
+                    inFlight--;
                 }
 
+                final List<Long> pageComponentIds = componentIds;
+                completionService.submit(() -> evaluateComponentsPage(plan, prefetch, pageComponentIds));
+                inFlight++;
+
                 LOGGER.debug("Fetching next components page for project " + projectUuid);
-                final long lastId = components.get(components.size() - 1).getId();
-                components = fetchNextComponentsPage(qm.getPersistenceManager(), project, lastId);
+                final long lastId = componentIds.get(componentIds.size() - 1);
+                componentIds = fetchNextComponentIdsPage(qm.getPersistenceManager(), project, lastId);
             }
+
+            for (; inFlight > 0; inFlight--) {
+                addPageViolations(violations, completionService.take(), projectUuid);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while evaluating project %s against applicable policies".formatted(projectUuid));
         }
         return violations;
     }
@@ -95,11 +149,10 @@ public class PolicyEngine {
     public List<PolicyViolation> evaluate(UUID componentUuid) {
         List<PolicyViolation> violations = new ArrayList<>();
         try (final QueryManager qm = new QueryManager()) {
-            final List<Policy> policies = qm.getAllPolicies();
             final Component component = qm.getObjectByUuid(Component.class, componentUuid);
             if (component != null) {
                 LOGGER.debug("Evaluating component " + componentUuid + " against applicable policies");
-                violations.addAll(this.evaluate(qm, policies, component));
+                violations.addAll(this.evaluate(qm, PolicyEvaluationPlan.get(qm), component));
             } else {
                 LOGGER.warn("Unable to evaluate component " + componentUuid + " against applicable policies, because it does not exist");
             }
@@ -107,17 +160,76 @@ public class PolicyEngine {
         return violations;
     }
 
-    private List<PolicyViolation> evaluate(final QueryManager qm, final List<Policy> policies, Component component) {
+    private List<PolicyViolation> evaluate(final QueryManager qm, final PolicyEvaluationPlan plan, Component component) {
+        final List<PolicyViolation> policyViolations = evaluate(qm, plan, null, component);
+        return reconcile(qm, List.of(component), policyViolations);
+    }
+
+    /**
+     * Evaluates a page of {@link Component}s in bulk, using a dedicated {@link QueryManager}.
+     */
+    private List<PolicyViolation> evaluateComponentsPage(final PolicyEvaluationPlan plan,
+                                                         final PolicyEvaluationPrefetch prefetch,
+                                                         final List<Long> componentIds) {
+        try (final var qm = new QueryManager()) {
+            final List<Component> components = fetchComponents(qm.getPersistenceManager(), componentIds);
+            return evaluate(qm, plan, prefetch, components);
+        }
+    }
+
+    /**
+     * Evaluates a page of {@link Component}s in bulk.
+     * <p>
+     * Data required by evaluators is prefetched for the entire page, and violations of all
+     * {@link Component}s in the page are reconciled at once.
+     */
+    private List<PolicyViolation> evaluate(final QueryManager qm, final PolicyEvaluationPlan plan,
+                                           final PolicyEvaluationPrefetch prefetch, final List<Component> components) {
+        final PolicyEvaluationPrefetch pagePrefetch = prefetch.withVulnerabilities(qm.getPersistenceManager(), components);
+
+        final List<PolicyViolation> policyViolations = new ArrayList<>();
+        for (final Component component : components) {
+            policyViolations.addAll(evaluate(qm, plan, pagePrefetch, component));
+        }
+
+        return reconcile(qm, components, policyViolations);
+    }
+
+    /**
+     * Reconciles the {@link PolicyViolation}s of {@link Component}s, and analyzes notification criteria
+     * for {@link PolicyViolation}s that did not exist before.
+     *
+     * @return The persistent {@link PolicyViolation}s of the {@link Component}s
+     */
+    private static List<PolicyViolation> reconcile(final QueryManager qm, final List<Component> components,
+                                                   final List<PolicyViolation> policyViolations) {
+        final ReconciledPolicyViolations reconciledViolations = qm.reconcilePolicyViolations(components, policyViolations);
+        for (final PolicyViolation pv : reconciledViolations.newViolations()) {
+            NotificationUtil.analyzeNotificationCriteria(qm, pv);
+        }
+        return reconciledViolations.violations();
+    }
+
+    /**
+     * Evaluates a {@link Component} against all applicable policies of a {@link PolicyEvaluationPlan}.
+     *
+     * @return The {@link PolicyViolation}s of the {@link Component}, which have not been persisted yet
+     */
+    private List<PolicyViolation> evaluate(final QueryManager qm, final PolicyEvaluationPlan plan,
+                                           final PolicyEvaluationPrefetch prefetch, final Component component) {
+        final var context = new PolicyEvaluationContext(qm, prefetch);
         final List<PolicyViolation> policyViolations = new ArrayList<>();
-        for (Policy policy : policies) {
-            if (policy.isGlobal() || isPolicyAssignedToProject(policy, component.getProject())
-                    || isPolicyAssignedToProjectTag(policy, component.getProject())) {
-                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.getUuid() + ")");
+        for (final CompiledPolicy policy : plan.getPolicies()) {
+            if (policy.isApplicableTo(component.getProject())) {
+                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.uuid() + ")");
                 final List<PolicyConditionViolation> policyConditionViolations = new ArrayList<>();
                 int policyConditionsViolated = 0;
-                for (final PolicyEvaluator evaluator : evaluators) {
-                    evaluator.setQueryManager(qm);
-                    final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(policy, component);
+                for (final PolicyEvaluator evaluator : EVALUATORS) {
+                    final List<CompiledPolicyCondition> conditions = policy.conditionsBySubject().get(evaluator.supportedSubject());
+                    if (conditions == null) {
+                        continue;
+                    }
+                    final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(context, conditions, component);
                     if (!policyConditionViolationsFromEvaluator.isEmpty()) {
                         policyConditionViolations.addAll(policyConditionViolationsFromEvaluator);
                         policyConditionsViolated += (int) policyConditionViolationsFromEvaluator.stream()
@@ -132,40 +244,34 @@ public class PolicyEngine {
                     policyViolations.addAll(result);
             }
         }
-        qm.reconcilePolicyViolations(component, policyViolations);
-        for (final PolicyViolation pv : qm.getAllPolicyViolations(component)) {
-            NotificationUtil.analyzeNotificationCriteria(qm, pv);
-        }
         return policyViolations;
     }
 
-    private List<PolicyViolation> addToPolicyViolation(QueryManager qm, Policy policy, int policyConditionsViolated, List<PolicyConditionViolation> policyConditionViolations) {
-        if (policy.getOperator() == Policy.Operator.ANY) {
+    private List<PolicyViolation> addToPolicyViolation(QueryManager qm, CompiledPolicy policy, int policyConditionsViolated, List<PolicyConditionViolation> policyConditionViolations) {
+        if (policy.operator() == Policy.Operator.ANY) {
             if (policyConditionsViolated > 0) {
                 return createPolicyViolations(qm, policyConditionViolations);
             }
-        } else if (Policy.Operator.ALL == policy.getOperator() && policyConditionsViolated == policy.getPolicyConditions().size()) {
+        } else if (Policy.Operator.ALL == policy.operator() && policyConditionsViolated == policy.conditionCount()) {
             return createPolicyViolations(qm, policyConditionViolations);
         }
         return Collections.emptyList();
     }
 
-    private boolean isPolicyAssignedToProject(Policy policy, Project project) {
-        if (policy.getProjects() == null || policy.getProjects().isEmpty()) {
-            return false;
-        }
-        return (policy.getProjects().stream().anyMatch(p -> p.getId() == project.getId()) || (Boolean.TRUE.equals(policy.isIncludeChildren()) && isPolicyAssignedToParentProject(policy, project)));
-    }
-
     private List<PolicyViolation> createPolicyViolations(final QueryManager qm, final List<PolicyConditionViolation> pcvList) {
+        final PersistenceManager pm = qm.getPersistenceManager();
         final List<PolicyViolation> policyViolations = new ArrayList<>();
         for (PolicyConditionViolation pcv : pcvList) {
+            // Conditions of the evaluation plan are detached, violations must reference a condition
+            // managed by the current PersistenceManager instead.
+            final var policyCondition = (PolicyCondition) pm.getObjectById(
+                    pm.newObjectIdInstance(PolicyCondition.class, pcv.getPolicyCondition().getId()), false);
             final PolicyViolation pv = new PolicyViolation();
             pv.setComponent(pcv.getComponent());
-            pv.setPolicyCondition(pcv.getPolicyCondition());
+            pv.setPolicyCondition(policyCondition);
             pv.setType(determineViolationType(pcv.getPolicyCondition().getSubject()));
             pv.setTimestamp(new Date());
-            policyViolations.add(qm.addPolicyViolationIfNotExist(pv));
+            policyViolations.add(pv);
         }
         return policyViolations;
     }
@@ -183,33 +289,20 @@ public class PolicyEngine {
     }
 
 
-    private boolean isPolicyAssignedToProjectTag(Policy policy, Project project) {
-        if (policy.getTags() == null || policy.getTags().isEmpty()) {
-            return false;
-        }
-        boolean flag = false;
-        for (Tag projectTag : project.getTags()) {
-            flag = policy.getTags().stream().anyMatch(policyTag -> policyTag.getId() == projectTag.getId());
-            if (flag) {
-                break;
-            }
-        }
-        return flag;
-    }
-
-
-    private boolean isPolicyAssignedToParentProject(Policy policy, Project child) {
-        if (child.getParent() == null) {
-            return false;
-        }
-        if (policy.getProjects().stream().anyMatch(p -> p.getId() == child.getParent().getId())) {
-            return true;
+    private static void addPageViolations(final List<PolicyViolation> violations,
+                                          final Future<List<PolicyViolation>> future,
+                                          final UUID projectUuid) throws InterruptedException {
+        try {
+            violations.addAll(future.get());
+        } catch (ExecutionException e) {
+            // Failing to evaluate a single page must not prevent the remaining pages from being evaluated.
+            LOGGER.error("An unexpected error occurred while evaluating components of project %s against applicable policies"
+                    .formatted(projectUuid), e.getCause());
         }
-        return isPolicyAssignedToParentProject(policy, child.getParent());
     }
 
-    private static List<Component> fetchNextComponentsPage(final PersistenceManager pm, final Project project,
-                                                           final Long lastId) {
+    private static List<Long> fetchNextComponentIdsPage(final PersistenceManager pm, final Project project,
+                                                        final Long lastId) {
         final Query<Component> query = pm.newQuery(Component.class);
         try {
             if (lastId == null) {
@@ -219,8 +312,21 @@ public class PolicyEngine {
                 query.setFilter("project == :project && id < :lastId");
                 query.setParameters(project, lastId);
             }
+            query.setResult("id");
+            query.setOrdering("id DESC");
+            query.setRange(0, PAGE_SIZE);
+            return List.copyOf(query.executeResultList(Long.class));
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private static List<Component> fetchComponents(final PersistenceManager pm, final List<Long> componentIds) {
+        final Query<Component> query = pm.newQuery(Component.class);
+        try {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(componentIds);
             query.setOrdering("id DESC");
-            query.setRange(0, 500);
             return List.copyOf(query.executeList());
         } finally {
             query.closeAll();
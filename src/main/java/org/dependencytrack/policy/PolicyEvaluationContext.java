@@ -0,0 +1,84 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.persistence.QueryManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The state of a single policy evaluation, as provided to {@link PolicyEvaluator}s on every invocation.
+ * <p>
+ * {@link PolicyEvaluator}s do not hold any state themselves, such that they can be shared across threads.
+ *
+ * @param qm       The {@link QueryManager} to use for the evaluation
+ * @param prefetch Data fetched in bulk ahead of the evaluation, or {@code null} to fetch data per {@link Component}
+ * @since 4.8.0
+ */
+public record PolicyEvaluationContext(QueryManager qm, PolicyEvaluationPrefetch prefetch) {
+
+    public PolicyEvaluationContext(final QueryManager qm) {
+        this(qm, null);
+    }
+
+    /**
+     * Returns the non-suppressed {@link Vulnerability}s of a given {@link Component},
+     * preferring those fetched in bulk via {@link PolicyEvaluationPrefetch}.
+     */
+    List<Vulnerability> getVulnerabilities(final Component component) {
+        final List<Vulnerability> vulnerabilities = prefetch != null ? prefetch.getVulnerabilities(component) : null;
+        return vulnerabilities != null ? vulnerabilities : qm.getAllVulnerabilities(component, false);
+    }
+
+    /**
+     * Returns the ID of the {@link License} with a given {@link UUID},
+     * or {@code null} when no such {@link License} exists.
+     */
+    Long getLicenseId(final String licenseUuid) {
+        if (prefetch != null) {
+            return prefetch.getLicenseId(licenseUuid);
+        }
+        final License license = qm.getObjectByUuid(License.class, licenseUuid);
+        return license != null ? license.getId() : null;
+    }
+
+    /**
+     * Returns the IDs of all {@link License}s in the {@link LicenseGroup} with a given {@link UUID},
+     * or {@code null} when no such {@link LicenseGroup} exists.
+     */
+    Set<Long> getLicenseGroupLicenseIds(final String licenseGroupUuid) {
+        if (prefetch != null) {
+            return prefetch.getLicenseGroupLicenseIds(licenseGroupUuid);
+        }
+        final LicenseGroup licenseGroup = qm.getObjectByUuid(LicenseGroup.class, licenseGroupUuid);
+        if (licenseGroup == null) {
+            return null;
+        }
+        return licenseGroup.getLicenses() == null ? Set.of()
+                : licenseGroup.getLicenses().stream().map(License::getId).collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
+import alpine.common.util.SystemUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executes policy evaluations asynchronously, such that callers (e.g. Kafka Streams threads)
+ * are not blocked while large {@link Project}s are being evaluated.
+ * <p>
+ * At most {@link ConfigKey#POLICY_EVALUATION_CONCURRENCY} evaluations are executed concurrently,
+ * and at most {@link ConfigKey#POLICY_EVALUATION_QUEUE_MAX_SIZE} evaluations are queued. When the queue
+ * is full, submitting threads are blocked until the queue has capacity again. Evaluations are never
+ * executed by the submitting thread. Pages of {@link Component}s of a {@link Project} are evaluated concurrently
+ * as well, using a separate executor of the same size.
+ *
+ * @since 4.8.0
+ */
+public final class PolicyEvaluationExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(PolicyEvaluationExecutor.class);
+    private static final PolicyEvaluationExecutor INSTANCE = new PolicyEvaluationExecutor(
+            Config.getInstance().getPropertyAsInt(ConfigKey.POLICY_EVALUATION_CONCURRENCY),
+            Config.getInstance().getPropertyAsInt(ConfigKey.POLICY_EVALUATION_QUEUE_MAX_SIZE));
+
+    private final int concurrency;
+    private final ThreadPoolExecutor evaluationExecutor;
+    private final ExecutorService pageExecutor;
+    private final Timer projectTimer;
+    private final Timer componentTimer;
+    private volatile boolean aborted;
+
+    /**
+     * @param concurrency  Maximum number of concurrent evaluations, or {@code 0} to use the number of available CPU cores
+     * @param queueMaxSize Maximum number of queued evaluations
+     */
+    PolicyEvaluationExecutor(final int concurrency, final int queueMaxSize) {
+        this.concurrency = concurrency > 0 ? concurrency : SystemUtil.getCpuCores();
+        this.evaluationExecutor = new ThreadPoolExecutor(this.concurrency, this.concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueMaxSize),
+                new BasicThreadFactory.Builder().namingPattern("PolicyEvaluation-%d").build(),
+                new BlockingSubmissionPolicy());
+        this.pageExecutor = Executors.newFixedThreadPool(this.concurrency, new BasicThreadFactory.Builder()
+                .namingPattern("PolicyEvaluationPage-%d")
+                .build());
+
+        Gauge.builder("policy_evaluation_queue_depth", evaluationExecutor.getQueue(), Collection::size)
+                .description("Number of policy evaluations waiting to be executed")
+                .register(Metrics.getRegistry());
+        this.projectTimer = Timer.builder("policy_evaluation")
+                .description("Time taken to evaluate a project or component against applicable policies")
+                .tag("target", "project")
+                .register(Metrics.getRegistry());
+        this.componentTimer = Timer.builder("policy_evaluation")
+                .description("Time taken to evaluate a project or component against applicable policies")
+                .tag("target", "component")
+                .register(Metrics.getRegistry());
+    }
+
+    public static PolicyEvaluationExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Evaluate all {@link Component}s of a {@link Project} against applicable policies.
+     *
+     * @param projectUuid The {@link UUID} of the {@link Project} to evaluate
+     * @return A {@link CompletableFuture} that completes with the {@link PolicyViolation}s of the {@link Project}
+     */
+    public CompletableFuture<List<PolicyViolation>> evaluateProject(final UUID projectUuid) {
+        return submit(projectTimer, () -> PolicyEngine.getInstance().evaluateProject(projectUuid, pageExecutor, concurrency));
+    }
+
+    /**
+     * Evaluate a {@link Component} against applicable policies.
+     *
+     * @param componentUuid The {@link UUID} of the {@link Component} to evaluate
+     * @return A {@link CompletableFuture} that completes with the {@link PolicyViolation}s of the {@link Component}
+     */
+    public CompletableFuture<List<PolicyViolation>> evaluateComponent(final UUID componentUuid) {
+        return submit(componentTimer, () -> PolicyEngine.getInstance().evaluate(componentUuid));
+    }
+
+    /**
+     * Stop accepting new evaluations, and wait up to a given {@link Duration} for queued evaluations to complete.
+     * <p>
+     * Evaluations that did not complete in time are aborted. Their {@link CompletableFuture}s either never complete,
+     * or complete exceptionally while {@link #isAborted()} returns {@code true}. Callers that require evaluations
+     * to eventually happen must record them, and submit them again after a restart.
+     *
+     * @param timeout The maximum {@link Duration} to wait for
+     */
+    public void shutdown(final Duration timeout) {
+        evaluationExecutor.shutdown();
+        try {
+            if (!evaluationExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                abort(timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(timeout);
+        } finally {
+            pageExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return {@code true} when evaluations that did not complete during {@link #shutdown(Duration)} have been aborted
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    private void abort(final Duration timeout) {
+        aborted = true;
+        final List<Runnable> droppedEvaluations = evaluationExecutor.shutdownNow();
+        LOGGER.warn("Policy evaluations did not complete within %s; Aborting %d running and dropping %d queued evaluations"
+                .formatted(timeout, evaluationExecutor.getActiveCount(), droppedEvaluations.size()));
+    }
+
+    private CompletableFuture<List<PolicyViolation>> submit(final Timer timer, final Supplier<List<PolicyViolation>> evaluation) {
+        return CompletableFuture.supplyAsync(() -> timer.record(evaluation), evaluationExecutor);
+    }
+
+    /**
+     * A {@link RejectedExecutionHandler} that blocks the submitting thread until the queue has capacity,
+     * instead of executing the rejected evaluation on it.
+     */
+    private static final class BlockingSubmissionPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Policy evaluations are no longer accepted");
+            }
+
+            try {
+                executor.getQueue().put(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue capacity", e);
+            }
+        }
+
+    }
+
+}
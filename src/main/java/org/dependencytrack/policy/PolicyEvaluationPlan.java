@@ -0,0 +1,191 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Tag;
+import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.CacheUtil;
+
+import javax.jdo.PersistenceManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable, pre-compiled representation of all {@link Policy}s, as used by the {@link PolicyEngine}.
+ * <p>
+ * Conditions are compiled into {@link CompiledPolicyCondition}s and grouped by {@link PolicyCondition.Subject},
+ * such that evaluating a component neither re-parses condition values, nor invokes evaluators for
+ * subjects that a policy has no conditions for.
+ * <p>
+ * The current plan is cached, and invalidated via {@link #invalidate()} whenever policies or their
+ * conditions are modified. Policy changes made via other instances take effect once the cached plan
+ * expires, i.e. components may be evaluated against outdated policies for up to
+ * {@value #EXPIRE_AFTER_WRITE_MINUTES} minute.
+ *
+ * @since 4.8.0
+ */
+public final class PolicyEvaluationPlan {
+
+    private static final long EXPIRE_AFTER_WRITE_MINUTES = 1;
+    private static final String CACHE_KEY = "plan";
+    private static final Cache<String, PolicyEvaluationPlan> CACHE = CacheUtil.monitor(
+            CacheUtil.newCache(1, Duration.ofMinutes(EXPIRE_AFTER_WRITE_MINUTES)), "policy_evaluation_plan_cache");
+
+    /**
+     * A compiled {@link Policy}.
+     *
+     * @param id                  ID of the {@link Policy}
+     * @param uuid                {@link UUID} of the {@link Policy}
+     * @param name                Name of the {@link Policy}
+     * @param operator            The {@link Policy.Operator} of the {@link Policy}
+     * @param conditionCount      Total number of conditions of the {@link Policy}, including conditions that failed to compile
+     * @param projectIds          IDs of the {@link Project}s the {@link Policy} is limited to
+     * @param includeChildren     Whether the {@link Policy} also applies to children of {@code projectIds}
+     * @param tagIds              IDs of the {@link Tag}s the {@link Policy} is limited to
+     * @param conditionsBySubject The compiled conditions, grouped by {@link PolicyCondition.Subject}
+     */
+    public record CompiledPolicy(long id, UUID uuid, String name, Policy.Operator operator, int conditionCount,
+                                 Set<Long> projectIds, boolean includeChildren, Set<Long> tagIds,
+                                 Map<PolicyCondition.Subject, List<CompiledPolicyCondition>> conditionsBySubject) {
+
+        /**
+         * @param project The {@link Project} to check
+         * @return {@code true} when the {@link Policy} is global, or assigned to the {@link Project} directly,
+         * via one of its parents, or via one of its {@link Tag}s
+         */
+        public boolean isApplicableTo(final Project project) {
+            if (projectIds.isEmpty() && tagIds.isEmpty()) {
+                return true;
+            }
+            return isAssignedToProject(project) || isAssignedToProjectTag(project);
+        }
+
+        private boolean isAssignedToProject(final Project project) {
+            if (projectIds.isEmpty()) {
+                return false;
+            }
+            if (projectIds.contains(project.getId())) {
+                return true;
+            }
+            if (!includeChildren) {
+                return false;
+            }
+            for (Project parent = project.getParent(); parent != null; parent = parent.getParent()) {
+                if (projectIds.contains(parent.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isAssignedToProjectTag(final Project project) {
+            if (tagIds.isEmpty() || project.getTags() == null) {
+                return false;
+            }
+            for (final Tag projectTag : project.getTags()) {
+                if (tagIds.contains(projectTag.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    private final List<CompiledPolicy> policies;
+
+    private PolicyEvaluationPlan(final List<CompiledPolicy> policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * Get the current {@link PolicyEvaluationPlan}, compiling it if necessary.
+     *
+     * @param qm The {@link QueryManager} to use when the plan needs to be compiled
+     * @return The current {@link PolicyEvaluationPlan}
+     */
+    public static PolicyEvaluationPlan get(final QueryManager qm) {
+        return CACHE.get(CACHE_KEY, ignored -> compile(qm.getPersistenceManager(), qm.getAllPolicies()));
+    }
+
+    /**
+     * Invalidate the current {@link PolicyEvaluationPlan}, such that the next evaluation compiles a new one.
+     * <p>
+     * Must be called whenever a {@link Policy}, its {@link PolicyCondition}s, or its assignments
+     * to {@link Project}s and {@link Tag}s are modified.
+     */
+    public static void invalidate() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Compile a given collection of {@link Policy}s.
+     * <p>
+     * Conditions are detached from the {@link PersistenceManager}, such that the resulting plan can be
+     * shared across {@link PersistenceManager}s. Conditions with invalid values are skipped.
+     *
+     * @param pm       The {@link PersistenceManager} the {@link Policy}s are attached to
+     * @param policies The {@link Policy}s to compile
+     * @return The compiled {@link PolicyEvaluationPlan}
+     */
+    static PolicyEvaluationPlan compile(final PersistenceManager pm, final Collection<Policy> policies) {
+        final var compiledPolicies = new ArrayList<CompiledPolicy>(policies.size());
+        for (final Policy policy : policies) {
+            final List<PolicyCondition> conditions = policy.getPolicyConditions() != null
+                    ? policy.getPolicyConditions()
+                    : Collections.emptyList();
+
+            final var conditionsBySubject = new EnumMap<PolicyCondition.Subject, List<CompiledPolicyCondition>>(PolicyCondition.Subject.class);
+            for (final PolicyCondition condition : pm.detachCopyAll(conditions)) {
+                final CompiledPolicyCondition compiledCondition = CompiledPolicyCondition.compile(condition, policy.getName());
+                if (compiledCondition != null) {
+                    conditionsBySubject.computeIfAbsent(condition.getSubject(), ignored -> new ArrayList<>()).add(compiledCondition);
+                }
+            }
+            conditionsBySubject.replaceAll((subject, subjectConditions) -> List.copyOf(subjectConditions));
+
+            final Set<Long> projectIds = policy.getProjects() == null ? Set.of()
+                    : policy.getProjects().stream().map(Project::getId).collect(Collectors.toUnmodifiableSet());
+            final Set<Long> tagIds = policy.getTags() == null ? Set.of()
+                    : policy.getTags().stream().map(Tag::getId).collect(Collectors.toUnmodifiableSet());
+
+            compiledPolicies.add(new CompiledPolicy(policy.getId(), policy.getUuid(), policy.getName(),
+                    policy.getOperator(), conditions.size(), projectIds, policy.isIncludeChildren(),
+                    tagIds, Collections.unmodifiableMap(conditionsBySubject)));
+        }
+        return new PolicyEvaluationPlan(List.copyOf(compiledPolicies));
+    }
+
+    public List<CompiledPolicy> getPolicies() {
+        return policies;
+    }
+
+}
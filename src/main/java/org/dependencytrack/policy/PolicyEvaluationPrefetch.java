@@ -0,0 +1,240 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.policy.PolicyEvaluationPlan.CompiledPolicy;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Data required by {@link PolicyEvaluator}s, fetched in bulk ahead of evaluating many {@link Component}s.
+ * <p>
+ * {@link License}s and {@link LicenseGroup}s referenced by a {@link PolicyEvaluationPlan} are fetched once
+ * via {@link #create(PersistenceManager, PolicyEvaluationPlan)}. Non-suppressed {@link Vulnerability}s are
+ * fetched for an entire page of {@link Component}s via {@link #withVulnerabilities(PersistenceManager, Collection)},
+ * instead of once per {@link Component} and evaluator.
+ * <p>
+ * A {@link PolicyEvaluationPrefetch} is immutable, such that pages of {@link Component}s can be evaluated concurrently.
+ *
+ * @since 4.8.0
+ */
+public final class PolicyEvaluationPrefetch {
+
+    private final boolean vulnerabilitiesRequired;
+    private final Map<UUID, Long> licenseIdByUuid;
+    private final Map<UUID, Set<Long>> licenseIdsByLicenseGroupUuid;
+    private final Map<Long, List<Vulnerability>> vulnerabilitiesByComponentId;
+
+    private PolicyEvaluationPrefetch(final boolean vulnerabilitiesRequired, final Map<UUID, Long> licenseIdByUuid,
+                                     final Map<UUID, Set<Long>> licenseIdsByLicenseGroupUuid,
+                                     final Map<Long, List<Vulnerability>> vulnerabilitiesByComponentId) {
+        this.vulnerabilitiesRequired = vulnerabilitiesRequired;
+        this.licenseIdByUuid = licenseIdByUuid;
+        this.licenseIdsByLicenseGroupUuid = licenseIdsByLicenseGroupUuid;
+        this.vulnerabilitiesByComponentId = vulnerabilitiesByComponentId;
+    }
+
+    /**
+     * Fetch all {@link License}s and {@link LicenseGroup}s referenced by conditions of a given {@link PolicyEvaluationPlan}.
+     *
+     * @param pm   The {@link PersistenceManager} to use
+     * @param plan The {@link PolicyEvaluationPlan} to fetch data for
+     * @return A {@link PolicyEvaluationPrefetch}
+     */
+    static PolicyEvaluationPrefetch create(final PersistenceManager pm, final PolicyEvaluationPlan plan) {
+        final Set<UUID> licenseUuids = getConditionValueUuids(plan, PolicyCondition.Subject.LICENSE);
+        final Set<UUID> licenseGroupUuids = getConditionValueUuids(plan, PolicyCondition.Subject.LICENSE_GROUP);
+        final boolean vulnerabilitiesRequired = plan.getPolicies().stream()
+                .map(CompiledPolicy::conditionsBySubject)
+                .anyMatch(conditionsBySubject -> conditionsBySubject.containsKey(PolicyCondition.Subject.SEVERITY)
+                        || conditionsBySubject.containsKey(PolicyCondition.Subject.CWE)
+                        || conditionsBySubject.containsKey(PolicyCondition.Subject.VULNERABILITY_ID));
+
+        final var licenseIdByUuid = new HashMap<UUID, Long>();
+        if (!licenseUuids.isEmpty()) {
+            final Query<License> query = pm.newQuery(License.class);
+            query.setFilter(":uuids.contains(uuid)");
+            query.setParameters(licenseUuids);
+            try {
+                for (final License license : query.executeList()) {
+                    licenseIdByUuid.put(license.getUuid(), license.getId());
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+
+        final var licenseIdsByLicenseGroupUuid = new HashMap<UUID, Set<Long>>();
+        if (!licenseGroupUuids.isEmpty()) {
+            final Query<LicenseGroup> query = pm.newQuery(LicenseGroup.class);
+            query.setFilter(":uuids.contains(uuid)");
+            query.setParameters(licenseGroupUuids);
+            try {
+                for (final LicenseGroup licenseGroup : query.executeList()) {
+                    final Set<Long> licenseIds = licenseGroup.getLicenses() == null ? Set.of()
+                            : licenseGroup.getLicenses().stream().map(License::getId).collect(Collectors.toUnmodifiableSet());
+                    licenseIdsByLicenseGroupUuid.put(licenseGroup.getUuid(), licenseIds);
+                }
+            } finally {
+                query.closeAll();
+            }
+        }
+
+        return new PolicyEvaluationPrefetch(vulnerabilitiesRequired, Collections.unmodifiableMap(licenseIdByUuid),
+                Collections.unmodifiableMap(licenseIdsByLicenseGroupUuid), Collections.emptyMap());
+    }
+
+    /**
+     * Fetch the non-suppressed {@link Vulnerability}s of a given page of {@link Component}s.
+     * <p>
+     * No {@link Vulnerability}s are fetched when no policy of the {@link PolicyEvaluationPlan}
+     * has conditions on vulnerabilities.
+     *
+     * @param pm         The {@link PersistenceManager} to use
+     * @param components The {@link Component}s to fetch {@link Vulnerability}s for
+     * @return A {@link PolicyEvaluationPrefetch} with the same {@link License}s and {@link LicenseGroup}s as
+     * this one, and the {@link Vulnerability}s of the given {@link Component}s
+     */
+    @SuppressWarnings("unchecked")
+    PolicyEvaluationPrefetch withVulnerabilities(final PersistenceManager pm, final Collection<Component> components) {
+        if (!vulnerabilitiesRequired || components.isEmpty()) {
+            return this;
+        }
+
+        final var vulnIdsByComponentId = new HashMap<Long, List<Long>>();
+        for (final Component component : components) {
+            vulnIdsByComponentId.put(component.getId(), new ArrayList<>());
+        }
+
+        final String placeholders = String.join(", ", Collections.nCopies(vulnIdsByComponentId.size(), "?"));
+        final Query<?> idQuery = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, """
+                SELECT "CV"."COMPONENT_ID", "CV"."VULNERABILITY_ID" FROM "COMPONENTS_VULNERABILITIES" AS "CV"
+                WHERE "CV"."COMPONENT_ID" IN (%s)
+                    AND NOT EXISTS (
+                        SELECT 1 FROM "ANALYSIS"
+                        WHERE "ANALYSIS"."COMPONENT_ID" = "CV"."COMPONENT_ID"
+                            AND "ANALYSIS"."VULNERABILITY_ID" = "CV"."VULNERABILITY_ID"
+                            AND "ANALYSIS"."SUPPRESSED" = TRUE
+                    )
+                ORDER BY "CV"."VULNERABILITY_ID"
+                """.formatted(placeholders));
+        final var vulnIds = new HashSet<Long>();
+        try {
+            for (final Object[] row : (List<Object[]>) idQuery.executeWithArray(vulnIdsByComponentId.keySet().toArray())) {
+                final long vulnId = ((Number) row[1]).longValue();
+                vulnIdsByComponentId.get(((Number) row[0]).longValue()).add(vulnId);
+                vulnIds.add(vulnId);
+            }
+        } finally {
+            idQuery.closeAll();
+        }
+
+        final Map<Long, Vulnerability> vulnById;
+        if (vulnIds.isEmpty()) {
+            vulnById = Collections.emptyMap();
+        } else {
+            final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(vulnIds);
+            try {
+                vulnById = query.executeList().stream()
+                        .collect(Collectors.toMap(Vulnerability::getId, Function.identity()));
+            } finally {
+                query.closeAll();
+            }
+        }
+
+        final var vulnsByComponentId = new HashMap<Long, List<Vulnerability>>(vulnIdsByComponentId.size());
+        vulnIdsByComponentId.forEach((componentId, componentVulnIds) -> vulnsByComponentId.put(componentId,
+                componentVulnIds.stream().map(vulnById::get).toList()));
+        return new PolicyEvaluationPrefetch(vulnerabilitiesRequired, licenseIdByUuid,
+                licenseIdsByLicenseGroupUuid, vulnsByComponentId);
+    }
+
+    /**
+     * @param component The {@link Component} to get {@link Vulnerability}s for
+     * @return The non-suppressed {@link Vulnerability}s of the {@link Component},
+     * or {@code null} when they have not been prefetched
+     */
+    List<Vulnerability> getVulnerabilities(final Component component) {
+        return vulnerabilitiesByComponentId.get(component.getId());
+    }
+
+    /**
+     * @param licenseUuid {@link UUID} of the {@link License}, as provided by a condition
+     * @return ID of the {@link License}, or {@code null} when it does not exist
+     */
+    Long getLicenseId(final String licenseUuid) {
+        final UUID uuid = parseUuid(licenseUuid);
+        return uuid != null ? licenseIdByUuid.get(uuid) : null;
+    }
+
+    /**
+     * @param licenseGroupUuid {@link UUID} of the {@link LicenseGroup}, as provided by a condition
+     * @return IDs of the {@link License}s in the {@link LicenseGroup}, or {@code null} when it does not exist
+     */
+    Set<Long> getLicenseGroupLicenseIds(final String licenseGroupUuid) {
+        final UUID uuid = parseUuid(licenseGroupUuid);
+        return uuid != null ? licenseIdsByLicenseGroupUuid.get(uuid) : null;
+    }
+
+    private static Set<UUID> getConditionValueUuids(final PolicyEvaluationPlan plan, final PolicyCondition.Subject subject) {
+        final var uuids = new HashSet<UUID>();
+        for (final CompiledPolicy policy : plan.getPolicies()) {
+            for (final CompiledPolicyCondition condition : policy.conditionsBySubject().getOrDefault(subject, List.of())) {
+                final UUID uuid = parseUuid(condition.getValue());
+                if (uuid != null) {
+                    uuids.add(uuid);
+                }
+            }
+        }
+        return uuids;
+    }
+
+    private static UUID parseUuid(final String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            // Values that are not UUIDs (e.g. "unresolved" licenses) do not refer to any entity.
+            return null;
+        }
+    }
+
+}
@@ -21,21 +21,19 @@ package org.dependencytrack.policy;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
-import org.dependencytrack.persistence.QueryManager;
 
 import java.util.List;
 
 /**
  * Defines a PolicyEvaluator. Each PolicyEvaluator should perform a very specific
- * type of check.
+ * type of check. PolicyEvaluators must not hold any state, as they are shared across
+ * evaluations and threads. State of an evaluation is provided via {@link PolicyEvaluationContext}.
  *
  * @author Steve Springett
  * @since 4.0.0
  */
 public interface PolicyEvaluator {
 
-    void setQueryManager(final QueryManager qm);
-
     /**
      * Returns the Subject for which a PolicyEvaluator is capable of analyzing.
      * @return A PolicyCondition Subject
@@ -45,11 +43,23 @@ public interface PolicyEvaluator {
 
     /**
      * Performs the evaluation and returns a List of PolicyConditionViolation objects.
+     * @param context the context of the evaluation
      * @param policy the policy to evaluate against
      * @param component the component to evaluate
      * @return a List of zero or more PolicyConditionViolation objects
      * @since 4.0.0
      */
-    List<PolicyConditionViolation> evaluate(final Policy policy, final Component component);
+    List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final Policy policy, final Component component);
+
+    /**
+     * Performs the evaluation of previously compiled conditions and returns a List of PolicyConditionViolation objects.
+     * @param context the context of the evaluation
+     * @param conditions the compiled conditions to evaluate against, all of which are of the {@link #supportedSubject()}
+     * @param component the component to evaluate
+     * @return a List of zero or more PolicyConditionViolation objects
+     * @since 4.8.0
+     */
+    List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                            final Component component);
 
 }
@@ -2,7 +2,6 @@ package org.dependencytrack.policy;
 
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.util.ComponentVersion;
 
@@ -24,22 +23,17 @@ public class VersionPolicyEvaluator extends AbstractPolicyEvaluator {
     }
 
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final var componentVersion = new ComponentVersion(component.getVersion());
 
         final List<PolicyConditionViolation> violations = new ArrayList<>();
 
-        for (final PolicyCondition condition : super.extractSupportedConditions(policy)) {
-            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
+        for (final CompiledPolicyCondition condition : conditions) {
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
 
-            final var conditionVersion = new ComponentVersion(condition.getValue());
-            if (conditionVersion.getVersionParts().isEmpty()) {
-                LOGGER.warn("Unable to parse version (" + condition.getValue() + " provided by condition");
-                continue;
-            }
-
-            if (matches(componentVersion, conditionVersion, condition.getOperator())) {
-                violations.add(new PolicyConditionViolation(condition, component));
+            if (matches(componentVersion, condition.getVersion(), condition.getOperator())) {
+                violations.add(new PolicyConditionViolation(condition.getCondition(), component));
             }
         }
 
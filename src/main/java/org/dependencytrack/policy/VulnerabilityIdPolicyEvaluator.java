@@ -20,7 +20,6 @@ package org.dependencytrack.policy;
 
 import alpine.common.logging.Logger;
 import org.dependencytrack.model.Component;
-import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.Vulnerability;
 
@@ -46,18 +45,18 @@ public class VulnerabilityIdPolicyEvaluator extends AbstractPolicyEvaluator {
      * {@inheritDoc}
      */
     @Override
-    public List<PolicyConditionViolation> evaluate(final Policy policy, final Component component) {
+    public List<PolicyConditionViolation> evaluate(final PolicyEvaluationContext context, final List<CompiledPolicyCondition> conditions,
+                                                   final Component component) {
         final List<PolicyConditionViolation> violations = new ArrayList<>();
-        final List<PolicyCondition> policyConditions = super.extractSupportedConditions(policy);
-        for (final Vulnerability vulnerability : qm.getAllVulnerabilities(component, false)) {
-            for (final PolicyCondition condition : policyConditions) {
-                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
+        for (final Vulnerability vulnerability : context.getVulnerabilities(component)) {
+            for (final CompiledPolicyCondition condition : conditions) {
+                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getCondition().getUuid() + ")");
                 if (condition.getOperator() == PolicyCondition.Operator.IS) {
                     if (vulnerability.getVulnId().equals(condition.getValue())) {
-                        violations.add(new PolicyConditionViolation(condition, component));
+                        violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                     }
                 } else if (condition.getOperator() == PolicyCondition.Operator.IS_NOT && !vulnerability.getVulnId().equals(condition.getValue())) {
-                    violations.add(new PolicyConditionViolation(condition, component));
+                    violations.add(new PolicyConditionViolation(condition.getCondition(), component));
                 }
             }
         }
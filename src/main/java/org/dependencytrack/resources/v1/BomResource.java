@@ -18,6 +18,7 @@
  */
 package org.dependencytrack.resources.v1;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.server.auth.PermissionRequired;
@@ -28,13 +29,14 @@ import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.cyclonedx.CycloneDxMediaType;
 import org.cyclonedx.exception.GeneratorException;
 import org.dependencytrack.auth.Permissions;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.BomUploadEvent;
+import org.dependencytrack.event.BomUploadQueue;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.VulnerabilityScan;
@@ -58,6 +60,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.ByteArrayInputStream;
@@ -203,7 +206,8 @@ public class BomResource extends AlpineResource {
     @ApiResponses(value = {
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 403, message = "Access to the specified project is forbidden"),
-            @ApiResponse(code = 404, message = "The project could not be found")
+            @ApiResponse(code = 404, message = "The project could not be found"),
+            @ApiResponse(code = 503, message = "Too many BOMs are currently pending processing")
     })
     @PermissionRequired(Permissions.Constants.BOM_UPLOAD)
     public Response uploadBom(BomSubmitRequest request) {
@@ -246,7 +250,8 @@ public class BomResource extends AlpineResource {
     @ApiResponses(value = {
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 403, message = "Access to the specified project is forbidden"),
-            @ApiResponse(code = 404, message = "The project could not be found")
+            @ApiResponse(code = 404, message = "The project could not be found"),
+            @ApiResponse(code = 503, message = "Too many BOMs are currently pending processing")
     })
     @PermissionRequired(Permissions.Constants.BOM_UPLOAD)
     public Response uploadBom(@FormDataParam("project") String projectUuid,
@@ -318,10 +323,13 @@ public class BomResource extends AlpineResource {
             }
             final byte[] decoded = Base64.getDecoder().decode(encodedBomData);
             try (final ByteArrayInputStream bain = new ByteArrayInputStream(decoded)) {
-                final byte[] content = IOUtils.toByteArray(new BOMInputStream((bain)));
-                final BomUploadEvent bomUploadEvent = new BomUploadEvent(project.getUuid(), content);
-                Event.dispatch(bomUploadEvent);
-                return Response.ok(Collections.singletonMap("token", bomUploadEvent.getChainIdentifier())).build();
+                final Optional<BomUploadEvent> bomUploadEvent = BomUploadQueue.getInstance()
+                        .offer(project.getUuid(), new BOMInputStream(bain));
+                if (bomUploadEvent.isEmpty()) {
+                    return uploadQueueFullResponse();
+                }
+                Event.dispatch(bomUploadEvent.get());
+                return Response.ok(Collections.singletonMap("token", bomUploadEvent.get().getChainIdentifier())).build();
             } catch (IOException e) {
                 return Response.status(Response.Status.BAD_REQUEST).build();
             }
@@ -341,15 +349,18 @@ public class BomResource extends AlpineResource {
                     return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified project is forbidden").build();
                 }
                 try (InputStream in = bodyPartEntity.getInputStream()) {
-                    final byte[] content = IOUtils.toByteArray(new BOMInputStream((in)));
                     // todo: make option to combine all the bom data so components are reconciled in a single pass.
                     // todo: https://github.com/DependencyTrack/dependency-track/issues/130
-                    final BomUploadEvent bomUploadEvent = new BomUploadEvent(project.getUuid(), content);
-                    Event.dispatch(bomUploadEvent);
+                    final Optional<BomUploadEvent> bomUploadEvent = BomUploadQueue.getInstance()
+                            .offer(project.getUuid(), new BOMInputStream(in));
+                    if (bomUploadEvent.isEmpty()) {
+                        return uploadQueueFullResponse();
+                    }
+                    Event.dispatch(bomUploadEvent.get());
 
                     BomUploadResponse bomUploadResponse = new BomUploadResponse();
 
-                    bomUploadResponse.setToken(bomUploadEvent.getChainIdentifier());
+                    bomUploadResponse.setToken(bomUploadEvent.get().getChainIdentifier());
 
                     return Response.ok(bomUploadResponse).build();
                 } catch (IOException e) {
@@ -362,4 +373,14 @@ public class BomResource extends AlpineResource {
         return Response.ok().build();
     }
 
+    /**
+     * Response for when a BOM can not be accepted because too many uploads are pending processing.
+     */
+    private static Response uploadQueueFullResponse() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_QUEUE_RETRY_AFTER_SECONDS))
+                .entity("Too many BOMs are currently pending processing. Please try again later.")
+                .build();
+    }
+
 }
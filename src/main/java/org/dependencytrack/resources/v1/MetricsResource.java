@@ -32,6 +32,7 @@ import org.dependencytrack.auth.Permissions;
 import org.dependencytrack.event.ComponentMetricsUpdateEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.CurrentMetricsCache;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.PortfolioMetrics;
@@ -45,6 +46,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.Date;
@@ -87,13 +89,14 @@ public class MetricsResource extends AlpineResource {
             response = PortfolioMetrics.class
     )
     @ApiResponses(value = {
+            @ApiResponse(code = 304, message = "The metrics did not change since they were last retrieved"),
             @ApiResponse(code = 401, message = "Unauthorized")
     })
     @PermissionRequired(Permissions.Constants.VIEW_PORTFOLIO)
     public Response getPortfolioCurrentMetrics() {
         try (QueryManager qm = new QueryManager()) {
-            final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
-            return Response.ok(metrics).build();
+            final PortfolioMetrics metrics = CurrentMetricsCache.getInstance().getPortfolioMetrics(qm);
+            return currentMetricsResponse(metrics, metrics != null ? metrics.getLastOccurrence() : null);
         }
     }
 
@@ -171,6 +174,7 @@ public class MetricsResource extends AlpineResource {
             response = ProjectMetrics.class
     )
     @ApiResponses(value = {
+            @ApiResponse(code = 304, message = "The metrics did not change since they were last retrieved"),
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 403, message = "Access to the specified project is forbidden"),
             @ApiResponse(code = 404, message = "The project could not be found")
@@ -183,8 +187,8 @@ public class MetricsResource extends AlpineResource {
             final Project project = qm.getObjectByUuid(Project.class, uuid);
             if (project != null) {
                 if (qm.hasAccess(super.getPrincipal(), project)) {
-                    final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
-                    return Response.ok(metrics).build();
+                    final ProjectMetrics metrics = CurrentMetricsCache.getInstance().getProjectMetrics(qm, project);
+                    return currentMetricsResponse(metrics, metrics != null ? metrics.getLastOccurrence() : null);
                 } else {
                     return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified project is forbidden").build();
                 }
@@ -434,4 +438,21 @@ public class MetricsResource extends AlpineResource {
         }
     }
 
+    /**
+     * Build the response for current metrics, using an {@link EntityTag} derived from their last occurrence.
+     * Responds with {@code 304 Not Modified} when the client already has the current metrics.
+     */
+    private Response currentMetricsResponse(final Object metrics, final Date lastOccurrence) {
+        if (metrics == null) {
+            return Response.ok().build();
+        }
+
+        final var entityTag = new EntityTag(Long.toHexString(lastOccurrence.getTime()));
+        final Response.ResponseBuilder notModifiedResponse = getRequestContext().getRequest().evaluatePreconditions(entityTag);
+        if (notModifiedResponse != null) {
+            return notModifiedResponse.build();
+        }
+        return Response.ok(metrics).tag(entityTag).build();
+    }
+
 }
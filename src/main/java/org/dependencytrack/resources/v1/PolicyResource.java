@@ -34,6 +34,7 @@ import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Tag;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.policy.PolicyEvaluationPlan;
 
 import javax.validation.Validator;
 import javax.ws.rs.Consumes;
@@ -152,13 +153,20 @@ public class PolicyResource extends AlpineResource {
                 validator.validateProperty(jsonPolicy, "name")
         );
         try (QueryManager qm = new QueryManager()) {
-            Policy policy = qm.getObjectByUuid(Policy.class, jsonPolicy.getUuid());
+            final Policy policy = qm.getObjectByUuid(Policy.class, jsonPolicy.getUuid());
             if (policy != null) {
-                policy.setName(StringUtils.trimToNull(jsonPolicy.getName()));
-                policy.setOperator(jsonPolicy.getOperator());
-                policy.setViolationState(jsonPolicy.getViolationState());
-                policy.setIncludeChildren(jsonPolicy.isIncludeChildren());
-                policy = qm.persist(policy);
+                qm.runInTransaction(() -> {
+                    if (policy.getViolationState() != jsonPolicy.getViolationState()) {
+                        // Violations are counted by the violation state of their policy in metrics.
+                        qm.recordComponentMetricsChange(qm.getViolatingComponentIds(policy));
+                    }
+                    policy.setName(StringUtils.trimToNull(jsonPolicy.getName()));
+                    policy.setOperator(jsonPolicy.getOperator());
+                    policy.setViolationState(jsonPolicy.getViolationState());
+                    policy.setIncludeChildren(jsonPolicy.isIncludeChildren());
+                });
+                qm.getPersistenceManager().refresh(policy);
+                PolicyEvaluationPlan.invalidate();
                 return Response.ok(policy).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND).entity("The policy could not be found.").build();
@@ -225,6 +233,7 @@ public class PolicyResource extends AlpineResource {
             if (projects != null && !projects.contains(project)) {
                 policy.getProjects().add(project);
                 qm.persist(policy);
+                PolicyEvaluationPlan.invalidate();
                 return Response.ok(policy).build();
             }
             return Response.status(Response.Status.NOT_MODIFIED).build();
@@ -263,6 +272,7 @@ public class PolicyResource extends AlpineResource {
             if (projects != null && projects.contains(project)) {
                 policy.getProjects().remove(project);
                 qm.persist(policy);
+                PolicyEvaluationPlan.invalidate();
                 return Response.ok(policy).build();
             }
             return Response.status(Response.Status.NOT_MODIFIED).build();
@@ -302,6 +312,7 @@ public class PolicyResource extends AlpineResource {
             if (tags != null && !tags.contains(tag)) {
                 policy.getTags().add(tag);
                 qm.persist(policy);
+                PolicyEvaluationPlan.invalidate();
                 return Response.ok(policy).build();
             }
             return Response.status(Response.Status.NOT_MODIFIED).build();
@@ -340,6 +351,7 @@ public class PolicyResource extends AlpineResource {
             if (tags != null && tags.contains(tag)) {
                 policy.getTags().remove(tag);
                 qm.persist(policy);
+                PolicyEvaluationPlan.invalidate();
                 return Response.ok(policy).build();
             }
             return Response.status(Response.Status.NOT_MODIFIED).build();
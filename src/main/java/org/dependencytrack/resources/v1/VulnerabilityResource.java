@@ -38,6 +38,7 @@ import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.resources.v1.vo.AffectedComponent;
 import org.dependencytrack.model.AnalyzerIdentity;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 import org.dependencytrack.util.VulnerabilityUtil;
 import us.springett.cvss.Cvss;
 import us.springett.cvss.Score;
@@ -411,7 +412,10 @@ public class VulnerabilityResource extends AlpineResource {
                         return Response.status(Response.Status.PRECONDITION_FAILED).entity("Portfolio components or services are affected by this vulnerability. Unable to delete.").build();
                     } else {
                         qm.deleteAffectedVersionAttributions(vulnerability);
+                        final String source = vulnerability.getSource();
+                        final String vulnId = vulnerability.getVulnId();
                         qm.delete(vulnerability);
+                        VulnerabilityLookupCache.getInstance().invalidate(source, vulnId);
                         return Response.status(Response.Status.NO_CONTENT).build();
                     }
                 } else {
@@ -18,6 +18,7 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
@@ -25,13 +26,16 @@ import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
 import org.cyclonedx.BomParserFactory;
 import org.cyclonedx.parsers.Parser;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.BomUploadEvent;
+import org.dependencytrack.event.BomUploadQueue;
 import org.dependencytrack.event.ComponentRepositoryMetaAnalysisEvent;
 import org.dependencytrack.event.ComponentVulnerabilityAnalysisEvent;
 import org.dependencytrack.event.kafka.KafkaEventDispatcher;
 import org.dependencytrack.model.Bom;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ServiceComponent;
@@ -42,15 +46,24 @@ import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.notification.vo.BomConsumedOrProcessed;
 import org.dependencytrack.notification.vo.BomProcessingFailed;
+import org.dependencytrack.parser.cyclonedx.CycloneDXStreamingParser;
 import org.dependencytrack.parser.cyclonedx.util.ModelConverter;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.ComponentIdentityIndex;
 import org.dependencytrack.util.CompressUtil;
-import org.dependencytrack.util.InternalComponentIdentificationUtil;
 
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Subscriber task that performs processing of bill-of-material (bom)
@@ -62,6 +75,7 @@ import java.util.Optional;
 public class BomUploadProcessingTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(BomUploadProcessingTask.class);
+    private static final int COMPONENT_BATCH_SIZE = 500;
 
     private final KafkaEventDispatcher kafkaEventDispatcher;
 
@@ -82,20 +96,35 @@ public class BomUploadProcessingTask implements Subscriber {
             Bom.Format bomProcessingFailedBomFormat = null;
             String bomProcessingFailedBomVersion = null;
             final BomUploadEvent event = (BomUploadEvent) e;
-            final byte[] bomBytes = CompressUtil.optionallyDecompress(event.getBom());
             final QueryManager qm = new QueryManager();
             try {
+                byte[] bomBytes = CompressUtil.optionallyDecompress(event.getFile() != null
+                        ? BomUploadQueue.getInstance().read(event)
+                        : event.getBom());
                 final Project project = qm.getObjectByUuid(Project.class, event.getProjectUuid());
                 bomProcessingFailedProject = project;
-                final List<Component> components;
-                final List<Component> newComponents = new ArrayList<>();
-                final List<Component> flattenedComponents = new ArrayList<>();
-                final List<ServiceComponent> services;
-                final List<ServiceComponent> flattenedServices = new ArrayList<>();
-
-                // Holds a list of all Components that are existing dependencies of the specified project
-                final List<Component> existingProjectComponents = qm.getAllComponents(project);
-                final List<ServiceComponent> existingProjectServices = qm.getAllServiceComponents(project);
+                final var processedComponents = new ProcessedComponents();
+                final Set<Long> serviceIds = new HashSet<>();
+
+                // Identities of existing components of the project are retained for as long as the BOM is processed,
+                // such that components of the BOM can be matched against them without querying the database.
+                final var componentIdentityIndex = new ComponentIdentityIndex(qm.getComponentIdentities(project));
+                final var componentsBatch = new ArrayList<org.cyclonedx.model.Component>(COMPONENT_BATCH_SIZE);
+                final Consumer<org.cyclonedx.model.Component> componentConsumer = cycloneDxComponent -> {
+                    if (cycloneDxComponent == null) {
+                        return;
+                    }
+                    componentsBatch.add(cycloneDxComponent);
+                    if (componentsBatch.size() >= COMPONENT_BATCH_SIZE) {
+                        processComponents(qm, project, componentsBatch, componentIdentityIndex, processedComponents);
+                        componentsBatch.clear();
+                    }
+                };
+                final Consumer<org.cyclonedx.model.Service> serviceConsumer = cycloneDxService -> {
+                    if (cycloneDxService != null) {
+                        processService(qm, ModelConverter.convert(qm, cycloneDxService, project), serviceIds);
+                    }
+                };
                 final Bom.Format bomFormat;
                 final String bomSpecVersion;
                 final Integer bomVersion;
@@ -106,8 +135,30 @@ public class BomUploadProcessingTask implements Subscriber {
                         LOGGER.info("Processing CycloneDX BOM uploaded to project: " + event.getProjectUuid());
                         bomFormat = Bom.Format.CYCLONEDX;
                         bomProcessingFailedBomFormat = bomFormat;
-                        final Parser parser = BomParserFactory.createParser(bomBytes);
-                        cycloneDxBom = parser.parse(bomBytes);
+                        final boolean streaming = Config.getInstance().getPropertyAsBoolean(ConfigKey.BOM_UPLOAD_PROCESSING_STREAMING_ENABLED)
+                                && CycloneDXStreamingParser.isSupported(bomBytes);
+                        if (streaming) {
+                            LOGGER.debug("Parsing CycloneDX BOM uploaded to project " + event.getProjectUuid() + " in streaming mode");
+                            cycloneDxBom = new CycloneDXStreamingParser().parse(bomBytes, componentConsumer, serviceConsumer);
+                        } else {
+                            final Parser parser = BomParserFactory.createParser(bomBytes);
+                            cycloneDxBom = parser.parse(bomBytes);
+                        }
+                        // The (possibly decompressed) BOM is not needed anymore once it has been parsed,
+                        // so don't keep it reachable while its components are being processed.
+                        bomBytes = null;
+                        if (!streaming) {
+                            if (cycloneDxBom.getComponents() != null) {
+                                cycloneDxBom.getComponents().forEach(componentConsumer);
+                            }
+                            if (cycloneDxBom.getServices() != null) {
+                                cycloneDxBom.getServices().forEach(serviceConsumer);
+                            }
+                            // Components and services have been handed over to their consumers, and are not needed anymore.
+                            cycloneDxBom.setComponents(null);
+                            cycloneDxBom.setServices(null);
+                        }
+                        processComponents(qm, project, componentsBatch, componentIdentityIndex, processedComponents);
                         bomSpecVersion = cycloneDxBom.getSpecVersion();
                         bomProcessingFailedBomVersion = bomSpecVersion;
                         bomVersion = cycloneDxBom.getVersion();
@@ -122,8 +173,6 @@ public class BomUploadProcessingTask implements Subscriber {
                         }
                         project.setExternalReferences(ModelConverter.convertBomMetadataExternalReferences(cycloneDxBom));
                         serialNumnber = (cycloneDxBom.getSerialNumber() != null) ? cycloneDxBom.getSerialNumber().replaceFirst("urn:uuid:", "") : null;
-                        components = ModelConverter.convertComponents(qm, cycloneDxBom, project);
-                        services = ModelConverter.convertServices(qm, cycloneDxBom, project);
                     } else {
                         LOGGER.warn("A CycloneDX BOM was uploaded but accepting CycloneDX BOMs is disabled. Aborting");
                         return;
@@ -141,22 +190,16 @@ public class BomUploadProcessingTask implements Subscriber {
                         .content("A " + bomFormat.getFormatShortName() + " BOM was consumed and will be processed")
                         .subject(new BomConsumedOrProcessed(copyOfProject, /* bom */ "(Omitted)", bomFormat, bomSpecVersion)));
                 final Date date = new Date();
-                final Bom bom = qm.createBom(project, date, bomFormat, bomSpecVersion, bomVersion, serialNumnber, event.getChainIdentifier());
-                for (final Component component : components) {
-                    processComponent(qm, component, flattenedComponents, newComponents);
-                }
-                LOGGER.info("Identified " + newComponents.size() + " new components");
-                for (final ServiceComponent service : services) {
-                    processService(qm, bom, service, flattenedServices);
-                }
+                qm.createBom(project, date, bomFormat, bomSpecVersion, bomVersion, serialNumnber, event.getChainIdentifier());
+                LOGGER.info("Identified " + processedComponents.newCount + " new components");
                 if (Bom.Format.CYCLONEDX == bomFormat) {
                     LOGGER.info("Processing CycloneDX dependency graph for project: " + event.getProjectUuid());
-                    ModelConverter.generateDependencies(cycloneDxBom, project, components);
+                    processDependencyGraph(qm, cycloneDxBom, project, processedComponents);
                 }
                 LOGGER.debug("Reconciling components for project " + event.getProjectUuid());
-                qm.reconcileComponents(project, existingProjectComponents, flattenedComponents);
+                qm.reconcileComponents(project, processedComponents.ids);
                 LOGGER.debug("Reconciling services for project " + event.getProjectUuid());
-                qm.reconcileServiceComponents(project, existingProjectServices, flattenedServices);
+                qm.reconcileServiceComponents(project, serviceIds);
                 LOGGER.debug("Updating last import date for project " + event.getProjectUuid());
                 qm.updateLastBomImport(project, date, bomFormat.getFormatShortName() + " " + bomSpecVersion);
                 // Instead of firing off a new VulnerabilityAnalysisEvent, chain the VulnerabilityAnalysisEvent to
@@ -164,15 +207,17 @@ public class BomUploadProcessingTask implements Subscriber {
                 // analysis has completed. If not chained, synchronous publishing mode will return immediately upon
                 // return from this method, resulting in inaccurate findings being returned in the response (since
                 // the vulnerability analysis hasn't taken place yet).
-                final List<Component> detachedFlattenedComponent = qm.detach(flattenedComponents);
+                final List<Component> componentsForAnalysis = qm.getComponentsForAnalysis(project);
                 final Project detachedProject = qm.detach(Project.class, project.getId());
-                qm.createVulnerabilityScan(TargetType.PROJECT, project.getUuid(), event.getChainIdentifier().toString(), flattenedComponents.size());
-                for (final Component component : detachedFlattenedComponent) {
-                    kafkaEventDispatcher.dispatchAsync(new ComponentVulnerabilityAnalysisEvent(
+                qm.createVulnerabilityScan(TargetType.PROJECT, project.getUuid(), event.getChainIdentifier().toString(), componentsForAnalysis.size());
+                final var analysisEvents = new ArrayList<Event>(componentsForAnalysis.size() * 2);
+                for (final Component component : componentsForAnalysis) {
+                    analysisEvents.add(new ComponentVulnerabilityAnalysisEvent(
                             event.getChainIdentifier(), component, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS));
-                    kafkaEventDispatcher.dispatchAsync(new ComponentRepositoryMetaAnalysisEvent(component));
+                    analysisEvents.add(new ComponentRepositoryMetaAnalysisEvent(component));
                 }
-                LOGGER.info("Processed " + flattenedComponents.size() + " components and " + flattenedServices.size() + " services uploaded to project " + event.getProjectUuid());
+                kafkaEventDispatcher.dispatchAllAsync(analysisEvents);
+                LOGGER.info("Processed " + processedComponents.ids.size() + " components and " + serviceIds.size() + " services uploaded to project " + event.getProjectUuid());
                 kafkaEventDispatcher.dispatchAsync(new Notification()
                         .scope(NotificationScope.PORTFOLIO)
                         .group(NotificationGroup.BOM_PROCESSED)
@@ -198,40 +243,191 @@ public class BomUploadProcessingTask implements Subscriber {
                 qm.commitSearchIndex(true, Component.class);
                 qm.commitSearchIndex(true, ServiceComponent.class);
                 qm.close();
+                if (event.getFile() != null) {
+                    BomUploadQueue.getInstance().complete(event);
+                }
             }
         }
     }
 
-    private void processComponent(final QueryManager qm, Component component,
-                                  final List<Component> flattenedComponents,
-                                  final List<Component> newComponents) {
-        final boolean isNew = component.getUuid() == null;
-        component.setInternal(InternalComponentIdentificationUtil.isInternalComponent(component, qm));
-        component = qm.createComponent(component, false);
-        final long oid = component.getId();
-        // Refreshing the object by querying for it again is preventative
-        component = qm.getObjectById(Component.class, oid);
-        flattenedComponents.add(component);
-        if (isNew) {
-            newComponents.add(qm.detach(Component.class, component.getId()));
+    /**
+     * Convert a batch of top-level {@link org.cyclonedx.model.Component}s, and persist them, including their
+     * children, within a single transaction.
+     * <p>
+     * Existing {@link Component}s matched by {@code identityIndex} are loaded for the entire batch at once.
+     * Only identifying information of the persisted {@link Component}s is recorded in {@code processedComponents}.
+     * The {@link Component}s themselves are evicted from the {@link javax.jdo.PersistenceManager} afterwards.
+     *
+     * @param qm                  The {@link QueryManager} to use
+     * @param project             The {@link Project} the BOM was uploaded to
+     * @param cycloneDxBatch      The {@link org.cyclonedx.model.Component}s to persist
+     * @param identityIndex       The {@link ComponentIdentityIndex} of the {@link Project}'s existing {@link Component}s
+     * @param processedComponents {@link ProcessedComponents} to record the persisted {@link Component}s in
+     */
+    private void processComponents(final QueryManager qm, final Project project,
+                                   final List<org.cyclonedx.model.Component> cycloneDxBatch,
+                                   final ComponentIdentityIndex identityIndex,
+                                   final ProcessedComponents processedComponents) {
+        if (cycloneDxBatch.isEmpty()) {
+            return;
+        }
+
+        final var matchedIds = new HashSet<Long>();
+        for (final org.cyclonedx.model.Component cycloneDxComponent : cycloneDxBatch) {
+            collectMatchedComponentIds(cycloneDxComponent, identityIndex, matchedIds);
+        }
+        final Map<Long, Component> matchedComponentsById = getComponentsById(qm, matchedIds);
+        final Function<ComponentIdentity, Component> identityMatcher = cid -> {
+            final Long id = identityIndex.match(cid);
+            return id != null ? matchedComponentsById.get(id) : null;
+        };
+        final var batch = new ArrayList<Component>(cycloneDxBatch.size());
+        for (final org.cyclonedx.model.Component cycloneDxComponent : cycloneDxBatch) {
+            batch.add(ModelConverter.convert(qm, cycloneDxComponent, project, identityMatcher));
+        }
+
+        final var flattenedBatch = new ArrayList<Component>();
+        for (final Component component : batch) {
+            flattenComponent(component, flattenedBatch);
+        }
+        for (final Component component : flattenedBatch) {
+            if (component.getUuid() == null) {
+                processedComponents.newCount++;
+            }
+        }
+        qm.createComponents(flattenedBatch, false);
+
+        for (final Component component : flattenedBatch) {
+            processedComponents.ids.add(component.getId());
+        }
+        for (final Component component : batch) {
+            if (component.getBomRef() != null) {
+                processedComponents.bomRefById.put(component.getId(), component.getBomRef());
+                processedComponents.identityJsonByBomRef.putIfAbsent(component.getBomRef(),
+                        new ComponentIdentity(component).toJSON().toString());
+            }
+        }
+        qm.getPersistenceManager().evictAll(flattenedBatch);
+    }
+
+    private void collectMatchedComponentIds(final org.cyclonedx.model.Component cycloneDxComponent,
+                                            final ComponentIdentityIndex identityIndex, final Set<Long> matchedIds) {
+        final Long id = identityIndex.match(new ComponentIdentity(cycloneDxComponent));
+        if (id != null) {
+            matchedIds.add(id);
+        }
+        if (cycloneDxComponent.getComponents() != null) {
+            for (final org.cyclonedx.model.Component child : cycloneDxComponent.getComponents()) {
+                if (child != null) {
+                    collectMatchedComponentIds(child, identityIndex, matchedIds);
+                }
+            }
         }
+    }
+
+    private Map<Long, Component> getComponentsById(final QueryManager qm, final Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class, ":ids.contains(id)");
+        try {
+            final var componentsById = new HashMap<Long, Component>(ids.size());
+            for (final Component component : (List<Component>) query.execute(ids)) {
+                componentsById.put(component.getId(), component);
+            }
+            return componentsById;
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    private void flattenComponent(final Component component, final List<Component> flattenedComponents) {
+        flattenedComponents.add(component);
         if (component.getChildren() != null) {
             for (final Component child : component.getChildren()) {
-                processComponent(qm, child, flattenedComponents, newComponents);
+                flattenComponent(child, flattenedComponents);
             }
         }
     }
 
-    private void processService(final QueryManager qm, final Bom bom, ServiceComponent service,
-                                final List<ServiceComponent> flattenedServices) {
+    /**
+     * Populate the direct dependencies of a {@link Project} and its top-level {@link Component}s.
+     * <p>
+     * {@link Component}s are loaded and updated in batches, and evicted from the
+     * {@link javax.jdo.PersistenceManager} afterwards.
+     *
+     * @param qm                  The {@link QueryManager} to use
+     * @param cycloneDxBom        The {@link org.cyclonedx.model.Bom} to take the dependency graph from
+     * @param project             The {@link Project} the BOM was uploaded to
+     * @param processedComponents The persisted {@link Component}s of the BOM
+     */
+    private void processDependencyGraph(final QueryManager qm, final org.cyclonedx.model.Bom cycloneDxBom,
+                                        final Project project, final ProcessedComponents processedComponents) {
+        final Map<String, org.cyclonedx.model.Dependency> dependenciesByBomRef = ModelConverter.getDependenciesByBomRef(cycloneDxBom);
+        final Function<String, String> identityJsonResolver = processedComponents.identityJsonByBomRef::get;
+
+        // Get direct dependencies first
+        if (cycloneDxBom.getMetadata() != null && cycloneDxBom.getMetadata().getComponent() != null
+                && cycloneDxBom.getMetadata().getComponent().getBomRef() != null) {
+            final String targetBomRef = cycloneDxBom.getMetadata().getComponent().getBomRef();
+            project.setDirectDependencies(ModelConverter.serializeDirectDependencies(dependenciesByBomRef.get(targetBomRef), identityJsonResolver));
+        }
+
+        // Get transitive last. It is possible that some CycloneDX implementations may not properly specify direct
+        // dependencies. As a result, it is not possible to distinguish between direct and transitive.
+        final PersistenceManager pm = qm.getPersistenceManager();
+        final List<Long> componentIds = List.copyOf(processedComponents.bomRefById.keySet());
+        for (int i = 0; i < componentIds.size(); i += COMPONENT_BATCH_SIZE) {
+            final List<Long> batchIds = componentIds.subList(i, Math.min(i + COMPONENT_BATCH_SIZE, componentIds.size()));
+            final List<Component> batch = qm.runInTransaction(() -> {
+                final Query<Component> query = pm.newQuery(Component.class, ":ids.contains(id)");
+                try {
+                    final List<Component> components = List.copyOf((List<Component>) query.execute(batchIds));
+                    for (final Component component : components) {
+                        final String bomRef = processedComponents.bomRefById.get(component.getId());
+                        component.setDirectDependencies(ModelConverter.serializeDirectDependencies(
+                                dependenciesByBomRef.get(bomRef), identityJsonResolver));
+                    }
+                    return components;
+                } finally {
+                    query.closeAll();
+                }
+            });
+            pm.evictAll(batch);
+        }
+    }
+
+    private void processService(final QueryManager qm, ServiceComponent service, final Set<Long> serviceIds) {
         service = qm.createServiceComponent(service, false);
-        final long oid = service.getId();
-        // Refreshing the object by querying for it again is preventative
-        flattenedServices.add(qm.getObjectById(ServiceComponent.class, oid));
+        serviceIds.add(service.getId());
         if (service.getChildren() != null) {
             for (final ServiceComponent child : service.getChildren()) {
-                processService(qm, bom, child, flattenedServices);
+                processService(qm, child, serviceIds);
             }
         }
+        qm.getPersistenceManager().evict(service);
+    }
+
+    /**
+     * Identifying information of the {@link Component}s persisted while processing a BOM.
+     * <p>
+     * Persisted {@link Component}s are not retained across batches, such that memory usage
+     * does not grow with the number of {@link Component}s in the BOM.
+     */
+    private static final class ProcessedComponents {
+
+        // IDs of all persisted components, including children.
+        private final Set<Long> ids = new HashSet<>();
+
+        // BOM refs of top-level components, keyed by their ID.
+        private final Map<Long, String> bomRefById = new HashMap<>();
+
+        // Serialized identities of top-level components, keyed by their BOM ref.
+        private final Map<String, String> identityJsonByBomRef = new HashMap<>();
+
+        private int newCount;
+
     }
+
 }
@@ -18,12 +18,14 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.util.BooleanUtil;
 import alpine.event.LdapSyncEvent;
 import alpine.event.framework.Event;
 import alpine.model.ConfigProperty;
 import alpine.model.IConfigProperty.PropertyType;
 import alpine.server.tasks.AlpineTaskScheduler;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.ClearComponentAnalysisCacheEvent;
 import org.dependencytrack.event.DefectDojoUploadEventAbstract;
 import org.dependencytrack.event.FortifySscUploadEventAbstract;
@@ -31,6 +33,8 @@ import org.dependencytrack.event.GitHubAdvisoryMirrorEvent;
 import org.dependencytrack.event.IndexEvent;
 import org.dependencytrack.event.InternalComponentIdentificationEvent;
 import org.dependencytrack.event.KennaSecurityUploadEventAbstract;
+import org.dependencytrack.event.MetricsDeltaUpdateEvent;
+import org.dependencytrack.event.MetricsRetentionEvent;
 import org.dependencytrack.event.NistMirrorEvent;
 import org.dependencytrack.event.OsvMirrorEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
@@ -92,7 +96,8 @@ public final class TaskScheduler extends AlpineTaskScheduler {
             // Creates a new event that executes every 24 hours (86400000) by default after an initial 1 minute (60000) delay
             scheduleEvent(new VulnDbSyncEvent(), 60000, getCadenceConfigPropertyValueInMilliseconds(qm, TASK_SCHEDULER_VULNDB_MIRROR_CADENCE));
 
-            // Creates a new event that executes every 1 hour (3600000) by default after an initial 10 second (10000) delay
+            // Creates a new event that executes every 12 hours (43200000) by default after an initial 10 second (10000) delay.
+            // Acts as consistency check for metrics that are otherwise updated incrementally via MetricsDeltaUpdateEvent.
             scheduleEvent(new PortfolioMetricsUpdateEvent(), 10000, getCadenceConfigPropertyValueInMilliseconds(qm, TASK_SCHEDULER_PORTFOLIO_METRICS_UPDATE_CADENCE));
 
             // Creates a new event that executes every 1 hour (3600000) by default after an initial 10 second (10000) delay
@@ -111,6 +116,13 @@ public final class TaskScheduler extends AlpineTaskScheduler {
             scheduleEvent(new ClearComponentAnalysisCacheEvent(), 10000, getCadenceConfigPropertyValueInMilliseconds(qm, TASK_SCHEDULER_COMPONENT_ANALYSIS_CACHE_CLEAR_CADENCE));
         }
 
+        // Creates a new event that executes every 10 seconds (10000) by default after an initial 10 second (10000) delay
+        final long metricsDeltaUpdateInterval = Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_DELTA_UPDATE_INTERVAL_MS);
+        scheduleEvent(new MetricsDeltaUpdateEvent(), 10000, metricsDeltaUpdateInterval);
+
+        // Creates a new event that executes every 24 hours (86400000) after an initial 1 hour (3600000) delay
+        scheduleEvent(new MetricsRetentionEvent(), 3600000, 86400000);
+
         // Configurable tasks
         scheduleConfigurableTask(300000, FORTIFY_SSC_ENABLED, FORTIFY_SSC_SYNC_CADENCE, new FortifySscUploadEventAbstract());
         scheduleConfigurableTask(300000, DEFECTDOJO_ENABLED, DEFECTDOJO_SYNC_CADENCE, new DefectDojoUploadEventAbstract());
@@ -0,0 +1,422 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import alpine.common.logging.Logger;
+import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.model.VulnIdAndSource;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.VulnerabilityAliasIndex;
+import org.dependencytrack.util.VulnerabilityUtil;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * Updates metrics of multiple {@link Component}s of a {@link Project} at once.
+ * <p>
+ * Instead of issuing multiple queries per {@link Component}, all data required to calculate the metrics
+ * of a batch of components is fetched with a fixed number of (mostly grouped) queries. New {@link DependencyMetrics}
+ * are only recorded for components whose metrics changed. For all other components, only the last occurrence
+ * of their most recent {@link DependencyMetrics} is updated. All changes of a batch are committed in a single transaction.
+ * <p>
+ * Components that have not been marked as changed (see {@link Component#getMetricsChangeSequence()}) since their
+ * most recent {@link DependencyMetrics} were calculated are skipped entirely.
+ *
+ * @since 4.8.0
+ */
+final class ComponentMetricsUpdater {
+
+    private static final Logger LOGGER = Logger.getLogger(ComponentMetricsUpdater.class);
+
+    private ComponentMetricsUpdater() {
+    }
+
+    /**
+     * Calculate and record metrics for a given batch of {@link Component}s.
+     *
+     * @param qm         The {@link QueryManager} to use
+     * @param project    The {@link Project} all {@code components} belong to
+     * @param components The persistent {@link Component}s to update metrics for, as fetched using
+     *                   {@link Component.FetchGroup#METRICS_UPDATE}
+     * @return The {@link Counters} of all {@code components}, keyed by {@link Component} ID
+     */
+    static Map<Long, Counters> updateMetrics(final QueryManager qm, final Project project, final List<Component> components) throws Exception {
+        final PersistenceManager pm = qm.getPersistenceManager();
+        final var measuredAt = new Date();
+
+        final var countersByComponentId = new LinkedHashMap<Long, Counters>();
+        if (components.isEmpty()) {
+            return countersByComponentId;
+        }
+        final Set<Long> allComponentIds = components.stream().map(Component::getId).collect(Collectors.toSet());
+
+        // Change sequences must be read before any data that metrics are calculated from. They are only reset
+        // if they did not change until the calculated metrics are committed, so that changes which are not
+        // visible to this update (e.g. because their transaction is still in progress) are never lost.
+        final Map<Long, DependencyMetrics> latestMetricsByComponentId = getMostRecentDependencyMetrics(pm, allComponentIds);
+        final Map<Long, Long> sequenceByComponentId = qm.getComponentMetricsChangeSequences(allComponentIds);
+
+        final var dirtyCountersByComponentId = new LinkedHashMap<Long, Counters>();
+        for (final Component component : components) {
+            final DependencyMetrics latestMetrics = latestMetricsByComponentId.get(component.getId());
+            if (isClean(sequenceByComponentId.get(component.getId()), latestMetrics)) {
+                countersByComponentId.put(component.getId(), Counters.of(latestMetrics));
+            } else {
+                final var counters = new Counters(measuredAt);
+                countersByComponentId.put(component.getId(), counters);
+                dirtyCountersByComponentId.put(component.getId(), counters);
+            }
+        }
+
+        if (!dirtyCountersByComponentId.isEmpty()) {
+            final Set<Long> componentIds = dirtyCountersByComponentId.keySet();
+            final Set<ComponentVulnerability> suppressedFindings = countAnalyses(pm, componentIds, dirtyCountersByComponentId);
+            countVulnerabilities(qm, componentIds, suppressedFindings, dirtyCountersByComponentId);
+            countPolicyViolations(pm, componentIds, dirtyCountersByComponentId);
+        }
+
+        final var newMetrics = new ArrayList<DependencyMetrics>();
+        final var unchangedMetrics = new ArrayList<DependencyMetrics>();
+        for (final Component component : components) {
+            final Counters counters = countersByComponentId.get(component.getId());
+            final DependencyMetrics latestMetrics = latestMetricsByComponentId.get(component.getId());
+            if (!dirtyCountersByComponentId.containsKey(component.getId()) || !counters.hasChanged(latestMetrics)) {
+                unchangedMetrics.add(latestMetrics);
+            } else {
+                newMetrics.add(counters.createComponentMetrics(component, project));
+            }
+        }
+        LOGGER.debug("Metrics of %d/%d components of project %s changed; %d components were skipped because they did not change"
+                .formatted(newMetrics.size(), components.size(), project.getUuid(), components.size() - dirtyCountersByComponentId.size()));
+
+        qm.runInTransaction(() -> {
+            pm.makePersistentAll(newMetrics);
+            for (final DependencyMetrics metrics : unchangedMetrics) {
+                metrics.setLastOccurrence(measuredAt);
+            }
+
+            for (final Component component : components) {
+                final double inheritedRiskScore = countersByComponentId.get(component.getId()).inheritedRiskScore;
+                if (component.getLastInheritedRiskScore() == null || component.getLastInheritedRiskScore() != inheritedRiskScore) {
+                    component.setLastInheritedRiskScore(inheritedRiskScore);
+                }
+            }
+        });
+
+        // Components can be skipped from now on, unless they are marked as changed in the meantime.
+        final var dirtySequenceByComponentId = new HashMap<Long, Long>();
+        for (final Long componentId : dirtyCountersByComponentId.keySet()) {
+            dirtySequenceByComponentId.put(componentId, sequenceByComponentId.get(componentId));
+        }
+        qm.resetComponentMetricsChangeSequences(dirtySequenceByComponentId);
+
+        return countersByComponentId;
+    }
+
+    /**
+     * Fetch {@link Component}s by their IDs, grouped by the {@link Project} they belong to.
+     * <p>
+     * {@link Component}s of inactive {@link Project}s are omitted. {@link Component}s are fetched using
+     * {@link Component.FetchGroup#METRICS_UPDATE}, such that they can be passed to {@link #updateMetrics(QueryManager, Project, List)}.
+     */
+    static Map<Project, List<Component>> getComponentsByProject(final PersistenceManager pm, final Collection<Long> componentIds) throws Exception {
+        final var projectIdByComponentId = new HashMap<Long, Long>();
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter(":ids.contains(id) && (project.active == null || project.active == true)");
+            query.setParameters(componentIds);
+            query.setResult("id, project.id");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                projectIdByComponentId.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        if (projectIdByComponentId.isEmpty()) {
+            return Map.of();
+        }
+
+        final var projectsById = new HashMap<Long, Project>();
+        try (final Query<Project> query = pm.newQuery(Project.class)) {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(new HashSet<>(projectIdByComponentId.values()));
+            query.getFetchPlan().setGroup(Project.FetchGroup.METRICS_UPDATE.name());
+            for (final Project project : query.executeList()) {
+                projectsById.put(project.getId(), project);
+            }
+        }
+
+        final var componentsByProject = new HashMap<Project, List<Component>>();
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(projectIdByComponentId.keySet());
+            query.getFetchPlan().setGroup(Component.FetchGroup.METRICS_UPDATE.name());
+            for (final Component component : query.executeList()) {
+                final Project project = projectsById.get(projectIdByComponentId.get(component.getId()));
+                componentsByProject.computeIfAbsent(project, ignored -> new ArrayList<>()).add(component);
+            }
+        }
+        return componentsByProject;
+    }
+
+    /**
+     * A {@link Component} is considered clean, if none of its findings, analyses, or policy violations
+     * changed since its most recent {@link DependencyMetrics} were calculated.
+     *
+     * @param sequence      The {@link Component#getMetricsChangeSequence()} of the {@link Component}, if known
+     * @param latestMetrics The most recent {@link DependencyMetrics} of the {@link Component}, if any
+     * @return {@code true} when the {@link Component}'s metrics do not need to be re-calculated
+     */
+    private static boolean isClean(final Long sequence, final DependencyMetrics latestMetrics) {
+        return sequence != null && sequence == 0 && latestMetrics != null;
+    }
+
+    /**
+     * Count audited and suppressed findings.
+     *
+     * @return Findings that have been suppressed
+     */
+    private static Set<ComponentVulnerability> countAnalyses(final PersistenceManager pm, final Set<Long> componentIds,
+                                                             final Map<Long, Counters> countersByComponentId) {
+        final var suppressedFindings = new HashSet<ComponentVulnerability>();
+        try (final Query<Analysis> query = pm.newQuery(Analysis.class)) {
+            query.setFilter("""
+                    :componentIds.contains(component.id) &&
+                    (suppressed == true || (analysisState != :notSet && analysisState != :inTriage))
+                    """);
+            query.setParameters(componentIds, AnalysisState.NOT_SET, AnalysisState.IN_TRIAGE);
+            query.setResult("component.id, vulnerability.id, suppressed");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final long componentId = (Long) row[0];
+                final Counters counters = countersByComponentId.get(componentId);
+                if ((Boolean) row[2]) {
+                    counters.suppressions++;
+                    suppressedFindings.add(new ComponentVulnerability(componentId, (Long) row[1]));
+                } else {
+                    counters.findingsAudited++;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to count analyses", e);
+        }
+        return suppressedFindings;
+    }
+
+    private static void countVulnerabilities(final QueryManager qm, final Set<Long> componentIds,
+                                             final Set<ComponentVulnerability> suppressedFindings,
+                                             final Map<Long, Counters> countersByComponentId) {
+        final var findingsByComponentId = new HashMap<Long, List<Finding>>();
+        final var vulnKeys = new HashSet<VulnIdAndSource>();
+        try (final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class)) {
+            query.setFilter(":componentIds.contains(id) && vulnerabilities.contains(vuln)");
+            query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+            query.setParameters(componentIds);
+            query.setResult("""
+                    id, vuln.id, vuln.source, vuln.vulnId, vuln.severity,
+                    vuln.cvssV2BaseScore, vuln.cvssV3BaseScore,
+                    vuln.owaspRRLikelihoodScore, vuln.owaspRRTechnicalImpactScore, vuln.owaspRRBusinessImpactScore
+                    """);
+            query.setOrdering("vuln.id asc");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final long componentId = (Long) row[0];
+                if (suppressedFindings.contains(new ComponentVulnerability(componentId, (Long) row[1]))) {
+                    continue;
+                }
+
+                final var vulnKey = new VulnIdAndSource((String) row[3], (String) row[2]);
+                final var finding = new Finding(vulnKey, VulnerabilityUtil.getSeverity(row[4],
+                        (BigDecimal) row[5], (BigDecimal) row[6], (BigDecimal) row[7], (BigDecimal) row[8], (BigDecimal) row[9]));
+                findingsByComponentId.computeIfAbsent(componentId, ignored -> new ArrayList<>()).add(finding);
+                vulnKeys.add(vulnKey);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to fetch vulnerabilities", e);
+        }
+
+        final Map<VulnIdAndSource, List<VulnerabilityAlias>> aliasesByVulnKey = VulnerabilityAliasIndex.getInstance().getAliases(qm, vulnKeys);
+
+        for (final Map.Entry<Long, Counters> entry : countersByComponentId.entrySet()) {
+            final Counters counters = entry.getValue();
+
+            final Set<VulnIdAndSource> aliasesSeen = new HashSet<>();
+            for (final Finding finding : findingsByComponentId.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                // Skip vulnerabilities of which an alias has already been counted
+                if (aliasesSeen.contains(finding.vulnKey())) {
+                    continue;
+                }
+                aliasesSeen.addAll(VulnerabilityAliasIndex.getAliasIdentifiers(aliasesByVulnKey.get(finding.vulnKey())));
+
+                counters.vulnerabilities++;
+
+                switch (finding.severity()) {
+                    case CRITICAL -> counters.critical++;
+                    case HIGH -> counters.high++;
+                    case MEDIUM -> counters.medium++;
+                    case LOW, INFO -> counters.low++;
+                    case UNASSIGNED -> counters.unassigned++;
+                }
+            }
+
+            counters.findingsTotal = counters.vulnerabilities;
+            counters.findingsUnaudited = counters.findingsTotal - counters.findingsAudited;
+            counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+        }
+    }
+
+    private static void countPolicyViolations(final PersistenceManager pm, final Set<Long> componentIds,
+                                              final Map<Long, Counters> countersByComponentId) {
+        try (final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class)) {
+            query.setFilter(":componentIds.contains(component.id) && (analysis == null || analysis.suppressed == false)");
+            query.setParameters(componentIds);
+            query.setResult("component.id, type, policyCondition.policy.violationState, count(this)");
+            query.setGrouping("component.id, type, policyCondition.policy.violationState");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Counters counters = countersByComponentId.get((Long) row[0]);
+                final int count = toIntExact((Long) row[3]);
+                counters.policyViolationsTotal += count;
+
+                switch (PolicyViolation.Type.valueOf(((Enum<?>) row[1]).name())) {
+                    case LICENSE -> counters.policyViolationsLicenseTotal += count;
+                    case OPERATIONAL -> counters.policyViolationsOperationalTotal += count;
+                    case SECURITY -> counters.policyViolationsSecurityTotal += count;
+                }
+
+                switch (Policy.ViolationState.valueOf(((Enum<?>) row[2]).name())) {
+                    case FAIL -> counters.policyViolationsFail += count;
+                    case WARN -> counters.policyViolationsWarn += count;
+                    case INFO -> counters.policyViolationsInfo += count;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to count policy violations", e);
+        }
+
+        try (final Query<ViolationAnalysis> query = pm.newQuery(ViolationAnalysis.class)) {
+            query.setFilter("""
+                    :componentIds.contains(component.id) &&
+                    suppressed == false &&
+                    analysisState != :notSet
+                    """);
+            query.setParameters(componentIds, ViolationAnalysisState.NOT_SET);
+            query.setResult("component.id, policyViolation.type, count(this)");
+            query.setGrouping("component.id, policyViolation.type");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Counters counters = countersByComponentId.get((Long) row[0]);
+                final int count = toIntExact((Long) row[2]);
+
+                switch (PolicyViolation.Type.valueOf(((Enum<?>) row[1]).name())) {
+                    case LICENSE -> counters.policyViolationsLicenseAudited = count;
+                    case OPERATIONAL -> counters.policyViolationsOperationalAudited = count;
+                    case SECURITY -> counters.policyViolationsSecurityAudited = count;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to count audited policy violations", e);
+        }
+
+        for (final Counters counters : countersByComponentId.values()) {
+            // Audited violations are only considered for types that currently have violations.
+            if (counters.policyViolationsLicenseTotal == 0) {
+                counters.policyViolationsLicenseAudited = 0;
+            }
+            if (counters.policyViolationsOperationalTotal == 0) {
+                counters.policyViolationsOperationalAudited = 0;
+            }
+            if (counters.policyViolationsSecurityTotal == 0) {
+                counters.policyViolationsSecurityAudited = 0;
+            }
+            counters.policyViolationsLicenseUnaudited = counters.policyViolationsLicenseTotal - counters.policyViolationsLicenseAudited;
+            counters.policyViolationsOperationalUnaudited = counters.policyViolationsOperationalTotal - counters.policyViolationsOperationalAudited;
+            counters.policyViolationsSecurityUnaudited = counters.policyViolationsSecurityTotal - counters.policyViolationsSecurityAudited;
+
+            counters.policyViolationsAudited = counters.policyViolationsLicenseAudited +
+                    counters.policyViolationsOperationalAudited +
+                    counters.policyViolationsSecurityAudited;
+            counters.policyViolationsUnaudited = counters.policyViolationsTotal - counters.policyViolationsAudited;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<Long, DependencyMetrics> getMostRecentDependencyMetrics(final PersistenceManager pm, final Set<Long> componentIds) throws Exception {
+        final String placeholders = String.join(", ", Collections.nCopies(componentIds.size(), "?"));
+        final Query<?> idQuery = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, """
+                SELECT "DM"."ID", "DM"."COMPONENT_ID" FROM "DEPENDENCYMETRICS" AS "DM"
+                INNER JOIN (
+                    SELECT "COMPONENT_ID", MAX("LAST_OCCURRENCE") AS "LAST_OCCURRENCE"
+                    FROM "DEPENDENCYMETRICS"
+                    WHERE "COMPONENT_ID" IN (%s)
+                    GROUP BY "COMPONENT_ID"
+                ) AS "LATEST" ON "LATEST"."COMPONENT_ID" = "DM"."COMPONENT_ID"
+                    AND "LATEST"."LAST_OCCURRENCE" = "DM"."LAST_OCCURRENCE"
+                """.formatted(placeholders));
+        final var componentIdByMetricsId = new HashMap<Long, Long>();
+        try {
+            for (final Object[] row : (List<Object[]>) idQuery.executeWithArray(componentIds.toArray())) {
+                componentIdByMetricsId.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        } finally {
+            idQuery.closeAll();
+        }
+        if (componentIdByMetricsId.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final var metricsByComponentId = new HashMap<Long, DependencyMetrics>();
+        try (final Query<DependencyMetrics> query = pm.newQuery(DependencyMetrics.class)) {
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(componentIdByMetricsId.keySet());
+            for (final DependencyMetrics metrics : query.executeList()) {
+                // Multiple metrics may share the same last occurrence; Any of them will do.
+                metricsByComponentId.putIfAbsent(componentIdByMetricsId.get(metrics.getId()), metrics);
+            }
+        }
+        return metricsByComponentId;
+    }
+
+    private record ComponentVulnerability(long componentId, long vulnerabilityId) {
+    }
+
+    private record Finding(VulnIdAndSource vulnKey, Severity severity) {
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.dependencytrack.tasks.metrics;
 
+import org.dependencytrack.metrics.Metrics;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.PortfolioMetrics;
@@ -26,6 +27,8 @@ import org.dependencytrack.model.ProjectMetrics;
 
 import java.util.Date;
 
+import static java.lang.Math.toIntExact;
+
 /**
  * A utility class holding various counter variables.
  * <p>
@@ -48,13 +51,161 @@ final class Counters {
     final Date measuredAt;
 
     public Counters() {
-        this.measuredAt = new Date();
+        this(new Date());
+    }
+
+    Counters(final Date measuredAt) {
+        this.measuredAt = measuredAt;
+    }
+
+    static Counters of(final DependencyMetrics metrics) {
+        final var counters = new Counters();
+        counters.critical = metrics.getCritical();
+        counters.high = metrics.getHigh();
+        counters.medium = metrics.getMedium();
+        counters.low = metrics.getLow();
+        counters.unassigned = metrics.getUnassigned();
+        counters.vulnerabilities = toIntExact(metrics.getVulnerabilities());
+        counters.suppressions = metrics.getSuppressed();
+        counters.findingsTotal = metrics.getFindingsTotal();
+        counters.findingsAudited = metrics.getFindingsAudited();
+        counters.findingsUnaudited = metrics.getFindingsUnaudited();
+        counters.inheritedRiskScore = metrics.getInheritedRiskScore();
+        counters.policyViolationsFail = metrics.getPolicyViolationsFail();
+        counters.policyViolationsWarn = metrics.getPolicyViolationsWarn();
+        counters.policyViolationsInfo = metrics.getPolicyViolationsInfo();
+        counters.policyViolationsTotal = metrics.getPolicyViolationsTotal();
+        counters.policyViolationsAudited = metrics.getPolicyViolationsAudited();
+        counters.policyViolationsUnaudited = metrics.getPolicyViolationsUnaudited();
+        counters.policyViolationsSecurityTotal = metrics.getPolicyViolationsSecurityTotal();
+        counters.policyViolationsSecurityAudited = metrics.getPolicyViolationsSecurityAudited();
+        counters.policyViolationsSecurityUnaudited = metrics.getPolicyViolationsSecurityUnaudited();
+        counters.policyViolationsLicenseTotal = metrics.getPolicyViolationsLicenseTotal();
+        counters.policyViolationsLicenseAudited = metrics.getPolicyViolationsLicenseAudited();
+        counters.policyViolationsLicenseUnaudited = metrics.getPolicyViolationsLicenseUnaudited();
+        counters.policyViolationsOperationalTotal = metrics.getPolicyViolationsOperationalTotal();
+        counters.policyViolationsOperationalAudited = metrics.getPolicyViolationsOperationalAudited();
+        counters.policyViolationsOperationalUnaudited = metrics.getPolicyViolationsOperationalUnaudited();
+        return counters;
+    }
+
+    static Counters of(final ProjectMetrics metrics) {
+        final var counters = new Counters();
+        counters.critical = metrics.getCritical();
+        counters.high = metrics.getHigh();
+        counters.medium = metrics.getMedium();
+        counters.low = metrics.getLow();
+        counters.unassigned = metrics.getUnassigned();
+        counters.vulnerabilities = toIntExact(metrics.getVulnerabilities());
+        counters.suppressions = metrics.getSuppressed();
+        counters.findingsTotal = metrics.getFindingsTotal();
+        counters.findingsAudited = metrics.getFindingsAudited();
+        counters.findingsUnaudited = metrics.getFindingsUnaudited();
+        counters.inheritedRiskScore = metrics.getInheritedRiskScore();
+        counters.components = metrics.getComponents();
+        counters.vulnerableComponents = metrics.getVulnerableComponents();
+        counters.policyViolationsFail = metrics.getPolicyViolationsFail();
+        counters.policyViolationsWarn = metrics.getPolicyViolationsWarn();
+        counters.policyViolationsInfo = metrics.getPolicyViolationsInfo();
+        counters.policyViolationsTotal = metrics.getPolicyViolationsTotal();
+        counters.policyViolationsAudited = metrics.getPolicyViolationsAudited();
+        counters.policyViolationsUnaudited = metrics.getPolicyViolationsUnaudited();
+        counters.policyViolationsSecurityTotal = metrics.getPolicyViolationsSecurityTotal();
+        counters.policyViolationsSecurityAudited = metrics.getPolicyViolationsSecurityAudited();
+        counters.policyViolationsSecurityUnaudited = metrics.getPolicyViolationsSecurityUnaudited();
+        counters.policyViolationsLicenseTotal = metrics.getPolicyViolationsLicenseTotal();
+        counters.policyViolationsLicenseAudited = metrics.getPolicyViolationsLicenseAudited();
+        counters.policyViolationsLicenseUnaudited = metrics.getPolicyViolationsLicenseUnaudited();
+        counters.policyViolationsOperationalTotal = metrics.getPolicyViolationsOperationalTotal();
+        counters.policyViolationsOperationalAudited = metrics.getPolicyViolationsOperationalAudited();
+        counters.policyViolationsOperationalUnaudited = metrics.getPolicyViolationsOperationalUnaudited();
+        return counters;
     }
 
-    public DependencyMetrics createComponentMetrics(final Component component) {
+    static Counters of(final PortfolioMetrics metrics) {
+        final var counters = new Counters();
+        counters.critical = metrics.getCritical();
+        counters.high = metrics.getHigh();
+        counters.medium = metrics.getMedium();
+        counters.low = metrics.getLow();
+        counters.unassigned = metrics.getUnassigned();
+        counters.vulnerabilities = toIntExact(metrics.getVulnerabilities());
+        counters.suppressions = metrics.getSuppressed();
+        counters.findingsTotal = metrics.getFindingsTotal();
+        counters.findingsAudited = metrics.getFindingsAudited();
+        counters.findingsUnaudited = metrics.getFindingsUnaudited();
+        counters.inheritedRiskScore = metrics.getInheritedRiskScore();
+        counters.components = metrics.getComponents();
+        counters.vulnerableComponents = metrics.getVulnerableComponents();
+        counters.projects = metrics.getProjects();
+        counters.vulnerableProjects = metrics.getVulnerableProjects();
+        counters.policyViolationsFail = metrics.getPolicyViolationsFail();
+        counters.policyViolationsWarn = metrics.getPolicyViolationsWarn();
+        counters.policyViolationsInfo = metrics.getPolicyViolationsInfo();
+        counters.policyViolationsTotal = metrics.getPolicyViolationsTotal();
+        counters.policyViolationsAudited = metrics.getPolicyViolationsAudited();
+        counters.policyViolationsUnaudited = metrics.getPolicyViolationsUnaudited();
+        counters.policyViolationsSecurityTotal = metrics.getPolicyViolationsSecurityTotal();
+        counters.policyViolationsSecurityAudited = metrics.getPolicyViolationsSecurityAudited();
+        counters.policyViolationsSecurityUnaudited = metrics.getPolicyViolationsSecurityUnaudited();
+        counters.policyViolationsLicenseTotal = metrics.getPolicyViolationsLicenseTotal();
+        counters.policyViolationsLicenseAudited = metrics.getPolicyViolationsLicenseAudited();
+        counters.policyViolationsLicenseUnaudited = metrics.getPolicyViolationsLicenseUnaudited();
+        counters.policyViolationsOperationalTotal = metrics.getPolicyViolationsOperationalTotal();
+        counters.policyViolationsOperationalAudited = metrics.getPolicyViolationsOperationalAudited();
+        counters.policyViolationsOperationalUnaudited = metrics.getPolicyViolationsOperationalUnaudited();
+        return counters;
+    }
+
+    void add(final Counters other) {
+        applyDelta(new Counters(this.measuredAt), other);
+    }
+
+    /**
+     * Add the difference between {@code after} and {@code before} to this {@link Counters}.
+     * <p>
+     * The inherited risk score is re-calculated based on the resulting severity counters.
+     *
+     * @param before The {@link Counters} before a change
+     * @param after  The {@link Counters} after a change
+     */
+    void applyDelta(final Counters before, final Counters after) {
+        this.critical += after.critical - before.critical;
+        this.high += after.high - before.high;
+        this.medium += after.medium - before.medium;
+        this.low += after.low - before.low;
+        this.unassigned += after.unassigned - before.unassigned;
+        this.vulnerabilities += after.vulnerabilities - before.vulnerabilities;
+        this.suppressions += after.suppressions - before.suppressions;
+        this.findingsTotal += after.findingsTotal - before.findingsTotal;
+        this.findingsAudited += after.findingsAudited - before.findingsAudited;
+        this.findingsUnaudited += after.findingsUnaudited - before.findingsUnaudited;
+        this.components += after.components - before.components;
+        this.vulnerableComponents += after.vulnerableComponents - before.vulnerableComponents;
+        this.projects += after.projects - before.projects;
+        this.vulnerableProjects += after.vulnerableProjects - before.vulnerableProjects;
+        this.policyViolationsFail += after.policyViolationsFail - before.policyViolationsFail;
+        this.policyViolationsWarn += after.policyViolationsWarn - before.policyViolationsWarn;
+        this.policyViolationsInfo += after.policyViolationsInfo - before.policyViolationsInfo;
+        this.policyViolationsTotal += after.policyViolationsTotal - before.policyViolationsTotal;
+        this.policyViolationsAudited += after.policyViolationsAudited - before.policyViolationsAudited;
+        this.policyViolationsUnaudited += after.policyViolationsUnaudited - before.policyViolationsUnaudited;
+        this.policyViolationsSecurityTotal += after.policyViolationsSecurityTotal - before.policyViolationsSecurityTotal;
+        this.policyViolationsSecurityAudited += after.policyViolationsSecurityAudited - before.policyViolationsSecurityAudited;
+        this.policyViolationsSecurityUnaudited += after.policyViolationsSecurityUnaudited - before.policyViolationsSecurityUnaudited;
+        this.policyViolationsLicenseTotal += after.policyViolationsLicenseTotal - before.policyViolationsLicenseTotal;
+        this.policyViolationsLicenseAudited += after.policyViolationsLicenseAudited - before.policyViolationsLicenseAudited;
+        this.policyViolationsLicenseUnaudited += after.policyViolationsLicenseUnaudited - before.policyViolationsLicenseUnaudited;
+        this.policyViolationsOperationalTotal += after.policyViolationsOperationalTotal - before.policyViolationsOperationalTotal;
+        this.policyViolationsOperationalAudited += after.policyViolationsOperationalAudited - before.policyViolationsOperationalAudited;
+        this.policyViolationsOperationalUnaudited += after.policyViolationsOperationalUnaudited - before.policyViolationsOperationalUnaudited;
+        this.inheritedRiskScore = Metrics.inheritedRiskScore(this.critical, this.high, this.medium, this.low, this.unassigned);
+    }
+
+    public DependencyMetrics createComponentMetrics(final Component component, final Project project) {
         final var metrics = new DependencyMetrics();
         metrics.setComponent(component);
-        metrics.setProject(component.getProject());
+        metrics.setProject(project);
         metrics.setCritical(this.critical);
         metrics.setHigh(this.high);
         metrics.setMedium(this.medium);
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import alpine.common.logging.Logger;
+import alpine.event.framework.Event;
+import alpine.event.framework.Subscriber;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.dependencytrack.event.MetricsDeltaUpdateEvent;
+import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.CurrentMetricsCache;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.persistence.QueryManager;
+
+import javax.jdo.PersistenceManager;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link Subscriber} task that incrementally updates metrics of {@link Component}s
+ * recorded in the {@link MetricsDeltaQueue}.
+ * <p>
+ * Only the metrics of queued {@link Component}s are re-calculated. The difference between their
+ * previous and current metrics is then applied to the most recent metrics of their {@link Project}s,
+ * and the difference in {@link Project} metrics is applied to the most recent portfolio metrics.
+ * <p>
+ * Because deltas are applied to previously recorded metrics, drift (e.g. caused by components
+ * being deleted) is only corrected by a full {@link PortfolioMetricsUpdateTask}, which thus
+ * acts as a periodic consistency check. Updates of {@link Project} and portfolio metrics are
+ * serialized with full updates via {@link MetricsUpdateLocks}. Deltas applied to portfolio metrics while
+ * a full update is in progress are recorded via {@link PortfolioDeltaRecorder}.
+ *
+ * @since 4.8.0
+ */
+public class MetricsDeltaUpdateTask implements Subscriber {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsDeltaUpdateTask.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final MetricsDeltaQueue queue;
+
+    public MetricsDeltaUpdateTask() {
+        this(MetricsDeltaQueue.getInstance());
+    }
+
+    MetricsDeltaUpdateTask(final MetricsDeltaQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void inform(final Event e) {
+        if (e instanceof MetricsDeltaUpdateEvent) {
+            final Set<Long> componentIds = queue.drain();
+            if (componentIds.isEmpty()) {
+                return;
+            }
+
+            try {
+                updateMetrics(componentIds);
+            } catch (Exception ex) {
+                // Metrics of the affected components will be corrected by the next full update.
+                LOGGER.error("An unexpected error occurred while incrementally updating metrics of %d components"
+                        .formatted(componentIds.size()), ex);
+            }
+        }
+    }
+
+    /**
+     * Update metrics of the given {@link Component}s, and apply the difference between their previous
+     * and current metrics to the most recent metrics of their {@link Project}s, and of the portfolio.
+     * <p>
+     * Code paths that update metrics of individual {@link Component}s must do so through this method.
+     * Otherwise, the metrics of queued {@link Component}s would already be up-to-date by the time the queue
+     * is drained, and their changes would never be reflected in {@link Project} and portfolio metrics.
+     * <p>
+     * {@link Component}s of inactive {@link Project}s are skipped.
+     *
+     * @param componentIds IDs of the {@link Component}s to update metrics for
+     * @return The {@link Counters} of all updated {@link Component}s, keyed by {@link Component} ID
+     */
+    static Map<Long, Counters> updateMetrics(final Collection<Long> componentIds) throws Exception {
+        LOGGER.debug("Executing incremental metrics update for %d components".formatted(componentIds.size()));
+        final var startedAt = new Date();
+        final var countersByComponentId = new HashMap<Long, Counters>();
+
+        try (final var qm = new QueryManager()) {
+            final PersistenceManager pm = qm.getPersistenceManager();
+
+            final Map<Project, List<Component>> componentsByProject = ComponentMetricsUpdater.getComponentsByProject(pm, componentIds);
+
+            // Project locks are held until the delta has been applied to the portfolio. A concurrent full update
+            // of a project thus either completes before its components are updated here (leaving no delta to apply),
+            // or only starts after the delta has been applied to the metrics it is going to replace.
+            final List<Lock> projectLocks = MetricsUpdateLocks.lockProjects(
+                    componentsByProject.keySet().stream().map(Project::getUuid).toList());
+            try {
+                // Contributions of all changed projects to portfolio metrics, before and after the update.
+                final var projectsBefore = new Counters();
+                final var projectsAfter = new Counters();
+                final var projectDeltas = new HashMap<UUID, ProjectDelta>();
+
+                for (final Map.Entry<Project, List<Component>> entry : componentsByProject.entrySet()) {
+                    final Project project = entry.getKey();
+                    final List<Component> components = entry.getValue();
+
+                    // Contributions of all queued components to project metrics, before and after the update.
+                    final var componentsBefore = new Counters();
+                    final var componentsAfter = new Counters();
+                    for (int i = 0; i < components.size(); i += BATCH_SIZE) {
+                        final List<Component> batch = components.subList(i, Math.min(i + BATCH_SIZE, components.size()));
+                        countersByComponentId.putAll(updateComponentMetrics(qm, project, batch, componentsBefore, componentsAfter));
+                    }
+
+                    final ProjectMetrics latestProjectMetrics = qm.getMostRecentProjectMetrics(project);
+                    if (latestProjectMetrics == null) {
+                        // There is nothing to apply a delta to yet, thus fall back to a full update.
+                        // The portfolio will pick up the project with its next full update.
+                        LOGGER.debug("No metrics found for project %s; Dispatching full update".formatted(project.getUuid()));
+                        Event.dispatch(new ProjectMetricsUpdateEvent(project.getUuid()));
+                        continue;
+                    }
+
+                    final Counters projectBefore = Counters.of(latestProjectMetrics);
+                    final Counters projectAfter = Counters.of(latestProjectMetrics);
+                    projectAfter.applyDelta(componentsBefore, componentsAfter);
+                    if (!projectAfter.hasChanged(latestProjectMetrics)) {
+                        LOGGER.debug("Metrics of project %s did not change".formatted(project.getUuid()));
+                        qm.runInTransaction(() -> latestProjectMetrics.setLastOccurrence(projectAfter.measuredAt));
+                        CurrentMetricsCache.getInstance().invalidateProject(project.getUuid());
+                        continue;
+                    }
+
+                    LOGGER.debug("Metrics of project %s changed".formatted(project.getUuid()));
+                    qm.runInTransaction(() -> {
+                        pm.makePersistent(projectAfter.createProjectMetrics(project));
+                        if (project.getLastInheritedRiskScore() == null
+                                || project.getLastInheritedRiskScore() != projectAfter.inheritedRiskScore) {
+                            project.setLastInheritedRiskScore(projectAfter.inheritedRiskScore);
+                        }
+                    });
+                    CurrentMetricsCache.getInstance().invalidateProject(project.getUuid());
+
+                    markAsProject(projectBefore);
+                    markAsProject(projectAfter);
+                    projectsBefore.add(projectBefore);
+                    projectsAfter.add(projectAfter);
+                    projectDeltas.put(project.getUuid(), new ProjectDelta(projectBefore, projectAfter));
+                }
+
+                if (!projectDeltas.isEmpty()) {
+                    final Lock portfolioLock = MetricsUpdateLocks.lockPortfolio();
+                    try {
+                        // A full portfolio update in progress may have to apply the deltas to its result again.
+                        projectDeltas.forEach((projectUuid, delta) -> PortfolioDeltaRecorder.record(projectUuid, delta.before(), delta.after()));
+
+                        final PortfolioMetrics latestPortfolioMetrics = qm.getMostRecentPortfolioMetrics();
+                        if (latestPortfolioMetrics != null) {
+                            final Counters portfolioAfter = Counters.of(latestPortfolioMetrics);
+                            portfolioAfter.applyDelta(projectsBefore, projectsAfter);
+                            if (portfolioAfter.hasChanged(latestPortfolioMetrics)) {
+                                LOGGER.debug("Portfolio metrics changed");
+                                qm.runInTransaction(() -> pm.makePersistent(portfolioAfter.createPortfolioMetrics()));
+                                CurrentMetricsCache.getInstance().invalidatePortfolio();
+                            }
+                        }
+                    } finally {
+                        portfolioLock.unlock();
+                    }
+                }
+            } finally {
+                MetricsUpdateLocks.unlock(projectLocks);
+            }
+        }
+
+        LOGGER.debug("Completed incremental metrics update for %d components in %s".formatted(componentIds.size(),
+                DurationFormatUtils.formatDuration(new Date().getTime() - startedAt.getTime(), "mm:ss:SS")));
+        return countersByComponentId;
+    }
+
+    /**
+     * Update metrics of a batch of {@link Component}s, and accumulate how their metrics contribute
+     * to {@link Project} metrics, before and after the update.
+     *
+     * @return The {@link Counters} of all {@code components}, keyed by {@link Component} ID
+     */
+    private static Map<Long, Counters> updateComponentMetrics(final QueryManager qm, final Project project, final List<Component> components,
+                                                              final Counters before, final Counters after) throws Exception {
+        final Set<Long> ids = components.stream().map(Component::getId).collect(Collectors.toSet());
+        final Map<Long, DependencyMetrics> previousMetrics = ComponentMetricsUpdater.getMostRecentDependencyMetrics(qm.getPersistenceManager(), ids);
+        final Map<Long, Counters> currentCounters = ComponentMetricsUpdater.updateMetrics(qm, project, components);
+
+        for (final Component component : components) {
+            final DependencyMetrics previous = previousMetrics.get(component.getId());
+            if (previous != null) {
+                final Counters previousCounters = Counters.of(previous);
+                markAsComponent(previousCounters);
+                before.add(previousCounters);
+            }
+
+            final Counters current = currentCounters.get(component.getId());
+            markAsComponent(current);
+            after.add(current);
+        }
+
+        return currentCounters;
+    }
+
+    /**
+     * Populate the counters that a {@link Component} contributes to its {@link Project}'s metrics.
+     *
+     * @see ProjectMetricsUpdateTask
+     */
+    private static void markAsComponent(final Counters counters) {
+        counters.components = 1;
+        counters.vulnerableComponents = counters.vulnerabilities > 0 ? 1 : 0;
+    }
+
+    /**
+     * Populate the counters that a {@link Project} contributes to portfolio metrics.
+     *
+     * @see PortfolioMetricsUpdateTask
+     */
+    private static void markAsProject(final Counters counters) {
+        counters.projects = 1;
+        counters.vulnerableProjects = counters.vulnerabilities > 0 ? 1 : 0;
+    }
+
+
+    private record ProjectDelta(Counters before, Counters after) {
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import alpine.Config;
+import alpine.common.logging.Logger;
+import alpine.event.framework.Event;
+import alpine.event.framework.Subscriber;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.event.MetricsRetentionEvent;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.persistence.QueryManager;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link Subscriber} task that downsamples historical {@link DependencyMetrics}, {@link ProjectMetrics},
+ * and {@link PortfolioMetrics}.
+ * <p>
+ * Metrics are snapshots that are valid from their first until their last occurrence. Metrics recorded within
+ * the raw retention period are left untouched. Older metrics are reduced to the most recent metrics per day,
+ * and metrics older than the daily retention period to the most recent metrics per week. The retained metrics
+ * take over the first occurrence of the metrics they replace, such that history queries remain gapless.
+ * <p>
+ * Metrics are deleted in batches, each in its own transaction, to avoid long-running transactions.
+ *
+ * @since 4.8.0
+ */
+public class MetricsRetentionTask implements Subscriber {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsRetentionTask.class);
+    private static final int OWNER_PAGE_SIZE = 500;
+
+    private final int rawRetentionDays;
+    private final int dailyRetentionDays;
+    private final int batchSize;
+
+    public MetricsRetentionTask() {
+        this(Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_RETENTION_RAW_DAYS),
+                Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_RETENTION_DAILY_DAYS), 1000);
+    }
+
+    MetricsRetentionTask(final int rawRetentionDays, final int dailyRetentionDays, final int batchSize) {
+        this.rawRetentionDays = rawRetentionDays;
+        this.dailyRetentionDays = Math.max(rawRetentionDays, dailyRetentionDays);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void inform(final Event e) {
+        if (e instanceof MetricsRetentionEvent) {
+            if (rawRetentionDays <= 0) {
+                LOGGER.debug("Metrics retention is disabled");
+                return;
+            }
+
+            try {
+                downsample();
+            } catch (Exception ex) {
+                LOGGER.error("An unexpected error occurred while downsampling metrics", ex);
+            }
+        }
+    }
+
+    private void downsample() throws Exception {
+        LOGGER.info("Executing metrics retention");
+        final var startedAt = new Date();
+        final var rawCutoff = Date.from(startedAt.toInstant().minus(Duration.ofDays(rawRetentionDays)));
+        final var dailyCutoff = Date.from(startedAt.toInstant().minus(Duration.ofDays(dailyRetentionDays)));
+
+        try (final var qm = new QueryManager()) {
+            final long portfolioDeleted = downsample(qm, PortfolioMetrics.class, null, List.of(), rawCutoff, dailyCutoff);
+
+            long projectDeleted = 0;
+            List<Long> projectIds = fetchNextOwnerIdsPage(qm.getPersistenceManager(), Project.class, null);
+            while (!projectIds.isEmpty()) {
+                projectDeleted += downsample(qm, ProjectMetrics.class, "project", projectIds, rawCutoff, dailyCutoff);
+                projectIds = fetchNextOwnerIdsPage(qm.getPersistenceManager(), Project.class, projectIds.get(projectIds.size() - 1));
+            }
+
+            long dependencyDeleted = 0;
+            List<Long> componentIds = fetchNextOwnerIdsPage(qm.getPersistenceManager(), Component.class, null);
+            while (!componentIds.isEmpty()) {
+                dependencyDeleted += downsample(qm, DependencyMetrics.class, "component", componentIds, rawCutoff, dailyCutoff);
+                componentIds = fetchNextOwnerIdsPage(qm.getPersistenceManager(), Component.class, componentIds.get(componentIds.size() - 1));
+            }
+
+            LOGGER.info("Completed metrics retention in %s; Deleted %d portfolio, %d project, and %d dependency metrics"
+                    .formatted(DurationFormatUtils.formatDuration(new Date().getTime() - startedAt.getTime(), "mm:ss:SS"),
+                            portfolioDeleted, projectDeleted, dependencyDeleted));
+        }
+    }
+
+    /**
+     * Downsample metrics of a given type that were last seen before {@code rawCutoff}.
+     *
+     * @param qm          The {@link QueryManager} to use
+     * @param clazz       The type of metrics to downsample
+     * @param ownerField  Name of the field referring to the owner of the metrics, or {@code null} for portfolio metrics
+     * @param ownerIds    IDs of the owners to downsample metrics for
+     * @param rawCutoff   Metrics last seen before this date are downsampled to one per day
+     * @param dailyCutoff Metrics last seen before this date are downsampled to one per week
+     * @return Number of deleted metrics
+     */
+    private <T> long downsample(final QueryManager qm, final Class<T> clazz, final String ownerField, final List<Long> ownerIds,
+                                final Date rawCutoff, final Date dailyCutoff) throws Exception {
+        final List<MetricsPoint> points = fetchPoints(qm.getPersistenceManager(), clazz, ownerField, ownerIds, rawCutoff);
+
+        final var deletions = new ArrayList<Long>();
+        final var firstOccurrenceUpdates = new HashMap<Long, Date>();
+        long deleted = 0;
+
+        int bucketStart = 0;
+        for (int i = 1; i <= points.size(); i++) {
+            if (i < points.size() && isSameBucket(points.get(bucketStart), points.get(i), dailyCutoff)) {
+                continue;
+            }
+
+            // Points are ordered by last occurrence, thus the last point of a bucket is the one to retain.
+            final MetricsPoint retained = points.get(i - 1);
+            Date firstOccurrence = retained.firstOccurrence();
+            for (final MetricsPoint point : points.subList(bucketStart, i - 1)) {
+                deletions.add(point.id());
+                if (point.firstOccurrence() != null && (firstOccurrence == null || point.firstOccurrence().before(firstOccurrence))) {
+                    firstOccurrence = point.firstOccurrence();
+                }
+            }
+            if (!Objects.equals(firstOccurrence, retained.firstOccurrence())) {
+                firstOccurrenceUpdates.put(retained.id(), firstOccurrence);
+            }
+            bucketStart = i;
+
+            if (deletions.size() >= batchSize) {
+                deleted += flush(qm, clazz, deletions, firstOccurrenceUpdates);
+            }
+        }
+
+        return deleted + flush(qm, clazz, deletions, firstOccurrenceUpdates);
+    }
+
+    /**
+     * Delete downsampled metrics, and extend the retained metrics to cover the period of the deleted ones.
+     */
+    private static <T> long flush(final QueryManager qm, final Class<T> clazz, final List<Long> deletions,
+                                  final Map<Long, Date> firstOccurrenceUpdates) {
+        if (deletions.isEmpty() && firstOccurrenceUpdates.isEmpty()) {
+            return 0;
+        }
+
+        final PersistenceManager pm = qm.getPersistenceManager();
+        final long deleted = qm.runInTransaction(() -> {
+            if (!firstOccurrenceUpdates.isEmpty()) {
+                final Query<T> query = pm.newQuery(clazz);
+                query.setFilter(":ids.contains(id)");
+                query.setParameters(firstOccurrenceUpdates.keySet());
+                try {
+                    for (final T metrics : query.executeList()) {
+                        if (metrics instanceof final DependencyMetrics dependencyMetrics) {
+                            dependencyMetrics.setFirstOccurrence(firstOccurrenceUpdates.get(dependencyMetrics.getId()));
+                        } else if (metrics instanceof final ProjectMetrics projectMetrics) {
+                            projectMetrics.setFirstOccurrence(firstOccurrenceUpdates.get(projectMetrics.getId()));
+                        } else if (metrics instanceof final PortfolioMetrics portfolioMetrics) {
+                            portfolioMetrics.setFirstOccurrence(firstOccurrenceUpdates.get(portfolioMetrics.getId()));
+                        }
+                    }
+                } finally {
+                    query.closeAll();
+                }
+            }
+
+            if (deletions.isEmpty()) {
+                return 0L;
+            }
+            final Query<T> query = pm.newQuery(clazz);
+            query.setFilter(":ids.contains(id)");
+            try {
+                return query.deletePersistentAll(deletions);
+            } finally {
+                query.closeAll();
+            }
+        });
+
+        LOGGER.debug("Deleted %d %s".formatted(deleted, clazz.getSimpleName()));
+        deletions.clear();
+        firstOccurrenceUpdates.clear();
+        return deleted;
+    }
+
+    private static List<MetricsPoint> fetchPoints(final PersistenceManager pm, final Class<?> clazz, final String ownerField,
+                                                  final List<Long> ownerIds, final Date rawCutoff) throws Exception {
+        try (final Query<?> query = pm.newQuery(clazz)) {
+            final var params = new HashMap<String, Object>();
+            params.put("cutoff", rawCutoff);
+            if (ownerField != null) {
+                query.setFilter(":ownerIds.contains(%s.id) && lastOccurrence < :cutoff".formatted(ownerField));
+                query.setResult("id, firstOccurrence, lastOccurrence, %s.id".formatted(ownerField));
+                query.setOrdering("%s.id asc, lastOccurrence asc, id asc".formatted(ownerField));
+                params.put("ownerIds", ownerIds);
+            } else {
+                query.setFilter("lastOccurrence < :cutoff");
+                query.setResult("id, firstOccurrence, lastOccurrence");
+                query.setOrdering("lastOccurrence asc, id asc");
+            }
+            query.setNamedParameters(params);
+
+            final var points = new ArrayList<MetricsPoint>();
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Long ownerId = row.length > 3 ? (Long) row[3] : null;
+                points.add(new MetricsPoint((Long) row[0], ownerId, (Date) row[1], (Date) row[2]));
+            }
+            return points;
+        }
+    }
+
+    /**
+     * Fetch IDs of {@link Project}s or {@link Component}s in pages of {@value #OWNER_PAGE_SIZE}.
+     *
+     * @param pm     The {@link PersistenceManager} to use
+     * @param clazz  The type of the owner
+     * @param lastId Highest ID of the previously fetched page
+     * @return Up to {@value #OWNER_PAGE_SIZE} IDs
+     * @throws Exception If the query could not be closed
+     */
+    private static List<Long> fetchNextOwnerIdsPage(final PersistenceManager pm, final Class<?> clazz, final Long lastId) throws Exception {
+        try (final Query<?> query = pm.newQuery(clazz)) {
+            if (lastId != null) {
+                query.setFilter("id > :lastId");
+                query.setParameters(lastId);
+            }
+            query.setResult("id");
+            query.setOrdering("id asc");
+            query.range(0, OWNER_PAGE_SIZE);
+            return List.copyOf(query.executeResultList(Long.class));
+        }
+    }
+
+    private static boolean isSameBucket(final MetricsPoint a, final MetricsPoint b, final Date dailyCutoff) {
+        return Objects.equals(a.ownerId(), b.ownerId())
+                && getBucket(a.lastOccurrence(), dailyCutoff).equals(getBucket(b.lastOccurrence(), dailyCutoff));
+    }
+
+    /**
+     * @return The day, or the week, that metrics last seen at {@code lastOccurrence} are downsampled to
+     */
+    private static Bucket getBucket(final Date lastOccurrence, final Date dailyCutoff) {
+        final LocalDate day = LocalDate.ofInstant(lastOccurrence.toInstant(), ZoneOffset.UTC);
+        if (lastOccurrence.before(dailyCutoff)) {
+            return new Bucket(Granularity.WEEK, day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        }
+        return new Bucket(Granularity.DAY, day);
+    }
+
+    private enum Granularity {
+        DAY,
+        WEEK
+    }
+
+    /**
+     * A daily bucket on a Monday and the weekly bucket starting on that Monday share the same date,
+     * so buckets are distinguished by their {@link Granularity} as well.
+     */
+    private record Bucket(Granularity granularity, LocalDate date) {
+    }
+
+    private record MetricsPoint(long id, Long ownerId, Date firstOccurrence, Date lastOccurrence) {
+    }
+
+}
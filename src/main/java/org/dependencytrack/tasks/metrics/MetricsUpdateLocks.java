@@ -0,0 +1,104 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import com.google.common.util.concurrent.Striped;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks that serialize writers of {@link Project} and portfolio metrics.
+ * <p>
+ * {@link MetricsDeltaUpdateTask} reads the most recent {@link ProjectMetrics} and {@link PortfolioMetrics},
+ * and records them again with a delta applied. {@link ProjectMetricsUpdateTask} and {@link PortfolioMetricsUpdateTask}
+ * re-calculate them from scratch. All of them may run concurrently. Holding the lock of a {@link Project} while
+ * updating its {@link Component}s and recording its metrics ensures that a delta is never applied on top of
+ * metrics that already account for it.
+ * <p>
+ * To prevent deadlocks, locks of multiple {@link Project}s must be acquired via {@link #lockProjects(Collection)},
+ * and the portfolio lock must not be held while acquiring {@link Project} locks.
+ *
+ * @since 4.8.0
+ */
+final class MetricsUpdateLocks {
+
+    private static final Striped<Lock> PROJECT_LOCKS = Striped.lock(64);
+    private static final Lock PORTFOLIO_LOCK = new ReentrantLock();
+
+    private MetricsUpdateLocks() {
+    }
+
+    /**
+     * Acquire the lock of a given {@link Project}.
+     *
+     * @param projectUuid {@link UUID} of the {@link Project}
+     * @return The acquired {@link Lock}
+     */
+    static Lock lockProject(final UUID projectUuid) {
+        final Lock lock = PROJECT_LOCKS.get(projectUuid);
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Acquire the locks of multiple {@link Project}s, in an order that is consistent across threads.
+     *
+     * @param projectUuids {@link UUID}s of the {@link Project}s
+     * @return The acquired {@link Lock}s, to be released via {@link #unlock(List)}
+     */
+    static List<Lock> lockProjects(final Collection<UUID> projectUuids) {
+        final var locks = new ArrayList<Lock>(projectUuids.size());
+        for (final Lock lock : PROJECT_LOCKS.bulkGet(projectUuids)) {
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    /**
+     * Acquire the portfolio lock.
+     *
+     * @return The acquired {@link Lock}
+     */
+    static Lock lockPortfolio() {
+        PORTFOLIO_LOCK.lock();
+        return PORTFOLIO_LOCK;
+    }
+
+    /**
+     * Release {@link Lock}s in the reverse order of their acquisition.
+     *
+     * @param locks The {@link Lock}s to release
+     */
+    static void unlock(final List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records deltas that {@link MetricsDeltaUpdateTask} applies to {@link PortfolioMetrics}
+ * while a {@link PortfolioMetricsUpdateTask} is in progress.
+ * <p>
+ * A full portfolio update replaces the most recent {@link PortfolioMetrics} once all {@link Project}s have been
+ * updated. Deltas of {@link Project}s that were applied after their metrics were collected by the full update
+ * are not reflected in its result, and must be applied to it again. Deltas of {@link Project}s whose metrics
+ * were collected afterwards are already reflected in them.
+ * <p>
+ * {@link #markCollected(UUID)} must be called while holding the lock of the {@link Project}, and deltas
+ * must be recorded while holding the locks of their {@link Project}s, as well as the portfolio lock.
+ * The recorder must be closed while holding the portfolio lock, before the full update records its result.
+ *
+ * @see MetricsUpdateLocks
+ * @since 4.8.0
+ */
+final class PortfolioDeltaRecorder implements AutoCloseable {
+
+    private static final Set<PortfolioDeltaRecorder> ACTIVE_RECORDERS = ConcurrentHashMap.newKeySet();
+
+    private final Set<UUID> collectedProjectUuids = ConcurrentHashMap.newKeySet();
+    private final Counters before = new Counters();
+    private final Counters after = new Counters();
+
+    private PortfolioDeltaRecorder() {
+    }
+
+    /**
+     * @return A new {@link PortfolioDeltaRecorder} that records deltas until it is closed
+     */
+    static PortfolioDeltaRecorder open() {
+        final var recorder = new PortfolioDeltaRecorder();
+        ACTIVE_RECORDERS.add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Record the delta of a {@link Project} that is about to be applied to {@link PortfolioMetrics}.
+     *
+     * @param projectUuid   {@link UUID} of the {@link Project}
+     * @param projectBefore Contribution of the {@link Project} to {@link PortfolioMetrics} before the change
+     * @param projectAfter  Contribution of the {@link Project} to {@link PortfolioMetrics} after the change
+     */
+    static void record(final UUID projectUuid, final Counters projectBefore, final Counters projectAfter) {
+        for (final PortfolioDeltaRecorder recorder : ACTIVE_RECORDERS) {
+            if (recorder.collectedProjectUuids.contains(projectUuid)) {
+                synchronized (recorder) {
+                    recorder.before.add(projectBefore);
+                    recorder.after.add(projectAfter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record that the metrics of a {@link Project} have been collected by the full update.
+     *
+     * @param projectUuid {@link UUID} of the {@link Project}
+     */
+    void markCollected(final UUID projectUuid) {
+        collectedProjectUuids.add(projectUuid);
+    }
+
+    /**
+     * Apply all recorded deltas to the {@link Counters} of the full update.
+     *
+     * @param counters The {@link Counters} collected by the full update
+     */
+    synchronized void applyTo(final Counters counters) {
+        counters.applyDelta(before, after);
+    }
+
+    @Override
+    public void close() {
+        ACTIVE_RECORDERS.remove(this);
+    }
+
+}
@@ -18,15 +18,16 @@
  */
 package org.dependencytrack.tasks.metrics;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.common.util.SystemUtil;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.dependencytrack.event.CallbackEvent;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
-import org.dependencytrack.event.ProjectMetricsUpdateEvent;
-import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.metrics.CurrentMetricsCache;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
@@ -35,19 +36,47 @@ import org.dependencytrack.persistence.QueryManager;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
 
 /**
  * A {@link Subscriber} task that updates portfolio metrics.
+ * <p>
+ * Metrics of active {@link Project}s are updated concurrently, with at most
+ * {@link ConfigKey#METRICS_PORTFOLIO_UPDATE_CONCURRENCY} updates in progress at any given time.
+ * A new update is started as soon as another completes, and the {@link Counters} of completed
+ * updates are added to the portfolio's {@link Counters} right away. Deltas that incremental updates
+ * apply to portfolio metrics in the meantime are applied to the result again, before it is recorded.
  *
  * @since 4.6.0
  */
 public class PortfolioMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(PortfolioMetricsUpdateTask.class);
-    private static final long BATCH_SIZE = SystemUtil.getCpuCores();
+    private static final int PAGE_SIZE = 500;
+
+    private final int concurrency;
+
+    public PortfolioMetricsUpdateTask() {
+        this(Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_PORTFOLIO_UPDATE_CONCURRENCY));
+    }
+
+    /**
+     * @param concurrency Maximum number of concurrent {@link Project} metrics updates,
+     *                    or {@code 0} to use the number of available CPU cores
+     */
+    PortfolioMetricsUpdateTask(final int concurrency) {
+        this.concurrency = concurrency > 0 ? concurrency : SystemUtil.getCpuCores();
+    }
 
     @Override
     public void inform(final Event e) {
@@ -61,111 +90,128 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
     }
 
     private void updateMetrics() throws Exception {
-        LOGGER.info("Executing portfolio metrics update");
+        LOGGER.info("Executing portfolio metrics update with concurrency of " + concurrency);
         final var counters = new Counters();
 
-        try (final var qm = new QueryManager()) {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency, new BasicThreadFactory.Builder()
+                .namingPattern("PortfolioMetricsUpdate-%d")
+                .build());
+        try (final var qm = new QueryManager();
+             final var deltaRecorder = PortfolioDeltaRecorder.open()) {
             final PersistenceManager pm = qm.getPersistenceManager();
+            final var completionService = new ExecutorCompletionService<Counters>(executor);
+            final var projectUuidByFuture = new HashMap<Future<Counters>, UUID>();
 
-            LOGGER.debug("Fetching first " + BATCH_SIZE + " projects");
+            LOGGER.debug("Fetching first " + PAGE_SIZE + " projects");
             List<Project> activeProjects = fetchNextActiveProjectsPage(pm, null);
 
             while (!activeProjects.isEmpty()) {
-                final long firstId = activeProjects.get(0).getId();
-                final long lastId = activeProjects.get(activeProjects.size() - 1).getId();
-                final int batchCount = activeProjects.size();
-
-                final var countDownLatch = new CountDownLatch(batchCount);
-
                 for (final Project project : activeProjects) {
-                    LOGGER.debug("Dispatching metrics update event for project " + project.getUuid());
-                    final var callbackEvent = new CallbackEvent(countDownLatch::countDown);
-                    Event.dispatch(new ProjectMetricsUpdateEvent(project.getUuid())
-                            .onSuccess(callbackEvent)
-                            .onFailure(callbackEvent));
-                }
-
-                LOGGER.debug("Waiting for metrics updates for projects " + firstId + "-" + lastId + " to complete");
-                if (!countDownLatch.await(15, TimeUnit.MINUTES)) {
-                    // Depending on the system load, it may take a while for the queued events
-                    // to be processed. And depending on how large the projects are, it may take a
-                    // while for the processing of the respective event to complete.
-                    // It is unlikely though that either of these situations causes a block for
-                    // over 15 minutes. If that happens, the system is under-resourced.
-                    LOGGER.warn("Updating metrics for projects " + firstId + "-" + lastId +
-                            " took longer than expected (15m); Proceeding with potentially stale data");
-                }
-                LOGGER.debug("Completed metrics updates for projects " + firstId + "-" + lastId);
-
-                for (final Project project : activeProjects) {
-                    LOGGER.debug("Processing latest metrics for project " + project.getUuid());
-                    final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
-                    if (metrics == null) {
-                        // The project metrics calculation task failed, or the project has been
-                        // deleted after the event being dispatched. Either way, nothing we can
-                        // do anything about.
-                        LOGGER.debug("No metrics found for project " + project.getUuid() + " - skipping");
-                        continue;
+                    if (projectUuidByFuture.size() == concurrency) {
+                        addProjectCounters(qm, deltaRecorder, counters, projectUuidByFuture, completionService.take());
                     }
 
-                    counters.critical += metrics.getCritical();
-                    counters.high += metrics.getHigh();
-                    counters.medium += metrics.getMedium();
-                    counters.low += metrics.getLow();
-                    counters.unassigned += metrics.getUnassigned();
-                    counters.vulnerabilities += metrics.getVulnerabilities();
-
-                    counters.findingsTotal += metrics.getFindingsTotal();
-                    counters.findingsAudited += metrics.getFindingsAudited();
-                    counters.findingsUnaudited += metrics.getFindingsUnaudited();
-                    counters.suppressions += metrics.getSuppressed();
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
-
-                    counters.projects++;
-                    if (metrics.getVulnerabilities() > 0) {
-                        counters.vulnerableProjects++;
-                    }
-                    counters.components += metrics.getComponents();
-                    counters.vulnerableComponents += metrics.getVulnerableComponents();
-
-                    counters.policyViolationsFail += metrics.getPolicyViolationsFail();
-                    counters.policyViolationsWarn += metrics.getPolicyViolationsWarn();
-                    counters.policyViolationsInfo += metrics.getPolicyViolationsInfo();
-                    counters.policyViolationsTotal += metrics.getPolicyViolationsTotal();
-                    counters.policyViolationsAudited += metrics.getPolicyViolationsAudited();
-                    counters.policyViolationsUnaudited += metrics.getPolicyViolationsUnaudited();
-                    counters.policyViolationsSecurityTotal += metrics.getPolicyViolationsSecurityTotal();
-                    counters.policyViolationsSecurityAudited += metrics.getPolicyViolationsSecurityAudited();
-                    counters.policyViolationsSecurityUnaudited += metrics.getPolicyViolationsSecurityUnaudited();
-                    counters.policyViolationsLicenseTotal += metrics.getPolicyViolationsLicenseTotal();
-                    counters.policyViolationsLicenseAudited += metrics.getPolicyViolationsLicenseAudited();
-                    counters.policyViolationsLicenseUnaudited += metrics.getPolicyViolationsLicenseUnaudited();
-                    counters.policyViolationsOperationalTotal += metrics.getPolicyViolationsOperationalTotal();
-                    counters.policyViolationsOperationalAudited += metrics.getPolicyViolationsOperationalAudited();
-                    counters.policyViolationsOperationalUnaudited += metrics.getPolicyViolationsOperationalUnaudited();
+                    final UUID uuid = project.getUuid();
+                    LOGGER.debug("Submitting metrics update for project " + uuid);
+                    final Future<Counters> future = completionService.submit(() -> {
+                        final Lock projectLock = MetricsUpdateLocks.lockProject(uuid);
+                        try {
+                            final Counters projectCounters = ProjectMetricsUpdateTask.updateMetrics(uuid);
+                            deltaRecorder.markCollected(uuid);
+                            return projectCounters;
+                        } catch (NoSuchElementException ex) {
+                            // The project has been deleted after its update was submitted.
+                            LOGGER.debug("Couldn't update metrics of project " + uuid + " because the project was not found", ex);
+                            return null;
+                        } finally {
+                            projectLock.unlock();
+                        }
+                    });
+                    projectUuidByFuture.put(future, uuid);
                 }
 
-                LOGGER.debug("Fetching next " + BATCH_SIZE + " projects");
+                LOGGER.debug("Fetching next " + PAGE_SIZE + " projects");
+                final long lastId = activeProjects.get(activeProjects.size() - 1).getId();
                 activeProjects = fetchNextActiveProjectsPage(pm, lastId);
             }
 
-            qm.runInTransaction(() -> {
-                final PortfolioMetrics latestMetrics = qm.getMostRecentPortfolioMetrics();
-                if (!counters.hasChanged(latestMetrics)) {
-                    LOGGER.debug("Portfolio metrics did not change");
-                    latestMetrics.setLastOccurrence(counters.measuredAt);
-                } else {
-                    LOGGER.debug("Portfolio metrics changed");
-                    final PortfolioMetrics metrics = counters.createPortfolioMetrics();
-                    pm.makePersistent(metrics);
-                }
-            });
+            while (!projectUuidByFuture.isEmpty()) {
+                addProjectCounters(qm, deltaRecorder, counters, projectUuidByFuture, completionService.take());
+            }
+
+            final Lock portfolioLock = MetricsUpdateLocks.lockPortfolio();
+            try {
+                // Metrics recorded by incremental updates in the meantime are more recent than the start of this
+                // update. The result is thus recorded as of now, with their deltas applied to it again.
+                deltaRecorder.close();
+                final var portfolioCounters = new Counters();
+                portfolioCounters.add(counters);
+                deltaRecorder.applyTo(portfolioCounters);
+                qm.runInTransaction(() -> {
+                    final PortfolioMetrics latestMetrics = qm.getMostRecentPortfolioMetrics();
+                    if (!portfolioCounters.hasChanged(latestMetrics)) {
+                        LOGGER.debug("Portfolio metrics did not change");
+                        latestMetrics.setLastOccurrence(portfolioCounters.measuredAt);
+                    } else {
+                        LOGGER.debug("Portfolio metrics changed");
+                        final PortfolioMetrics metrics = portfolioCounters.createPortfolioMetrics();
+                        pm.makePersistent(metrics);
+                    }
+                });
+                CurrentMetricsCache.getInstance().invalidatePortfolio();
+            } finally {
+                portfolioLock.unlock();
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
         LOGGER.info("Completed portfolio metrics update in " +
                 DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
     }
 
+    private static void addProjectCounters(final QueryManager qm, final PortfolioDeltaRecorder deltaRecorder, final Counters counters,
+                                           final Map<Future<Counters>, UUID> projectUuidByFuture,
+                                           final Future<Counters> future) throws InterruptedException {
+        final UUID uuid = projectUuidByFuture.remove(future);
+        Counters projectCounters;
+        try {
+            projectCounters = future.get();
+        } catch (ExecutionException ex) {
+            // Fall back to the most recent metrics of the project, so that it is still considered for portfolio metrics.
+            LOGGER.error("An unexpected error occurred while updating metrics of project " + uuid, ex.getCause());
+            projectCounters = getMostRecentProjectCounters(qm, deltaRecorder, uuid);
+        }
+        if (projectCounters == null) {
+            return;
+        }
+
+        counters.add(projectCounters);
+        counters.projects++;
+        if (projectCounters.vulnerabilities > 0) {
+            counters.vulnerableProjects++;
+        }
+    }
+
+    private static Counters getMostRecentProjectCounters(final QueryManager qm, final PortfolioDeltaRecorder deltaRecorder, final UUID uuid) {
+        final Project project = qm.getObjectByUuid(Project.class, uuid);
+        if (project == null) {
+            return null;
+        }
+
+        final Lock projectLock = MetricsUpdateLocks.lockProject(uuid);
+        try {
+            final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+            if (metrics == null) {
+                return null;
+            }
+            deltaRecorder.markCollected(uuid);
+            return Counters.of(metrics);
+        } finally {
+            projectLock.unlock();
+        }
+    }
+
     private List<Project> fetchNextActiveProjectsPage(final PersistenceManager pm, final Long lastId) throws Exception {
         try (final Query<Project> query = pm.newQuery(Project.class)) {
             if (lastId == null) {
@@ -175,7 +221,7 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
                 query.setParameters(lastId);
             }
             query.setOrdering("id DESC");
-            query.range(0, BATCH_SIZE);
+            query.range(0, PAGE_SIZE);
             query.getFetchPlan().setGroup(Project.FetchGroup.METRICS_UPDATE.name());
             return List.copyOf(query.executeList());
         }
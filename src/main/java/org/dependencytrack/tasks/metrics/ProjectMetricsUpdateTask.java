@@ -21,8 +21,10 @@ package org.dependencytrack.tasks.metrics;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.CurrentMetricsCache;
 import org.dependencytrack.metrics.Metrics;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Project;
@@ -31,10 +33,13 @@ import org.dependencytrack.persistence.QueryManager;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
 
 /**
  * A {@link Subscriber} task that updates {@link Project} metrics.
@@ -44,6 +49,9 @@ import java.util.UUID;
 public class ProjectMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(ProjectMetricsUpdateTask.class);
+    private static final Timer TIMER = Timer.builder("metrics_update_project")
+            .description("Time taken to update metrics of a project")
+            .register(alpine.common.metrics.Metrics.getRegistry());
 
     @Override
     public void inform(final Event e) {
@@ -56,10 +64,20 @@ public class ProjectMetricsUpdateTask implements Subscriber {
         }
     }
 
-    private static void updateMetrics(final UUID uuid) throws Exception {
+    /**
+     * Update metrics of a given {@link Project}.
+     *
+     * @param uuid The {@link UUID} of the {@link Project} to update metrics for
+     * @return The {@link Counters} of the {@link Project}
+     * @throws NoSuchElementException When the {@link Project} does not exist
+     */
+    static Counters updateMetrics(final UUID uuid) throws Exception {
         LOGGER.info("Executing metrics update for project " + uuid);
         final var counters = new Counters();
+        final Timer.Sample timerSample = Timer.start();
 
+        // Prevent incremental updates from applying deltas to the metrics of the project while they are re-calculated.
+        final Lock projectLock = MetricsUpdateLocks.lockProject(uuid);
         try (final QueryManager qm = new QueryManager()) {
             final PersistenceManager pm = qm.getPersistenceManager();
 
@@ -72,21 +90,18 @@ public class ProjectMetricsUpdateTask implements Subscriber {
             List<Component> components = fetchNextComponentsPage(pm, project, null);
 
             while (!components.isEmpty()) {
-                for (final Component component : components) {
-                    final Counters componentCounters;
-                    try {
-                        componentCounters = ComponentMetricsUpdateTask.updateMetrics(component.getUuid());
-                    } catch (NoSuchElementException ex) {
-                        // This will happen when a component or its associated project have been deleted after the
-                        // task started. Instead of splurging the log with to-be-expected errors, we just log it
-                        // with DEBUG, and ignore it otherwise.
-                        LOGGER.debug("Couldn't update metrics of component " + component.getUuid() + " because the component was not found", ex);
-                        continue;
-                    } catch (Exception ex) {
-                        LOGGER.error("An unexpected error occurred while updating metrics of component " + component.getUuid(), ex);
-                        continue;
-                    }
+                Map<Long, Counters> componentCountersById;
+                try {
+                    componentCountersById = ComponentMetricsUpdater.updateMetrics(qm, project, components);
+                } catch (Exception ex) {
+                    // Failing to update a single page must not prevent metrics of the remaining
+                    // pages, and the project itself, from being updated.
+                    LOGGER.error("An unexpected error occurred while updating metrics of %d components of project %s"
+                            .formatted(components.size(), uuid), ex);
+                    componentCountersById = Collections.emptyMap();
+                }
 
+                for (final Counters componentCounters : componentCountersById.values()) {
                     counters.critical += componentCounters.critical;
                     counters.high += componentCounters.high;
                     counters.medium += componentCounters.medium;
@@ -98,7 +113,6 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                     counters.findingsAudited += componentCounters.findingsAudited;
                     counters.findingsUnaudited += componentCounters.findingsUnaudited;
                     counters.suppressions += componentCounters.suppressions;
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
 
                     counters.components++;
                     if (componentCounters.vulnerabilities > 0) {
@@ -121,6 +135,7 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                     counters.policyViolationsOperationalAudited += componentCounters.policyViolationsOperationalAudited;
                     counters.policyViolationsOperationalUnaudited += componentCounters.policyViolationsOperationalUnaudited;
                 }
+                counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
 
                 LOGGER.debug("Fetching next components page for project " + uuid);
                 final long lastId = components.get(components.size() - 1).getId();
@@ -138,16 +153,21 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                     pm.makePersistent(metrics);
                 }
             });
+            CurrentMetricsCache.getInstance().invalidateProject(project.getUuid());
 
             if (project.getLastInheritedRiskScore() == null ||
                     project.getLastInheritedRiskScore() != counters.inheritedRiskScore) {
                 LOGGER.debug("Updating inherited risk score of project " + uuid);
                 qm.runInTransaction(() -> project.setLastInheritedRiskScore(counters.inheritedRiskScore));
             }
+        } finally {
+            projectLock.unlock();
+            timerSample.stop(TIMER);
         }
 
         LOGGER.info("Completed metrics update for project " + uuid + " in " +
                 DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
+        return counters;
     }
 
     private static List<Component> fetchNextComponentsPage(final PersistenceManager pm, final Project project, final Long lastId) throws Exception {
@@ -29,11 +29,11 @@ import org.dependencytrack.persistence.QueryManager;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A {@link Subscriber} task that updates vulnerability metrics.
@@ -59,37 +59,26 @@ public class VulnerabilityMetricsUpdateTask implements Subscriber {
         LOGGER.info("Executing metrics update on vulnerability database");
 
         final var measuredAt = new Date();
-        final var yearMonthCounters = new VulnerabilityDateCounters(measuredAt, true);
-        final var yearCounters = new VulnerabilityDateCounters(measuredAt, false);
+        final var yearMonthCounts = new HashMap<YearMonth, Integer>();
 
         try (final var qm = new QueryManager()) {
             final PersistenceManager pm = qm.getPersistenceManager();
 
-            LOGGER.debug("Fetching first vulnerabilities page");
-            List<Vulnerability> vulnerabilities = fetchNextVulnerabilitiesPage(pm, null);
+            // Vulnerabilities are counted by their creation date, or their publication date if the former is unknown.
+            countByYearMonth(pm, "created", "created != null", yearMonthCounts);
+            countByYearMonth(pm, "published", "created == null && published != null", yearMonthCounts);
 
-            while (!vulnerabilities.isEmpty()) {
-                for (final Vulnerability vulnerability : vulnerabilities) {
-                    if (vulnerability.getCreated() != null) {
-                        yearMonthCounters.updateMetrics(vulnerability.getCreated());
-                        yearCounters.updateMetrics(vulnerability.getCreated());
-                    } else if (vulnerability.getPublished() != null) {
-                        yearMonthCounters.updateMetrics(vulnerability.getPublished());
-                        yearCounters.updateMetrics(vulnerability.getPublished());
-                    }
-                }
-
-                LOGGER.debug("Fetching next vulnerabilities page");
-                final long lastId = vulnerabilities.get(vulnerabilities.size() - 1).getId();
-                vulnerabilities = fetchNextVulnerabilitiesPage(pm, lastId);
-            }
-
-            for (final VulnerabilityMetrics metric : yearMonthCounters.getMetrics()) {
-                qm.synchronizeVulnerabilityMetrics(metric);
+            final var yearCounts = new HashMap<Integer, Integer>();
+            final var metrics = new ArrayList<VulnerabilityMetrics>();
+            for (final Map.Entry<YearMonth, Integer> entry : yearMonthCounts.entrySet()) {
+                yearCounts.merge(entry.getKey().getYear(), entry.getValue(), Integer::sum);
+                metrics.add(createMetrics(entry.getKey().getYear(), entry.getKey().getMonthValue(), entry.getValue(), measuredAt));
             }
-            for (final VulnerabilityMetrics metric : yearCounters.getMetrics()) {
-                qm.synchronizeVulnerabilityMetrics(metric);
+            for (final Map.Entry<Integer, Integer> entry : yearCounts.entrySet()) {
+                metrics.add(createMetrics(entry.getKey(), null, entry.getValue(), measuredAt));
             }
+
+            qm.synchronizeVulnerabilityMetrics(metrics);
         }
 
         LOGGER.info("Completed metrics update on vulnerability database in " +
@@ -97,66 +86,35 @@ public class VulnerabilityMetricsUpdateTask implements Subscriber {
     }
 
     /**
-     * Fetch {@link Vulnerability}s in pages of {@code 500}.
+     * Count {@link Vulnerability}s grouped by year and month of a given date field, using a single query.
      *
-     * @param pm     The {@link  PersistenceManager} to use
-     * @param lastId Highest ID of the previously fetched page
-     * @return Up to {@code 500} {@link Vulnerability} objects
+     * @param pm        The {@link PersistenceManager} to use
+     * @param dateField Name of the date field to group by
+     * @param filter    Filter selecting the {@link Vulnerability}s to count
+     * @param counts    The {@link Map} to add counts to
      * @throws Exception If the query could not be closed
      */
-    private List<Vulnerability> fetchNextVulnerabilitiesPage(final PersistenceManager pm, final Long lastId) throws Exception {
+    private static void countByYearMonth(final PersistenceManager pm, final String dateField, final String filter,
+                                         final Map<YearMonth, Integer> counts) throws Exception {
         try (final Query<Vulnerability> query = pm.newQuery(Vulnerability.class)) {
-            if (lastId != null) {
-                query.setFilter("id < :lastId");
-                query.setParameters(lastId);
+            query.setFilter(filter);
+            query.setResult("%s.getYear(), %s.getMonth(), count(this)".formatted(dateField, dateField));
+            query.setGrouping("%s.getYear(), %s.getMonth()".formatted(dateField, dateField));
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                // Months are zero-based, as with java.util.Date#getMonth.
+                final var yearMonth = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue() + 1);
+                counts.merge(yearMonth, ((Number) row[2]).intValue(), Integer::sum);
             }
-            query.setOrdering("id DESC");
-            query.range(0, 500);
-            query.getFetchPlan().setGroup(Vulnerability.FetchGroup.METRICS_UPDATE.name());
-            return List.copyOf(query.executeList());
         }
     }
 
-    private static final class VulnerabilityDateCounters {
-        private final Date measuredAt;
-        private final boolean trackMonth;
-        private final List<VulnerabilityMetrics> metrics = new ArrayList<>();
-
-        private VulnerabilityDateCounters(final Date measuredAt, final boolean trackMonth) {
-            this.measuredAt = measuredAt;
-            this.trackMonth = trackMonth;
-        }
-
-        private void updateMetrics(final Date timestamp) {
-            final LocalDateTime date = LocalDateTime.ofInstant(timestamp.toInstant(), ZoneId.systemDefault());
-            final int year = date.getYear();
-            final int month = date.getMonthValue();
-
-            boolean found = false;
-            for (final VulnerabilityMetrics metric : metrics) {
-                if (trackMonth && metric.getYear() == year && metric.getMonth() == month) {
-                    metric.setCount(metric.getCount() + 1);
-                    found = true;
-                } else if (!trackMonth && metric.getYear() == year) {
-                    metric.setCount(metric.getCount() + 1);
-                    found = true;
-                }
-            }
-            if (!found) {
-                final VulnerabilityMetrics metric = new VulnerabilityMetrics();
-                metric.setYear(year);
-                if (trackMonth) {
-                    metric.setMonth(month);
-                }
-                metric.setCount(1);
-                metric.setMeasuredAt(measuredAt);
-                metrics.add(metric);
-            }
-        }
-
-        private List<VulnerabilityMetrics> getMetrics() {
-            return metrics;
-        }
+    private static VulnerabilityMetrics createMetrics(final int year, final Integer month, final int count, final Date measuredAt) {
+        final var metrics = new VulnerabilityMetrics();
+        metrics.setYear(year);
+        metrics.setMonth(month);
+        metrics.setCount(count);
+        metrics.setMeasuredAt(measuredAt);
+        return metrics;
     }
 
 }
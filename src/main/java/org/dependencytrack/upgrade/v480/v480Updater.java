@@ -39,6 +39,7 @@ public class v480Updater extends AbstractUpgradeItem {
     public void executeUpgrade(final AlpineQueryManager qm, final Connection connection) throws Exception {
         changeJdbcTypeOfComponentAuthorColumn(connection);
         setJiraPropertyValuesFromJiraToIntegrationGroup(connection);
+        changeDefaultPortfolioMetricsUpdateCadence(connection);
     }
 
     private void changeJdbcTypeOfComponentAuthorColumn(Connection connection) throws Exception {
@@ -72,4 +73,17 @@ public class v480Updater extends AbstractUpgradeItem {
             ps.executeUpdate();
         }
     }
+
+    private void changeDefaultPortfolioMetricsUpdateCadence(Connection connection) throws Exception {
+        // Portfolio metrics are updated incrementally, and full updates only act as consistency check.
+        // Only instances that still use the previous default of 1 hour are changed.
+        LOGGER.info("Changing portfolio metrics update cadence from 1 to 12 hours, unless it has been customized");
+        try (final PreparedStatement ps = connection.prepareStatement("""
+                UPDATE "CONFIGPROPERTY" SET "PROPERTYVALUE" = '12'
+                WHERE "GROUPNAME" = 'task-scheduler' AND "PROPERTYNAME" = 'portfolio.metrics.update.cadence'
+                  AND "PROPERTYVALUE" = '1'
+                """)) {
+            ps.executeUpdate();
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import alpine.common.metrics.Metrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Helpers for in-process {@link Cache}s.
+ *
+ * @since 4.8.0
+ */
+public final class CacheUtil {
+
+    private CacheUtil() {
+    }
+
+    /**
+     * Build a size-bounded {@link Cache} whose entries expire a given {@link Duration} after they were written.
+     * <p>
+     * Statistics are recorded, such that the {@link Cache} can be passed to {@link #monitor(Cache, String)}.
+     *
+     * @param maxSize          Maximum number of entries
+     * @param expireAfterWrite {@link Duration} after which entries expire
+     * @return The {@link Cache}
+     */
+    public static <K, V> Cache<K, V> newCache(final long maxSize, final Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Expose statistics of a given {@link Cache} via the Micrometer registry.
+     *
+     * @param cache The {@link Cache} to monitor
+     * @param name  Name of the {@link Cache}, used as {@code cache} tag of its metrics
+     * @return The monitored {@link Cache}
+     */
+    public static <K, V> Cache<K, V> monitor(final Cache<K, V> cache, final String name) {
+        return CaffeineCacheMetrics.monitor(Metrics.getRegistry(), cache, name);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import com.github.packageurl.MalformedPackageURLException;
+import com.github.packageurl.PackageURL;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentIdentity;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory index of {@link Component}s, allowing for {@link ComponentIdentity}s to be matched
+ * against them without querying the database.
+ * <p>
+ * Only the IDs of indexed {@link Component}s are retained, such that neither the {@link Component}s
+ * nor the {@link javax.jdo.PersistenceManager} they may be attached to are kept reachable by the index.
+ * <p>
+ * Matching follows the same rules as {@link org.dependencytrack.persistence.QueryManager#matchSingleIdentity},
+ * i.e. a {@link Component} matches if either its PURL, PURL coordinates, SWID tag ID, CPE,
+ * or its group, name, and version match those of the identity.
+ *
+ * @since 4.8.0
+ */
+public class ComponentIdentityIndex {
+
+    private final Map<String, Long> idsByPurl = new HashMap<>();
+    private final Map<String, Long> idsByPurlCoordinates = new HashMap<>();
+    private final Map<String, Long> idsBySwidTagId = new HashMap<>();
+    private final Map<String, Long> idsByCpe = new HashMap<>();
+    private final Map<List<String>, Long> idsByCoordinates = new HashMap<>();
+
+    /**
+     * @param components The {@link Component}s to index; Only their ID and identifying fields are accessed
+     */
+    public ComponentIdentityIndex(final Collection<Component> components) {
+        for (final Component component : components) {
+            if (component.getPurl() != null) {
+                idsByPurl.putIfAbsent(component.getPurl().canonicalize(), component.getId());
+            }
+            if (component.getPurlCoordinates() != null) {
+                idsByPurlCoordinates.putIfAbsent(component.getPurlCoordinates().canonicalize(), component.getId());
+            }
+            if (component.getSwidTagId() != null) {
+                idsBySwidTagId.putIfAbsent(component.getSwidTagId(), component.getId());
+            }
+            if (component.getCpe() != null) {
+                idsByCpe.putIfAbsent(component.getCpe(), component.getId());
+            }
+            idsByCoordinates.putIfAbsent(coordinatesKey(component.getGroup(), component.getName(), component.getVersion()), component.getId());
+        }
+    }
+
+    /**
+     * Find the ID of a {@link Component} matching a given {@link ComponentIdentity}.
+     *
+     * @param cid The {@link ComponentIdentity} to match
+     * @return The ID of the matching {@link Component}, or {@code null} when no match was found
+     */
+    public Long match(final ComponentIdentity cid) {
+        if (cid.getPurl() != null) {
+            final PackageURL purl = cid.getPurl();
+            Long id = idsByPurl.get(purl.canonicalize());
+            if (id != null) {
+                return id;
+            }
+            try {
+                final String purlCoordinates = new PackageURL(purl.getType(), purl.getNamespace(),
+                        purl.getName(), purl.getVersion(), null, null).canonicalize();
+                id = idsByPurlCoordinates.get(purlCoordinates);
+                if (id != null) {
+                    return id;
+                }
+            } catch (MalformedPackageURLException e) { // throw it away
+            }
+        }
+        if (cid.getSwidTagId() != null && idsBySwidTagId.containsKey(cid.getSwidTagId())) {
+            return idsBySwidTagId.get(cid.getSwidTagId());
+        }
+        if (cid.getCpe() != null && idsByCpe.containsKey(cid.getCpe())) {
+            return idsByCpe.get(cid.getCpe());
+        }
+        return idsByCoordinates.get(coordinatesKey(cid.getGroup(), cid.getName(), cid.getVersion()));
+    }
+
+    private static List<String> coordinatesKey(final String group, final String name, final String version) {
+        // Group and version are optional, and List.of does not permit null elements.
+        return Arrays.asList(group, name, version);
+    }
+
+}
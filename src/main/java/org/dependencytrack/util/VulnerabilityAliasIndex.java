@@ -0,0 +1,143 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import alpine.Config;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.VulnIdAndSource;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.persistence.QueryManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-process index of the {@link VulnerabilityAlias}es of {@link Vulnerability}s.
+ * <p>
+ * Allows code paths that need to de-duplicate {@link Vulnerability}s by their aliases, like metrics
+ * calculation or findings retrieval, to resolve aliases without querying the database for every single
+ * {@link Vulnerability}. Aliases of {@link Vulnerability}s not yet indexed are fetched with a single query.
+ * <p>
+ * The index is updated incrementally: whenever a {@link VulnerabilityAlias} is synchronized, entries of all
+ * {@link Vulnerability}s it refers to are invalidated. Aliases synchronized by other instances are only
+ * picked up once the affected entries expire after {@value #EXPIRE_AFTER_WRITE_MINUTES} minutes. Until then,
+ * {@link Vulnerability}s that have just become aliases of each other may still be counted separately.
+ * <p>
+ * Indexed {@link VulnerabilityAlias}es are detached and shared, and thus must not be modified.
+ * The maximum number of entries is controlled via {@link ConfigKey#VULNERABILITY_ALIAS_INDEX_MAX_SIZE}.
+ *
+ * @since 4.8.0
+ */
+public final class VulnerabilityAliasIndex {
+
+    private static final long EXPIRE_AFTER_WRITE_MINUTES = 60;
+    private static final VulnerabilityAliasIndex INSTANCE = new VulnerabilityAliasIndex(
+            Config.getInstance().getPropertyAsInt(ConfigKey.VULNERABILITY_ALIAS_INDEX_MAX_SIZE),
+            Duration.ofMinutes(EXPIRE_AFTER_WRITE_MINUTES));
+
+    static {
+        CacheUtil.monitor(INSTANCE.cache, "vulnerability_alias_index");
+    }
+
+    private final Cache<VulnIdAndSource, List<VulnerabilityAlias>> cache;
+
+    VulnerabilityAliasIndex(final long maxSize, final Duration expireAfterWrite) {
+        this.cache = CacheUtil.newCache(maxSize, expireAfterWrite);
+    }
+
+    public static VulnerabilityAliasIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the {@link VulnerabilityAlias}es of a given {@link Vulnerability}.
+     *
+     * @param qm              The {@link QueryManager} to use when the {@link Vulnerability} is not yet indexed
+     * @param vulnIdAndSource The {@link VulnIdAndSource} of the {@link Vulnerability}
+     * @return The {@link VulnerabilityAlias}es of the {@link Vulnerability}
+     */
+    public List<VulnerabilityAlias> getAliases(final QueryManager qm, final VulnIdAndSource vulnIdAndSource) {
+        return getAliases(qm, Set.of(vulnIdAndSource)).get(vulnIdAndSource);
+    }
+
+    /**
+     * Get the {@link VulnerabilityAlias}es of multiple {@link Vulnerability}s.
+     *
+     * @param qm               The {@link QueryManager} to use for {@link Vulnerability}s that are not yet indexed
+     * @param vulnIdAndSources The {@link VulnIdAndSource}s of the {@link Vulnerability}s
+     * @return The {@link VulnerabilityAlias}es of every requested {@link Vulnerability}
+     */
+    public Map<VulnIdAndSource, List<VulnerabilityAlias>> getAliases(final QueryManager qm, final Collection<VulnIdAndSource> vulnIdAndSources) {
+        return cache.getAll(vulnIdAndSources, missing -> {
+            final Map<VulnIdAndSource, List<VulnerabilityAlias>> aliases = qm.getVulnerabilityAliases(missing);
+
+            final var detachedAliases = new HashMap<VulnIdAndSource, List<VulnerabilityAlias>>();
+            for (final Map.Entry<VulnIdAndSource, List<VulnerabilityAlias>> entry : aliases.entrySet()) {
+                detachedAliases.put(entry.getKey(), List.copyOf(qm.getPersistenceManager().detachCopyAll(entry.getValue())));
+            }
+            return detachedAliases;
+        });
+    }
+
+    /**
+     * Get the identifiers of all {@link Vulnerability}s that a given {@link Vulnerability} is an alias of.
+     *
+     * @param aliases The {@link VulnerabilityAlias}es of a {@link Vulnerability}
+     * @return A {@link Set} of {@link VulnIdAndSource}s
+     */
+    public static Set<VulnIdAndSource> getAliasIdentifiers(final Collection<VulnerabilityAlias> aliases) {
+        final var identifiers = new HashSet<VulnIdAndSource>();
+        for (final VulnerabilityAlias alias : aliases) {
+            for (final Map.Entry<Vulnerability.Source, String> vulnIdBySource : alias.getAllBySource().entrySet()) {
+                identifiers.add(new VulnIdAndSource(vulnIdBySource.getValue(), vulnIdBySource.getKey().name()));
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Invalidate entries of all {@link Vulnerability}s that a given {@link VulnerabilityAlias} may refer to.
+     *
+     * @param alias The {@link VulnerabilityAlias} that changed
+     */
+    public void invalidate(final VulnerabilityAlias alias) {
+        invalidate(getAliasIdentifiers(List.of(alias)));
+    }
+
+    /**
+     * Invalidate entries of the {@link Vulnerability}s identified by the given {@link VulnIdAndSource}s.
+     *
+     * @param vulnIdAndSources The identifiers of the {@link Vulnerability}s whose aliases changed
+     */
+    public void invalidate(final Collection<VulnIdAndSource> vulnIdAndSources) {
+        cache.invalidateAll(vulnIdAndSources);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import alpine.Config;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.dependencytrack.common.ConfigKey;
+import org.dependencytrack.model.Vulnerability;
+
+import java.time.Duration;
+
+/**
+ * An in-process cache that maps the source and ID of a {@link Vulnerability}
+ * to its primary key, and the hash of the content it was last synchronized with.
+ * <p>
+ * Allows vulnerability synchronization to skip database lookups, and comparison of individual fields,
+ * for vulnerabilities that have been reported with the exact same content before.
+ * <p>
+ * Entries must be invalidated whenever a {@link Vulnerability} is modified through other means,
+ * for example when mirroring vulnerability data sources, or via REST API. Modifications made by other
+ * instances can not be observed: until the entry expires after {@value #EXPIRE_AFTER_WRITE_MINUTES} minutes,
+ * content that matches the cached hash is not re-applied, even if another instance changed it in the meantime.
+ * Entries of deleted {@link Vulnerability}s cause processing to fail, upon which callers invalidate all entries.
+ * <p>
+ * The maximum number of entries is controlled via {@link ConfigKey#VULNERABILITY_LOOKUP_CACHE_MAX_SIZE}.
+ *
+ * @since 4.8.0
+ */
+public final class VulnerabilityLookupCache {
+
+    private static final long EXPIRE_AFTER_WRITE_MINUTES = 60;
+    private static final VulnerabilityLookupCache INSTANCE = new VulnerabilityLookupCache(
+            Config.getInstance().getPropertyAsInt(ConfigKey.VULNERABILITY_LOOKUP_CACHE_MAX_SIZE),
+            Duration.ofMinutes(EXPIRE_AFTER_WRITE_MINUTES));
+
+    static {
+        CacheUtil.monitor(INSTANCE.cache, "vulnerability_lookup");
+    }
+
+    public record Entry(long id, String contentHash) {
+    }
+
+    private record Key(String source, String vulnId) {
+    }
+
+    private final Cache<Key, Entry> cache;
+
+    VulnerabilityLookupCache(final long maxSize, final Duration expireAfterWrite) {
+        this.cache = CacheUtil.newCache(maxSize, expireAfterWrite);
+    }
+
+    public static VulnerabilityLookupCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param source The source of the {@link Vulnerability}
+     * @param vulnId The ID of the {@link Vulnerability}
+     * @return The cached {@link Entry}, or {@code null} when no entry exists
+     */
+    public Entry get(final String source, final String vulnId) {
+        return cache.getIfPresent(new Key(source, vulnId));
+    }
+
+    /**
+     * Must only be called once the {@link Vulnerability} has been committed to the database.
+     *
+     * @param source      The source of the {@link Vulnerability}
+     * @param vulnId      The ID of the {@link Vulnerability}
+     * @param id          The primary key of the {@link Vulnerability}
+     * @param contentHash Hash of the content the {@link Vulnerability} was synchronized with
+     */
+    public void put(final String source, final String vulnId, final long id, final String contentHash) {
+        cache.put(new Key(source, vulnId), new Entry(id, contentHash));
+    }
+
+    public void invalidate(final String source, final String vulnId) {
+        cache.invalidate(new Key(source, vulnId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+}
@@ -19,6 +19,8 @@
 package org.dependencytrack.util;
 
 import alpine.model.ConfigProperty;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.model.AnalyzerIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
@@ -28,8 +30,12 @@ import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.persistence.QueryManager;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
@@ -309,4 +315,69 @@ public final class VulnerabilityUtil {
         return "true".equals(configPropertyValue);
     }
 
+    /**
+     * Compute a hash over all fields of a {@link Vulnerability} that are subject to synchronization.
+     * <p>
+     * Two {@link Vulnerability}s with the same hash carry the same content, so a vulnerability that has
+     * previously been synchronized from content with a given hash does not need to be compared again
+     * when the same content is reported another time.
+     *
+     * @param vulnerability The {@link Vulnerability} to compute the hash for
+     * @return The hex-encoded SHA-256 hash
+     */
+    public static String computeContentHash(final Vulnerability vulnerability) {
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        updateDigest(digest, vulnerability.getSource());
+        updateDigest(digest, vulnerability.getVulnId());
+        updateDigest(digest, vulnerability.getTitle());
+        updateDigest(digest, vulnerability.getSubTitle());
+        updateDigest(digest, vulnerability.getDescription());
+        updateDigest(digest, vulnerability.getDetail());
+        updateDigest(digest, vulnerability.getRecommendation());
+        updateDigest(digest, vulnerability.getReferences());
+        updateDigest(digest, vulnerability.getCredits());
+        updateDigest(digest, vulnerability.getCreated());
+        updateDigest(digest, vulnerability.getPublished());
+        updateDigest(digest, vulnerability.getUpdated());
+        updateDigest(digest, vulnerability.getCwes());
+        updateDigest(digest, vulnerability.getCvssV2BaseScore());
+        updateDigest(digest, vulnerability.getCvssV2ImpactSubScore());
+        updateDigest(digest, vulnerability.getCvssV2ExploitabilitySubScore());
+        updateDigest(digest, vulnerability.getCvssV2Vector());
+        updateDigest(digest, vulnerability.getCvssV3BaseScore());
+        updateDigest(digest, vulnerability.getCvssV3ImpactSubScore());
+        updateDigest(digest, vulnerability.getCvssV3ExploitabilitySubScore());
+        updateDigest(digest, vulnerability.getCvssV3Vector());
+        updateDigest(digest, vulnerability.getOwaspRRLikelihoodScore());
+        updateDigest(digest, vulnerability.getOwaspRRTechnicalImpactScore());
+        updateDigest(digest, vulnerability.getOwaspRRBusinessImpactScore());
+        updateDigest(digest, vulnerability.getOwaspRRVector());
+        updateDigest(digest, vulnerability.getSeverity());
+        updateDigest(digest, vulnerability.getVulnerableVersions());
+        updateDigest(digest, vulnerability.getPatchedVersions());
+        updateDigest(digest, vulnerability.getEpssScore());
+        updateDigest(digest, vulnerability.getEpssPercentile());
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private static void updateDigest(final MessageDigest digest, final Object value) {
+        final String canonicalValue;
+        if (value == null) {
+            // Distinguish null from empty values, and prevent values of adjacent fields from blending.
+            digest.update((byte) 0);
+            return;
+        } else if (value instanceof final BigDecimal decimal) {
+            canonicalValue = decimal.stripTrailingZeros().toPlainString();
+        } else if (value instanceof final Date date) {
+            canonicalValue = String.valueOf(date.getTime());
+        } else {
+            canonicalValue = value.toString();
+        }
+
+        final byte[] valueBytes = canonicalValue.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(valueBytes.length).array());
+        digest.update(valueBytes);
+    }
+
 }
@@ -22,7 +22,12 @@ import alpine.Config;
 import alpine.server.persistence.PersistenceManagerFactory;
 import org.apache.kafka.clients.producer.MockProducer;
 import org.dependencytrack.event.kafka.KafkaProducerInitializer;
+import org.dependencytrack.metrics.CurrentMetricsCache;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.policy.PolicyEvaluationPlan;
+import org.dependencytrack.util.VulnerabilityAliasIndex;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -47,6 +52,11 @@ public abstract class PersistenceCapableTest {
     public void after() {
         PersistenceManagerFactory.tearDown();
         KafkaProducerInitializer.tearDown();
+        VulnerabilityLookupCache.getInstance().invalidateAll();
+        VulnerabilityAliasIndex.getInstance().invalidateAll();
+        MetricsDeltaQueue.getInstance().drain();
+        CurrentMetricsCache.getInstance().invalidateAll();
+        PolicyEvaluationPlan.invalidate();
     }
 
 }
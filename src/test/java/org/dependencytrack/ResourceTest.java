@@ -28,7 +28,9 @@ import alpine.server.persistence.PersistenceManagerFactory;
 import org.apache.kafka.clients.producer.MockProducer;
 import org.dependencytrack.auth.Permissions;
 import org.dependencytrack.event.kafka.KafkaProducerInitializer;
+import org.dependencytrack.metrics.CurrentMetricsCache;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.policy.PolicyEvaluationPlan;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.grizzly.connector.GrizzlyConnectorProvider;
 import org.glassfish.jersey.test.JerseyTest;
@@ -115,6 +117,8 @@ public abstract class ResourceTest extends JerseyTest {
     public void after() {
         PersistenceManagerFactory.tearDown();
         KafkaProducerInitializer.tearDown();
+        CurrentMetricsCache.getInstance().invalidateAll();
+        PolicyEvaluationPlan.invalidate();
     }
 
     @Override
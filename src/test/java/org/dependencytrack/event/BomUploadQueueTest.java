@@ -0,0 +1,91 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.event;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BomUploadQueueTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testOfferAndComplete() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final var queue = new BomUploadQueue(directory, 1);
+        final UUID projectUuid = UUID.randomUUID();
+
+        final Optional<BomUploadEvent> event = queue.offer(projectUuid, bomStream("foo"));
+        assertThat(event).isPresent();
+        assertThat(event.get().getProjectUuid()).isEqualTo(projectUuid);
+        assertThat(event.get().getBom()).isNull();
+        assertThat(event.get().getFile()).exists();
+        assertThat(queue.read(event.get())).asString(StandardCharsets.UTF_8).isEqualTo("foo");
+        assertThat(queue.getPendingCount()).isEqualTo(1);
+
+        // Queue is full.
+        assertThat(queue.offer(projectUuid, bomStream("bar"))).isEmpty();
+        assertThat(queue.getPendingCount()).isEqualTo(1);
+
+        queue.complete(event.get());
+        assertThat(event.get().getFile()).doesNotExist();
+        assertThat(queue.getPendingCount()).isZero();
+
+        // Completing the same event twice must not free up additional capacity.
+        queue.complete(event.get());
+        assertThat(queue.getPendingCount()).isZero();
+
+        assertThat(queue.offer(projectUuid, bomStream("bar"))).isPresent();
+    }
+
+    @Test
+    public void testRecover() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        final UUID projectUuid = UUID.randomUUID();
+
+        final BomUploadEvent event = new BomUploadQueue(directory, 10).offer(projectUuid, bomStream("foo")).orElseThrow();
+        Files.writeString(directory.resolve("interrupted.bom.gz.tmp"), "bar");
+        Files.writeString(directory.resolve("unrelated.txt"), "baz");
+
+        // Simulate a restart.
+        final var queue = new BomUploadQueue(directory, 10);
+        queue.recover();
+
+        assertThat(queue.getPendingCount()).isEqualTo(1);
+        assertThat(event.getFile()).exists();
+        assertThat(directory.resolve("interrupted.bom.gz.tmp")).doesNotExist();
+        assertThat(directory.resolve("unrelated.txt")).exists();
+    }
+
+    private static ByteArrayInputStream bomStream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
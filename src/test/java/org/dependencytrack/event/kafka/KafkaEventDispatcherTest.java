@@ -5,6 +5,7 @@ import alpine.notification.NotificationLevel;
 import org.apache.kafka.clients.producer.MockProducer;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.dependencytrack.event.ComponentRepositoryMetaAnalysisEvent;
 import org.dependencytrack.event.ComponentVulnerabilityAnalysisEvent;
 import org.dependencytrack.event.NistMirrorEvent;
 import org.dependencytrack.event.OsvMirrorEvent;
@@ -13,11 +14,16 @@ import org.dependencytrack.model.Component;
 import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
+import org.hyades.proto.repometaanalysis.v1.AnalysisCommand;
+import org.hyades.proto.vulnanalysis.v1.ScanCommand;
+import org.hyades.proto.vulnanalysis.v1.ScanKey;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,6 +80,48 @@ public class KafkaEventDispatcherTest {
         assertThat(mockProducer.history()).hasSize(2);
     }
 
+    @Test
+    public void testDispatchAllAsync() throws Exception {
+        final var componentA = new Component();
+        componentA.setUuid(UUID.randomUUID());
+        componentA.setPurl("pkg:maven/com.example/a@1.0.0");
+        componentA.setInternal(true);
+
+        final var componentB = new Component();
+        componentB.setUuid(UUID.randomUUID());
+        componentB.setCpe("cpe:2.3:a:example:b:1.0.0:*:*:*:*:*:*:*");
+
+        final UUID token = UUID.randomUUID();
+        final var dispatcher = new KafkaEventDispatcher(mockProducer);
+        final List<Future<RecordMetadata>> futures = dispatcher.dispatchAllAsync(List.of(
+                new ComponentVulnerabilityAnalysisEvent(token, componentA, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS),
+                new ComponentRepositoryMetaAnalysisEvent(componentA),
+                new ComponentVulnerabilityAnalysisEvent(token, componentB, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS),
+                new ComponentRepositoryMetaAnalysisEvent(componentB) // Not dispatched, as it has no PURL
+        ));
+
+        assertThat(futures).hasSize(4);
+        assertThat(futures.get(3).get()).isNull();
+        assertThat(mockProducer.history()).satisfiesExactly(
+                record -> {
+                    assertThat(record.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name());
+                    assertThat(ScanKey.parseFrom(record.key()).getComponentUuid()).isEqualTo(componentA.getUuid().toString());
+                    final ScanCommand command = ScanCommand.parseFrom(record.value());
+                    assertThat(command.getComponent().getPurl()).isEqualTo("pkg:maven/com.example/a@1.0.0");
+                    assertThat(command.getComponent().getInternal()).isTrue();
+                    assertThat(record.headers().lastHeader(KafkaEventHeaders.VULN_ANALYSIS_LEVEL)).isNotNull();
+                },
+                record -> {
+                    assertThat(record.topic()).isEqualTo(KafkaTopics.REPO_META_ANALYSIS_COMMAND.name());
+                    assertThat(AnalysisCommand.parseFrom(record.value()).getComponent().getPurl()).isEqualTo("pkg:maven/com.example/a@1.0.0");
+                },
+                record -> {
+                    assertThat(record.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name());
+                    assertThat(ScanCommand.parseFrom(record.value()).getComponent().getCpe()).isEqualTo(componentB.getCpe());
+                }
+        );
+    }
+
     @Test
     public void testDispatchAsyncWithUnsupportedEvent() {
         final var dispatcher = new KafkaEventDispatcher(mockProducer);
@@ -291,12 +291,12 @@ public class KafkaStreamsTopologyTest extends KafkaStreamsTest {
         }, Duration.ofSeconds(5));
 
         // Vulnerability scan of the project completed. Policy evaluation of all components should
-        // have been performed, so we expect the violation for componentA to appear.
-        assertThat(qm.getAllPolicyViolations(project)).hasSize(1);
+        // be performed asynchronously, so we expect the violation for componentA to appear eventually.
+        final Project finalProject = project;
+        assertConditionWithTimeout(() -> qm.getAllPolicyViolations(finalProject).size() == 1, Duration.ofSeconds(5));
 
         // A project metrics update should have been executed AFTER policy evaluation.
         // It thus should include the newly discovered policy violation.
-        final Project finalProject = project;
         assertConditionWithTimeout(() -> {
             final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(finalProject);
             return projectMetrics != null
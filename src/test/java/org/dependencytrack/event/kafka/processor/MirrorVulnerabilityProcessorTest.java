@@ -1,5 +1,6 @@
 package org.dependencytrack.event.kafka.processor;
 
+import org.apache.kafka.streams.processor.api.Record;
 import org.cyclonedx.proto.v1_4.Bom;
 import org.cyclonedx.proto.v1_4.Source;
 import org.dependencytrack.PersistenceCapableTest;
@@ -7,6 +8,7 @@ import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.util.KafkaTestUtil;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -133,6 +135,16 @@ public class MirrorVulnerabilityProcessorTest extends PersistenceCapableTest {
         Assert.assertEquals("org.http4s", vs.getPurlNamespace());
     }
 
+    @Test
+    public void testProcessInvalidatesLookupCache() {
+        VulnerabilityLookupCache.getInstance().put("GITHUB", "GHSA-xmw9-q7x9-j5qc", 1, "hash");
+
+        new MirrorVulnerabilityProcessor().process(new Record<>("GITHUB/GHSA-xmw9-q7x9-j5qc", bom, 0L));
+
+        Assert.assertNotNull(qm.getVulnerabilityByVulnId(Vulnerability.Source.GITHUB, "GHSA-xmw9-q7x9-j5qc"));
+        Assert.assertNull(VulnerabilityLookupCache.getInstance().get("GITHUB", "GHSA-xmw9-q7x9-j5qc"));
+    }
+
     @Test
     public void testExtractSource() {
         MirrorVulnerabilityProcessor processor = new MirrorVulnerabilityProcessor();
@@ -0,0 +1,147 @@
+package org.dependencytrack.event.kafka.processor;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.event.kafka.serialization.KafkaProtobufSerde;
+import org.dependencytrack.event.kafka.serialization.KafkaProtobufSerializer;
+import org.dependencytrack.model.VulnerabilityScan;
+import org.dependencytrack.model.VulnerabilityScan.TargetType;
+import org.hyades.proto.vulnanalysis.v1.ScanKey;
+import org.hyades.proto.vulnanalysis.v1.ScanResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerabilityScanCompletionProcessorTest extends PersistenceCapableTest {
+
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<String, ScanResult> inputTopic;
+    private List<VulnerabilityScan> completedScans;
+
+    @Before
+    public void setUp() {
+        completedScans = new ArrayList<>();
+
+        final var streamsBuilder = new StreamsBuilder();
+        streamsBuilder
+                .stream("input-topic", Consumed
+                        .with(Serdes.String(), new KafkaProtobufSerde<>(ScanResult.parser())))
+                .process(new VulnerabilityScanCompletionProcessorSupplier(Duration.ofSeconds(1)))
+                .foreach((scanToken, vulnScan) -> completedScans.add(vulnScan));
+
+        testDriver = new TopologyTestDriver(streamsBuilder.build());
+        inputTopic = testDriver.createInputTopic("input-topic",
+                new StringSerializer(), new KafkaProtobufSerializer<>());
+    }
+
+    @After
+    public void tearDown() {
+        if (testDriver != null) {
+            testDriver.close();
+        }
+    }
+
+    @Test
+    public void testScanCompletion() {
+        final var projectUuid = UUID.randomUUID();
+        final var scanToken = UUID.randomUUID().toString();
+        final VulnerabilityScan scan = qm.createVulnerabilityScan(TargetType.PROJECT, projectUuid, scanToken, 3);
+
+        inputTopic.pipeInput(scanToken, createScanResult(scanToken));
+        inputTopic.pipeInput(scanToken, createScanResult(scanToken));
+
+        // Nothing is written to the database before the next flush.
+        qm.getPersistenceManager().refresh(scan);
+        assertThat(scan.getReceivedResults()).isZero();
+
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        qm.getPersistenceManager().refresh(scan);
+        assertThat(scan.getReceivedResults()).isEqualTo(2);
+        assertThat(scan.getStatus()).isEqualTo(VulnerabilityScan.Status.IN_PROGRESS);
+        assertThat(scan.getPolicyEvaluationPending()).isNull();
+        assertThat(completedScans).isEmpty();
+
+        inputTopic.pipeInput(scanToken, createScanResult(scanToken));
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        qm.getPersistenceManager().refresh(scan);
+        assertThat(scan.getReceivedResults()).isEqualTo(3);
+        assertThat(scan.getStatus()).isEqualTo(VulnerabilityScan.Status.COMPLETED);
+        assertThat(completedScans).satisfiesExactly(completedScan -> {
+            assertThat(completedScan.getToken()).isEqualTo(scanToken);
+            assertThat(completedScan.getTargetType()).isEqualTo(TargetType.PROJECT);
+            assertThat(completedScan.getTargetIdentifier()).isEqualTo(projectUuid);
+            assertThat(completedScan.getStatus()).isEqualTo(VulnerabilityScan.Status.COMPLETED);
+        });
+
+        // Counts must have been removed from the store after flushing.
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+        qm.getPersistenceManager().refresh(scan);
+        assertThat(scan.getReceivedResults()).isEqualTo(3);
+        assertThat(completedScans).hasSize(1);
+
+        // Completed scans remain pending policy evaluation until it has been recorded.
+        assertThat(qm.getVulnerabilityScansPendingPolicyEvaluation()).extracting(VulnerabilityScan::getToken).containsOnly(scanToken);
+        qm.recordVulnerabilityScanPolicyEvaluation(scanToken);
+        assertThat(qm.getVulnerabilityScansPendingPolicyEvaluation()).isEmpty();
+    }
+
+    @Test
+    public void testMultipleScansAreFlushedTogether() {
+        final var scanTokenA = UUID.randomUUID().toString();
+        final var scanTokenB = UUID.randomUUID().toString();
+        final VulnerabilityScan scanA = qm.createVulnerabilityScan(TargetType.COMPONENT, UUID.randomUUID(), scanTokenA, 1);
+        final VulnerabilityScan scanB = qm.createVulnerabilityScan(TargetType.COMPONENT, UUID.randomUUID(), scanTokenB, 2);
+        final var unknownScanToken = UUID.randomUUID().toString();
+
+        inputTopic.pipeInput(scanTokenA, createScanResult(scanTokenA));
+        inputTopic.pipeInput(scanTokenB, createScanResult(scanTokenB));
+        inputTopic.pipeInput(unknownScanToken, createScanResult(unknownScanToken));
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        qm.getPersistenceManager().refreshAll(scanA, scanB);
+        assertThat(scanA.getStatus()).isEqualTo(VulnerabilityScan.Status.COMPLETED);
+        assertThat(scanB.getStatus()).isEqualTo(VulnerabilityScan.Status.IN_PROGRESS);
+        assertThat(scanB.getReceivedResults()).isEqualTo(1);
+        assertThat(completedScans).satisfiesExactly(
+                completedScan -> assertThat(completedScan.getToken()).isEqualTo(scanTokenA));
+    }
+
+    @Test
+    public void testScanCompletionWithMoreResultsThanExpected() {
+        final var scanToken = UUID.randomUUID().toString();
+        final VulnerabilityScan scan = qm.createVulnerabilityScan(TargetType.COMPONENT, UUID.randomUUID(), scanToken, 1);
+
+        // Results may be delivered more than once.
+        inputTopic.pipeInput(scanToken, createScanResult(scanToken));
+        inputTopic.pipeInput(scanToken, createScanResult(scanToken));
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        qm.getPersistenceManager().refresh(scan);
+        assertThat(scan.getReceivedResults()).isEqualTo(2);
+        assertThat(scan.getStatus()).isEqualTo(VulnerabilityScan.Status.COMPLETED);
+        assertThat(completedScans).hasSize(1);
+    }
+
+    private static ScanResult createScanResult(final String scanToken) {
+        return ScanResult.newBuilder()
+                .setKey(ScanKey.newBuilder()
+                        .setScanToken(scanToken)
+                        .setComponentUuid(UUID.randomUUID().toString()))
+                .build();
+    }
+
+}
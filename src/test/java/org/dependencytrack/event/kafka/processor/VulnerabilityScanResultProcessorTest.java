@@ -16,21 +16,33 @@ import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.Produced;
 import org.apache.kafka.streams.test.TestRecord;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.event.MetricsDeltaUpdateEvent;
+import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
+import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.event.kafka.KafkaEventHeaders;
 import org.dependencytrack.event.kafka.KafkaTopics;
 import org.dependencytrack.event.kafka.serialization.KafkaProtobufDeserializer;
 import org.dependencytrack.event.kafka.serialization.KafkaProtobufSerde;
 import org.dependencytrack.event.kafka.serialization.KafkaProtobufSerializer;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
 import org.dependencytrack.model.AnalyzerIdentity;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Finding;
 import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.notification.NotificationConstants;
 import org.dependencytrack.persistence.CweImporter;
+import org.dependencytrack.tasks.metrics.MetricsDeltaUpdateTask;
+import org.dependencytrack.tasks.metrics.PortfolioMetricsUpdateTask;
+import org.dependencytrack.tasks.metrics.ProjectMetricsUpdateTask;
+import org.dependencytrack.util.VulnerabilityLookupCache;
 import org.hyades.proto.notification.v1.NewVulnerabilitySubject;
 import org.hyades.proto.notification.v1.Notification;
 import org.hyades.proto.vuln.v1.Rating;
@@ -48,6 +60,7 @@ import org.junit.runner.RunWith;
 
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
@@ -79,11 +92,21 @@ public class VulnerabilityScanResultProcessorTest extends PersistenceCapableTest
 
     @Before
     public void setUp() throws Exception {
+        setUpTestDriver(1, Duration.ofSeconds(5));
+
+        new CweImporter().processCweDefinitions(); // Required for CWE mapping
+    }
+
+    private void setUpTestDriver(final int maxBatchSize, final Duration maxBatchLinger) {
+        if (testDriver != null) {
+            testDriver.close();
+        }
+
         final var streamsBuilder = new StreamsBuilder();
         streamsBuilder
                 .stream("input-topic", Consumed
                         .with(Serdes.UUID(), new KafkaProtobufSerde<>(ScanResult.parser())))
-                .processValues(VulnerabilityScanResultProcessor::new)
+                .process(new VulnerabilityScanResultProcessorSupplier(maxBatchSize, maxBatchLinger))
                 .to("output-topic", Produced
                         .with(Serdes.UUID(), new KafkaProtobufSerde<>(ScanResult.parser())));
 
@@ -92,8 +115,6 @@ public class VulnerabilityScanResultProcessorTest extends PersistenceCapableTest
                 new UUIDSerializer(), new KafkaProtobufSerializer<>());
         outputTopic = testDriver.createOutputTopic("output-topic",
                 new UUIDDeserializer(), new KafkaProtobufDeserializer<>(ScanResult.parser()));
-
-        new CweImporter().processCweDefinitions(); // Required for CWE mapping
     }
 
     @After
@@ -298,6 +319,308 @@ public class VulnerabilityScanResultProcessorTest extends PersistenceCapableTest
         );
     }
 
+    @Test
+    public void processSuccessfulScanResultQueuesComponentMetricsUpdateTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var component = new Component();
+        component.setName("acme-lib");
+        component.setVersion("1.1.0");
+        component.setProject(project);
+        qm.persist(component);
+
+        final var vuln = new Vulnerability();
+        vuln.setVulnId("INT-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        qm.persist(vuln);
+
+        final var scanKey = ScanKey.newBuilder().setScanToken(UUID.randomUUID().toString()).setComponentUuid(component.getUuid().toString()).build();
+        final var scanResult = ScanResult.newBuilder()
+                .setKey(scanKey)
+                .addScannerResults(ScannerResult.newBuilder()
+                        .setScanner(SCANNER_INTERNAL)
+                        .setStatus(SCAN_STATUS_SUCCESSFUL)
+                        .addVulnerabilities(org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                                .setId(vuln.getVulnId())
+                                .setSource(SOURCE_INTERNAL)))
+                .build();
+
+        inputTopic.pipeInput(component.getUuid(), scanResult);
+        assertThat(outputTopic.readValuesToList()).containsOnly(scanResult);
+
+        // Metrics are not calculated on the stream thread, but the component is queued for an incremental update.
+        assertThat(qm.getMostRecentDependencyMetrics(component)).isNull();
+        assertThat(MetricsDeltaQueue.getInstance().drain()).containsOnly(component.getId());
+
+        // The component has been marked as changed, and its metrics are re-calculated by the project metrics update.
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+        final DependencyMetrics componentMetrics = qm.getMostRecentDependencyMetrics(component);
+        assertThat(componentMetrics).isNotNull();
+        assertThat(componentMetrics.getHigh()).isEqualTo(1);
+        assertThat(componentMetrics.getVulnerabilities()).isEqualTo(1);
+        final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getHigh()).isEqualTo(1);
+        assertThat(projectMetrics.getVulnerableComponents()).isEqualTo(1);
+    }
+
+    @Test
+    public void processSuccessfulScanResultUpdatesPortfolioMetricsTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var component = new Component();
+        component.setName("acme-lib");
+        component.setVersion("1.1.0");
+        component.setProject(project);
+        qm.persist(component);
+
+        final var vuln = new Vulnerability();
+        vuln.setVulnId("INT-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        qm.persist(vuln);
+
+        // Record initial metrics
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics().getHigh()).isZero();
+
+        final var scanKey = ScanKey.newBuilder().setScanToken(UUID.randomUUID().toString()).setComponentUuid(component.getUuid().toString()).build();
+        final var scanResult = ScanResult.newBuilder()
+                .setKey(scanKey)
+                .addScannerResults(ScannerResult.newBuilder()
+                        .setScanner(SCANNER_INTERNAL)
+                        .setStatus(SCAN_STATUS_SUCCESSFUL)
+                        .addVulnerabilities(org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                                .setId(vuln.getVulnId())
+                                .setSource(SOURCE_INTERNAL)))
+                .build();
+
+        inputTopic.pipeInput(component.getUuid(), scanResult);
+        assertThat(outputTopic.readValuesToList()).containsOnly(scanResult);
+
+        // The component has been queued for an incremental update, which applies
+        // the change in its metrics to project and portfolio metrics.
+        new MetricsDeltaUpdateTask().inform(new MetricsDeltaUpdateEvent());
+
+        final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getHigh()).isEqualTo(1);
+        assertThat(projectMetrics.getVulnerableComponents()).isEqualTo(1);
+
+        final PortfolioMetrics portfolioMetrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(portfolioMetrics.getHigh()).isEqualTo(1);
+        assertThat(portfolioMetrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(portfolioMetrics.getVulnerableComponents()).isEqualTo(1);
+        assertThat(portfolioMetrics.getVulnerableProjects()).isEqualTo(1);
+    }
+
+    @Test
+    public void processBatchOfScanResultsTest() {
+        setUpTestDriver(3, Duration.ofMinutes(1));
+
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var componentA = new Component();
+        componentA.setName("acme-lib-a");
+        componentA.setVersion("1.1.0");
+        componentA.setProject(project);
+        qm.persist(componentA);
+
+        final var componentB = new Component();
+        componentB.setName("acme-lib-b");
+        componentB.setVersion("1.2.0");
+        componentB.setProject(project);
+        qm.persist(componentB);
+
+        final var scanToken = UUID.randomUUID().toString();
+        final var reportedVuln = org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                .setId("SONATYPE-001")
+                .setSource(SOURCE_OSSINDEX)
+                .build();
+        final var scanResultA = createScanResult(scanToken, componentA.getUuid(), reportedVuln);
+        final var scanResultB = createScanResult(scanToken, componentB.getUuid(), reportedVuln);
+        final var scanResultC = createScanResult(scanToken, UUID.randomUUID(), reportedVuln);
+
+        inputTopic.pipeInput(componentA.getUuid(), scanResultA);
+        inputTopic.pipeInput(componentB.getUuid(), scanResultB);
+
+        // Batch is not full yet.
+        assertThat(outputTopic.isEmpty()).isTrue();
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.OSSINDEX, "SONATYPE-001")).isNull();
+
+        inputTopic.pipeInput(new TestRecord<>(UUID.fromString(scanResultC.getKey().getComponentUuid()), scanResultC));
+
+        assertThat(outputTopic.readValuesToList()).containsExactlyInAnyOrder(scanResultA, scanResultB, scanResultC);
+
+        final Vulnerability vuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.OSSINDEX, "SONATYPE-001");
+        assertThat(vuln).isNotNull();
+        assertThat(qm.getAllVulnerabilities(componentA)).containsOnly(vuln);
+        assertThat(qm.getAllVulnerabilities(componentB)).containsOnly(vuln);
+        assertThat(qm.getCount(FindingAttribution.class)).isEqualTo(2);
+
+        assertThat(kafkaMockProducer.history()).satisfiesExactlyInAnyOrder(
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.NOTIFICATION_NEW_VULNERABILITY.name()),
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.NOTIFICATION_NEW_VULNERABILITY.name())
+        );
+    }
+
+    @Test
+    public void processBatchOfScanResultsAfterLingerTest() {
+        setUpTestDriver(100, Duration.ofSeconds(1));
+
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var component = new Component();
+        component.setName("acme-lib");
+        component.setVersion("1.1.0");
+        component.setProject(project);
+        qm.persist(component);
+
+        final var scanResult = createScanResult(UUID.randomUUID().toString(), component.getUuid(),
+                org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                        .setId("SONATYPE-001")
+                        .setSource(SOURCE_OSSINDEX)
+                        .build());
+        final Headers headers = new RecordHeaders();
+        headers.add(KafkaEventHeaders.VULN_ANALYSIS_LEVEL, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS.name().getBytes());
+
+        inputTopic.pipeInput(new TestRecord<>(component.getUuid(), scanResult, headers));
+        assertThat(outputTopic.isEmpty()).isTrue();
+
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        assertThat(outputTopic.readRecordsToList()).satisfiesExactly(record -> {
+            assertThat(record.value()).isEqualTo(scanResult);
+            assertThat(record.headers().lastHeader(KafkaEventHeaders.VULN_ANALYSIS_LEVEL).value())
+                    .asString().isEqualTo(VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS.name());
+        });
+        assertThat(qm.getAllVulnerabilities(component)).hasSize(1);
+        assertThat(kafkaMockProducer.history()).satisfiesExactly(record -> {
+            final Notification notification = deserializeValue(KafkaTopics.NOTIFICATION_NEW_VULNERABILITY, record);
+            final var subject = notification.getSubject().unpack(NewVulnerabilitySubject.class);
+            assertThat(subject.getVulnerabilityAnalysisLevel()).isEqualTo("BOM_UPLOAD_ANALYSIS");
+        });
+
+        // Processed results must have been removed from the buffer.
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+        assertThat(outputTopic.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void processScanResultWithCachedVulnerabilityTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var componentA = new Component();
+        componentA.setName("acme-lib-a");
+        componentA.setVersion("1.1.0");
+        componentA.setProject(project);
+        qm.persist(componentA);
+
+        final var componentB = new Component();
+        componentB.setName("acme-lib-b");
+        componentB.setVersion("1.2.0");
+        componentB.setProject(project);
+        qm.persist(componentB);
+
+        final var componentC = new Component();
+        componentC.setName("acme-lib-c");
+        componentC.setVersion("1.3.0");
+        componentC.setProject(project);
+        qm.persist(componentC);
+
+        final var reportedVuln = org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                .setId("SONATYPE-001")
+                .setSource(SOURCE_OSSINDEX)
+                .setTitle("reported title")
+                .build();
+
+        inputTopic.pipeInput(componentA.getUuid(), createScanResult(UUID.randomUUID().toString(), componentA.getUuid(), reportedVuln));
+
+        final Vulnerability vuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.OSSINDEX, "SONATYPE-001");
+        assertThat(vuln).isNotNull();
+        assertThat(VulnerabilityLookupCache.getInstance().get("OSSINDEX", "SONATYPE-001")).satisfies(cacheEntry -> {
+            assertThat(cacheEntry).isNotNull();
+            assertThat(cacheEntry.id()).isEqualTo(vuln.getId());
+        });
+
+        // Modify the vulnerability without invalidating the cache.
+        qm.runInTransaction(() -> vuln.setTitle("modified title"));
+
+        // Vulnerability is reported with the same content again, so it must neither be compared nor updated.
+        inputTopic.pipeInput(componentB.getUuid(), createScanResult(UUID.randomUUID().toString(), componentB.getUuid(), reportedVuln));
+
+        qm.getPersistenceManager().refresh(vuln);
+        assertThat(vuln.getTitle()).isEqualTo("modified title");
+        assertThat(qm.getAllVulnerabilities(componentB)).containsOnly(vuln);
+
+        // Updating the vulnerability must invalidate its cache entry.
+        qm.updateVulnerability(vuln, false);
+        assertThat(VulnerabilityLookupCache.getInstance().get("OSSINDEX", "SONATYPE-001")).isNull();
+
+        inputTopic.pipeInput(componentC.getUuid(), createScanResult(UUID.randomUUID().toString(), componentC.getUuid(), reportedVuln));
+
+        qm.getPersistenceManager().refresh(vuln);
+        assertThat(vuln.getTitle()).isEqualTo("reported title");
+        assertThat(qm.getAllVulnerabilities(componentC)).containsOnly(vuln);
+    }
+
+    @Test
+    public void processScanResultWithUnchangedVulnerabilityTest() {
+        final var project = new Project();
+        project.setName("acme-app");
+        project.setVersion("1.0.0");
+        qm.persist(project);
+
+        final var componentA = new Component();
+        componentA.setName("acme-lib-a");
+        componentA.setVersion("1.1.0");
+        componentA.setProject(project);
+        qm.persist(componentA);
+
+        final var componentB = new Component();
+        componentB.setName("acme-lib-b");
+        componentB.setVersion("1.2.0");
+        componentB.setProject(project);
+        qm.persist(componentB);
+
+        final var reportedVuln = org.hyades.proto.vuln.v1.Vulnerability.newBuilder()
+                .setId("SONATYPE-001")
+                .setSource(SOURCE_OSSINDEX)
+                .setTitle("reported title")
+                .build();
+
+        inputTopic.pipeInput(componentA.getUuid(), createScanResult(UUID.randomUUID().toString(), componentA.getUuid(), reportedVuln));
+
+        final Vulnerability vuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.OSSINDEX, "SONATYPE-001");
+        assertThat(vuln).isNotNull();
+        assertThat(vuln.getContentHash()).isNotNull();
+
+        // Modify the vulnerability without updating its content hash, and make sure the cache isn't used.
+        qm.runInTransaction(() -> vuln.setTitle("modified title"));
+        VulnerabilityLookupCache.getInstance().invalidateAll();
+
+        // Vulnerability is reported with the same content again, so it must neither be compared nor updated.
+        inputTopic.pipeInput(componentB.getUuid(), createScanResult(UUID.randomUUID().toString(), componentB.getUuid(), reportedVuln));
+
+        qm.getPersistenceManager().refresh(vuln);
+        assertThat(vuln.getTitle()).isEqualTo("modified title");
+        assertThat(qm.getAllVulnerabilities(componentB)).containsOnly(vuln);
+    }
+
     @Test
     public void processSuccessfulScanResultWithExistingFindingTest() {
         final var project = new Project();
@@ -551,11 +874,11 @@ public class VulnerabilityScanResultProcessorTest extends PersistenceCapableTest
         assertThat(vulnerability.getUpdated()).isEqualTo(Instant.ofEpochSecond(1673478000));
         assertThat(vulnerability.getCwes()).containsOnly(999);
         assertThat(vulnerability.getCvssV2BaseScore()).isEqualTo("9.3");
-        assertThat(vulnerability.getCvssV2ExploitabilitySubScore()).isEqualTo("3.9");
+        assertThat(vulnerability.getCvssV2ExploitabilitySubScore()).isEqualTo("8.6");
         assertThat(vulnerability.getCvssV2ImpactSubScore()).isEqualTo("10.0");
         assertThat(vulnerability.getCvssV2Vector()).isEqualTo("(AV:N/AC:M/Au:N/C:C/I:C/A:C)");
         assertThat(vulnerability.getCvssV3BaseScore()).isEqualTo("10.0");
-        assertThat(vulnerability.getCvssV3ExploitabilitySubScore()).isEqualTo("3.2");
+        assertThat(vulnerability.getCvssV3ExploitabilitySubScore()).isEqualTo("3.9");
         assertThat(vulnerability.getCvssV3ImpactSubScore()).isEqualTo("6.0");
         assertThat(vulnerability.getCvssV3Vector()).isEqualTo("CVSS:3.0/AV:N/AC:L/PR:N/UI:N/S:C/C:H/I:H/A:H");
         assertThat(vulnerability.getOwaspRRLikelihoodScore()).isEqualTo("4.4");
@@ -567,4 +890,16 @@ public class VulnerabilityScanResultProcessorTest extends PersistenceCapableTest
         assertThat(vulnerability.getEpssScore()).isEqualByComparingTo("5.1");
         assertThat(vulnerability.getEpssPercentile()).isEqualByComparingTo("5.2");
     }
-}
\ No newline at end of file
+
+    private static ScanResult createScanResult(final String scanToken, final UUID componentUuid,
+                                               final org.hyades.proto.vuln.v1.Vulnerability vuln) {
+        return ScanResult.newBuilder()
+                .setKey(ScanKey.newBuilder().setScanToken(scanToken).setComponentUuid(componentUuid.toString()))
+                .addScannerResults(ScannerResult.newBuilder()
+                        .setScanner(SCANNER_OSSINDEX)
+                        .setStatus(SCAN_STATUS_SUCCESSFUL)
+                        .addVulnerabilities(vuln))
+                .build();
+    }
+
+}
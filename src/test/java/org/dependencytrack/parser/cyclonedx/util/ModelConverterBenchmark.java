@@ -0,0 +1,124 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.cyclonedx.util;
+
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Dependency;
+import org.cyclonedx.model.Metadata;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link ModelConverter#generateDependencies(Bom, Project, List)}.
+ * <p>
+ * The graph consists of {@code componentCount} components, each of which depends on up to
+ * {@value #EDGES_PER_COMPONENT} others. Execution time is expected to grow linearly with {@code componentCount}.
+ * <p>
+ * Benchmarks are not executed as part of the test suite. Run them via {@link #main(String[])}
+ * after {@code mvn -P enhance test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ModelConverterBenchmark {
+
+    private static final int EDGES_PER_COMPONENT = 5;
+
+    @Param({"5000", "50000"})
+    public int componentCount;
+
+    private Bom bom;
+    private Project project;
+    private List<Component> components;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        components = new ArrayList<>(componentCount);
+        final var dependencies = new ArrayList<Dependency>(componentCount + 1);
+        for (int i = 0; i < componentCount; i++) {
+            final var component = new Component();
+            component.setUuid(UUID.randomUUID());
+            component.setBomRef("component-" + i);
+            component.setGroup("com.example");
+            component.setName("component-" + i);
+            component.setVersion("1.0.0");
+            component.setPurl("pkg:maven/com.example/component-" + i + "@1.0.0");
+            components.add(component);
+
+            final var dependency = new Dependency(component.getBomRef());
+            for (int j = 1; j <= EDGES_PER_COMPONENT && i + j < componentCount; j++) {
+                dependency.addDependency(new Dependency("component-" + (i + j)));
+            }
+            dependencies.add(dependency);
+        }
+
+        final var rootComponent = new org.cyclonedx.model.Component();
+        rootComponent.setBomRef("root");
+        final var metadata = new Metadata();
+        metadata.setComponent(rootComponent);
+
+        final var rootDependency = new Dependency(rootComponent.getBomRef());
+        for (int i = 0; i < Math.min(componentCount, 100); i++) {
+            rootDependency.addDependency(new Dependency("component-" + i));
+        }
+        dependencies.add(rootDependency);
+
+        bom = new Bom();
+        bom.setMetadata(metadata);
+        bom.setDependencies(dependencies);
+
+        project = new Project();
+    }
+
+    @Benchmark
+    public Project generateDependencies() {
+        ModelConverter.generateDependencies(bom, project, components);
+        return project;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ModelConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.cyclonedx.util;
+
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Dependency;
+import org.cyclonedx.model.Metadata;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentIdentity;
+import org.dependencytrack.model.Project;
+import org.json.JSONArray;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModelConverterTest {
+
+    @Test
+    public void testGenerateDependencies() {
+        final Component componentA = createComponent("a");
+        final Component componentB = createComponent("b");
+        final Component componentC = createComponent("c");
+
+        final var rootComponent = new org.cyclonedx.model.Component();
+        rootComponent.setBomRef("root");
+        final var metadata = new Metadata();
+        metadata.setComponent(rootComponent);
+
+        final var rootDependency = new Dependency("root");
+        rootDependency.addDependency(new Dependency("a"));
+        rootDependency.addDependency(new Dependency("does-not-exist"));
+        final var dependencyA = new Dependency("a");
+        dependencyA.addDependency(new Dependency("b"));
+        dependencyA.addDependency(new Dependency("c"));
+        final var dependencyB = new Dependency("b");
+        dependencyB.addDependency(new Dependency("c"));
+        final var dependencyC = new Dependency("c");
+        dependencyC.addDependency(new Dependency("does-not-exist"));
+
+        final var bom = new Bom();
+        bom.setMetadata(metadata);
+        bom.setDependencies(List.of(rootDependency, dependencyA, dependencyB, dependencyC));
+
+        final var project = new Project();
+        ModelConverter.generateDependencies(bom, project, List.of(componentA, componentB, componentC));
+
+        assertThat(project.getDirectDependencies()).isEqualTo(toJson(componentA));
+        assertThat(componentA.getDirectDependencies()).isEqualTo(toJson(componentB, componentC));
+        assertThat(componentB.getDirectDependencies()).isEqualTo(toJson(componentC));
+        assertThat(componentC.getDirectDependencies()).isNull();
+    }
+
+    @Test
+    public void testGenerateDependenciesWithoutDependencyGraph() {
+        final Component componentA = createComponent("a");
+        componentA.setDirectDependencies("[]");
+
+        final var rootComponent = new org.cyclonedx.model.Component();
+        rootComponent.setBomRef("root");
+        final var metadata = new Metadata();
+        metadata.setComponent(rootComponent);
+
+        final var bom = new Bom();
+        bom.setMetadata(metadata);
+
+        final var project = new Project();
+        project.setDirectDependencies("[]");
+        ModelConverter.generateDependencies(bom, project, List.of(componentA));
+
+        assertThat(project.getDirectDependencies()).isNull();
+        assertThat(componentA.getDirectDependencies()).isNull();
+    }
+
+    private static Component createComponent(final String bomRef) {
+        final var component = new Component();
+        component.setUuid(UUID.randomUUID());
+        component.setBomRef(bomRef);
+        component.setGroup("com.example");
+        component.setName(bomRef);
+        component.setVersion("1.0.0");
+        component.setPurl("pkg:maven/com.example/" + bomRef + "@1.0.0");
+        return component;
+    }
+
+    private static String toJson(final Component... components) {
+        final var jsonArray = new JSONArray();
+        for (final Component component : components) {
+            jsonArray.put(new ComponentIdentity(component).toJSON());
+        }
+        return jsonArray.toString();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.AnalysisComment;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.AnalyzerIdentity;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisComment;
+import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.model.Vulnerability;
+import org.junit.Test;
+
+import javax.jdo.JDOHelper;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentQueryManagerTest extends PersistenceCapableTest {
+
+    @Test
+    public void testReconcileComponents() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final Component componentToKeep = createComponent(project, "acme-lib-a");
+        final Component componentToDelete = createComponent(project, "acme-lib-b");
+
+        // A kept component whose parent is about to be deleted.
+        final Component childToKeep = createComponent(project, "acme-lib-c");
+        childToKeep.setParent(componentToDelete);
+        qm.persist(childToKeep);
+
+        var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("INT-001");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability = qm.createVulnerability(vulnerability, false);
+        qm.addVulnerability(vulnerability, componentToKeep, AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.addVulnerability(vulnerability, componentToDelete, AnalyzerIdentity.INTERNAL_ANALYZER);
+        for (final Component component : List.of(componentToKeep, componentToDelete)) {
+            final Analysis analysis = qm.makeAnalysis(component, vulnerability, AnalysisState.NOT_AFFECTED, null, null, null, false);
+            qm.makeAnalysisComment(analysis, "comment", "commenter");
+        }
+
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy, PolicyCondition.Subject.COORDINATES, PolicyCondition.Operator.MATCHES, "foo");
+        for (final Component component : List.of(componentToKeep, componentToDelete)) {
+            var violation = new PolicyViolation();
+            violation.setComponent(component);
+            violation.setPolicyCondition(condition);
+            violation.setType(PolicyViolation.Type.OPERATIONAL);
+            violation.setTimestamp(new Date());
+            violation = qm.addPolicyViolationIfNotExist(violation);
+            final ViolationAnalysis violationAnalysis = qm.makeViolationAnalysis(component, violation, ViolationAnalysisState.APPROVED, false);
+            qm.makeViolationAnalysisComment(violationAnalysis, "comment", "commenter");
+
+            final var metrics = new DependencyMetrics();
+            metrics.setProject(project);
+            metrics.setComponent(component);
+            metrics.setFirstOccurrence(new Date());
+            metrics.setLastOccurrence(new Date());
+            qm.persist(metrics);
+        }
+
+        qm.reconcileComponents(project, Set.of(componentToKeep.getId(), childToKeep.getId()));
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).satisfiesExactlyInAnyOrder(
+                component -> assertThat(component.getName()).isEqualTo("acme-lib-a"),
+                component -> {
+                    assertThat(component.getName()).isEqualTo("acme-lib-c");
+                    assertThat(component.getParent()).isNull();
+                }
+        );
+        assertThat(qm.getCount(Analysis.class)).isEqualTo(1);
+        assertThat(qm.getCount(AnalysisComment.class)).isEqualTo(1);
+        assertThat(qm.getCount(PolicyViolation.class)).isEqualTo(1);
+        assertThat(qm.getCount(ViolationAnalysis.class)).isEqualTo(1);
+        assertThat(qm.getCount(ViolationAnalysisComment.class)).isEqualTo(1);
+        assertThat(qm.getCount(DependencyMetrics.class)).isEqualTo(1);
+        assertThat(qm.getCount(FindingAttribution.class)).isEqualTo(1);
+        assertThat(qm.getAllVulnerabilities(componentToKeep)).hasSize(1);
+    }
+
+    @Test
+    public void testGetComponentsForAnalysis() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        final Project otherProject = qm.createProject("Acme Other", null, "1.0", null, null, null, true, false);
+
+        final Component componentA = createComponent(project, "acme-lib-a");
+        componentA.setPurl("pkg:maven/com.acme/acme-lib-a@1.0.0");
+        componentA.setInternal(true);
+        qm.persist(componentA);
+        final Component componentB = createComponent(project, "acme-lib-b");
+        componentB.setCpe("cpe:2.3:a:acme:acme-lib-b:1.0.0:*:*:*:*:*:*:*");
+        componentB.setSwidTagId("swidgen-acme-lib-b");
+        qm.persist(componentB);
+        createComponent(otherProject, "acme-lib-c");
+
+        assertThat(qm.getComponentsForAnalysis(project)).satisfiesExactly(
+                component -> {
+                    assertThat(JDOHelper.isPersistent(component)).isFalse();
+                    assertThat(component.getUuid()).isEqualTo(componentA.getUuid());
+                    assertThat(component.getPurl()).hasToString("pkg:maven/com.acme/acme-lib-a@1.0.0");
+                    assertThat(component.getCpe()).isNull();
+                    assertThat(component.getSwidTagId()).isNull();
+                    assertThat(component.isInternal()).isTrue();
+                    assertThat(component.getName()).isNull();
+                },
+                component -> {
+                    assertThat(component.getUuid()).isEqualTo(componentB.getUuid());
+                    assertThat(component.getPurl()).isNull();
+                    assertThat(component.getCpe()).isEqualTo("cpe:2.3:a:acme:acme-lib-b:1.0.0:*:*:*:*:*:*:*");
+                    assertThat(component.getSwidTagId()).isEqualTo("swidgen-acme-lib-b");
+                    assertThat(component.isInternal()).isFalse();
+                }
+        );
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        component.setVersion("1.0.0");
+        return qm.createComponent(component, false);
+    }
+
+}
@@ -19,11 +19,23 @@
 package org.dependencytrack.persistence;
 
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisState;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,4 +59,89 @@ public class PolicyQueryManagerTest extends PersistenceCapableTest {
         assertThat(qm.getObjectById(Policy.class, policy2.getId()).getProjects()).isEmpty();
     }
 
+    @Test
+    public void testReconcilePolicyViolations() {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition keptCondition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        final PolicyCondition staleCondition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Operator.MATCHES, "pkg:maven/.+");
+        final PolicyCondition newCondition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.CPE, PolicyCondition.Operator.MATCHES, "cpe:.+");
+
+        final PolicyViolation keptViolation = qm.persist(createViolation(component, keptCondition));
+        final PolicyViolation staleViolation = qm.persist(createViolation(component, staleCondition));
+        qm.makeViolationAnalysis(component, staleViolation, ViolationAnalysisState.REJECTED, false);
+
+        final ReconciledPolicyViolations result = qm.reconcilePolicyViolations(List.of(component), List.of(
+                createViolation(component, keptCondition),
+                createViolation(component, newCondition),
+                createViolation(component, newCondition)));
+
+        assertThat(result.newViolations()).satisfiesExactly(violation ->
+                assertThat(violation.getPolicyCondition().getId()).isEqualTo(newCondition.getId()));
+        final long newViolationId = result.newViolations().get(0).getId();
+        assertThat(result.violations()).extracting(PolicyViolation::getId)
+                .containsExactly(keptViolation.getId(), newViolationId, newViolationId);
+        assertThat(qm.getAllPolicyViolations(component)).extracting(PolicyViolation::getId)
+                .containsExactlyInAnyOrder(keptViolation.getId(), newViolationId);
+
+        // Analyses of violations that are no longer present must be deleted with them.
+        assertThat(qm.getPersistenceManager().newQuery(ViolationAnalysis.class).executeList()).isEmpty();
+    }
+
+    @Test
+    public void testReconcilePolicyViolationsConcurrently() throws Exception {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final int threadCount = 5;
+        final var startLatch = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    try (final var threadQm = new QueryManager()) {
+                        final Component threadComponent = threadQm.getObjectById(Component.class, component.getId());
+                        final PolicyCondition threadCondition = threadQm.getObjectById(PolicyCondition.class, condition.getId());
+                        startLatch.await();
+                        threadQm.reconcilePolicyViolations(List.of(threadComponent), List.of(createViolation(threadComponent, threadCondition)));
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(qm.getAllPolicyViolations(component)).hasSize(1);
+    }
+
+    private static PolicyViolation createViolation(final Component component, final PolicyCondition condition) {
+        final var violation = new PolicyViolation();
+        violation.setComponent(component);
+        violation.setPolicyCondition(condition);
+        violation.setType(PolicyViolation.Type.OPERATIONAL);
+        violation.setTimestamp(new Date());
+        return violation;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.util.VulnerabilityUtil;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerabilityQueryManagerTest extends PersistenceCapableTest {
+
+    @Test
+    public void testSynchronizeVulnerability() {
+        final Vulnerability createdVuln = qm.synchronizeVulnerability(createVulnerability("original description"), false);
+        assertThat(createdVuln.getContentHash())
+                .isEqualTo(VulnerabilityUtil.computeContentHash(createVulnerability("original description")));
+
+        // Modify the vulnerability without updating its content hash.
+        qm.runInTransaction(() -> createdVuln.setTitle("modified title"));
+
+        // Content is unchanged, so the vulnerability must not be updated.
+        final Vulnerability unchangedVuln = qm.synchronizeVulnerability(createVulnerability("original description"), false);
+        assertThat(unchangedVuln.getId()).isEqualTo(createdVuln.getId());
+        qm.getPersistenceManager().refresh(createdVuln);
+        assertThat(createdVuln.getTitle()).isEqualTo("modified title");
+
+        final Vulnerability updatedVuln = qm.synchronizeVulnerability(createVulnerability("modified description"), false);
+        assertThat(updatedVuln.getId()).isEqualTo(createdVuln.getId());
+        qm.getPersistenceManager().refresh(createdVuln);
+        assertThat(createdVuln.getTitle()).isEqualTo("original title");
+        assertThat(createdVuln.getDescription()).isEqualTo("modified description");
+        assertThat(createdVuln.getContentHash())
+                .isEqualTo(VulnerabilityUtil.computeContentHash(createVulnerability("modified description")));
+    }
+
+    @Test
+    public void testSynchronizeVulnerabilityHashesPersistedContent() {
+        final Vulnerability vuln = createVulnerability("original description");
+        vuln.setEpssScore(new BigDecimal("0.5"));
+        final Vulnerability createdVuln = qm.createVulnerability(vuln, false);
+
+        // EPSS scores are not synchronized, so the content of the vulnerability
+        // does not end up being identical to the content it is synchronized with.
+        final Vulnerability updatedVuln = qm.synchronizeVulnerability(createVulnerability("modified description"), false);
+        assertThat(updatedVuln.getId()).isEqualTo(createdVuln.getId());
+        qm.getPersistenceManager().refresh(updatedVuln);
+        assertThat(updatedVuln.getEpssScore()).isEqualByComparingTo("0.5");
+        assertThat(updatedVuln.getContentHash())
+                .isEqualTo(VulnerabilityUtil.computeContentHash(updatedVuln))
+                .isNotEqualTo(VulnerabilityUtil.computeContentHash(createVulnerability("modified description")));
+    }
+
+    private static Vulnerability createVulnerability(final String description) {
+        final var vuln = new Vulnerability();
+        vuln.setVulnId("CVE-001");
+        vuln.setSource(Vulnerability.Source.NVD);
+        vuln.setTitle("original title");
+        vuln.setDescription(description);
+        return vuln;
+    }
+
+}
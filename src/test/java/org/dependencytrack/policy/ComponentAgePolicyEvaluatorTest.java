@@ -108,9 +108,8 @@ public class ComponentAgePolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl("pkg:maven/foo/bar@1.2.3");
 
         final var evaluator = new ComponentAgePolicyEvaluator();
-        evaluator.setQueryManager(qm);
 
-        final List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        final List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         if (shouldViolate) {
             assertThat(violations).hasSize(1);
             final PolicyConditionViolation violation = violations.get(0);
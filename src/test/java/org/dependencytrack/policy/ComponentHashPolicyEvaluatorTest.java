@@ -39,7 +39,7 @@ public class ComponentHashPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Test Component");
         component.setSha3_512("test_hash");
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -54,7 +54,7 @@ public class ComponentHashPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Example Component");
         component.setSha1("test_hash");
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -66,7 +66,7 @@ public class ComponentHashPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Example Component");
         component.setSha1("test_hash");
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 }
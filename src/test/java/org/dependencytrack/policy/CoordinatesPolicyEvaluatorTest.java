@@ -39,7 +39,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -55,7 +55,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -72,7 +72,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -89,7 +89,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("2.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -103,7 +103,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -117,7 +117,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -130,7 +130,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setName("Test Component");
         component.setVersion("1.0.0");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -142,7 +142,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Example Component");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -154,7 +154,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Test Component");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -166,7 +166,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setName("Test Component");
         PolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -179,7 +179,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         final var component = new Component();
         final var evaluator = new CoordinatesPolicyEvaluator();
 
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -192,7 +192,7 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setVersion("1.0.0");
         final var evaluator = new CoordinatesPolicyEvaluator();
 
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -206,15 +206,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -228,15 +228,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -250,15 +250,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -272,15 +272,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -294,15 +294,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -316,15 +316,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -338,15 +338,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -360,15 +360,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -382,15 +382,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -404,15 +404,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -426,15 +426,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -448,15 +448,15 @@ public class CoordinatesPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
 }
@@ -53,8 +53,7 @@ public class CwePolicyEvaluatorTest extends PersistenceCapableTest {
         qm.persist(vulnerability);
         qm.addVulnerability(vulnerability, component, AnalyzerIdentity.INTERNAL_ANALYZER);
         PolicyEvaluator evaluator = new CwePolicyEvaluator();
-        evaluator.setQueryManager(qm);
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component.getId(), violation.getComponent().getId());
@@ -80,8 +79,7 @@ public class CwePolicyEvaluatorTest extends PersistenceCapableTest {
         qm.persist(vulnerability);
         qm.addVulnerability(vulnerability, component, AnalyzerIdentity.INTERNAL_ANALYZER);
         PolicyEvaluator evaluator = new CpePolicyEvaluator();
-        evaluator.setQueryManager(qm);
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
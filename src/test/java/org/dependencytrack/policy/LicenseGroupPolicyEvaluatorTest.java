@@ -52,7 +52,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
     }
 
@@ -74,7 +74,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -91,7 +91,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setResolvedLicense(null);
 
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
     }
 
@@ -112,7 +112,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -133,7 +133,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -151,7 +151,7 @@ public class LicenseGroupPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicenseGroupPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
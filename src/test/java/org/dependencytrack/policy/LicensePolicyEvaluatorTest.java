@@ -44,7 +44,7 @@ public class LicensePolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicensePolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -64,7 +64,7 @@ public class LicensePolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicensePolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -81,7 +81,7 @@ public class LicensePolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicensePolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -98,7 +98,7 @@ public class LicensePolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setResolvedLicense(license);
         PolicyEvaluator evaluator = new LicensePolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -119,10 +119,10 @@ public class LicensePolicyEvaluatorTest extends PersistenceCapableTest {
         Component componentWithoutLicense = new Component();
 
         PolicyEvaluator evaluator = new LicensePolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, componentWithLicense);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, componentWithLicense);
         Assert.assertEquals(0, violations.size());
 
-        violations = evaluator.evaluate(policy, componentWithoutLicense);
+        violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, componentWithoutLicense);
         Assert.assertEquals(1, violations.size());
     }
 
@@ -37,7 +37,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setPurl(new PackageURL("pkg:generic/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -51,7 +51,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setPurl((PackageURL)null);
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -65,7 +65,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setPurl(new PackageURL("pkg:generic/acme/web-component@6.9"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -76,7 +76,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setPurl(new PackageURL("pkg:generic/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -87,7 +87,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setPurl(new PackageURL("pkg:generic/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -99,7 +99,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -114,7 +114,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -126,7 +126,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -141,7 +141,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -156,7 +156,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -171,7 +171,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -186,7 +186,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0-myCompanyFix-1?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0-myCompanyFix-1"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -201,7 +201,7 @@ public class PackageURLPolicyEvaluatorTest extends PersistenceCapableTest {
         component.setPurl(new PackageURL("pkg:generic/com/acme/example-component@1.0?type=jar"));
         component.setPurlCoordinates(new PackageURL("pkg:generic/com/acme/example-component@1.0"));
         PolicyEvaluator evaluator = new PackageURLPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
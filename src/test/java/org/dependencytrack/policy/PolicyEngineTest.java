@@ -19,6 +19,8 @@
 package org.dependencytrack.policy;
 
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.event.kafka.KafkaTopics;
+import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.AnalyzerIdentity;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
@@ -35,9 +37,13 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertNull;
 
 public class PolicyEngineTest extends PersistenceCapableTest {
@@ -272,4 +278,141 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         Assert.assertEquals("Log4J", policyViolation.getComponent().getName());
         Assert.assertEquals(PolicyCondition.Subject.LICENSE_GROUP, policyViolation.getPolicyCondition().getSubject());
     }
+
+    @Test
+    public void evaluateProjectTest() {
+        final Policy severityPolicy = qm.createPolicy("Severity Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition severityCondition = qm.createPolicyCondition(severityPolicy,
+                PolicyCondition.Subject.SEVERITY, PolicyCondition.Operator.IS, Severity.CRITICAL.name());
+
+        var mit = new License();
+        mit.setName("MIT");
+        mit.setLicenseId("MIT");
+        mit = qm.persist(mit);
+        var apache = new License();
+        apache.setName("Apache-2.0");
+        apache.setLicenseId("Apache-2.0");
+        apache = qm.persist(apache);
+        final LicenseGroup licenseGroup = qm.createLicenseGroup("Permissive");
+        licenseGroup.setLicenses(List.of(mit));
+        qm.persist(licenseGroup);
+
+        final Policy licensePolicy = qm.createPolicy("License Policy", Policy.Operator.ANY, Policy.ViolationState.WARN);
+        qm.createPolicyCondition(licensePolicy, PolicyCondition.Subject.LICENSE_GROUP, PolicyCondition.Operator.IS, licenseGroup.getUuid().toString());
+        qm.createPolicyCondition(licensePolicy, PolicyCondition.Subject.LICENSE, PolicyCondition.Operator.IS, apache.getUuid().toString());
+
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("INT-001");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability.setSeverity(Severity.CRITICAL);
+        qm.createVulnerability(vulnerability, false);
+
+        final var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA.setResolvedLicense(mit);
+        qm.createComponent(componentA, false);
+        qm.addVulnerability(vulnerability, componentA, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        qm.createComponent(componentB, false);
+        qm.addVulnerability(vulnerability, componentB, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var componentC = new Component();
+        componentC.setProject(project);
+        componentC.setName("acme-lib-c");
+        componentC.setResolvedLicense(apache);
+        qm.createComponent(componentC, false);
+
+        // The vulnerability of component B was violating the severity policy before it has been suppressed.
+        final var staleViolation = new PolicyViolation();
+        staleViolation.setComponent(componentB);
+        staleViolation.setPolicyCondition(severityCondition);
+        staleViolation.setType(PolicyViolation.Type.SECURITY);
+        staleViolation.setTimestamp(new Date());
+        qm.persist(staleViolation);
+        qm.makeAnalysis(componentB, vulnerability, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+
+        final var policyEngine = new PolicyEngine();
+        final List<PolicyViolation> violations = policyEngine.evaluateProject(project.getUuid());
+        assertThat(violations).satisfiesExactlyInAnyOrder(
+                violation -> {
+                    assertThat(violation.getComponent().getName()).isEqualTo("acme-lib-a");
+                    assertThat(violation.getPolicyCondition().getSubject()).isEqualTo(PolicyCondition.Subject.SEVERITY);
+                },
+                violation -> {
+                    assertThat(violation.getComponent().getName()).isEqualTo("acme-lib-a");
+                    assertThat(violation.getPolicyCondition().getSubject()).isEqualTo(PolicyCondition.Subject.LICENSE_GROUP);
+                },
+                violation -> {
+                    assertThat(violation.getComponent().getName()).isEqualTo("acme-lib-c");
+                    assertThat(violation.getPolicyCondition().getSubject()).isEqualTo(PolicyCondition.Subject.LICENSE);
+                });
+        assertThat(qm.getAllPolicyViolations(componentB)).isEmpty();
+
+        // Re-evaluating the project must neither create duplicate violations, nor replace existing ones.
+        final List<PolicyViolation> reEvaluatedViolations = policyEngine.evaluateProject(project.getUuid());
+        assertThat(reEvaluatedViolations).extracting(PolicyViolation::getId)
+                .containsExactlyInAnyOrderElementsOf(violations.stream().map(PolicyViolation::getId).toList());
+        assertThat(qm.getAllPolicyViolations(project)).hasSize(3);
+    }
+
+    @Test
+    public void evaluateProjectConcurrentlyTest() throws Exception {
+        final Policy policy = qm.createPolicy("Version Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+
+        // Spread components across multiple pages.
+        final var components = new ArrayList<Component>();
+        for (int i = 0; i < 1250; i++) {
+            final var component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib-" + i);
+            component.setVersion(i % 2 == 0 ? "1.0" : "2.0");
+            components.add(component);
+        }
+        qm.runInTransaction(() -> qm.getPersistenceManager().makePersistentAll(components));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<PolicyViolation> violations = new PolicyEngine().evaluateProject(project.getUuid(), executor, 3);
+            assertThat(violations).hasSize(625);
+            assertThat(violations).extracting(violation -> violation.getComponent().getName())
+                    .doesNotHaveDuplicates()
+                    .allSatisfy(name -> assertThat(Integer.parseInt(name.substring("acme-lib-".length())) % 2).isZero());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(qm.getAllPolicyViolations(project)).hasSize(625);
+    }
+
+    @Test
+    public void notificationsOnlyForNewViolationsTest() {
+        final Policy policy = qm.createPolicy("Version Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component.setVersion("1.0");
+        qm.createComponent(component, false);
+
+        final var policyEngine = new PolicyEngine();
+        assertThat(policyEngine.evaluate(component.getUuid())).hasSize(1);
+        assertThat(kafkaMockProducer.history()).filteredOn(record ->
+                KafkaTopics.NOTIFICATION_POLICY_VIOLATION.name().equals(record.topic())).hasSize(1);
+
+        // Neither evaluating the component again, nor evaluating its project, must notify about the existing violation.
+        assertThat(policyEngine.evaluate(component.getUuid())).hasSize(1);
+        assertThat(policyEngine.evaluateProject(project.getUuid())).hasSize(1);
+        assertThat(kafkaMockProducer.history()).filteredOn(record ->
+                KafkaTopics.NOTIFICATION_POLICY_VIOLATION.name().equals(record.topic())).hasSize(1);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import alpine.common.metrics.Metrics;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PolicyEvaluationExecutorTest extends PersistenceCapableTest {
+
+    @Test
+    public void testEvaluateProjectAndComponent() throws Exception {
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA.setVersion("1.0");
+        qm.createComponent(componentA, false);
+        final var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB.setVersion("1.0");
+        qm.createComponent(componentB, false);
+
+        final var executor = new PolicyEvaluationExecutor(2, 1);
+        final long projectEvaluationsBefore = Metrics.getRegistry().get("policy_evaluation").tag("target", "project").timer().count();
+        try {
+            final List<PolicyViolation> projectViolations = executor.evaluateProject(project.getUuid()).get(10, TimeUnit.SECONDS);
+            assertThat(projectViolations).hasSize(2);
+
+            final List<PolicyViolation> componentViolations = executor.evaluateComponent(componentA.getUuid()).get(10, TimeUnit.SECONDS);
+            assertThat(componentViolations).hasSize(1);
+        } finally {
+            executor.shutdown(Duration.ofSeconds(5));
+        }
+        assertThat(executor.isAborted()).isFalse();
+
+        assertThat(qm.getAllPolicyViolations(project)).hasSize(2);
+        assertThat(Metrics.getRegistry().get("policy_evaluation").tag("target", "project").timer().count())
+                .isEqualTo(projectEvaluationsBefore + 1);
+        assertThat(Metrics.getRegistry().get("policy_evaluation_queue_depth").gauge()).isNotNull();
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.policy.PolicyEvaluationPlan.CompiledPolicy;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PolicyEvaluationPlanTest extends PersistenceCapableTest {
+
+    @Test
+    public void testCompile() {
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ALL, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Operator.MATCHES, "pkg:maven/*");
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Operator.MATCHES, "pkg:maven/[");
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_LESS_THAN, "1.2.3");
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.COORDINATES, PolicyCondition.Operator.MATCHES, """
+                {"group": "org.acme", "name": "acme*", "version": ">= 1.0.0"}
+                """);
+
+        final PolicyEvaluationPlan plan = PolicyEvaluationPlan.get(qm);
+        assertThat(plan.getPolicies()).hasSize(1);
+
+        final CompiledPolicy compiledPolicy = plan.getPolicies().get(0);
+        assertThat(compiledPolicy.name()).isEqualTo("Test Policy");
+        assertThat(compiledPolicy.conditionCount()).isEqualTo(4);
+        assertThat(compiledPolicy.conditionsBySubject()).containsOnlyKeys(
+                PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Subject.VERSION, PolicyCondition.Subject.COORDINATES);
+
+        // The condition with an invalid regular expression must be skipped.
+        assertThat(compiledPolicy.conditionsBySubject().get(PolicyCondition.Subject.PACKAGE_URL)).satisfiesExactly(
+                condition -> assertThat(condition.getPattern().matcher("pkg:maven/foo/bar@1.0").matches()).isTrue());
+        assertThat(compiledPolicy.conditionsBySubject().get(PolicyCondition.Subject.VERSION)).satisfiesExactly(
+                condition -> assertThat(condition.getVersion().getVersionParts()).containsExactly("1", "2", "3"));
+        assertThat(compiledPolicy.conditionsBySubject().get(PolicyCondition.Subject.COORDINATES)).satisfiesExactly(condition -> {
+            final CompiledPolicyCondition.Coordinates coordinates = condition.getCoordinates();
+            assertThat(coordinates.groupPattern().matcher("org.acme").matches()).isTrue();
+            assertThat(coordinates.namePattern().matcher("acme-lib").matches()).isTrue();
+            assertThat(coordinates.versionPattern()).isNull();
+            assertThat(coordinates.versionOperator()).isEqualTo(PolicyCondition.Operator.NUMERIC_GREATER_THAN_OR_EQUAL);
+            assertThat(coordinates.version().getVersionParts()).containsExactly("1", "0", "0");
+        });
+
+        // The plan must be cached until it is invalidated.
+        assertThat(PolicyEvaluationPlan.get(qm)).isSameAs(plan);
+    }
+
+    @Test
+    public void testInvalidationOnPolicyConditionUpdate() {
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component.setVersion("1.0");
+        qm.createComponent(component, false);
+
+        final PolicyEvaluationPlan plan = PolicyEvaluationPlan.get(qm);
+        assertThat(new PolicyEngine().evaluate(component.getUuid())).hasSize(1);
+
+        final var updatedCondition = new PolicyCondition();
+        updatedCondition.setUuid(condition.getUuid());
+        updatedCondition.setSubject(PolicyCondition.Subject.VERSION);
+        updatedCondition.setOperator(PolicyCondition.Operator.NUMERIC_EQUAL);
+        updatedCondition.setValue("2.0");
+        qm.updatePolicyCondition(updatedCondition);
+
+        assertThat(PolicyEvaluationPlan.get(qm)).isNotSameAs(plan);
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(component.getUuid());
+        assertThat(violations).isEmpty();
+        assertThat(qm.getAllPolicyViolations(component)).isEmpty();
+    }
+
+}
@@ -36,7 +36,7 @@ public class SwidTagIdPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setSwidTagId("0123456789");
         PolicyEvaluator evaluator = new SwidTagIdPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -50,7 +50,7 @@ public class SwidTagIdPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setSwidTagId(null);
         PolicyEvaluator evaluator = new SwidTagIdPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(1, violations.size());
         PolicyConditionViolation violation = violations.get(0);
         Assert.assertEquals(component, violation.getComponent());
@@ -64,7 +64,7 @@ public class SwidTagIdPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setSwidTagId("0000000000");
         PolicyEvaluator evaluator = new SwidTagIdPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -75,7 +75,7 @@ public class SwidTagIdPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setSwidTagId("0123456789");
         PolicyEvaluator evaluator = new SwidTagIdPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
@@ -86,7 +86,7 @@ public class SwidTagIdPolicyEvaluatorTest extends PersistenceCapableTest {
         Component component = new Component();
         component.setSwidTagId("0123456789");
         PolicyEvaluator evaluator = new SwidTagIdPolicyEvaluator();
-        List<PolicyConditionViolation> violations = evaluator.evaluate(policy, component);
+        List<PolicyConditionViolation> violations = evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component);
         Assert.assertEquals(0, violations.size());
     }
 
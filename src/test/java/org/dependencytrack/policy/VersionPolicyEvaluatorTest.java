@@ -28,15 +28,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -50,15 +50,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -72,15 +72,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -94,15 +94,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -116,15 +116,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
     @Test
@@ -138,15 +138,15 @@ public class VersionPolicyEvaluatorTest extends PersistenceCapableTest {
 
         // Component version is lower
         component.setVersion("1.1.0");
-        Assert.assertEquals(0, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(0, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is equal
         component.setVersion("1.1.1");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
 
         // Component version is higher
         component.setVersion("1.1.2");
-        Assert.assertEquals(1, evaluator.evaluate(policy, component).size());
+        Assert.assertEquals(1, evaluator.evaluate(new PolicyEvaluationContext(qm), policy, component).size());
     }
 
 }
\ No newline at end of file
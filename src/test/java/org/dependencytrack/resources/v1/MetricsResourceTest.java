@@ -0,0 +1,146 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.resources.v1;
+
+import alpine.server.filters.ApiFilter;
+import alpine.server.filters.AuthenticationFilter;
+import alpine.server.filters.AuthorizationFilter;
+import org.dependencytrack.ResourceTest;
+import org.dependencytrack.auth.Permissions;
+import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
+import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.tasks.metrics.PortfolioMetricsUpdateTask;
+import org.dependencytrack.tasks.metrics.ProjectMetricsUpdateTask;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.servlet.ServletContainer;
+import org.glassfish.jersey.test.DeploymentContext;
+import org.glassfish.jersey.test.ServletDeploymentContext;
+import org.junit.Test;
+
+import javax.json.JsonObject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsResourceTest extends ResourceTest {
+
+    @Override
+    protected DeploymentContext configureDeployment() {
+        return ServletDeploymentContext.forServlet(new ServletContainer(
+                        new ResourceConfig(MetricsResource.class)
+                                .register(ApiFilter.class)
+                                .register(AuthenticationFilter.class)
+                                .register(AuthorizationFilter.class)))
+                .build();
+    }
+
+    @Test
+    public void getPortfolioCurrentMetricsTest() {
+        initializeWithPermissions(Permissions.VIEW_PORTFOLIO);
+
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+        final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
+
+        Response response = target(V1_METRICS + "/portfolio/current").request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        final String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(entityTag).isNotNull();
+        assertThat(parseJsonObject(response).getInt("critical")).isZero();
+
+        // Changes that were not made by a metrics update task are not visible, as metrics are served from cache.
+        qm.runInTransaction(() -> metrics.setCritical(1));
+
+        response = target(V1_METRICS + "/portfolio/current").request()
+                .header(X_API_KEY, apiKey)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeaderString(HttpHeaders.ETAG)).isEqualTo(entityTag);
+
+        response = target(V1_METRICS + "/portfolio/current").request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(parseJsonObject(response).getInt("critical")).isZero();
+    }
+
+    @Test
+    public void getPortfolioCurrentMetricsEmptyTest() {
+        initializeWithPermissions(Permissions.VIEW_PORTFOLIO);
+
+        final Response response = target(V1_METRICS + "/portfolio/current").request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaderString(HttpHeaders.ETAG)).isNull();
+    }
+
+    @Test
+    public void getProjectCurrentMetricsTest() {
+        initializeWithPermissions(Permissions.VIEW_PORTFOLIO);
+
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+        final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+
+        Response response = target(V1_METRICS + "/project/" + project.getUuid() + "/current").request()
+                .header(X_API_KEY, apiKey)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        final String entityTag = response.getHeaderString(HttpHeaders.ETAG);
+        assertThat(entityTag).isNotNull();
+        final JsonObject json = parseJsonObject(response);
+        assertThat(json.getInt("components")).isEqualTo(1);
+        assertThat(json.getJsonNumber("lastOccurrence").longValue()).isEqualTo(metrics.getLastOccurrence().getTime());
+
+        response = target(V1_METRICS + "/project/" + project.getUuid() + "/current").request()
+                .header(X_API_KEY, apiKey)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(304);
+
+        // Updating project metrics must invalidate the cached metrics, even if only their last occurrence changed.
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+
+        response = target(V1_METRICS + "/project/" + project.getUuid() + "/current").request()
+                .header(X_API_KEY, apiKey)
+                .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+                .get();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeaderString(HttpHeaders.ETAG)).isNotEqualTo(entityTag);
+        assertThat(parseJsonObject(response).getInt("components")).isEqualTo(1);
+    }
+
+}
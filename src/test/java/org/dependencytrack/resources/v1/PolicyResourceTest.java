@@ -23,6 +23,7 @@ import alpine.common.util.UuidUtil;
 import alpine.server.filters.ApiFilter;
 import alpine.server.filters.AuthenticationFilter;
 import org.dependencytrack.ResourceTest;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
@@ -137,6 +138,41 @@ public class PolicyResourceTest extends ResourceTest {
         assertThat(json.getBoolean("includeChildren")).isEqualTo(true);
     }
 
+    @Test
+    public void updatePolicyViolationStateTest() {
+        final Project project = qm.createProject("Acme Application", null, null, null, null, null, true, false);
+
+        Component component = new Component();
+        component.setProject(project);
+        component.setName("ABC");
+        component = qm.createComponent(component, false);
+
+        final Policy policy = qm.createPolicy("policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy, PolicyCondition.Subject.COORDINATES, PolicyCondition.Operator.MATCHES, "<coordinates>");
+
+        final var violation = new PolicyViolation();
+        violation.setComponent(component);
+        violation.setPolicyCondition(condition);
+        violation.setType(PolicyViolation.Type.OPERATIONAL);
+        violation.setTimestamp(new Date());
+        qm.addPolicyViolationIfNotExist(violation);
+        MetricsDeltaQueue.getInstance().drain();
+
+        final var jsonPolicy = new Policy();
+        jsonPolicy.setUuid(policy.getUuid());
+        jsonPolicy.setName("policy");
+        jsonPolicy.setOperator(Policy.Operator.ANY);
+        jsonPolicy.setViolationState(Policy.ViolationState.FAIL);
+        final Response response = target(V1_POLICY)
+                .request()
+                .header(X_API_KEY, apiKey)
+                .post(Entity.entity(jsonPolicy, MediaType.APPLICATION_JSON));
+        assertThat(response.getStatus()).isEqualTo(200);
+
+        // Metrics of the violating component change with the violation state of the policy.
+        assertThat(MetricsDeltaQueue.getInstance().drain()).containsOnly(component.getId());
+    }
+
     @Test
     public void deletePolicyTest() {
         final Policy policy = qm.createPolicy("policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
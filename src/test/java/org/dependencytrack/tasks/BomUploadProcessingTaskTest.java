@@ -20,17 +20,22 @@ package org.dependencytrack.tasks;
 
 import org.dependencytrack.PersistenceCapableTest;
 import org.dependencytrack.event.BomUploadEvent;
+import org.dependencytrack.event.BomUploadQueue;
 import org.dependencytrack.event.kafka.KafkaTopics;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ServiceComponent;
 import org.dependencytrack.util.KafkaTestUtil;
 import org.hyades.proto.notification.v1.BomProcessingFailedSubject;
 import org.hyades.proto.notification.v1.Notification;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.contrib.java.lang.system.EnvironmentVariables;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -45,6 +50,9 @@ import static org.hyades.proto.notification.v1.Scope.SCOPE_PORTFOLIO;
 
 public class BomUploadProcessingTaskTest extends PersistenceCapableTest {
 
+    @Rule
+    public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
     @Before
     public void setUp() {
         // Enable processing of CycloneDX BOMs
@@ -97,6 +105,243 @@ public class BomUploadProcessingTaskTest extends PersistenceCapableTest {
         assertThat(component.getLicenseUrl()).isEqualTo("https://www.apache.org/licenses/LICENSE-2.0.txt");
     }
 
+    @Test
+    public void informWithQueuedBomTest() throws Exception {
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final BomUploadEvent event;
+        try (final InputStream bomStream = getClass().getClassLoader().getResourceAsStream("bom-1.xml")) {
+            event = BomUploadQueue.getInstance().offer(project.getUuid(), bomStream).orElseThrow();
+        }
+
+        new BomUploadProcessingTask().inform(event);
+        assertConditionWithTimeout(() -> kafkaMockProducer.history().size() >= 5, Duration.ofSeconds(5));
+        assertThat(kafkaMockProducer.history()).satisfiesExactly(
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.NOTIFICATION_PROJECT_CREATED.name()),
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.NOTIFICATION_BOM_CONSUMED.name()),
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name()),
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.REPO_META_ANALYSIS_COMMAND.name()),
+                record -> assertThat(record.topic()).isEqualTo(KafkaTopics.NOTIFICATION_BOM_PROCESSED.name())
+        );
+
+        assertThat(qm.getAllComponents(project)).hasSize(1);
+        assertThat(event.getFile()).doesNotExist();
+    }
+
+    @Test
+    public void informWithStreamingEnabledTest() throws Exception {
+        environmentVariables.set("BOM_UPLOAD_PROCESSING_STREAMING_ENABLED", "true");
+
+        Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final byte[] bomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "components": [
+                    {
+                      "type": "library",
+                      "bom-ref": "foo",
+                      "group": "com.example",
+                      "name": "foo",
+                      "version": "1.0.0",
+                      "purl": "pkg:maven/com.example/foo@1.0.0",
+                      "components": [
+                        {
+                          "type": "library",
+                          "name": "foo-child",
+                          "version": "1.0.0",
+                          "purl": "pkg:maven/com.example/foo-child@1.0.0"
+                        }
+                      ]
+                    },
+                    {
+                      "type": "library",
+                      "bom-ref": "bar",
+                      "name": "bar",
+                      "version": "2.0.0",
+                      "purl": "pkg:maven/com.example/bar@2.0.0"
+                    }
+                  ],
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "metadata": {
+                    "component": {
+                      "type": "application",
+                      "bom-ref": "acme",
+                      "name": "Acme Example"
+                    }
+                  },
+                  "dependencies": [
+                    {
+                      "ref": "acme",
+                      "dependsOn": ["foo"]
+                    },
+                    {
+                      "ref": "foo",
+                      "dependsOn": ["bar"]
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        assertConditionWithTimeout(() -> kafkaMockProducer.history().size() >= 9, Duration.ofSeconds(5));
+        assertThat(kafkaMockProducer.history()).satisfiesExactly(
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.NOTIFICATION_PROJECT_CREATED.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.NOTIFICATION_BOM_CONSUMED.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.REPO_META_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.REPO_META_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.VULN_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.REPO_META_ANALYSIS_COMMAND.name()),
+                event -> assertThat(event.topic()).isEqualTo(KafkaTopics.NOTIFICATION_BOM_PROCESSED.name())
+        );
+
+        qm.getPersistenceManager().refresh(project);
+        assertThat(project.getClassifier()).isEqualTo(Classifier.APPLICATION);
+        assertThat(project.getLastBomImport()).isNotNull();
+
+        final List<Component> components = qm.getAllComponents(project);
+        assertThat(components).satisfiesExactlyInAnyOrder(
+                component -> assertThat(component.getName()).isEqualTo("bar"),
+                component -> {
+                    assertThat(component.getName()).isEqualTo("foo");
+                    assertThat(component.getPurl().canonicalize()).isEqualTo("pkg:maven/com.example/foo@1.0.0");
+                },
+                component -> {
+                    assertThat(component.getName()).isEqualTo("foo-child");
+                    assertThat(component.getParent()).isNotNull();
+                    assertThat(component.getParent().getName()).isEqualTo("foo");
+                }
+        );
+
+        final Component foo = components.stream().filter(component -> "foo".equals(component.getName())).findAny().orElseThrow();
+        final Component bar = components.stream().filter(component -> "bar".equals(component.getName())).findAny().orElseThrow();
+        assertThat(project.getDirectDependencies()).contains(foo.getUuid().toString());
+        assertThat(foo.getDirectDependencies()).contains(bar.getUuid().toString());
+    }
+
+    @Test
+    public void informWithExistingComponentsTest() throws Exception {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        var existingComponent = new Component();
+        existingComponent.setProject(project);
+        existingComponent.setGroup("com.example");
+        existingComponent.setName("foo");
+        existingComponent.setVersion("1.0.0");
+        existingComponent.setDescription("old description");
+        existingComponent.setPurl("pkg:maven/com.example/foo@1.0.0");
+        existingComponent = qm.createComponent(existingComponent, false);
+
+        final byte[] bomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "components": [
+                    {
+                      "type": "library",
+                      "group": "com.example",
+                      "name": "foo",
+                      "version": "1.0.0",
+                      "description": "new description",
+                      "purl": "pkg:maven/com.example/foo@1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "name": "bar",
+                      "version": "2.0.0",
+                      "purl": "pkg:maven/com.example/bar@2.0.0"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        assertConditionWithTimeout(() -> kafkaMockProducer.history().size() >= 7, Duration.ofSeconds(5));
+
+        qm.getPersistenceManager().evictAll();
+        final List<Component> components = qm.getAllComponents(project);
+        assertThat(components).hasSize(2);
+
+        final Component foo = components.stream().filter(component -> "foo".equals(component.getName())).findAny().orElseThrow();
+        assertThat(foo.getId()).isEqualTo(existingComponent.getId());
+        assertThat(foo.getUuid()).isEqualTo(existingComponent.getUuid());
+        assertThat(foo.getDescription()).isEqualTo("new description");
+    }
+
+    @Test
+    public void informWithStreamingEnabledAndServicesTest() throws Exception {
+        environmentVariables.set("BOM_UPLOAD_PROCESSING_STREAMING_ENABLED", "true");
+
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final byte[] bomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "services": [
+                    {
+                      "bom-ref": "foo-service",
+                      "name": "foo-service",
+                      "version": "1.0.0",
+                      "services": [
+                        {
+                          "bom-ref": "foo-child-service",
+                          "name": "foo-child-service",
+                          "version": "1.0.0"
+                        }
+                      ]
+                    },
+                    {
+                      "bom-ref": "bar-service",
+                      "name": "bar-service",
+                      "version": "2.0.0"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllServiceComponents(project)).satisfiesExactlyInAnyOrder(
+                service -> assertThat(service.getName()).isEqualTo("bar-service"),
+                service -> assertThat(service.getName()).isEqualTo("foo-service"),
+                service -> {
+                    assertThat(service.getName()).isEqualTo("foo-child-service");
+                    assertThat(service.getParent()).isNotNull();
+                    assertThat(service.getParent().getName()).isEqualTo("foo-service");
+                }
+        );
+        final ServiceComponent bar = qm.getAllServiceComponents(project).stream()
+                .filter(service -> "bar-service".equals(service.getName())).findAny().orElseThrow();
+
+        // Upload the BOM again, without the foo-service.
+        final byte[] updatedBomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 2,
+                  "services": [
+                    {
+                      "bom-ref": "bar-service",
+                      "name": "bar-service",
+                      "version": "2.0.0"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), updatedBomBytes));
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllServiceComponents(project)).satisfiesExactly(
+                service -> assertThat(service.getId()).isEqualTo(bar.getId())
+        );
+    }
+
     @Test
     public void informWithInvalidBomTest() throws Exception {
         Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
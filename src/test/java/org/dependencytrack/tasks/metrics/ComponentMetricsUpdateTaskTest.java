@@ -19,6 +19,7 @@
 package org.dependencytrack.tasks.metrics;
 
 import org.dependencytrack.event.ComponentMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
@@ -30,8 +31,10 @@ import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.AnalyzerIdentity;
+import org.dependencytrack.persistence.QueryManager;
 import org.junit.Test;
 
+import javax.jdo.PersistenceManager;
 import java.util.Date;
 import java.util.List;
 
@@ -325,4 +328,146 @@ public class ComponentMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(component.getLastInheritedRiskScore()).isEqualTo(8.0);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUpdateMetricsSkipsUnchangedComponent() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        // Record initial metrics, which also resets the change sequence.
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        final DependencyMetrics metrics = qm.getMostRecentDependencyMetrics(component);
+        assertThat(metrics.getVulnerabilities()).isZero();
+        assertThat(qm.getComponentMetricsChangeSequences(List.of(component.getId()))).containsEntry(component.getId(), 0L);
+
+        // Add a finding without marking the component as changed.
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        final Component finalComponent = component;
+        final Vulnerability finalVuln = vuln;
+        qm.runInTransaction(() -> finalComponent.addVulnerability(finalVuln));
+
+        // The component must be skipped; Only the lastOccurrence timestamp is updated.
+        final var beforeSecondRun = new Date();
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        qm.getPersistenceManager().refresh(metrics);
+        assertThat(qm.getMostRecentDependencyMetrics(component).getId()).isEqualTo(metrics.getId());
+        assertThat(metrics.getVulnerabilities()).isZero();
+        assertThat(metrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+
+        // Once the component is marked as changed, its metrics must be re-calculated.
+        qm.recordComponentMetricsChange(List.of(component.getId()));
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        assertThat(qm.getMostRecentDependencyMetrics(component).getVulnerabilities()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateMetricsDuringUncommittedChange() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        assertThat(qm.getMostRecentDependencyMetrics(component).getVulnerabilities()).isZero();
+        MetricsDeltaQueue.getInstance().drain();
+
+        try (final var otherQm = new QueryManager()) {
+            final PersistenceManager otherPm = otherQm.getPersistenceManager();
+            otherPm.currentTransaction().begin();
+            otherPm.getObjectById(Component.class, component.getId())
+                    .addVulnerability(otherPm.getObjectById(Vulnerability.class, vuln.getId()));
+            otherQm.recordComponentMetricsChange(List.of(component.getId()));
+
+            // The change is not visible yet, and the component must not be queued before it is.
+            new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+            assertThat(qm.getMostRecentDependencyMetrics(component).getVulnerabilities()).isZero();
+            assertThat(MetricsDeltaQueue.getInstance().drain()).isEmpty();
+
+            otherPm.currentTransaction().commit();
+        }
+
+        // The update that ran before the commit must not have caused the change to be skipped.
+        assertThat(MetricsDeltaQueue.getInstance().drain()).containsOnly(component.getId());
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        assertThat(qm.getMostRecentDependencyMetrics(component).getVulnerabilities()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateMetricsAfterSeverityChange() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        assertThat(qm.getMostRecentDependencyMetrics(component).getHigh()).isEqualTo(1);
+
+        // Changing the severity of a vulnerability must mark all affected components as changed.
+        final var transientVuln = new Vulnerability();
+        transientVuln.setVulnId("INTERNAL-001");
+        transientVuln.setSource(Vulnerability.Source.INTERNAL);
+        transientVuln.setSeverity(Severity.LOW);
+        qm.updateVulnerability(transientVuln, false);
+
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        final DependencyMetrics metrics = qm.getMostRecentDependencyMetrics(component);
+        assertThat(metrics.getHigh()).isZero();
+        assertThat(metrics.getLow()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateMetricsAfterPolicyDeletion() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        final PolicyViolation violation = createPolicyViolation(component, Policy.ViolationState.FAIL, PolicyViolation.Type.OPERATIONAL);
+
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        assertThat(qm.getMostRecentDependencyMetrics(component).getPolicyViolationsFail()).isEqualTo(1);
+
+        // Deleting the policy deletes its violations, and must mark the component as changed.
+        qm.deletePolicy(violation.getPolicyCondition().getPolicy());
+
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+        final DependencyMetrics metrics = qm.getMostRecentDependencyMetrics(component);
+        assertThat(metrics.getPolicyViolationsFail()).isZero();
+        assertThat(metrics.getPolicyViolationsTotal()).isZero();
+    }
+
+}
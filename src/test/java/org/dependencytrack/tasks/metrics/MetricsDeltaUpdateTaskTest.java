@@ -0,0 +1,185 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import alpine.event.framework.EventService;
+import org.dependencytrack.event.CallbackEvent;
+import org.dependencytrack.event.MetricsDeltaUpdateEvent;
+import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
+import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.AnalyzerIdentity;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.dependencytrack.model.Severity;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.tasks.CallbackTask;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsDeltaUpdateTaskTest extends AbstractMetricsUpdateTaskTest {
+
+    @BeforeClass
+    public static void setUpClass() {
+        EventService.getInstance().subscribe(ProjectMetricsUpdateEvent.class, ProjectMetricsUpdateTask.class);
+        EventService.getInstance().subscribe(CallbackEvent.class, CallbackTask.class);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        EventService.getInstance().unsubscribe(ProjectMetricsUpdateTask.class);
+        EventService.getInstance().unsubscribe(CallbackTask.class);
+    }
+
+    @Test
+    public void testUpdateMetrics() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA = qm.createComponent(componentA, false);
+
+        var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB = qm.createComponent(componentB, false);
+
+        // Record initial metrics
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics().getComponents()).isEqualTo(2);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        qm.addVulnerability(vuln, componentB, AnalyzerIdentity.NONE);
+        MetricsDeltaQueue.getInstance().add(componentB.getId());
+
+        new MetricsDeltaUpdateTask().inform(new MetricsDeltaUpdateEvent());
+        assertThat(MetricsDeltaQueue.getInstance().size()).isZero();
+
+        // Metrics of component A must not have been re-calculated
+        assertThat(qm.getDependencyMetrics(componentA).getTotal()).isEqualTo(1);
+
+        final DependencyMetrics componentMetrics = qm.getMostRecentDependencyMetrics(componentB);
+        assertThat(componentMetrics.getHigh()).isEqualTo(1);
+        assertThat(componentMetrics.getVulnerabilities()).isEqualTo(1);
+
+        ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getComponents()).isEqualTo(2);
+        assertThat(projectMetrics.getVulnerableComponents()).isEqualTo(1);
+        assertThat(projectMetrics.getHigh()).isEqualTo(1);
+        assertThat(projectMetrics.getFindingsTotal()).isEqualTo(1);
+        assertThat(projectMetrics.getFindingsUnaudited()).isEqualTo(1);
+        assertThat(projectMetrics.getInheritedRiskScore()).isEqualTo(5.0);
+
+        PortfolioMetrics portfolioMetrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(portfolioMetrics.getProjects()).isEqualTo(1);
+        assertThat(portfolioMetrics.getVulnerableProjects()).isEqualTo(1);
+        assertThat(portfolioMetrics.getComponents()).isEqualTo(2);
+        assertThat(portfolioMetrics.getVulnerableComponents()).isEqualTo(1);
+        assertThat(portfolioMetrics.getHigh()).isEqualTo(1);
+
+        // Suppressing the finding must enqueue the component again
+        qm.makeAnalysis(componentB, vuln, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+        assertThat(MetricsDeltaQueue.getInstance().size()).isEqualTo(1);
+
+        new MetricsDeltaUpdateTask().inform(new MetricsDeltaUpdateEvent());
+
+        projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getVulnerableComponents()).isZero();
+        assertThat(projectMetrics.getHigh()).isZero();
+        assertThat(projectMetrics.getSuppressed()).isEqualTo(1);
+        assertThat(projectMetrics.getInheritedRiskScore()).isZero();
+
+        portfolioMetrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(portfolioMetrics.getVulnerableProjects()).isZero();
+        assertThat(portfolioMetrics.getHigh()).isZero();
+        assertThat(portfolioMetrics.getSuppressed()).isEqualTo(1);
+
+        qm.getPersistenceManager().refresh(project);
+        assertThat(project.getLastInheritedRiskScore()).isZero();
+    }
+
+    @Test
+    public void testUpdateMetricsWaitsForConcurrentProjectUpdate() throws Exception {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        // Record initial metrics
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+        assertThat(MetricsDeltaQueue.getInstance().size()).isEqualTo(1);
+
+        final CompletableFuture<Void> deltaUpdate;
+        final Lock projectLock = MetricsUpdateLocks.lockProject(project.getUuid());
+        try {
+            deltaUpdate = CompletableFuture.runAsync(() -> new MetricsDeltaUpdateTask().inform(new MetricsDeltaUpdateEvent()));
+            Thread.sleep(500);
+            assertThat(deltaUpdate).isNotDone();
+
+            // Re-calculate project metrics while the incremental update is waiting for the project.
+            ProjectMetricsUpdateTask.updateMetrics(project.getUuid());
+        } finally {
+            projectLock.unlock();
+        }
+        deltaUpdate.get(5, TimeUnit.SECONDS);
+
+        // The finding has already been accounted for by the full update, and must not be counted twice.
+        final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getHigh()).isEqualTo(1);
+        assertThat(projectMetrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(projectMetrics.getVulnerableComponents()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateMetricsWithEmptyQueue() {
+        new MetricsDeltaUpdateTask().inform(new MetricsDeltaUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics()).isNull();
+    }
+
+}
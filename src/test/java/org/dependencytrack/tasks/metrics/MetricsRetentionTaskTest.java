@@ -0,0 +1,173 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import org.dependencytrack.event.MetricsRetentionEvent;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.PortfolioMetrics;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsRetentionTaskTest extends AbstractMetricsUpdateTaskTest {
+
+    @Test
+    public void testDownsampleProjectMetrics() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final Project otherProject = qm.createProject("acme-app-b", null, null, null, null, null, true, false);
+
+        final LocalDateTime rawDay = LocalDateTime.now(ZoneOffset.UTC).minusDays(1);
+        final LocalDateTime dailyDay = LocalDateTime.now(ZoneOffset.UTC).minusDays(40).toLocalDate().atStartOfDay();
+        final LocalDateTime weeklyDay = LocalDateTime.now(ZoneOffset.UTC).minusDays(400).toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+
+        // Raw metrics are retained as-is.
+        createProjectMetrics(project, rawDay.minusHours(2), rawDay.minusHours(1));
+        createProjectMetrics(project, rawDay, rawDay);
+
+        // Metrics older than the raw retention period are downsampled to one per day.
+        createProjectMetrics(project, dailyDay.plusHours(1), dailyDay.plusHours(2));
+        createProjectMetrics(project, dailyDay.plusHours(3), dailyDay.plusHours(4));
+        createProjectMetrics(project, dailyDay.plusHours(5), dailyDay.plusHours(6));
+        createProjectMetrics(project, dailyDay.plusDays(1), dailyDay.plusDays(1));
+
+        // Metrics older than the daily retention period are downsampled to one per week.
+        createProjectMetrics(project, weeklyDay.plusHours(1), weeklyDay.plusHours(2));
+        createProjectMetrics(project, weeklyDay.plusDays(1), weeklyDay.plusDays(1));
+        createProjectMetrics(project, weeklyDay.plusDays(2), weeklyDay.plusDays(2).plusHours(1));
+
+        // Metrics of other projects are downsampled separately.
+        createProjectMetrics(otherProject, dailyDay.plusHours(7), dailyDay.plusHours(8));
+
+        new MetricsRetentionTask(30, 365, 1).inform(new MetricsRetentionEvent());
+
+        qm.getPersistenceManager().evictAll();
+        final List<ProjectMetrics> metrics = qm.getProjectMetricsSince(project, toDate(weeklyDay.minusDays(1)));
+        assertThat(metrics).satisfiesExactly(
+                weekly -> {
+                    assertThat(weekly.getFirstOccurrence()).isEqualTo(toDate(weeklyDay.plusHours(1)));
+                    assertThat(weekly.getLastOccurrence()).isEqualTo(toDate(weeklyDay.plusDays(2).plusHours(1)));
+                },
+                daily -> {
+                    assertThat(daily.getFirstOccurrence()).isEqualTo(toDate(dailyDay.plusHours(1)));
+                    assertThat(daily.getLastOccurrence()).isEqualTo(toDate(dailyDay.plusHours(6)));
+                },
+                daily -> assertThat(daily.getLastOccurrence()).isEqualTo(toDate(dailyDay.plusDays(1))),
+                raw -> assertThat(raw.getLastOccurrence()).isEqualTo(toDate(rawDay.minusHours(1))),
+                raw -> assertThat(raw.getLastOccurrence()).isEqualTo(toDate(rawDay))
+        );
+        assertThat(qm.getProjectMetricsSince(otherProject, toDate(weeklyDay))).hasSize(1);
+    }
+
+    @Test
+    public void testDownsamplePortfolioAndDependencyMetrics() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        final LocalDateTime dailyDay = LocalDateTime.now(ZoneOffset.UTC).minusDays(40).toLocalDate().atStartOfDay();
+        for (int i = 0; i < 3; i++) {
+            final var portfolioMetrics = new PortfolioMetrics();
+            portfolioMetrics.setFirstOccurrence(toDate(dailyDay.plusHours(i)));
+            portfolioMetrics.setLastOccurrence(toDate(dailyDay.plusHours(i)));
+            qm.persist(portfolioMetrics);
+
+            final var dependencyMetrics = new DependencyMetrics();
+            dependencyMetrics.setProject(project);
+            dependencyMetrics.setComponent(component);
+            dependencyMetrics.setFirstOccurrence(toDate(dailyDay.plusHours(i)));
+            dependencyMetrics.setLastOccurrence(toDate(dailyDay.plusHours(i)));
+            qm.persist(dependencyMetrics);
+        }
+
+        new MetricsRetentionTask(30, 365, 1000).inform(new MetricsRetentionEvent());
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getPortfolioMetricsSince(toDate(dailyDay))).satisfiesExactly(metrics -> {
+            assertThat(metrics.getFirstOccurrence()).isEqualTo(toDate(dailyDay));
+            assertThat(metrics.getLastOccurrence()).isEqualTo(toDate(dailyDay.plusHours(2)));
+        });
+        assertThat(qm.getDependencyMetricsSince(component, toDate(dailyDay))).satisfiesExactly(metrics -> {
+            assertThat(metrics.getFirstOccurrence()).isEqualTo(toDate(dailyDay));
+            assertThat(metrics.getLastOccurrence()).isEqualTo(toDate(dailyDay.plusHours(2)));
+        });
+    }
+
+    @Test
+    public void testDownsampleDailyAndWeeklyBucketOfSameMonday() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+
+        // Choose the daily retention period such that its cutoff falls on a Monday.
+        final LocalDateTime monday = LocalDateTime.now(ZoneOffset.UTC).minusDays(40).toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        final int dailyRetentionDays = (int) ChronoUnit.DAYS.between(monday.toLocalDate(), LocalDate.now(ZoneOffset.UTC));
+
+        // Before the cutoff, and thus downsampled to the week starting on that Monday.
+        createProjectMetrics(project, monday, monday);
+        // After the cutoff, and thus downsampled to that Monday.
+        createProjectMetrics(project, monday.plusHours(23).plusMinutes(59), monday.plusHours(23).plusMinutes(59));
+
+        new MetricsRetentionTask(30, dailyRetentionDays, 1000).inform(new MetricsRetentionEvent());
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getProjectMetricsSince(project, toDate(monday.minusDays(1)))).satisfiesExactly(
+                weekly -> assertThat(weekly.getLastOccurrence()).isEqualTo(toDate(monday)),
+                daily -> assertThat(daily.getLastOccurrence()).isEqualTo(toDate(monday.plusHours(23).plusMinutes(59)))
+        );
+    }
+
+    @Test
+    public void testDownsampleDisabled() {
+        final Project project = qm.createProject("acme-app", null, null, null, null, null, true, false);
+        final LocalDateTime dailyDay = LocalDateTime.now(ZoneOffset.UTC).minusDays(40).toLocalDate().atStartOfDay();
+        createProjectMetrics(project, dailyDay.plusHours(1), dailyDay.plusHours(1));
+        createProjectMetrics(project, dailyDay.plusHours(2), dailyDay.plusHours(2));
+
+        new MetricsRetentionTask(0, 365, 1000).inform(new MetricsRetentionEvent());
+
+        assertThat(qm.getProjectMetricsSince(project, toDate(dailyDay))).hasSize(2);
+    }
+
+    private void createProjectMetrics(final Project project, final LocalDateTime firstOccurrence, final LocalDateTime lastOccurrence) {
+        final var metrics = new ProjectMetrics();
+        metrics.setProject(project);
+        metrics.setFirstOccurrence(toDate(firstOccurrence));
+        metrics.setLastOccurrence(toDate(lastOccurrence));
+        qm.persist(metrics);
+    }
+
+    private static Date toDate(final LocalDateTime dateTime) {
+        return Date.from(dateTime.toInstant(ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import alpine.Config;
+import alpine.persistence.JdoProperties;
+import alpine.server.persistence.PersistenceManagerFactory;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.datanucleus.PropertyNames;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDeltaQueue;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.persistence.QueryManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark for {@link ComponentMetricsUpdateTask}, {@link ProjectMetricsUpdateTask}, and {@link PortfolioMetricsUpdateTask}.
+ * <p>
+ * A synthetic portfolio of {@code projectCount} projects with {@code componentsPerProject} components each is generated
+ * in the embedded H2 database. Every component has {@code findingsPerComponent} findings, drawn from a pool of
+ * {@value #VULNERABILITY_POOL_SIZE} vulnerabilities. {@code aliasDensity} is the share of vulnerabilities that have an alias,
+ * which is reported for the same components, and {@code violationDensity} is the share of components with a policy violation.
+ * Before every invocation, a share of {@code changedRatio} of all components is marked as changed, such that both
+ * full re-calculations and skipped updates can be measured.
+ * <p>
+ * In addition to execution time, the number of SQL statements executed during each iteration is reported as
+ * {@code queries}. Divide it by {@code invocations} to get the number of SQL statements per invocation.
+ * Statements are counted by the JDBC {@link DataSource} as they are executed, such that repeated executions
+ * of the same SQL are counted individually. A batch counts as a single statement.
+ * <p>
+ * Benchmarks are not executed as part of the test suite. Run them via {@link #main(String[])}
+ * after {@code mvn -P enhance test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetricsUpdateBenchmark {
+
+    private static final int VULNERABILITY_POOL_SIZE = 1000;
+    private static final long RANDOM_SEED = 42;
+    private static final AtomicLong EXECUTED_STATEMENTS = new AtomicLong();
+
+    @Param({"10"})
+    public int projectCount;
+
+    @Param({"100", "1000"})
+    public int componentsPerProject;
+
+    @Param({"5"})
+    public int findingsPerComponent;
+
+    @Param({"0.1"})
+    public double aliasDensity;
+
+    @Param({"0.05"})
+    public double violationDensity;
+
+    @Param({"0.0", "1.0"})
+    public double changedRatio;
+
+    private QueryManager qm;
+    private final List<UUID> projectUuids = new ArrayList<>();
+    private final List<UUID> componentUuids = new ArrayList<>();
+    private List<Long> changedComponentIds;
+    private int nextProjectIndex;
+    private int nextComponentIndex;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class QueryCounter {
+
+        public long queries;
+        public long invocations;
+        private long queriesBefore;
+
+        @Setup(Level.Invocation)
+        public void setUp(final MetricsUpdateBenchmark benchmark) throws Exception {
+            queriesBefore = EXECUTED_STATEMENTS.get();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(final MetricsUpdateBenchmark benchmark) throws Exception {
+            queries += EXECUTED_STATEMENTS.get() - queriesBefore;
+            invocations++;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Config.enableUnitTests();
+        initPersistenceManagerFactory();
+        qm = new QueryManager();
+        final PersistenceManager pm = qm.getPersistenceManager();
+        final var random = new Random(RANDOM_SEED);
+
+        final var vulns = new ArrayList<Vulnerability>(VULNERABILITY_POOL_SIZE);
+        final var aliasedVulns = new ArrayList<Vulnerability>(VULNERABILITY_POOL_SIZE);
+        for (int i = 0; i < VULNERABILITY_POOL_SIZE; i++) {
+            final Severity severity = Severity.values()[random.nextInt(Severity.values().length)];
+            final Vulnerability vuln = createVulnerability("INT-" + i, Vulnerability.Source.INTERNAL, severity);
+            vulns.add(vuln);
+
+            if (random.nextDouble() < aliasDensity) {
+                final Vulnerability aliasedVuln = createVulnerability("GHSA-" + i, Vulnerability.Source.GITHUB, severity);
+                final var alias = new VulnerabilityAlias();
+                alias.setInternalId(vuln.getVulnId());
+                alias.setGhsaId(aliasedVuln.getVulnId());
+                qm.synchronizeVulnerabilityAlias(alias);
+                aliasedVulns.add(aliasedVuln);
+            } else {
+                aliasedVulns.add(null);
+            }
+        }
+
+        final Policy policy = qm.createPolicy("benchmark-policy", Policy.Operator.ANY, Policy.ViolationState.FAIL);
+        final PolicyCondition condition = qm.createPolicyCondition(policy,
+                PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        final var componentIds = new ArrayList<Long>();
+        for (int i = 0; i < projectCount; i++) {
+            var project = new Project();
+            project.setName("project-" + i);
+            project = qm.createProject(project, List.of(), false);
+            projectUuids.add(project.getUuid());
+
+            final var components = new ArrayList<Component>(componentsPerProject);
+            final var violations = new ArrayList<PolicyViolation>();
+            for (int j = 0; j < componentsPerProject; j++) {
+                final var component = new Component();
+                component.setProject(project);
+                component.setName("component-" + j);
+                component.setVersion("1.0");
+                for (int k = 0; k < findingsPerComponent; k++) {
+                    final int vulnIndex = random.nextInt(VULNERABILITY_POOL_SIZE);
+                    component.addVulnerability(vulns.get(vulnIndex));
+                    if (aliasedVulns.get(vulnIndex) != null) {
+                        component.addVulnerability(aliasedVulns.get(vulnIndex));
+                    }
+                }
+                components.add(component);
+
+                if (random.nextDouble() < violationDensity) {
+                    final var violation = new PolicyViolation();
+                    violation.setType(PolicyViolation.Type.OPERATIONAL);
+                    violation.setComponent(component);
+                    violation.setPolicyCondition(condition);
+                    violation.setTimestamp(new Date());
+                    violations.add(violation);
+                }
+            }
+            qm.runInTransaction(() -> {
+                pm.makePersistentAll(components);
+                pm.makePersistentAll(violations);
+            });
+
+            for (final Component component : components) {
+                componentUuids.add(component.getUuid());
+                componentIds.add(component.getId());
+            }
+        }
+
+        Collections.shuffle(componentIds, random);
+        changedComponentIds = List.copyOf(componentIds.subList(0, (int) (componentIds.size() * changedRatio)));
+
+        // Record initial metrics, such that subsequent updates only re-calculate components marked as changed.
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        qm.close();
+        PersistenceManagerFactory.tearDown();
+    }
+
+    @Setup(Level.Invocation)
+    public void markComponentsAsChanged() {
+        if (!changedComponentIds.isEmpty()) {
+            qm.recordComponentMetricsChange(changedComponentIds);
+        }
+
+        // Incremental updates are not part of this benchmark.
+        MetricsDeltaQueue.getInstance().drain();
+    }
+
+    @Benchmark
+    public Counters updateComponentMetrics(final QueryCounter queryCounter) throws Exception {
+        final UUID uuid = componentUuids.get(nextComponentIndex++ % componentUuids.size());
+        return ComponentMetricsUpdateTask.updateMetrics(uuid);
+    }
+
+    @Benchmark
+    public Counters updateProjectMetrics(final QueryCounter queryCounter) throws Exception {
+        final UUID uuid = projectUuids.get(nextProjectIndex++ % projectUuids.size());
+        return ProjectMetricsUpdateTask.updateMetrics(uuid);
+    }
+
+    @Benchmark
+    public void updatePortfolioMetrics(final QueryCounter queryCounter) {
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+    }
+
+    private Vulnerability createVulnerability(final String vulnId, final Vulnerability.Source source, final Severity severity) {
+        final var vuln = new Vulnerability();
+        vuln.setVulnId(vulnId);
+        vuln.setSource(source);
+        vuln.setSeverity(severity);
+        return qm.createVulnerability(vuln, false);
+    }
+
+    /**
+     * Initialize the {@link PersistenceManagerFactory} for the embedded H2 database, such that all
+     * connections are obtained from a {@link DataSource} that counts the statements executed on them.
+     */
+    private static void initPersistenceManagerFactory() {
+        final Properties properties = JdoProperties.unit();
+        final var h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL(properties.getProperty("javax.jdo.option.ConnectionURL"));
+        h2DataSource.setUser(properties.getProperty("javax.jdo.option.ConnectionUserName"));
+        h2DataSource.setPassword(properties.getProperty("javax.jdo.option.ConnectionPassword"));
+
+        final var hikariConfig = new HikariConfig();
+        hikariConfig.setDataSource((DataSource) countingProxy(DataSource.class, h2DataSource));
+        final var dataSource = new HikariDataSource(hikariConfig);
+        properties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY, dataSource);
+        properties.put(PropertyNames.PROPERTY_CONNECTION_FACTORY2, dataSource);
+
+        PersistenceManagerFactory.setJdoPersistenceManagerFactory(
+                (JDOPersistenceManagerFactory) JDOHelper.getPersistenceManagerFactory(properties, "Alpine"));
+    }
+
+    /**
+     * Wrap a {@link DataSource}, {@link Connection}, or {@link Statement}, such that executions of statements
+     * created through it are counted in {@link #EXECUTED_STATEMENTS}.
+     */
+    private static Object countingProxy(final Class<?> type, final Object delegate) {
+        return Proxy.newProxyInstance(MetricsUpdateBenchmark.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                EXECUTED_STATEMENTS.incrementAndGet();
+            }
+
+            final Object result;
+            try {
+                result = method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            final Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return countingProxy(returnType, result);
+            }
+            return result;
+        });
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MetricsUpdateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
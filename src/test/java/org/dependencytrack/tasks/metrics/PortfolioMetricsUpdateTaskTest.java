@@ -40,6 +40,10 @@ import org.junit.Test;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -196,6 +200,39 @@ public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(componentSuppressed.getLastInheritedRiskScore()).isZero();
     }
 
+    @Test
+    public void testUpdateMetricsWithLimitedConcurrency() {
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.CRITICAL);
+        vuln = qm.createVulnerability(vuln, false);
+
+        for (int i = 0; i < 5; i++) {
+            var project = new Project();
+            project.setName("acme-app-" + i);
+            project = qm.createProject(project, List.of(), false);
+
+            var component = new Component();
+            component.setProject(project);
+            component.setName("acme-lib");
+            component = qm.createComponent(component, false);
+            if (i % 2 == 0) {
+                qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+            }
+        }
+
+        new PortfolioMetricsUpdateTask(2).inform(new PortfolioMetricsUpdateEvent());
+
+        final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(metrics.getProjects()).isEqualTo(5);
+        assertThat(metrics.getVulnerableProjects()).isEqualTo(3);
+        assertThat(metrics.getComponents()).isEqualTo(5);
+        assertThat(metrics.getVulnerableComponents()).isEqualTo(3);
+        assertThat(metrics.getCritical()).isEqualTo(3);
+        assertThat(metrics.getInheritedRiskScore()).isEqualTo(30.0);
+    }
+
     @Test
     public void testUpdateMetricsPolicyViolations() {
         // Create a project with an unaudited violation.
@@ -274,4 +311,52 @@ public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(componentSuppressed.getLastInheritedRiskScore()).isZero();
     }
 
+
+    @Test
+    public void testUpdateMetricsAppliesConcurrentDelta() throws Exception {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+
+        // Record initial metrics
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics().getHigh()).isZero();
+
+        final CompletableFuture<Void> fullUpdate;
+        final Lock portfolioLock = MetricsUpdateLocks.lockPortfolio();
+        try {
+            // Wait for the full update to have collected metrics of the project.
+            fullUpdate = CompletableFuture.runAsync(() -> new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent()));
+            while (!((ReentrantLock) portfolioLock).hasQueuedThreads()) {
+                Thread.sleep(10);
+            }
+
+            // Apply a delta to the portfolio metrics that the full update is about to replace.
+            qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+            MetricsDeltaUpdateTask.updateMetrics(List.of(component.getId()));
+            assertThat(qm.getMostRecentPortfolioMetrics().getHigh()).isEqualTo(1);
+        } finally {
+            portfolioLock.unlock();
+        }
+        fullUpdate.get(5, TimeUnit.SECONDS);
+
+        // The delta must not have been overwritten by the full update.
+        final PortfolioMetrics metrics = qm.getMostRecentPortfolioMetrics();
+        assertThat(metrics.getHigh()).isEqualTo(1);
+        assertThat(metrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(metrics.getVulnerableComponents()).isEqualTo(1);
+        assertThat(metrics.getVulnerableProjects()).isEqualTo(1);
+    }
+
 }
\ No newline at end of file
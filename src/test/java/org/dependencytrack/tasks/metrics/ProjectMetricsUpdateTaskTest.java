@@ -22,6 +22,7 @@ import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.AnalyzerIdentity;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
@@ -101,6 +102,56 @@ public class ProjectMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest
         assertThat(metrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
     }
 
+    @Test
+    public void testUpdateMetricsOnlyRecordsChangedComponents() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA = qm.createComponent(componentA, false);
+
+        var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB = qm.createComponent(componentB, false);
+
+        // Record initial metrics
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+        assertThat(qm.getDependencyMetrics(componentA).getTotal()).isEqualTo(1);
+        assertThat(qm.getDependencyMetrics(componentB).getTotal()).isEqualTo(1);
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        qm.addVulnerability(vuln, componentB, AnalyzerIdentity.NONE);
+
+        final var beforeSecondRun = new Date();
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+
+        // Only the metrics of the component that changed must have been recorded anew
+        assertThat(qm.getDependencyMetrics(componentA).getTotal()).isEqualTo(1);
+        assertThat(qm.getDependencyMetrics(componentB).getTotal()).isEqualTo(2);
+
+        final DependencyMetrics metricsA = qm.getMostRecentDependencyMetrics(componentA);
+        qm.getPersistenceManager().refresh(metricsA);
+        assertThat(metricsA.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+        assertThat(metricsA.getVulnerabilities()).isZero();
+
+        final DependencyMetrics metricsB = qm.getMostRecentDependencyMetrics(componentB);
+        assertThat(metricsB.getFirstOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+        assertThat(metricsB.getHigh()).isEqualTo(1);
+
+        final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(projectMetrics.getComponents()).isEqualTo(2);
+        assertThat(projectMetrics.getVulnerableComponents()).isEqualTo(1);
+        assertThat(projectMetrics.getHigh()).isEqualTo(1);
+    }
+
     @Test
     public void testUpdateMetricsVulnerabilities() {
         var project = new Project();
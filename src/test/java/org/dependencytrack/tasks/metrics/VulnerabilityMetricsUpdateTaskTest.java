@@ -48,8 +48,6 @@ public class VulnerabilityMetricsUpdateTaskTest extends PersistenceCapableTest {
     @Test
     public void testUpdateMetrics() {
         try (final var qm = new QueryManager()) {
-            // Test that paging works by creating more vulnerabilities
-            // than fit on a single page (of size 500).
             for (int i = 0; i < 750; i++) {
                 final var vuln = new Vulnerability();
                 vuln.setVulnId("INTERNAL-" + i);
@@ -81,4 +79,57 @@ public class VulnerabilityMetricsUpdateTaskTest extends PersistenceCapableTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUpdateMetricsWithPublishedFallback() {
+        try (final var qm = new QueryManager()) {
+            var vuln = new Vulnerability();
+            vuln.setVulnId("INTERNAL-001");
+            vuln.setSource(Vulnerability.Source.INTERNAL);
+            vuln.setCreated(Date.from(LocalDateTime.of(2020, 1, 15, 12, 0, 0).toInstant(ZoneOffset.UTC)));
+            vuln.setPublished(Date.from(LocalDateTime.of(2019, 6, 15, 12, 0, 0).toInstant(ZoneOffset.UTC)));
+            qm.createVulnerability(vuln, false);
+
+            vuln = new Vulnerability();
+            vuln.setVulnId("INTERNAL-002");
+            vuln.setSource(Vulnerability.Source.INTERNAL);
+            vuln.setPublished(Date.from(LocalDateTime.of(2020, 12, 15, 12, 0, 0).toInstant(ZoneOffset.UTC)));
+            qm.createVulnerability(vuln, false);
+
+            // Neither created nor published; Not counted.
+            vuln = new Vulnerability();
+            vuln.setVulnId("INTERNAL-003");
+            vuln.setSource(Vulnerability.Source.INTERNAL);
+            qm.createVulnerability(vuln, false);
+
+            // Existing metrics are updated rather than duplicated.
+            final var existingMetrics = new VulnerabilityMetrics();
+            existingMetrics.setYear(2020);
+            existingMetrics.setCount(666);
+            existingMetrics.setMeasuredAt(new Date());
+            qm.persist(existingMetrics);
+        }
+
+        new VulnerabilityMetricsUpdateTask().inform(new VulnerabilityMetricsUpdateEvent());
+
+        try (final var qm = new QueryManager()) {
+            assertThat(qm.getVulnerabilityMetrics()).satisfiesExactlyInAnyOrder(
+                    vm -> {
+                        assertThat(vm.getYear()).isEqualTo(2020);
+                        assertThat(vm.getMonth()).isNull();
+                        assertThat(vm.getCount()).isEqualTo(2);
+                    },
+                    vm -> {
+                        assertThat(vm.getYear()).isEqualTo(2020);
+                        assertThat(vm.getMonth()).isEqualTo(1);
+                        assertThat(vm.getCount()).isEqualTo(1);
+                    },
+                    vm -> {
+                        assertThat(vm.getYear()).isEqualTo(2020);
+                        assertThat(vm.getMonth()).isEqualTo(12);
+                        assertThat(vm.getCount()).isEqualTo(1);
+                    }
+            );
+        }
+    }
+
+}
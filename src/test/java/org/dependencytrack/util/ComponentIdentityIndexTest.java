@@ -0,0 +1,79 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import com.github.packageurl.PackageURL;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentIdentity;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentIdentityIndexTest {
+
+    @Test
+    public void testMatch() throws Exception {
+        final var componentA = new Component();
+        componentA.setId(1);
+        componentA.setName("acme-lib");
+        componentA.setVersion("1.0.0");
+        componentA.setPurl(new PackageURL("pkg:maven/com.acme/acme-lib@1.0.0?type=jar"));
+        componentA.setPurlCoordinates(new PackageURL("pkg:maven/com.acme/acme-lib@1.0.0"));
+
+        final var componentB = new Component();
+        componentB.setId(2);
+        componentB.setName("acme-app");
+        componentB.setVersion("2.0.0");
+        componentB.setCpe("cpe:2.3:a:acme:acme-app:2.0.0:*:*:*:*:*:*:*");
+
+        final var componentC = new Component();
+        componentC.setId(3);
+        componentC.setName("acme-tool");
+        componentC.setSwidTagId("swidgen-acme-tool");
+
+        final var index = new ComponentIdentityIndex(List.of(componentA, componentB, componentC));
+
+        // Exact PURL match.
+        assertThat(index.match(new ComponentIdentity(new PackageURL("pkg:maven/com.acme/acme-lib@1.0.0?type=jar"),
+                null, null, null, "foo", null))).isEqualTo(1L);
+
+        // PURL coordinates match, qualifiers differ.
+        assertThat(index.match(new ComponentIdentity(new PackageURL("pkg:maven/com.acme/acme-lib@1.0.0?type=pom"),
+                null, null, null, "foo", null))).isEqualTo(1L);
+
+        // CPE match.
+        assertThat(index.match(new ComponentIdentity(null, "cpe:2.3:a:acme:acme-app:2.0.0:*:*:*:*:*:*:*",
+                null, null, "foo", null))).isEqualTo(2L);
+
+        // SWID tag ID match.
+        assertThat(index.match(new ComponentIdentity(null, null, "swidgen-acme-tool",
+                null, "foo", null))).isEqualTo(3L);
+
+        // Group, name, and version match; group is null on both sides.
+        assertThat(index.match(new ComponentIdentity(null, null, null,
+                null, "acme-app", "2.0.0"))).isEqualTo(2L);
+
+        // No match.
+        assertThat(index.match(new ComponentIdentity(new PackageURL("pkg:maven/com.acme/acme-lib@1.0.1"),
+                null, null, null, "acme-lib", "1.0.1"))).isNull();
+    }
+
+}
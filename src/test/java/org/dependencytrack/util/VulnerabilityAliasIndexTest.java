@@ -0,0 +1,115 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.VulnIdAndSource;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerabilityAliasIndexTest extends PersistenceCapableTest {
+
+    @Test
+    public void testGetAliases() {
+        final var alias = new VulnerabilityAlias();
+        alias.setCveId("CVE-100");
+        alias.setGhsaId("GHSA-100");
+        qm.synchronizeVulnerabilityAlias(alias);
+
+        final var index = new VulnerabilityAliasIndex(10, Duration.ofMinutes(1));
+        final var cveKey = new VulnIdAndSource("CVE-100", "NVD");
+        final var ghsaKey = new VulnIdAndSource("GHSA-100", "GITHUB");
+        final var unknownKey = new VulnIdAndSource("CVE-200", "NVD");
+
+        final Map<VulnIdAndSource, List<VulnerabilityAlias>> aliases = index.getAliases(qm, Set.of(cveKey, ghsaKey, unknownKey));
+        assertThat(aliases).hasSize(3);
+        assertThat(aliases.get(cveKey)).satisfiesExactly(indexedAlias -> {
+            assertThat(indexedAlias.getCveId()).isEqualTo("CVE-100");
+            assertThat(indexedAlias.getGhsaId()).isEqualTo("GHSA-100");
+        });
+        assertThat(aliases.get(ghsaKey)).hasSize(1);
+        assertThat(aliases.get(unknownKey)).isEmpty();
+
+        assertThat(VulnerabilityAliasIndex.getAliasIdentifiers(aliases.get(cveKey))).containsExactlyInAnyOrder(cveKey, ghsaKey);
+    }
+
+    @Test
+    public void testGetAliasesFromIndex() {
+        final var index = new VulnerabilityAliasIndex(10, Duration.ofMinutes(1));
+        final var cveKey = new VulnIdAndSource("CVE-100", "NVD");
+        assertThat(index.getAliases(qm, cveKey)).isEmpty();
+
+        // Not synchronized, thus not known to the index.
+        final var alias = new VulnerabilityAlias();
+        alias.setCveId("CVE-100");
+        alias.setGhsaId("GHSA-100");
+        qm.persist(alias);
+        assertThat(index.getAliases(qm, cveKey)).isEmpty();
+
+        index.invalidate(alias);
+        assertThat(index.getAliases(qm, cveKey)).hasSize(1);
+    }
+
+    @Test
+    public void testInvalidateOnSynchronize() {
+        final var cveKey = new VulnIdAndSource("CVE-100", "NVD");
+        assertThat(VulnerabilityAliasIndex.getInstance().getAliases(qm, cveKey)).isEmpty();
+
+        final var alias = new VulnerabilityAlias();
+        alias.setCveId("CVE-100");
+        alias.setGhsaId("GHSA-100");
+        qm.synchronizeVulnerabilityAlias(alias);
+        assertThat(VulnerabilityAliasIndex.getInstance().getAliases(qm, cveKey)).hasSize(1);
+
+        final var otherAlias = new VulnerabilityAlias();
+        otherAlias.setCveId("CVE-100");
+        otherAlias.setOsvId("OSV-100");
+        qm.synchronizeVulnerabilityAlias(otherAlias);
+        assertThat(VulnerabilityAliasIndex.getInstance().getAliases(qm, cveKey)).satisfiesExactly(indexedAlias ->
+                assertThat(indexedAlias.getOsvId()).isEqualTo("OSV-100"));
+    }
+
+    @Test
+    public void testInvalidatePreviousIdentifiersOnSynchronize() {
+        final var alias = new VulnerabilityAlias();
+        alias.setCveId("CVE-100");
+        alias.setGhsaId("GHSA-100");
+        qm.synchronizeVulnerabilityAlias(alias);
+
+        final var ghsaKey = new VulnIdAndSource("GHSA-100", "GITHUB");
+        assertThat(VulnerabilityAliasIndex.getInstance().getAliases(qm, ghsaKey)).satisfiesExactly(indexedAlias ->
+                assertThat(indexedAlias.getOsvId()).isNull());
+
+        // Not reported as alias of GHSA-100 again, but the existing alias is still modified.
+        final var otherAlias = new VulnerabilityAlias();
+        otherAlias.setCveId("CVE-100");
+        otherAlias.setOsvId("OSV-100");
+        qm.synchronizeVulnerabilityAlias(otherAlias);
+        assertThat(VulnerabilityAliasIndex.getInstance().getAliases(qm, ghsaKey)).satisfiesExactly(indexedAlias ->
+                assertThat(indexedAlias.getOsvId()).isEqualTo("OSV-100"));
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerabilityLookupCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+        final var cache = new VulnerabilityLookupCache(10, Duration.ofMinutes(1));
+        assertThat(cache.get("NVD", "CVE-001")).isNull();
+
+        cache.put("NVD", "CVE-001", 1, "hash");
+        assertThat(cache.get("NVD", "CVE-001")).isEqualTo(new VulnerabilityLookupCache.Entry(1, "hash"));
+        assertThat(cache.get("GITHUB", "CVE-001")).isNull();
+
+        cache.put("NVD", "CVE-001", 1, "otherHash");
+        assertThat(cache.get("NVD", "CVE-001")).isEqualTo(new VulnerabilityLookupCache.Entry(1, "otherHash"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final var cache = new VulnerabilityLookupCache(10, Duration.ofMinutes(1));
+        cache.put("NVD", "CVE-001", 1, "hash");
+        cache.put("NVD", "CVE-002", 2, "hash");
+
+        cache.invalidate("NVD", "CVE-001");
+        assertThat(cache.get("NVD", "CVE-001")).isNull();
+        assertThat(cache.get("NVD", "CVE-002")).isNotNull();
+
+        cache.invalidateAll();
+        assertThat(cache.get("NVD", "CVE-002")).isNull();
+    }
+
+}
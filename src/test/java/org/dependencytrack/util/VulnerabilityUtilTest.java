@@ -55,6 +55,38 @@ public class VulnerabilityUtilTest {
         assertThat(VulnerabilityUtil.getUniqueAliases(new Vulnerability())).isEmpty();
     }
 
+    @Test
+    public void testComputeContentHash() {
+        final var vulnA = new Vulnerability();
+        vulnA.setVulnId("CVE-001");
+        vulnA.setSource(Vulnerability.Source.NVD);
+        vulnA.setDescription("description");
+        vulnA.setCvssV3BaseScore(BigDecimal.valueOf(9.8));
+
+        final var vulnB = new Vulnerability();
+        vulnB.setVulnId("CVE-001");
+        vulnB.setSource(Vulnerability.Source.NVD);
+        vulnB.setDescription("description");
+        vulnB.setCvssV3BaseScore(new BigDecimal("9.80"));
+
+        assertThat(VulnerabilityUtil.computeContentHash(vulnA)).hasSize(64);
+        assertThat(VulnerabilityUtil.computeContentHash(vulnA)).isEqualTo(VulnerabilityUtil.computeContentHash(vulnB));
+
+        vulnB.setDescription("other description");
+        assertThat(VulnerabilityUtil.computeContentHash(vulnA)).isNotEqualTo(VulnerabilityUtil.computeContentHash(vulnB));
+
+        // Values must not blend into adjacent fields.
+        vulnA.setDescription(null);
+        vulnA.setDetail("description");
+        vulnB.setDescription("description");
+        vulnB.setDetail(null);
+        assertThat(VulnerabilityUtil.computeContentHash(vulnA)).isNotEqualTo(VulnerabilityUtil.computeContentHash(vulnB));
+
+        vulnA.setDetail("");
+        vulnB.setDescription(null);
+        assertThat(VulnerabilityUtil.computeContentHash(vulnA)).isNotEqualTo(VulnerabilityUtil.computeContentHash(vulnB));
+    }
+
     @Test
     @Parameters(method = "cvss2ScoreSource")
     public void testNormalizedCvssV2Score(double score, Severity severity) {